@@ -103,7 +103,8 @@ const reports = [
         fields: [
             {name: 'typeSearch', type: 'radio', labelKey: 'fields.typeSearch.label', options: typeSearchOptions, defaultValue: 'pages'},
             {name: 'typeAuthor', type: 'radio', labelKey: 'fields.typeAuthor.label', options: typeAuthorOptions, defaultValue: 'created'},
-            {name: 'pathTxt', type: 'path', labelKey: 'fields.path', defaultValue: PATH_DEFAULT, required: true}
+            {name: 'pathTxt', type: 'path', labelKey: 'fields.path', defaultValue: PATH_DEFAULT, required: true},
+            {name: 'author', type: 'text', labelKey: 'fields.username'}
         ]
     },
     {
@@ -174,10 +175,10 @@ const reports = [
             {name: 'pathTxtDestination', type: 'path', labelKey: 'fields.destinationPath', defaultValue: PATH_DEFAULT, required: true}
         ],
         columns: [
-            {key: 'type', labelKey: 'reports.references.columns.type', sortable: true},
-            {key: 'referencedPath', labelKey: 'reports.references.columns.referencedPath', sortable: true},
-            {key: 'referencePath', labelKey: 'reports.references.columns.referencePath', sortable: true},
-            {key: 'lastModified', labelKey: 'reports.references.columns.lastModified', sortable: true, type: 'date'},
+            {key: 'type', labelKey: 'reports.references.columns.type', sortable: false},
+            {key: 'referencedPath', labelKey: 'reports.references.columns.referencedPath', sortable: false},
+            {key: 'referencePath', labelKey: 'reports.references.columns.referencePath', sortable: false},
+            {key: 'lastModified', labelKey: 'reports.references.columns.lastModified', sortable: false, type: 'date'},
             {key: 'link', labelKey: 'reports.references.columns.link', sortable: false, type: 'link'}
         ]
     },
@@ -210,9 +211,9 @@ const reports = [
             {key: 'title', labelKey: 'reports.contentWaitingPublication.columns.title', sortable: true},
             {key: 'type', labelKey: 'reports.contentWaitingPublication.columns.type', sortable: true},
             {key: 'path', labelKey: 'reports.contentWaitingPublication.columns.path', sortable: true},
-            {key: 'workflowStarted', labelKey: 'reports.contentWaitingPublication.columns.workflowStarted', sortable: true, type: 'date'},
-            {key: 'workflowName', labelKey: 'reports.contentWaitingPublication.columns.workflowName', sortable: true},
-            {key: 'workflowType', labelKey: 'reports.contentWaitingPublication.columns.workflowType', sortable: true}
+            {key: 'workflowStarted', labelKey: 'reports.contentWaitingPublication.columns.workflowStarted', sortable: false, type: 'date'},
+            {key: 'workflowName', labelKey: 'reports.contentWaitingPublication.columns.workflowName', sortable: false},
+            {key: 'workflowType', labelKey: 'reports.contentWaitingPublication.columns.workflowType', sortable: false}
         ]
     },
     {
@@ -229,9 +230,9 @@ const reports = [
             {key: 'nodeDisplayableName', labelKey: 'reports.markedForDeletion.columns.title', sortable: true},
             {key: 'nodeType', labelKey: 'reports.markedForDeletion.columns.type', sortable: true},
             {key: 'nodePath', labelKey: 'reports.markedForDeletion.columns.path', sortable: true},
-            {key: 'nodeUsedInPagePath', labelKey: 'reports.markedForDeletion.columns.page', sortable: true, type: 'link'},
-            {key: 'subNodesMarkedForDeletion', labelKey: 'reports.markedForDeletion.columns.subNodesDeleted', sortable: true},
-            {key: 'publishStatus', labelKey: 'reports.markedForDeletion.columns.published', sortable: true}
+            {key: 'nodeUsedInPagePath', labelKey: 'reports.markedForDeletion.columns.page', sortable: false, type: 'link'},
+            {key: 'subNodesMarkedForDeletion', labelKey: 'reports.markedForDeletion.columns.subNodesDeleted', sortable: false},
+            {key: 'publishStatus', labelKey: 'reports.markedForDeletion.columns.published', sortable: false}
         ]
     },
     {
@@ -271,11 +272,11 @@ const reports = [
         ],
         columns: [
             {key: 'name', labelKey: 'reports.liveContents.columns.name', sortable: true},
-            {key: 'path', labelKey: 'reports.liveContents.columns.path', sortable: true, type: 'link'},
+            {key: 'path', labelKey: 'reports.liveContents.columns.path', sortable: false, type: 'link'},
             {key: 'type', labelKey: 'reports.liveContents.columns.type', sortable: true, type: 'html'},
-            {key: 'listOfConditions', labelKey: 'reports.liveContents.columns.listOfConditions', sortable: true, type: 'html', noWrap: false},
-            {key: 'isConditionMatched', labelKey: 'reports.liveContents.columns.isConditionMatched', sortable: true},
-            {key: 'currentStatus', labelKey: 'reports.liveContents.columns.currentStatus', sortable: true}
+            {key: 'listOfConditions', labelKey: 'reports.liveContents.columns.listOfConditions', sortable: false, type: 'html', noWrap: false},
+            {key: 'isConditionMatched', labelKey: 'reports.liveContents.columns.isConditionMatched', sortable: false},
+            {key: 'currentStatus', labelKey: 'reports.liveContents.columns.currentStatus', sortable: false}
         ]
     },
     {
@@ -289,7 +290,7 @@ const reports = [
         ],
         columns: [
             {key: 'name', labelKey: 'reports.expiredContents.columns.name', sortable: true},
-            {key: 'path', labelKey: 'reports.expiredContents.columns.path', sortable: true, type: 'link'},
+            {key: 'path', labelKey: 'reports.expiredContents.columns.path', sortable: false, type: 'link'},
             {key: 'type', labelKey: 'reports.expiredContents.columns.type', sortable: true, type: 'html'},
             {key: 'expiresOn', labelKey: 'reports.expiredContents.columns.expiresOn', sortable: true, type: 'date'}
         ]
@@ -305,7 +306,7 @@ const reports = [
         ],
         columns: [
             {key: 'name', labelKey: 'reports.futureContents.columns.name', sortable: true},
-            {key: 'path', labelKey: 'reports.futureContents.columns.path', sortable: true, type: 'link'},
+            {key: 'path', labelKey: 'reports.futureContents.columns.path', sortable: false, type: 'link'},
             {key: 'type', labelKey: 'reports.futureContents.columns.type', sortable: true, type: 'html'},
             {key: 'liveDate', labelKey: 'reports.futureContents.columns.liveDate', sortable: true, type: 'date'}
         ]
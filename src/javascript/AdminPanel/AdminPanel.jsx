@@ -8,6 +8,9 @@ import ReportResultsTable from './reports/ReportResultsTable';
 import styles from './AdminPanel.module.scss';
 import {OVERVIEW_QUERY, RAW_REPORT_QUERY, GET_SITE_LANGUAGES_QUERY, GET_ALL_USERS_QUERY} from '../graphql/queries';
 
+// Rows fetched from the server for each page of a report
+const DEFAULT_ROWS_PER_PAGE = 50;
+
 const overviewStyles = {
     grid: {display: 'grid', gridTemplateColumns: 'repeat(auto-fit, minmax(200px, 1fr))', gap: '16px', marginTop: '16px'},
     card: {padding: '16px', borderRadius: '6px', background: '#ffffff', border: '1px solid #e1e7f5', boxShadow: '0 1px 2px rgba(0,0,0,0.05)'},
@@ -123,8 +126,8 @@ const tryParseJSON = value => {
                 });
 
                 return {
-                    recordsTotal: parsed.totalContent || data.length,
-                    recordsFiltered: parsed.totalContent || data.length,
+                    recordsTotal: parsed.recordsTotal || parsed.totalContent || data.length,
+                    recordsFiltered: parsed.recordsTotal || parsed.totalContent || data.length,
                     data: data
                 };
             }
@@ -192,6 +195,11 @@ const OverviewResult = ({data, labelKey, descriptionKey, isLoading, lastUpdated,
             {data && (
                 <div>
                     <div style={{color: '#2c3e5d', fontWeight: '600', fontSize: '16px', marginBottom: '16px'}}>{data.siteDisplayableName || data.siteName}</div>
+                    {data.partial && (
+                        <div style={{color: '#b3611b', fontSize: '13px', marginBottom: '16px'}}>
+                            {t('result.partialOverview', {metrics: (data.partialMetrics || []).join(', ')})}
+                        </div>
+                    )}
                     <div style={overviewStyles.grid}>
                         {metrics.map(item => (
                             <div key={item.label} style={overviewStyles.card}>
@@ -353,7 +361,9 @@ OverviewResult.propTypes = {
         topContributors: PropTypes.arrayOf(PropTypes.shape({
             username: PropTypes.string,
             contentCount: PropTypes.number
-        }))
+        })),
+        partial: PropTypes.bool,
+        partialMetrics: PropTypes.arrayOf(PropTypes.string)
     }),
     labelKey: PropTypes.string.isRequired,
     descriptionKey: PropTypes.string,
@@ -362,7 +372,25 @@ OverviewResult.propTypes = {
     t: PropTypes.func.isRequired
 };
 
-const RawResult = ({result, siteKey, language, labelKey, selectedReport, t}) => {
+// Page and order of the rows requested to the server
+// cursors holds, by page number, the cursor returned by the previous page for the current order
+const PAGING_PROP_TYPE = PropTypes.shape({
+    page: PropTypes.number.isRequired,
+    rowsPerPage: PropTypes.number.isRequired,
+    sortColumn: PropTypes.number,
+    sortDirection: PropTypes.string.isRequired,
+    cursors: PropTypes.objectOf(PropTypes.string).isRequired
+});
+
+const buildInitialPaging = report => ({
+    page: 1,
+    rowsPerPage: report?.defaultLimit ?? DEFAULT_ROWS_PER_PAGE,
+    sortColumn: report?.defaultSortColumn ?? null,
+    sortDirection: report?.defaultSortDirection ?? 'asc',
+    cursors: {}
+});
+
+const RawResult = ({result, siteKey, language, labelKey, selectedReport, paging, onPagingChange, fetchAllRows, t}) => {
     if (!result) {
         return null;
     }
@@ -384,6 +412,14 @@ const RawResult = ({result, siteKey, language, labelKey, selectedReport, t}) =>
                     columns={selectedReport?.columns}
                     reportId={selectedReport?.id}
                     reportType={selectedReport?.type}
+                    currentPage={paging.page}
+                    rowsPerPage={paging.rowsPerPage}
+                    sortColumn={paging.sortColumn}
+                    sortDirection={paging.sortDirection}
+                    fetchAllRows={fetchAllRows}
+                    onPageChange={page => onPagingChange({...paging, page})}
+                    onRowsPerPageChange={rowsPerPage => onPagingChange({...paging, page: 1, rowsPerPage, cursors: {}})}
+                    onSortChange={(sortColumn, sortDirection) => onPagingChange({...paging, page: 1, sortColumn, sortDirection, cursors: {}})}
                 />
             )}
         </Paper>
@@ -403,6 +439,9 @@ RawResult.propTypes = {
     language: PropTypes.string,
     labelKey: PropTypes.string.isRequired,
     selectedReport: PropTypes.object,
+    paging: PAGING_PROP_TYPE.isRequired,
+    onPagingChange: PropTypes.func.isRequired,
+    fetchAllRows: PropTypes.func,
     t: PropTypes.func.isRequired
 };
 
@@ -429,7 +468,7 @@ FormActions.propTypes = {
     t: PropTypes.func.isRequired
 };
 
-const ResultSection = ({error, isLoading, result, siteKey, language, report, t}) => (
+const ResultSection = ({error, isLoading, result, siteKey, language, report, paging, onPagingChange, fetchAllRows, t}) => (
     <>
         {error && (
             <div className={styles.error}>
@@ -453,7 +492,10 @@ const ResultSection = ({error, isLoading, result, siteKey, language, report, t})
                 language={language}
                 labelKey={report.labelKey}
                 selectedReport={report}
+                paging={paging}
+                fetchAllRows={fetchAllRows}
                 t={t}
+                onPagingChange={onPagingChange}
             />
         )}
 
@@ -476,6 +518,9 @@ ResultSection.propTypes = {
         labelKey: PropTypes.string.isRequired,
         descriptionKey: PropTypes.string
     }).isRequired,
+    paging: PAGING_PROP_TYPE.isRequired,
+    onPagingChange: PropTypes.func.isRequired,
+    fetchAllRows: PropTypes.func,
     t: PropTypes.func.isRequired
 };
 
@@ -500,6 +545,7 @@ const AdminPanel = ({initialReportId}) => {
     const [loading, setLoading] = useState(false);
     const [error, setError] = useState(null);
     const [result, setResult] = useState(null);
+    const [paging, setPaging] = useState(() => buildInitialPaging(selectedReport));
     const [lastUpdated, setLastUpdated] = useState(null);
     const [siteLanguages, setSiteLanguages] = useState([]);
     const [users, setUsers] = useState([]);
@@ -554,6 +600,7 @@ const AdminPanel = ({initialReportId}) => {
 
     useEffect(() => {
         setFields(buildInitialFields(selectedReport, {siteKey, language}));
+        setPaging(buildInitialPaging(selectedReport));
         setResult(null);
         setError(null);
     }, [selectedReport, siteKey, language]);
@@ -596,7 +643,33 @@ const AdminPanel = ({initialReportId}) => {
         }
     }, [executeQuery, siteKey, language]);
 
-    const runLegacy = useCallback(async () => {
+    const fetchLegacy = useCallback(async (offset, limit, sortColumn, sortDirection, cursor) => {
+        const parameters = buildParameterPayload(fields, selectedReport.fields);
+
+        console.log('[AdminPanel] runLegacy - fields:', fields);
+        console.log('[AdminPanel] runLegacy - parameters:', parameters);
+
+        const variables = {
+            siteKey,
+            language,
+            reportId: selectedReport.id,
+            parameters,
+            offset,
+            limit,
+            sortColumn,
+            sortDirection,
+            cursor
+        };
+
+        console.log('[AdminPanel] runLegacy - GraphQL variables:', variables);
+
+        const data = await executeQuery(RAW_REPORT_QUERY, variables);
+        const payload = data?.admin?.contentReports?.rawReport;
+        return {payload, parsed: tryParseJSON(payload)};
+    }, [executeQuery, fields, language, selectedReport, siteKey]);
+
+    // Only the displayed page is fetched, the server applies the offset/limit and the order
+    const runLegacy = useCallback(async pageRequest => {
         if (!selectedReport) {
             return;
         }
@@ -604,35 +677,14 @@ const AdminPanel = ({initialReportId}) => {
         setLoading(true);
         setError(null);
         try {
-            const parameters = buildParameterPayload(fields, selectedReport.fields);
-
-            console.log('[AdminPanel] runLegacy - fields:', fields);
-            console.log('[AdminPanel] runLegacy - parameters:', parameters);
-
-            // Convert parameters array to individual name/value pairs (max 5 parameters supported)
-            const variables = {
-                siteKey,
-                language,
-                reportId: selectedReport.id,
-                offset: selectedReport.defaultOffset ?? 0,
-                limit: selectedReport.defaultLimit ?? 10000, // Fetch all results for client-side pagination
-                sortColumn: selectedReport.defaultSortColumn ?? null,
-                sortDirection: selectedReport.defaultSortDirection ?? null
-            };
-
-            // Add up to 6 parameters as individual fields
-            parameters.forEach((param, index) => {
-                if (index < 6) {
-                    variables[`parameterName${index + 1}`] = param.name;
-                    variables[`parameterValue${index + 1}`] = param.value;
-                }
-            });
-
-            console.log('[AdminPanel] runLegacy - GraphQL variables:', variables);
+            // The next page is read from the cursor of the previous one when it is known, the offset is used otherwise
+            const offset = (pageRequest.page - 1) * pageRequest.rowsPerPage;
+            const cursor = pageRequest.cursors[pageRequest.page] ?? null;
+            const {payload, parsed} = await fetchLegacy(offset, pageRequest.rowsPerPage, pageRequest.sortColumn, pageRequest.sortDirection, cursor);
+            if (parsed?.nextCursor) {
+                setPaging(current => ({...current, cursors: {...current.cursors, [pageRequest.page + 1]: parsed.nextCursor}}));
+            }
 
-            const data = await executeQuery(RAW_REPORT_QUERY, variables);
-            const payload = data?.admin?.contentReports?.rawReport;
-            const parsed = tryParseJSON(payload);
             setResult({kind: 'legacy', payload, parsed});
             setLastUpdated(new Date());
         } catch (err) {
@@ -640,7 +692,19 @@ const AdminPanel = ({initialReportId}) => {
         } finally {
             setLoading(false);
         }
-    }, [executeQuery, fields, language, selectedReport, siteKey]);
+    }, [fetchLegacy, selectedReport]);
+
+    const handlePagingChange = useCallback(nextPaging => {
+        setPaging(nextPaging);
+        runLegacy(nextPaging);
+    }, [runLegacy]);
+
+    // Used by the exports, which cover every row of the report
+    const fetchAllRows = useCallback(async () => {
+        const total = result?.parsed?.recordsTotal ?? 0;
+        const {parsed} = await fetchLegacy(0, Math.max(total, paging.rowsPerPage), paging.sortColumn, paging.sortDirection, null);
+        return parsed;
+    }, [fetchLegacy, paging, result]);
 
     const handleSubmit = useCallback(event => {
         event.preventDefault();
@@ -657,9 +721,11 @@ const AdminPanel = ({initialReportId}) => {
         if (selectedReport.type === 'overview') {
             runOverview();
         } else {
-            runLegacy();
+            const firstPage = {...paging, page: 1, cursors: {}};
+            setPaging(firstPage);
+            runLegacy(firstPage);
         }
-    }, [fields, runLegacy, runOverview, selectedReport, t]);
+    }, [fields, paging, runLegacy, runOverview, selectedReport, t]);
 
     useEffect(() => {
         if (selectedReport && selectedReport.type === 'overview') {
@@ -879,7 +945,7 @@ const AdminPanel = ({initialReportId}) => {
                         </div>
                         <div className={styles.fullWidthResults}>
                             {selectedReport?.type !== 'overview' && (
-                                <ResultSection error={error} isLoading={loading} result={result} siteKey={siteKey} language={language} report={selectedReport} t={t}/>
+                                <ResultSection error={error} isLoading={loading} result={result} siteKey={siteKey} language={language} report={selectedReport} paging={paging} fetchAllRows={fetchAllRows} t={t} onPagingChange={handlePagingChange}/>
                             )}
                         </div>
                     </div>
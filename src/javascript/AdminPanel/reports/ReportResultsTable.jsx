@@ -1,4 +1,4 @@
-import React, {useState, useMemo, useCallback} from 'react';
+import React, {useMemo, useCallback} from 'react';
 import PropTypes from 'prop-types';
 import {useTranslation} from 'react-i18next';
 import {Typography, Table, TableHead, TableBody, TableRow, TableHeadCell, TableBodyCell, TablePagination, Button} from '@jahia/moonstone';
@@ -144,13 +144,10 @@ TableHeaders.propTypes = {
     siteLanguages: PropTypes.arrayOf(PropTypes.string)
 };
 
-const ReportResultsTable = ({data, siteKey, language, columns, reportId, reportType}) => {
+// The rows are paginated and sorted by the server, the table only renders the page it receives
+const ReportResultsTable = ({data, siteKey, language, columns, reportId, reportType, currentPage, rowsPerPage, sortColumn, sortDirection, onPageChange, onRowsPerPageChange, onSortChange, fetchAllRows}) => {
     // Hooks must be at the top before any conditionals
     const {t} = useTranslation('contentReportReact');
-    const [currentPage, setCurrentPage] = useState(1);
-    const [rowsPerPage, setRowsPerPage] = useState(50);
-    const [sortColumn, setSortColumn] = useState(null);
-    const [sortDirection, setSortDirection] = useState('asc');
 
     console.log('ReportResultsTable - data:', data);
     console.log('ReportResultsTable - siteKey:', siteKey);
@@ -182,7 +179,7 @@ const ReportResultsTable = ({data, siteKey, language, columns, reportId, reportT
                 cols.push({
                     key: `lang_${i}`,
                     labelKey: `lang_${i}`, // We'll handle this specially in rendering
-                    sortable: true,
+                    sortable: false,
                     isLanguage: true,
                     languageIndex: i
                 });
@@ -244,75 +241,17 @@ const ReportResultsTable = ({data, siteKey, language, columns, reportId, reportT
         return value || '-';
     }, [siteKey, language, t]);
 
-    // Handle column sorting
+    // Handle column sorting, the parent fetches the first page of the new order
     const handleSort = columnIndex => {
         if (sortColumn === columnIndex) {
             // Toggle direction if clicking same column
-            setSortDirection(sortDirection === 'asc' ? 'desc' : 'asc');
+            onSortChange(columnIndex, sortDirection === 'asc' ? 'desc' : 'asc');
         } else {
             // New column, default to ascending
-            setSortColumn(columnIndex);
-            setSortDirection('asc');
+            onSortChange(columnIndex, 'asc');
         }
-
-        // Reset to first page when sorting
-        setCurrentPage(1);
     };
 
-    // Helper function to compare values for sorting
-    const compareValues = useCallback((aVal, bVal, columnIndex) => {
-        // Handle null/undefined values
-        if (aVal === null || aVal === undefined) {
-            return 1;
-        }
-
-        if (bVal === null || bVal === undefined) {
-            return -1;
-        }
-
-        // For dates (columns 3, 4: created, modified)
-        if (columnIndex === 3 || columnIndex === 4) {
-            const aDate = new Date(aVal);
-            const bDate = new Date(bVal);
-            return sortDirection === 'asc' ? aDate - bDate : bDate - aDate;
-        }
-
-        // For booleans (columns 5, 6: published, locked)
-        if (columnIndex === 5 || columnIndex === 6) {
-            const aBool = aVal === true || aVal === 'true' || aVal === 'True' || aVal === '1';
-            const bBool = bVal === true || bVal === 'true' || bVal === 'True' || bVal === '1';
-            const aNum = aBool ? 1 : 0;
-            const bNum = bBool ? 1 : 0;
-            return sortDirection === 'asc' ? aNum - bNum : bNum - aNum;
-        }
-
-        // For strings (title, path, type)
-        const aStr = String(aVal).toLowerCase();
-        const bStr = String(bVal).toLowerCase();
-        return sortDirection === 'asc' ? aStr.localeCompare(bStr) : bStr.localeCompare(aStr);
-    }, [sortDirection]);
-
-    // Sort data
-    const sortedData = useMemo(() => {
-        if (!data || !Array.isArray(data.data) || sortColumn === null) {
-            return data?.data || [];
-        }
-
-        const sorted = [...data.data].sort((a, b) => compareValues(a[sortColumn], b[sortColumn], sortColumn));
-
-        return sorted;
-    }, [data, sortColumn, compareValues]);
-
-    // Paginate data (currentPage is 1-based, so subtract 1 for array index)
-    const paginatedData = useMemo(() => {
-        if (!sortedData || !Array.isArray(sortedData)) {
-            return [];
-        }
-
-        const startIndex = (currentPage - 1) * rowsPerPage;
-        return sortedData.slice(startIndex, startIndex + rowsPerPage);
-    }, [sortedData, currentPage, rowsPerPage]);
-
     if (!data || !Array.isArray(data.data) || data.data.length === 0) {
         console.log('ReportResultsTable - No data to display');
         return (
@@ -325,8 +264,14 @@ const ReportResultsTable = ({data, siteKey, language, columns, reportId, reportT
     console.log('ReportResultsTable - Rendering table with', data.data.length, 'rows');
 
     const buildEditUrl = path => buildJContentUrl(path, siteKey, language);
-    const exportToCSV = () => exportDataToCSV(data.data, effectiveColumns, useCustomColumns);
-    const exportToJSON = () => exportDataToJSON(data);
+    // Exports cover every row of the report, not only the page displayed
+    const loadAllRows = async () => (fetchAllRows ? fetchAllRows() : data);
+    const exportToCSV = async () => {
+        const all = await loadAllRows();
+        exportDataToCSV(all?.data || [], effectiveColumns, useCustomColumns);
+    };
+
+    const exportToJSON = async () => exportDataToJSON(await loadAllRows());
 
     return (
         <div className={styles.tableContainer}>
@@ -368,7 +313,7 @@ const ReportResultsTable = ({data, siteKey, language, columns, reportId, reportT
                     </TableRow>
                 </TableHead>
                 <TableBody>
-                    {paginatedData.map((row, rowIndex) => {
+                    {data.data.map((row, rowIndex) => {
                         const rowKey = `row-${rowIndex}-${row[0] || rowIndex}`;
                         return (
                             <TableRow key={rowKey}>
@@ -420,15 +365,15 @@ const ReportResultsTable = ({data, siteKey, language, columns, reportId, reportT
             </Table>
             <TablePagination
                 currentPage={currentPage}
-                totalNumberOfRows={sortedData.length}
+                totalNumberOfRows={data.recordsTotal ?? data.data.length}
                 rowsPerPage={rowsPerPage}
                 rowsPerPageOptions={[10, 25, 50, 100]}
                 label={{
                     rowsPerPage: 'Rows per page:',
                     of: 'of'
                 }}
-                onPageChange={setCurrentPage}
-                onRowsPerPageChange={setRowsPerPage}
+                onPageChange={onPageChange}
+                onRowsPerPageChange={onRowsPerPageChange}
             />
         </div>
     );
@@ -450,7 +395,15 @@ ReportResultsTable.propTypes = {
         type: PropTypes.string
     })),
     reportId: PropTypes.string,
-    reportType: PropTypes.string
+    reportType: PropTypes.string,
+    currentPage: PropTypes.number.isRequired,
+    rowsPerPage: PropTypes.number.isRequired,
+    sortColumn: PropTypes.number,
+    sortDirection: PropTypes.string.isRequired,
+    onPageChange: PropTypes.func.isRequired,
+    onRowsPerPageChange: PropTypes.func.isRequired,
+    onSortChange: PropTypes.func.isRequired,
+    fetchAllRows: PropTypes.func
 };
 
 export default ReportResultsTable;
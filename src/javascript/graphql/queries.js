@@ -25,6 +25,8 @@ export const OVERVIEW_QUERY = `
                         username
                         contentCount
                     }
+                    partial
+                    partialMetrics
                 }
             }
         }
@@ -32,10 +34,10 @@ export const OVERVIEW_QUERY = `
 `;
 
 export const RAW_REPORT_QUERY = `
-    query ContentReportRaw($siteKey: String!, $language: String, $reportId: String!, $parameterName1: String, $parameterValue1: String, $parameterName2: String, $parameterValue2: String, $parameterName3: String, $parameterValue3: String, $parameterName4: String, $parameterValue4: String, $parameterName5: String, $parameterValue5: String, $parameterName6: String, $parameterValue6: String, $offset: Int, $limit: Int, $sortColumn: Int, $sortDirection: String) {
+    query ContentReportRaw($siteKey: String!, $language: String, $reportId: String!, $parameters: [ContentReportParameterInput], $offset: Int, $limit: Int, $sortColumn: Int, $sortDirection: String, $cursor: String) {
         admin {
             contentReports(siteKey: $siteKey, language: $language) {
-                rawReport(reportId: $reportId, parameterName1: $parameterName1, parameterValue1: $parameterValue1, parameterName2: $parameterName2, parameterValue2: $parameterValue2, parameterName3: $parameterName3, parameterValue3: $parameterValue3, parameterName4: $parameterName4, parameterValue4: $parameterValue4, parameterName5: $parameterName5, parameterValue5: $parameterValue5, parameterName6: $parameterName6, parameterValue6: $parameterValue6, offset: $offset, limit: $limit, sortColumn: $sortColumn, sortDirection: $sortDirection)
+                rawReport(reportId: $reportId, parameters: $parameters, offset: $offset, limit: $limit, sortColumn: $sortColumn, sortDirection: $sortDirection, cursor: $cursor)
             }
         }
     }
@@ -44,6 +44,7 @@
 package org.jahia.modules.contentreports.bean;
 
 import org.jahia.exceptions.JahiaException;
+import org.jahia.modules.contentreports.util.ParentPageResolver;
 import org.jahia.services.content.JCRSessionWrapper;
 import org.jahia.services.content.decorator.JCRSiteNode;
 import org.json.JSONException;
@@ -52,6 +53,8 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import javax.jcr.RepositoryException;
+import java.io.IOException;
+import java.io.Writer;
 import java.text.DateFormat;
 import java.text.SimpleDateFormat;
 import java.util.HashMap;
@@ -91,6 +94,10 @@ public abstract class BaseReport {
     protected Locale locale;
     protected Locale defaultLocale;
     protected Map<String, Locale> localeMap;
+    /* set when the report runs as a background job */
+    protected ReportProgress progress;
+    /* the pages already resolved during this run */
+    private ParentPageResolver pageResolver;
 
     public BaseReport(JCRSiteNode siteNode) {
         this(siteNode, null);
@@ -129,6 +136,47 @@ public abstract class BaseReport {
         }
     }
 
+    /**
+     * setProgress
+     *
+     * @param progress {@link ReportProgress} receiving the progress of the report
+     */
+    public void setProgress(ReportProgress progress) {
+        this.progress = progress;
+    }
+
+    /**
+     * visitNode
+     * <p>record one more node read by the report, the report stops here when its job is cancelled.</p>
+     */
+    protected void visitNode() {
+        if (progress != null) {
+            progress.nodeVisited();
+        }
+    }
+
+    /**
+     * getPageResolver
+     *
+     * @param session the session of the report
+     * @return the {@link ParentPageResolver} of this run, created on the first call
+     */
+    protected ParentPageResolver getPageResolver(JCRSessionWrapper session) {
+        if (pageResolver == null) {
+            pageResolver = new ParentPageResolver(session, locale, defaultLocale);
+        }
+        return pageResolver;
+    }
+
+    /**
+     * getRowsKey
+     *
+     * @return the json key holding the rows, null for the reports without rows
+     */
+    public String getRowsKey() {
+        return null;
+    }
+
     /**
      * getJson
      * <p>get json to the iReport class,
@@ -141,4 +189,76 @@ public abstract class BaseReport {
      */
     public abstract JSONObject getJson() throws JSONException, RepositoryException;
 
+    /**
+     * writeJson
+     * <p>write the json of the report to the writer,
+     * reports holding rows override it to stream them without building a {@link JSONObject}.</p>
+     *
+     * @param writer {@link Writer}
+     * @throws JSONException
+     * @throws RepositoryException
+     * @throws IOException
+     */
+    public void writeJson(Writer writer) throws JSONException, RepositoryException, IOException {
+        getJson().write(writer);
+    }
+
+    /**
+     * streamRows
+     * <p>ask the report to write its rows straight to the writer while it executes, instead of
+     * buffering them until {@link #writeJson(Writer)}, which then completes the json.
+     * Reports without rows keep their json and return false.</p>
+     *
+     * @param writer {@link Writer}
+     * @return true when the rows are written to the writer
+     * @throws IOException
+     */
+    public boolean streamRows(Writer writer) throws IOException {
+        return false;
+    }
+
+    /**
+     * openRows
+     * <p>start the json of a report streaming its rows, see {@link #streamRows(Writer)}.</p>
+     *
+     * @param writer {@link Writer}
+     * @param rowsKey {@link String}
+     * @return the sink writing the rows to the writer
+     * @throws IOException
+     */
+    protected ReportRowSink openRows(Writer writer, String rowsKey) throws IOException {
+        writer.write('{');
+        writer.write(JSONObject.quote(rowsKey));
+        writer.write(':');
+        return new JsonRowSink(writer);
+    }
+
+    /**
+     * writeJson
+     * <p>write the rows under the given key followed by the summary entries,
+     * the rows of a streamed sink have already been written by {@link #openRows(Writer, String)}.</p>
+     *
+     * @param writer {@link Writer}
+     * @param summary {@link JSONObject}
+     * @param rowsKey {@link String}
+     * @param rows {@link ReportRowSink}
+     * @throws JSONException
+     * @throws IOException
+     */
+    protected void writeJson(Writer writer, JSONObject summary, String rowsKey, ReportRowSink rows) throws JSONException, IOException {
+        if (!rows.isStreamed()) {
+            writer.write('{');
+            writer.write(JSONObject.quote(rowsKey));
+            writer.write(':');
+        }
+        rows.writeTo(writer);
+        for (String key : summary.keySet()) {
+            writer.write(',');
+            writer.write(JSONObject.quote(key));
+            writer.write(':');
+            writer.write(JSONObject.valueToString(summary.get(key)));
+        }
+        writer.write('}');
+    }
+
 }
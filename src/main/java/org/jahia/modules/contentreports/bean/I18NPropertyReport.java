@@ -44,7 +44,7 @@
 package org.jahia.modules.contentreports.bean;
 
 import org.apache.commons.lang.StringUtils;
-import org.jahia.services.content.JCRNodeWrapper;
+import org.jahia.modules.contentreports.service.TitleResolver;
 import org.jahia.services.content.JCRSessionWrapper;
 import org.jahia.services.content.decorator.JCRSiteNode;
 import org.json.JSONArray;
@@ -53,12 +53,12 @@ import org.json.JSONObject;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import javax.jcr.Node;
-import javax.jcr.NodeIterator;
 import javax.jcr.RepositoryException;
 import javax.jcr.query.Query;
 import javax.jcr.query.Row;
 import javax.jcr.query.RowIterator;
+import java.io.IOException;
+import java.io.Writer;
 import java.util.*;
 
 /**
@@ -70,13 +70,15 @@ public class I18NPropertyReport extends BaseReport {
     private static Logger logger = LoggerFactory.getLogger(I18NPropertyReport.class);
     protected static final String BUNDLE = "resources.contentReportReact";
 
-    protected Map<String, Map<String, Object>> dataMap;
+    private ReportRowSink rowSink;
     private String language;
 
     protected String propertyName;
     protected String definingType;
     private String type;
     private long dataSetSize;
+    /* the paths are listed in descending order */
+    private boolean descending;
 
     /**
      * Instantiates a new Report pages without title.
@@ -84,8 +86,19 @@ public class I18NPropertyReport extends BaseReport {
      * @param siteNode the site node {@link JCRSiteNode}
      */
     public I18NPropertyReport(JCRSiteNode siteNode, String language, String type, String propertyName, String definingType) {
+        this(siteNode, language, type, propertyName, definingType, null);
+    }
+
+    /**
+     * Instantiates a new Report pages without title.
+     *
+     * @param siteNode the site node {@link JCRSiteNode}
+     * @param order the sort direction of the paths
+     */
+    public I18NPropertyReport(JCRSiteNode siteNode, String language, String type, String propertyName, String definingType, String order) {
         super(siteNode);
-        this.dataMap = new HashMap<>();
+        this.descending = StringUtils.equalsIgnoreCase(StringUtils.trim(order), "desc");
+        this.rowSink = new JsonRowSink();
         this.language = language;
         this.propertyName = propertyName;
         this.definingType = definingType;
@@ -103,16 +116,23 @@ public class I18NPropertyReport extends BaseReport {
         } else {
             executeForLanguage(session, all, language);
         }
+        List<String> page = new ArrayList<>();
         int count = 0;
-        for (String path : all) {
+        for (String path : descending ? all.descendingSet() : all) {
             if (count == offset + limit) {
                 break;
             }
             if (count >= offset) {
-                addItem(session.getNode(path));
+                page.add(path);
             }
             count++;
         }
+        // the property of the whole page is read in all the languages at once
+        TitleResolver.Titles values = TitleResolver.getTitles(session, page, propertyName);
+        for (String path : page) {
+            visitNode();
+            addItem(path, values);
+        }
     }
 
     private void executeForLanguage(JCRSessionWrapper session, TreeSet<String> all, String language) throws RepositoryException {
@@ -122,6 +142,7 @@ public class I18NPropertyReport extends BaseReport {
         String withLang = "";
         while (riAnyLang.hasNext()) {
             Row row = riAnyLang.nextRow();
+            visitNode();
             String anyLang = row.getValue("jcr:uuid").getString();
             while (withLang.compareTo(anyLang) < 0 && riWithLang.hasNext()) {
                 withLang = riWithLang.nextRow().getValue("jcr:uuid").getString();
@@ -134,6 +155,7 @@ public class I18NPropertyReport extends BaseReport {
         RowIterator noProperty = session.getWorkspace().getQueryManager().createQuery("/jcr:root/sites/" + siteNode.getName() + "//element(*," + type + ")/j:translation_" + language + "[not(@" + propertyName + ")]", Query.XPATH).execute().getRows();
         while (noProperty.hasNext()) {
             Row row = noProperty.nextRow();
+            visitNode();
             all.add(StringUtils.substringBeforeLast(row.getPath(), "/"));
         }
         dataSetSize = all.size();
@@ -142,14 +164,14 @@ public class I18NPropertyReport extends BaseReport {
     /**
      * addItem
      *
-     * @param node {@link JCRNodeWrapper}
-     * @throws RepositoryException
+     * @param path   the path of the node
+     * @param values {@link TitleResolver.Titles} holding the property of the node in its languages
      */
-    public void addItem(JCRNodeWrapper node) throws RepositoryException {
+    private void addItem(String path, TitleResolver.Titles values) {
         Map<String, String> translationsMap = new HashMap<>();
         Integer noTitleCounter = 0;
         for (String lang : this.localeMap.keySet()) {
-            translationsMap.put(lang, getTranslationContent(node, lang));
+            translationsMap.put(lang, StringUtils.defaultString(values.get(path, lang)));
             if (StringUtils.isEmpty(translationsMap.get(lang))) {
                 noTitleCounter++;
             }
@@ -157,12 +179,12 @@ public class I18NPropertyReport extends BaseReport {
 
         // if pages translation without title
         if (noTitleCounter > 0) {
-            this.dataMap.put(node.getPath(), new HashMap<String, Object>());
-            this.dataMap.get(node.getPath()).put("url", node.getUrl());
-            this.dataMap.get(node.getPath()).put("name", node.getName());
-            this.dataMap.get(node.getPath()).put("displayableName", node.getDisplayableName());
-            this.dataMap.get(node.getPath()).put("title", (node.hasI18N(this.defaultLocale) && node.getI18N(this.defaultLocale).hasProperty("jcr:title")) ? node.getI18N(this.defaultLocale).getProperty("jcr:title").getString() : "");
-            this.dataMap.get(node.getPath()).put("translations", translationsMap);
+            List<Object> row = new ArrayList<>();
+            row.add(path);
+            for (String lang : siteNode.getLanguages()) {
+                row.add(translationsMap.containsKey(lang) ? translationsMap.get(lang) : "");
+            }
+            rowSink.addRow(row.toArray());
         }
     }
 
@@ -174,69 +196,34 @@ public class I18NPropertyReport extends BaseReport {
      * @throws RepositoryException
      */
     public JSONObject getJson() throws JSONException, RepositoryException {
+        JSONObject jsonObject = getSummary();
+        jsonObject.put("data", rowSink.toJSONArray());
+        return jsonObject;
+    }
 
-        JSONObject jsonObject = new JSONObject();
-        JSONArray jArray = new JSONArray();
-        JSONArray jsonArrayItem;
-        JSONArray jArray2;
-        JSONObject jsonObjectItem2;
-
-        Set<String> languages = siteNode.getLanguages();
-
-
-        for (String path : this.dataMap.keySet()) {
-
-            jsonArrayItem = new JSONArray();
-            jArray2 = new JSONArray();
-            jsonArrayItem.put(path);
-            jsonObjectItem2 = new JSONObject();
-            for (String langKey : ((HashMap<String, String>) this.dataMap.get(path).get("translations")).keySet()) {
-
+    @Override
+    public void writeJson(Writer writer) throws JSONException, RepositoryException, IOException {
+        writeJson(writer, getSummary(), "data", rowSink);
+    }
 
-                jsonObjectItem2.put(langKey, ((HashMap<String, String>) this.dataMap.get(path).get("translations")).get(langKey));
-            }
-            Iterator<String> iterator = languages.iterator();
-            while(iterator.hasNext()) {
-                String lang = iterator.next();
-                if (jsonObjectItem2.has(lang)) {
-                    jsonArrayItem.put(jsonObjectItem2.get(lang));
-                } else {
-                    jsonArrayItem.put("");
-                }
-            }
-            jArray.put(jsonArrayItem);
-        }
+    @Override
+    public boolean streamRows(Writer writer) throws IOException {
+        this.rowSink = openRows(writer, "data");
+        return true;
+    }
 
+    @Override
+    public String getRowsKey() {
+        return "data";
+    }
 
+    private JSONObject getSummary() throws JSONException, RepositoryException {
+        JSONObject jsonObject = new JSONObject();
         jsonObject.put("recordsTotal", dataSetSize);
         jsonObject.put("recordsFiltered", dataSetSize);
-        jsonObject.put("data", jArray);
-        jsonObject.put("siteLanguages", new JSONArray(languages));
+        jsonObject.put("siteLanguages", new JSONArray(siteNode.getLanguages()));
         return jsonObject;
     }
 
-    /**
-     * getTranslationContent
-     * <p> get the content from jcr:description
-     * if exists in the specific lang. </p>
-     *
-     * @param parentNode {@link JCRNodeWrapper}
-     * @param localeLang {@link String}
-     * @return nodeDescription {@link String}
-     * @throws RepositoryException
-     */
-    private String getTranslationContent(JCRNodeWrapper parentNode, String localeLang) throws RepositoryException {
-        NodeIterator ni = parentNode.getI18Ns();
-        while (ni.hasNext()) {
-            Node translationNode = ni.nextNode();
-
-            if (translationNode.getProperty("jcr:language").getString().equalsIgnoreCase(localeLang) &&
-                    translationNode.hasProperty(propertyName)) {
-                return translationNode.getProperty(propertyName).getString();
-            }
-        }
-        return "";
-    }
-
 
 }
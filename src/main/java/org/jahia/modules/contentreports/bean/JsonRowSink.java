@@ -0,0 +1,147 @@
+/*
+ * ==========================================================================================
+ * =                   JAHIA'S DUAL LICENSING - IMPORTANT INFORMATION                       =
+ * ==========================================================================================
+ *
+ *                                 http://www.jahia.com
+ *
+ *     Copyright (C) 2002-2020 Jahia Solutions Group SA. All rights reserved.
+ *
+ *     THIS FILE IS AVAILABLE UNDER TWO DIFFERENT LICENSES:
+ *     1/GPL OR 2/JSEL
+ *
+ *     1/ GPL
+ *     ==================================================================================
+ *
+ *     IF YOU DECIDE TO CHOOSE THE GPL LICENSE, YOU MUST COMPLY WITH THE FOLLOWING TERMS:
+ *
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ *
+ *     2/ JSEL - Commercial and Supported Versions of the program
+ *     ===================================================================================
+ *
+ *     IF YOU DECIDE TO CHOOSE THE JSEL LICENSE, YOU MUST COMPLY WITH THE FOLLOWING TERMS:
+ *
+ *     Alternatively, commercial and supported versions of the program - also known as
+ *     Enterprise Distributions - must be used in accordance with the terms and conditions
+ *     contained in a separate written agreement between you and Jahia Solutions Group SA.
+ *
+ *     If you are unsure which license is appropriate for your use,
+ *     please contact the sales department at sales@jahia.com.
+ */
+package org.jahia.modules.contentreports.bean;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Map;
+
+/**
+ * The JsonRowSink Class.
+ * <p>Serializes each row to json as soon as it is added. The rows are either kept as a single
+ * character buffer until they are written to the response, or streamed straight to the response
+ * writer while the report executes.</p>
+ */
+public class JsonRowSink implements ReportRowSink {
+
+    /* the buffer of the rows, or the response writer when the rows are streamed */
+    private final Appendable out;
+    private final boolean streamed;
+    private int rowCount;
+
+    public JsonRowSink() {
+        this.out = new StringBuilder();
+        this.streamed = false;
+        this.rowCount = 0;
+    }
+
+    /**
+     * Instantiates a sink writing each row straight to the writer,
+     * the opening bracket of the rows is written at once.
+     *
+     * @param writer {@link Writer}
+     * @throws IOException
+     */
+    public JsonRowSink(Writer writer) throws IOException {
+        writer.write('[');
+        this.out = writer;
+        this.streamed = true;
+        this.rowCount = 0;
+    }
+
+    @Override
+    public void addRow(Object... values) throws JSONException {
+        try {
+            startRow();
+            out.append('[');
+            for (int i = 0; i < values.length; i++) {
+                if (i > 0) {
+                    out.append(',');
+                }
+                out.append(JSONObject.valueToString(values[i]));
+            }
+            out.append(']');
+        } catch (IOException e) {
+            throw new JSONException(e);
+        }
+    }
+
+    @Override
+    public void addRow(Map<String, ?> values) throws JSONException {
+        try {
+            startRow();
+            out.append(JSONObject.valueToString(values));
+        } catch (IOException e) {
+            throw new JSONException(e);
+        }
+    }
+
+    @Override
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    @Override
+    public boolean isStreamed() {
+        return streamed;
+    }
+
+    @Override
+    public void writeTo(Writer writer) throws IOException {
+        if (!streamed) {
+            writer.write('[');
+            writer.append((StringBuilder) out);
+        }
+        writer.write(']');
+    }
+
+    @Override
+    public JSONArray toJSONArray() throws JSONException {
+        if (streamed) {
+            throw new JSONException("The rows have already been written to the response");
+        }
+        return new JSONArray("[" + out + "]");
+    }
+
+    private void startRow() throws IOException {
+        if (rowCount > 0) {
+            out.append(',');
+        }
+        rowCount++;
+    }
+}
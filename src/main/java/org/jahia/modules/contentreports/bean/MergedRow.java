@@ -0,0 +1,201 @@
+/*
+ * ==========================================================================================
+ * =                   JAHIA'S DUAL LICENSING - IMPORTANT INFORMATION                       =
+ * ==========================================================================================
+ *
+ *                                 http://www.jahia.com
+ *
+ *     Copyright (C) 2002-2020 Jahia Solutions Group SA. All rights reserved.
+ *
+ *     THIS FILE IS AVAILABLE UNDER TWO DIFFERENT LICENSES:
+ *     1/GPL OR 2/JSEL
+ *
+ *     1/ GPL
+ *     ==================================================================================
+ *
+ *     IF YOU DECIDE TO CHOOSE THE GPL LICENSE, YOU MUST COMPLY WITH THE FOLLOWING TERMS:
+ *
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ *
+ *     2/ JSEL - Commercial and Supported Versions of the program
+ *     ===================================================================================
+ *
+ *     IF YOU DECIDE TO CHOOSE THE JSEL LICENSE, YOU MUST COMPLY WITH THE FOLLOWING TERMS:
+ *
+ *     Alternatively, commercial and supported versions of the program - also known as
+ *     Enterprise Distributions - must be used in accordance with the terms and conditions
+ *     contained in a separate written agreement between you and Jahia Solutions Group SA.
+ *
+ *     If you are unsure which license is appropriate for your use,
+ *     please contact the sales department at sales@jahia.com.
+ */
+package org.jahia.modules.contentreports.bean;
+
+import org.jahia.services.content.JCRSessionWrapper;
+
+import javax.jcr.Node;
+import javax.jcr.PropertyType;
+import javax.jcr.RepositoryException;
+import javax.jcr.Value;
+import javax.jcr.query.Row;
+import java.util.Comparator;
+
+/**
+ * The MergedRow Class.
+ * <p>A projected row of one of the type scans of a merged query, see
+ * {@link QueryReport#fillMergedReport}. Only the head row of each scan is kept while the scans are merged,
+ * so the values are copied out of the query result and turned back into values or nodes of the report session
+ * when the row is read.</p>
+ */
+public class MergedRow implements Row {
+
+    /* the order of the merged rows, the one of QueryReport#getOrderStatement */
+    static final Comparator<MergedRow> ASCENDING = (first, second) -> compare(first, second, false);
+    static final Comparator<MergedRow> DESCENDING = (first, second) -> compare(first, second, true);
+
+    private final JCRSessionWrapper session;
+    private final String path;
+    private final String identifier;
+    private final Comparable<Object> sortKey;
+    private final String[] columns;
+    private final String[] values;
+    private final int[] types;
+
+    /**
+     * Instantiates a new merged row.
+     *
+     * @param session    the session of the report, the values and nodes are read from it
+     * @param row        the row of a type scan
+     * @param columns    the projected properties
+     * @param sortField  the sorted property, null when the rows are sorted by identifier only
+     * @throws RepositoryException
+     */
+    MergedRow(JCRSessionWrapper session, Row row, String[] columns, String sortField) throws RepositoryException {
+        this.session = session;
+        this.path = row.getPath();
+        this.columns = columns;
+        this.values = new String[columns.length];
+        this.types = new int[columns.length];
+        for (int i = 0; i < columns.length; i++) {
+            Value value = row.getValue(columns[i]);
+            if (value != null) {
+                values[i] = value.getString();
+                types[i] = value.getType();
+            }
+        }
+        Value id = row.getValue("jcr:uuid");
+        this.identifier = id != null ? id.getString() : path;
+        this.sortKey = sortField != null ? toSortKey(row.getValue(sortField)) : null;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Comparable<Object> toSortKey(Value value) throws RepositoryException {
+        if (value == null) {
+            return null;
+        }
+        switch (value.getType()) {
+            case PropertyType.DATE:
+                return (Comparable) Long.valueOf(value.getDate().getTimeInMillis());
+            case PropertyType.LONG:
+                return (Comparable) Long.valueOf(value.getLong());
+            case PropertyType.DOUBLE:
+                return (Comparable) Double.valueOf(value.getDouble());
+            case PropertyType.BOOLEAN:
+                return (Comparable) Boolean.valueOf(value.getBoolean());
+            default:
+                return (Comparable) value.getString();
+        }
+    }
+
+    private static int compare(MergedRow first, MergedRow second, boolean descending) {
+        int result = 0;
+        if (first.sortKey != second.sortKey) {
+            // the rows without the sorted property come first
+            if (first.sortKey == null) {
+                result = -1;
+            } else if (second.sortKey == null) {
+                result = 1;
+            } else {
+                result = first.sortKey.compareTo(second.sortKey);
+            }
+        }
+        if (descending) {
+            result = -result;
+        }
+        return result != 0 ? result : first.identifier.compareTo(second.identifier);
+    }
+
+    /**
+     * getIdentifier
+     *
+     * @return the identifier of the node of the row
+     */
+    public String getIdentifier() {
+        return identifier;
+    }
+
+    @Override
+    public Value[] getValues() throws RepositoryException {
+        Value[] result = new Value[columns.length];
+        for (int i = 0; i < columns.length; i++) {
+            result[i] = toValue(i);
+        }
+        return result;
+    }
+
+    @Override
+    public Value getValue(String columnName) throws RepositoryException {
+        for (int i = 0; i < columns.length; i++) {
+            if (columns[i].equals(columnName)) {
+                return toValue(i);
+            }
+        }
+        return null;
+    }
+
+    private Value toValue(int column) throws RepositoryException {
+        return values[column] != null ? session.getValueFactory().createValue(values[column], types[column]) : null;
+    }
+
+    @Override
+    public Node getNode() throws RepositoryException {
+        return session.getNodeByIdentifier(identifier);
+    }
+
+    @Override
+    public Node getNode(String selectorName) throws RepositoryException {
+        return getNode();
+    }
+
+    @Override
+    public String getPath() {
+        return path;
+    }
+
+    @Override
+    public String getPath(String selectorName) {
+        return path;
+    }
+
+    @Override
+    public double getScore() {
+        return 0;
+    }
+
+    @Override
+    public double getScore(String selectorName) {
+        return 0;
+    }
+}
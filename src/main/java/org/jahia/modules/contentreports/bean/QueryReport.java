@@ -44,10 +44,14 @@
 package org.jahia.modules.contentreports.bean;
 
 import org.apache.commons.lang.StringUtils;
+import org.jahia.modules.contentreports.service.ReportCounter;
+import org.jahia.modules.contentreports.service.TitleResolver;
+import org.jahia.modules.contentreports.util.ParentPageResolver;
 import org.jahia.services.content.JCRNodeWrapper;
 import org.jahia.services.content.JCRSessionWrapper;
 import org.jahia.services.content.decorator.JCRSiteNode;
-import org.json.JSONArray;
+import org.jahia.services.content.nodetypes.ExtendedNodeType;
+import org.jahia.services.content.nodetypes.NodeTypeRegistry;
 import org.json.JSONException;
 import org.json.JSONObject;
 import org.slf4j.Logger;
@@ -55,10 +59,20 @@ import org.slf4j.LoggerFactory;
 
 import javax.jcr.NodeIterator;
 import javax.jcr.RepositoryException;
+import javax.jcr.Value;
 import javax.jcr.query.Query;
+import javax.jcr.query.QueryManager;
+import javax.jcr.query.Row;
+import javax.jcr.query.RowIterator;
+import java.io.IOException;
+import java.io.Writer;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
 import java.util.List;
-import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Future;
 
 /**
  * TODO Comment me
@@ -67,23 +81,208 @@ import java.util.Map;
  */
 public abstract class QueryReport extends BaseReport {
     private static Logger logger = LoggerFactory.getLogger(QueryReport.class);
-    protected List<Map<String, String>> dataList;
+
+    /* the limit to pass to read all the results of a query */
+    public static final int NO_LIMIT = -1;
+
+    protected ReportRowSink rowSink;
+
+    /* the position the page starts after, when the page is requested with a cursor */
+    protected ReportCursor cursor;
+    /* the position of the last row, when more rows follow the page */
+    protected ReportCursor nextCursor;
+    /* the nodes of the report, when they are collected instead of being turned into rows */
+    private List<JCRNodeWrapper> collectedNodes;
+    /* the session of the rows being read */
+    private JCRSessionWrapper rowSession;
+    /* the rows waiting for the titles of their nodes, and the paths of these nodes */
+    private List<PendingRow> pendingRows;
+    private Set<String> pendingPaths;
+    private JCRSessionWrapper pendingSession;
+    /* the number of distinct nodes read by the last merged query */
+    private int mergedTotal;
 
     public QueryReport(JCRSiteNode siteNode) {
         super(siteNode);
-        this.dataList = new ArrayList<>();
+        this.rowSink = new JsonRowSink();
     }
 
     /**
      * addItem
      * <p>add item to the iReport class,
-     * custom implementation in each child class.</p>
+     * custom implementation in each child class,
+     * the rows are written to the {@link ReportRowSink}.</p>
      *
      * @param node {@link JCRNodeWrapper}
      * @throws RepositoryException
      */
     public abstract void addItem(JCRNodeWrapper node) throws RepositoryException;
 
+    /**
+     * getRowColumns
+     * <p>the properties the report reads from each result. When a report declares them, its queries
+     * select only these properties and the rows are given to {@link #addItem(Row)}, no node is loaded
+     * unless the report asks the row for it. The nodes are still loaded when they are collected.</p>
+     *
+     * @return the properties read by {@link #addItem(Row)}, null to read the nodes
+     */
+    protected String[] getRowColumns() {
+        return null;
+    }
+
+    /**
+     * addItem
+     * <p>add a projected row to the report, for the reports declaring {@link #getRowColumns()}.</p>
+     *
+     * @param row {@link Row} holding the declared properties, named after them
+     * @throws RepositoryException
+     */
+    public void addItem(Row row) throws RepositoryException {
+        addItem((JCRNodeWrapper) row.getNode());
+    }
+
+    /**
+     * acceptNode
+     * <p>filter the nodes returned by the queries of the report,
+     * the reports which keep only some of them override it.</p>
+     *
+     * @param node {@link JCRNodeWrapper}
+     * @return true when the node is part of the report
+     * @throws RepositoryException
+     */
+    protected boolean acceptNode(JCRNodeWrapper node) throws RepositoryException {
+        return true;
+    }
+
+    /**
+     * emitNode
+     * <p>add an accepted node to the report, as a row or to the collected nodes.</p>
+     *
+     * @param node {@link JCRNodeWrapper}
+     * @throws RepositoryException
+     */
+    protected void emitNode(JCRNodeWrapper node) throws RepositoryException {
+        visitNode();
+        if (!acceptNode(node)) {
+            return;
+        }
+        if (collectedNodes != null) {
+            collectedNodes.add(node);
+        } else {
+            addItem(node);
+        }
+    }
+
+    /**
+     * emitRow
+     * <p>add a projected row to the report, see {@link #getRowColumns()}.</p>
+     *
+     * @param row {@link Row}
+     * @throws RepositoryException
+     */
+    protected void emitRow(Row row) throws RepositoryException {
+        visitNode();
+        addItem(row);
+    }
+
+    /**
+     * deferRow
+     * <p>keep a row until the title of its node is known, the titles of the waiting rows are read
+     * together by the {@link TitleResolver} once {@link TitleResolver#BATCH_SIZE} rows wait, or when
+     * the query is read. The rows are added in the order they were deferred.</p>
+     *
+     * @param session {@link JCRSessionWrapper}
+     * @param path the path of the node whose jcr:title is needed
+     * @param row {@link PendingRow} adding the row once the title is read
+     * @throws RepositoryException
+     */
+    protected void deferRow(JCRSessionWrapper session, String path, PendingRow row) throws RepositoryException {
+        if (pendingRows == null) {
+            pendingRows = new ArrayList<>(TitleResolver.BATCH_SIZE);
+            pendingPaths = new LinkedHashSet<>();
+        }
+        pendingSession = session;
+        pendingRows.add(row);
+        pendingPaths.add(path);
+        if (pendingRows.size() >= TitleResolver.BATCH_SIZE) {
+            flushRows();
+        }
+    }
+
+    /**
+     * deferRow
+     * <p>keep a row read by the fill methods until the title of its node is known,
+     * see {@link #deferRow(JCRSessionWrapper, String, PendingRow)}.</p>
+     *
+     * @param path the path of the node whose jcr:title is needed
+     * @param row {@link PendingRow} adding the row once the title is read
+     * @throws RepositoryException
+     */
+    protected void deferRow(String path, PendingRow row) throws RepositoryException {
+        deferRow(rowSession, path, row);
+    }
+
+    /**
+     * flushRows
+     * <p>add the rows waiting for their titles, see {@link #deferRow(JCRSessionWrapper, String, PendingRow)}.
+     * The fill methods call it after reading their query, the reports emitting nodes by themselves call it
+     * once they are done.</p>
+     *
+     * @throws RepositoryException
+     */
+    protected void flushRows() throws RepositoryException {
+        if (pendingRows == null || pendingRows.isEmpty()) {
+            return;
+        }
+        TitleResolver.Titles titles = TitleResolver.getTitles(pendingSession, pendingPaths, "jcr:title");
+        List<PendingRow> rows = new ArrayList<>(pendingRows);
+        pendingRows.clear();
+        pendingPaths.clear();
+        for (PendingRow row : rows) {
+            row.addTo(titles);
+        }
+    }
+
+    /**
+     * getTitle
+     *
+     * @param titles {@link TitleResolver.Titles} read for the node
+     * @param path the path of the node
+     * @return the jcr:title of the node in the default language when it is translated in the current one, empty otherwise
+     */
+    protected String getTitle(TitleResolver.Titles titles, String path) {
+        String title = titles.get(path, defaultLocale.toString());
+        return title != null && titles.hasTranslation(path, locale) ? title : "";
+    }
+
+    @Override
+    protected void visitNode() {
+        super.visitNode();
+        if (progress != null) {
+            progress.setRowsEmitted(collectedNodes != null ? collectedNodes.size() : rowSink.getRowCount());
+        }
+    }
+
+    /**
+     * isNodeList
+     *
+     * @return true when each row of the report is one node, so that the nodes can be collected
+     */
+    public boolean isNodeList() {
+        return false;
+    }
+
+    /**
+     * collectNodes
+     * <p>collect the nodes of the report in the given list instead of building the rows,
+     * only for the reports answering true to {@link #isNodeList()}.</p>
+     *
+     * @param nodes the list receiving the nodes
+     */
+    public void collectNodes(List<JCRNodeWrapper> nodes) {
+        this.collectedNodes = nodes;
+    }
+
     /**
      * getQueryResult
      * <p>The method returns the NodeIterator,
@@ -92,24 +291,142 @@ public abstract class QueryReport extends BaseReport {
      * @param queryStr {@link String}
      * @param session {@link JCRSessionWrapper}
      * @param offset
-     * @param limit
+     * @param limit the maximum number of nodes, or {@link #NO_LIMIT}
      * @return {@link NodeIterator}
      * @throws RepositoryException
      */
     protected NodeIterator getQueryResult(String queryStr, JCRSessionWrapper session, int offset, int limit) throws RepositoryException{
         // Getting the items  nodes.
         Query query = session.getWorkspace().getQueryManager().createQuery(queryStr, Query.JCR_SQL2);
-        query.setOffset(offset);
-        query.setLimit(limit);
+        if (offset > 0) {
+            query.setOffset(offset);
+        }
+        if (limit != NO_LIMIT) {
+            query.setLimit(limit);
+        }
         return  query.execute().getNodes();
     }
 
-    protected long getQueryResultCount(String queryStr, JCRSessionWrapper session) throws RepositoryException{
-        // Getting the items  nodes.
-        Query query = session.getWorkspace().getQueryManager().createQuery(queryStr, Query.JCR_SQL2);
-        return  query.execute().getNodes().getSize();
+    /**
+     * getRowResult
+     * <p>the rows of the query, the selected properties replaced by the ones of {@link #getRowColumns()},
+     * the sorted property and the identifier.</p>
+     *
+     * @param queryStr a query starting with SELECT * FROM
+     * @param session {@link JCRSessionWrapper}
+     * @param selector the selector name of the query
+     * @param sortField the sorted property, null when the query is not sorted
+     * @param offset
+     * @param limit the maximum number of rows, or {@link #NO_LIMIT}
+     * @return {@link RowIterator}
+     * @throws RepositoryException
+     */
+    protected RowIterator getRowResult(String queryStr, JCRSessionWrapper session, String selector, String sortField,
+                                       int offset, int limit) throws RepositoryException {
+        rowSession = session;
+        Query query = session.getWorkspace().getQueryManager().createQuery(
+                getProjection(queryStr, selector, getProjectedColumns(getRowColumns(), sortField)), Query.JCR_SQL2);
+        if (offset > 0) {
+            query.setOffset(offset);
+        }
+        if (limit != NO_LIMIT) {
+            query.setLimit(limit);
+        }
+        return query.execute().getRows();
+    }
+
+    /* the declared properties, the identifier and the sorted property */
+    private static String[] getProjectedColumns(String[] rowColumns, String sortField) {
+        Set<String> columns = new LinkedHashSet<>();
+        if (rowColumns != null) {
+            for (String column : rowColumns) {
+                columns.add(column);
+            }
+        }
+        columns.add("jcr:uuid");
+        if (sortField != null) {
+            columns.add(sortField);
+        }
+        return columns.toArray(new String[0]);
+    }
+
+    /* the query selecting the columns instead of the nodes */
+    private static String getProjection(String queryStr, String selector, String[] columns) {
+        StringBuilder projection = new StringBuilder("SELECT ");
+        for (String column : columns) {
+            if (projection.length() > 7) {
+                projection.append(", ");
+            }
+            projection.append(selector).append(".[").append(column).append("] AS [").append(column).append("]");
+        }
+        return queryStr.replaceFirst("^SELECT \\* ", projection.append(" ").toString());
     }
 
+    /**
+     * isRowMode
+     *
+     * @return true when the results are read as rows, see {@link #getRowColumns()}
+     */
+    protected boolean isRowMode() {
+        return getRowColumns() != null && collectedNodes == null;
+    }
+
+    /**
+     * getRowString
+     *
+     * @param row {@link Row}
+     * @param column a property of {@link #getRowColumns()}
+     * @return the value of the property as a string, null when the node does not have it
+     * @throws RepositoryException
+     */
+    protected static String getRowString(Row row, String column) throws RepositoryException {
+        Value value = row.getValue(column);
+        return value != null ? value.getString() : null;
+    }
+
+    /**
+     * getRowName
+     *
+     * @param row {@link Row}
+     * @return the name of the node of the row, read from its path
+     * @throws RepositoryException
+     */
+    protected static String getRowName(Row row) throws RepositoryException {
+        return StringUtils.substringAfterLast(row.getPath(), "/");
+    }
+
+    /**
+     * getRowParentPage
+     * <p>the page is resolved from the path, with the {@link ParentPageResolver} of the run,
+     * the row has to hold jcr:primaryType.</p>
+     *
+     * @param row {@link Row}
+     * @return the path of the page of the node of the row, the node itself when it is a page
+     * @throws RepositoryException
+     */
+    protected String getRowParentPage(Row row) throws RepositoryException {
+        String primaryType = getRowString(row, "jcr:primaryType");
+        if (primaryType != null && getNodeType(primaryType).isNodeType("jnt:page")) {
+            return row.getPath();
+        }
+        ParentPageResolver.PageInfo page = getPageResolver(rowSession).getParentPage(row.getPath());
+        return page != null ? page.getPath() : null;
+    }
+
+    /**
+     * getNodeType
+     *
+     * @param name the name of a node type, as read from a row
+     * @return {@link ExtendedNodeType}
+     * @throws RepositoryException when the node type is unknown
+     */
+    protected static ExtendedNodeType getNodeType(String name) throws RepositoryException {
+        return NodeTypeRegistry.getInstance().getNodeType(name);
+    }
+
+    protected long getQueryResultCount(String queryStr, JCRSessionWrapper session) throws RepositoryException{
+        return ReportCounter.count(session, queryStr);
+    }
 
     /**
      * fillReport
@@ -126,18 +443,230 @@ public abstract class QueryReport extends BaseReport {
     protected void fillReport(JCRSessionWrapper session, String strQuery, int offset, int limit) throws JSONException {
         if(StringUtils.isNotEmpty(strQuery)) {
             try {
+                if (isRowMode()) {
+                    RowIterator rows = getRowResult(strQuery, session, "item", null, offset, limit);
+                    while (rows.hasNext()) {
+                        emitRow(rows.nextRow());
+                    }
+                    flushRows();
+                    return;
+                }
              /* filling the content nodes */
                 NodeIterator iterator = getQueryResult(strQuery, session, offset, limit);
                 while (iterator.hasNext()) {
                     JCRNodeWrapper nodeItem = (JCRNodeWrapper) iterator.next();
-                    addItem(nodeItem);
+                    emitNode(nodeItem);
                 }
+                flushRows();
             } catch (RepositoryException rex) {
                 logger.error("getAjaxFromQuery: problem executing the jcr:query[" + strQuery + "]", rex);
             }
         }
     }
 
+    /**
+     * fillSortedReport
+     * <p>fill the report with a page of a sorted query. When the report was given a cursor built
+     * for the same order, the page starts right after it with a range condition instead of the offset.
+     * One more node than the limit is read, to return the cursor of the next page when it exists.</p>
+     *
+     * @param session {@link JCRSessionWrapper}
+     * @param strQuery the query, with a where clause and without order by clause
+     * @param selector the selector name of the query
+     * @param sortField the sorted property
+     * @param direction the sort direction
+     * @param offset
+     * @param limit
+     * @throws JSONException
+     */
+    protected void fillSortedReport(JCRSessionWrapper session, String strQuery, String selector, String sortField, String direction,
+                                    int offset, int limit) throws JSONException {
+        String queryStr = strQuery;
+        int start = offset;
+        if (cursor != null && cursor.isSortedBy(sortField, direction)) {
+            queryStr += " AND " + cursor.getCondition(selector);
+            start = 0;
+        }
+        queryStr += getOrderStatement(selector, sortField, direction);
+        try {
+            if (isRowMode()) {
+                fillSortedRows(session, queryStr, selector, sortField, direction, start, limit);
+                return;
+            }
+            NodeIterator iterator = getQueryResult(queryStr, session, start, limit == NO_LIMIT ? NO_LIMIT : limit + 1);
+            JCRNodeWrapper lastItem = null;
+            int count = 0;
+            while (iterator.hasNext()) {
+                JCRNodeWrapper nodeItem = (JCRNodeWrapper) iterator.next();
+                if (count == limit) {
+                    if (lastItem != null) {
+                        nextCursor = ReportCursor.of(lastItem, sortField, direction);
+                    }
+                    break;
+                }
+                emitNode(nodeItem);
+                lastItem = nodeItem;
+                count++;
+            }
+            flushRows();
+        } catch (RepositoryException rex) {
+            logger.error("getAjaxFromQuery: problem executing the jcr:query[" + queryStr + "]", rex);
+        }
+    }
+
+    /* the rows of a sorted page, as fillSortedReport reads the nodes */
+    private void fillSortedRows(JCRSessionWrapper session, String queryStr, String selector, String sortField, String direction,
+                                int start, int limit) throws RepositoryException {
+        RowIterator rows = getRowResult(queryStr, session, selector, sortField, start, limit == NO_LIMIT ? NO_LIMIT : limit + 1);
+        Row lastRow = null;
+        int count = 0;
+        while (rows.hasNext()) {
+            Row row = rows.nextRow();
+            if (count == limit) {
+                if (lastRow != null) {
+                    nextCursor = ReportCursor.of(lastRow, sortField, direction);
+                }
+                break;
+            }
+            emitRow(row);
+            lastRow = row;
+            count++;
+        }
+        flushRows();
+    }
+
+    /**
+     * fillMergedReport
+     * <p>fill the report with the nodes of several types matching the same constraint, as one sorted result.
+     * Each type scan only reads the projected columns and, for a page, its first offset + limit rows; the scans
+     * are merged lazily by the sort key, the nodes matching several types are kept once and the offset/limit
+     * apply to the merged rows. The rows are given to {@link #addItem(Row)} in row mode, the nodes of the
+     * requested page are loaded otherwise. The number of distinct nodes is counted by a query on all the types,
+     * see {@link #getMergedTotal()}.</p>
+     * <p>A report filtering the rows with {@link #acceptMergedRow(Row)} reads every row of the scans, its total
+     * is then the number of accepted rows.</p>
+     *
+     * @param session {@link JCRSessionWrapper}
+     * @param nodeTypes the node types to read
+     * @param constraint the where clause of the queries, on the item selector
+     * @param sortField the sorted property, null to sort by identifier
+     * @param direction the sort direction
+     * @param offset
+     * @param limit the maximum number of rows, or {@link #NO_LIMIT}
+     * @throws RepositoryException
+     */
+    protected void fillMergedReport(JCRSessionWrapper session, String[] nodeTypes, String constraint, String sortField, String direction,
+                                    int offset, int limit) throws RepositoryException {
+        String[] filterColumns = getMergedFilterColumns();
+        boolean bounded = limit != NO_LIMIT && filterColumns == null;
+        String countQuery = bounded ? getMergedCountQuery(nodeTypes, constraint) : null;
+        Future<Long> total = countQuery != null ? submitTotalCount(session, countQuery) : null;
+
+        boolean rowMode = isRowMode();
+        Set<String> projected = new LinkedHashSet<>(Arrays.asList(getProjectedColumns(rowMode ? getRowColumns() : null, sortField)));
+        if (filterColumns != null) {
+            projected.addAll(Arrays.asList(filterColumns));
+        }
+        String[] columns = projected.toArray(new String[0]);
+        String order = sortField != null ? getOrderStatement("item", sortField, direction) : getOrderStatement("item");
+        QueryManager queryManager = session.getWorkspace().getQueryManager();
+        RowIterator[] streams = new RowIterator[nodeTypes.length];
+        MergedRow[] heads = new MergedRow[nodeTypes.length];
+        for (int i = 0; i < nodeTypes.length; i++) {
+            Query query = queryManager.createQuery(getProjection("SELECT * FROM [" + nodeTypes[i] + "] AS item WHERE " + constraint + order,
+                    "item", columns), Query.JCR_SQL2);
+            if (bounded) {
+                // the first offset + limit merged rows are within the first offset + limit rows of each scan
+                query.setLimit((long) offset + limit);
+            }
+            streams[i] = query.execute().getRows();
+            heads[i] = streams[i].hasNext() ? new MergedRow(session, streams[i].nextRow(), columns, sortField) : null;
+        }
+
+        rowSession = session;
+        Comparator<MergedRow> comparator = "DESC".equals(getSortDirection(direction)) && sortField != null ? MergedRow.DESCENDING : MergedRow.ASCENDING;
+        RowWindow window = new RowWindow(offset, limit);
+        MergedRow last = null;
+        while (!bounded || !window.isFull()) {
+            // the smallest head of the sorted scans
+            int next = -1;
+            for (int i = 0; i < heads.length; i++) {
+                if (heads[i] != null && (next < 0 || comparator.compare(heads[i], heads[next]) < 0)) {
+                    next = i;
+                }
+            }
+            if (next < 0) {
+                break;
+            }
+            MergedRow row = heads[next];
+            heads[next] = streams[next].hasNext() ? new MergedRow(session, streams[next].nextRow(), columns, sortField) : null;
+            // a node of several types has the same sort key and identifier in each scan, the copies are adjacent
+            if (last != null && last.getIdentifier().equals(row.getIdentifier())) {
+                continue;
+            }
+            last = row;
+            if (filterColumns != null && !acceptMergedRow(row)) {
+                continue;
+            }
+            if (!window.accept()) {
+                visitNode();
+                continue;
+            }
+            if (rowMode) {
+                emitRow(row);
+            } else {
+                emitNode((JCRNodeWrapper) row.getNode());
+            }
+        }
+        mergedTotal = total != null ? (int) getTotalCount(total, countQuery) : window.getTotal();
+        flushRows();
+    }
+
+    /* one query matching the nodes of any of the types, so that a node of several types is counted once */
+    private static String getMergedCountQuery(String[] nodeTypes, String constraint) throws RepositoryException {
+        Set<String> typeConstraints = new LinkedHashSet<>();
+        for (String nodeType : nodeTypes) {
+            ExtendedNodeType type = getNodeType(nodeType);
+            List<ExtendedNodeType> types = new ArrayList<>(type.getSubtypesAsList());
+            types.add(type);
+            for (ExtendedNodeType subtype : types) {
+                typeConstraints.add("item.[" + (subtype.isMixin() ? "jcr:mixinTypes" : "jcr:primaryType") + "]='" + subtype.getName() + "'");
+            }
+        }
+        return "SELECT * FROM [nt:base] AS item WHERE (" + constraint + ") AND (" + String.join(" OR ", typeConstraints) + ")";
+    }
+
+    /**
+     * getMergedFilterColumns
+     *
+     * @return the properties read by {@link #acceptMergedRow(Row)}, null when the merged rows are not filtered
+     */
+    protected String[] getMergedFilterColumns() {
+        return null;
+    }
+
+    /**
+     * acceptMergedRow
+     * <p>filter the rows of {@link #fillMergedReport} in memory, for the conditions which do not fit in the
+     * queries.</p>
+     *
+     * @param row {@link Row} holding the properties of {@link #getMergedFilterColumns()}
+     * @return true to keep the row
+     * @throws RepositoryException
+     */
+    protected boolean acceptMergedRow(Row row) throws RepositoryException {
+        return true;
+    }
+
+    /**
+     * getMergedTotal
+     *
+     * @return the number of distinct nodes matched by the last {@link #fillMergedReport}
+     */
+    protected int getMergedTotal() {
+        return mergedTotal;
+    }
+
     /**
      * getTotalCount
      *
@@ -159,6 +688,152 @@ public abstract class QueryReport extends BaseReport {
         return 0;
     }
 
+    /**
+     * getOrderStatement
+     * <p>the order by clause of a paginated query, the identifier of the node is
+     * always used as last criteria so that consecutive pages neither repeat nor skip nodes
+     * having the same value for the sorted property.</p>
+     *
+     * @param selector the selector name of the query
+     * @param property the sorted property
+     * @param direction the requested direction, anything else than desc sorts ascending
+     * @return {@link String}
+     */
+    protected static String getOrderStatement(String selector, String property, String direction) {
+        return " ORDER BY " + selector + ".[" + property + "] " + getSortDirection(direction)
+                + ", " + selector + ".[jcr:uuid] ASC";
+    }
+
+    /**
+     * getOrderStatement
+     * <p>the order by clause of a paginated query without sorted column.</p>
+     *
+     * @param selector the selector name of the query
+     * @return {@link String}
+     */
+    protected static String getOrderStatement(String selector) {
+        return " ORDER BY " + selector + ".[jcr:uuid] ASC";
+    }
+
+    /**
+     * getSortField
+     *
+     * @param fields the sortable properties, indexed by column
+     * @param sortCol the requested column
+     * @return the property of the column, the first one when the column is unknown
+     */
+    protected static String getSortField(String[] fields, int sortCol) {
+        return sortCol >= 0 && sortCol < fields.length ? fields[sortCol] : fields[0];
+    }
+
+    /**
+     * getSortDirection
+     *
+     * @param direction the requested direction
+     * @return DESC or ASC
+     */
+    protected static String getSortDirection(String direction) {
+        return StringUtils.equalsIgnoreCase(StringUtils.trim(direction), "desc") ? "DESC" : "ASC";
+    }
+
+    /**
+     * setCursor
+     *
+     * @param cursor {@link ReportCursor} the position the page starts after, or null to use the offset
+     */
+    public void setCursor(ReportCursor cursor) {
+        this.cursor = cursor;
+    }
+
+    /**
+     * getNextCursor
+     *
+     * @return {@link ReportCursor} the position of the last row, null on the last page
+     */
+    public ReportCursor getNextCursor() {
+        return nextCursor;
+    }
+
+    /**
+     * submitTotalCount
+     * <p>start counting the results of the query while the report reads its page,
+     * see {@link ReportCounter}.</p>
+     *
+     * @param session {@link JCRSessionWrapper}
+     * @param strQuery {@link String}
+     * @return {@link Future} of the total, to pass to {@link #getTotalCount(Future, String)}
+     * @throws RepositoryException
+     */
+    protected Future<Long> submitTotalCount(JCRSessionWrapper session, String strQuery) throws RepositoryException {
+        return ReportCounter.submitCount(session, siteNode, strQuery);
+    }
+
+    /**
+     * getTotalCount
+     *
+     * @param total {@link Future} returned by {@link #submitTotalCount(JCRSessionWrapper, String)}
+     * @param strQuery {@link String}
+     * @return the total, 0 when it could not be counted
+     */
+    protected long getTotalCount(Future<Long> total, String strQuery) {
+        return ReportCounter.getCount(total, strQuery);
+    }
+
+    /**
+     * getRecordsTotal
+     *
+     * @return the total number of rows of the report, over all the pages
+     * @throws JSONException
+     * @throws RepositoryException
+     */
+    public long getRecordsTotal() throws JSONException, RepositoryException {
+        long rowCount = collectedNodes != null ? collectedNodes.size() : rowSink.getRowCount();
+        return getSummary().optLong("recordsTotal", rowCount);
+    }
+
+    /**
+     * getRowSink
+     *
+     * @return {@link ReportRowSink}
+     */
+    public ReportRowSink getRowSink() {
+        return rowSink;
+    }
+
+    /**
+     * setRowSink
+     *
+     * @param rowSink {@link ReportRowSink}
+     */
+    public void setRowSink(ReportRowSink rowSink) {
+        this.rowSink = rowSink;
+    }
+
+    /**
+     * getRowsKey
+     *
+     * @return the json key holding the rows
+     */
+    @Override
+    public String getRowsKey() {
+        return "items";
+    }
+
+    /**
+     * getSummary
+     * <p>the json entries of the report other than the rows.</p>
+     *
+     * @return {@link JSONObject}
+     * @throws JSONException
+     * @throws RepositoryException
+     */
+    protected JSONObject getSummary() throws JSONException, RepositoryException {
+        JSONObject jsonObject = new JSONObject();
+        jsonObject.put("siteName", siteNode.getName());
+        jsonObject.put("siteDisplayableName", siteNode.getDisplayableName());
+        return jsonObject;
+    }
+
     /**
      * getJson
      *
@@ -167,19 +842,41 @@ public abstract class QueryReport extends BaseReport {
      * @throws RepositoryException
      */
     public JSONObject getJson() throws JSONException, RepositoryException {
+        JSONObject jsonObject = getPageSummary();
+        jsonObject.put(getRowsKey(), rowSink.toJSONArray());
+        return jsonObject;
+    }
 
-        JSONObject jsonObject = new JSONObject();
-        JSONArray jArray = new JSONArray();
+    @Override
+    public void writeJson(Writer writer) throws JSONException, RepositoryException, IOException {
+        writeJson(writer, getPageSummary(), getRowsKey(), rowSink);
+    }
 
-        for (Map<String, String> nodeMap : this.dataList) {
-            jArray.put(new JSONObject(nodeMap));
+    @Override
+    public boolean streamRows(Writer writer) throws IOException {
+        this.rowSink = openRows(writer, getRowsKey());
+        return true;
+    }
+
+    private JSONObject getPageSummary() throws JSONException, RepositoryException {
+        JSONObject jsonObject = getSummary();
+        if (nextCursor != null) {
+            jsonObject.put("nextCursor", nextCursor.encode());
         }
-        jsonObject.put("siteName", siteNode.getName());
-        jsonObject.put("siteDisplayableName", siteNode.getDisplayableName());
-        jsonObject.put("items", jArray);
         return jsonObject;
     }
 
-
+    /**
+     * A row waiting for the titles of its page of rows, see {@link #deferRow(JCRSessionWrapper, String, PendingRow)}.
+     */
+    protected interface PendingRow {
+        /**
+         * addTo
+         *
+         * @param titles {@link TitleResolver.Titles} holding the title of the node of the row
+         * @throws RepositoryException
+         */
+        void addTo(TitleResolver.Titles titles) throws RepositoryException;
+    }
 
 }
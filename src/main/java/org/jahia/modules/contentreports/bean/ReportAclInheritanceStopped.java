@@ -43,13 +43,10 @@
  */
 package org.jahia.modules.contentreports.bean;
 
-import org.apache.commons.collections.map.HashedMap;
 import org.apache.commons.lang.StringUtils;
-import org.apache.commons.lang.WordUtils;
 import org.jahia.services.content.JCRNodeWrapper;
 import org.jahia.services.content.JCRSessionWrapper;
 import org.jahia.services.content.decorator.JCRSiteNode;
-import org.json.JSONArray;
 import org.json.JSONException;
 import org.json.JSONObject;
 import org.slf4j.Logger;
@@ -60,7 +57,11 @@ import javax.jcr.query.Query;
 import javax.jcr.query.QueryManager;
 import javax.jcr.query.QueryResult;
 import javax.jcr.NodeIterator;
-import java.util.*;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
 
 /**
  * ReportAclInheritanceStopped Class.
@@ -71,6 +72,8 @@ public class ReportAclInheritanceStopped extends QueryReport {
     private static Logger logger = LoggerFactory.getLogger(ReportAclInheritanceStopped.class);
     protected static final String BUNDLE = "resources.contentReportReact";
     private long totalContent;
+    private int sortCol;
+    private String order;
 
     /**
      * Instantiates a new Report pages without title.
@@ -78,14 +81,27 @@ public class ReportAclInheritanceStopped extends QueryReport {
      * @param siteNode the site node
      */
     public ReportAclInheritanceStopped(JCRSiteNode siteNode) {
+        this(siteNode, 0, null);
+    }
+
+    /**
+     * Instantiates a new Report pages without title.
+     *
+     * @param siteNode the site node
+     * @param sortCol the sorted column, the name or the path of the node
+     * @param order the sort direction
+     */
+    public ReportAclInheritanceStopped(JCRSiteNode siteNode, int sortCol, String order) {
         super(siteNode);
+        this.sortCol = sortCol;
+        this.order = order;
     }
 
     @Override
     public void execute(JCRSessionWrapper session, int offset, int limit) throws RepositoryException, JSONException {
         // Use a Set to track unique content node paths and avoid duplicates
         Set<String> processedPaths = new HashSet<>();
-        
+
         // Query 1: ACL nodes with broken inheritance (j:inherit=false)
         String aclQuery = "SELECT * FROM [jnt:acl] AS item WHERE [j:inherit]=false AND ISDESCENDANTNODE(item,['" + siteNode.getPath() + "'])";
         QueryManager queryManager = session.getWorkspace().getQueryManager();
@@ -96,11 +112,8 @@ public class ReportAclInheritanceStopped extends QueryReport {
         
         while (aclIterator.hasNext()) {
             JCRNodeWrapper aclNode = (JCRNodeWrapper) aclIterator.next();
-            JCRNodeWrapper contentNode = aclNode.getParent();
-            if (contentNode != null && !processedPaths.contains(contentNode.getPath())) {
-                addItem(aclNode);
-                processedPaths.add(contentNode.getPath());
-            }
+            // For ACL nodes: acl -> content node
+            processedPaths.add(StringUtils.substringBeforeLast(aclNode.getPath(), "/"));
         }
         
         // Query 2: ACE nodes with DENY permissions
@@ -112,18 +125,24 @@ public class ReportAclInheritanceStopped extends QueryReport {
         while (aceIterator.hasNext()) {
             JCRNodeWrapper aceNode = (JCRNodeWrapper) aceIterator.next();
             // For ACE nodes: ace -> acl -> content node
-            JCRNodeWrapper aclParent = aceNode.getParent();
-            if (aclParent != null) {
-                JCRNodeWrapper contentNode = aclParent.getParent();
-                if (contentNode != null && !processedPaths.contains(contentNode.getPath())) {
-                    // Create a pseudo-acl node context for addItem
-                    addItem(aclParent);
-                    processedPaths.add(contentNode.getPath());
-                }
+            processedPaths.add(StringUtils.substringBeforeLast(StringUtils.substringBeforeLast(aceNode.getPath(), "/"), "/"));
+        }
+
+        // the two queries are sorted and paginated together, after the duplicates are removed,
+        // only the nodes of the requested page are read
+        List<String> paths = new ArrayList<>(processedPaths);
+        Comparator<String> comparator = sortCol == 0
+                ? Comparator.comparing((String path) -> StringUtils.substringAfterLast(path, "/")).thenComparing(Comparator.naturalOrder())
+                : Comparator.naturalOrder();
+        paths.sort("DESC".equals(getSortDirection(order)) ? comparator.reversed() : comparator);
+        RowWindow window = new RowWindow(offset, limit);
+        for (String path : paths) {
+            if (window.accept()) {
+                emitNode(session.getNode(path));
             }
         }
         
-        totalContent = this.dataList.size();
+        totalContent = window.getTotal();
     }
 
     /**
@@ -133,46 +152,28 @@ public class ReportAclInheritanceStopped extends QueryReport {
      * @throws RepositoryException
      */
     public void addItem(JCRNodeWrapper node) throws RepositoryException {
-        //adding the node to list if Acl Inheritance is Break
-        node = node.getParent();
-        Map<String, String> nodeMap = new HashedMap();
-        nodeMap.put("nodePath", node.getPath());
-        nodeMap.put("nodeUrl", node.getUrl());
-        nodeMap.put("nodeName", node.getName());
-        nodeMap.put("nodeType", node.getPrimaryNodeTypeName());
-        nodeMap.put("expiration", node.getPropertyAsString("j:expiration"));
-        nodeMap.put("nodeTypeTechName", node.getPrimaryNodeTypeName().split(":")[1]);
-        nodeMap.put("nodeTypeName", node.getPrimaryNodeType().getName());
-        nodeMap.put("nodeTypePrefix", node.getPrimaryNodeType().getPrefix());
-        nodeMap.put("nodeTypePrefix", node.getPrimaryNodeType().getPrefix());
-        nodeMap.put("nodeTypeAlias", node.getPrimaryNodeType().getAlias());
-        nodeMap.put("nodeAuthor", node.getCreationUser());
-        nodeMap.put("nodeLockedBy", node.getLockOwner());
-        nodeMap.put("nodeDisplayableName", WordUtils.abbreviate(node.getDisplayableName(),90,130,"..."));
-        nodeMap.put("nodeTitle", (node.hasI18N(this.locale) && node.getI18N(this.defaultLocale).hasProperty("jcr:title")) ? node.getI18N(this.defaultLocale).getProperty("jcr:title").getString() : "");
-        nodeMap.put("displayTitle", StringUtils.isNotEmpty(nodeMap.get("nodeTitle")) ? nodeMap.get("nodeTitle") : nodeMap.get("nodeName"));
-        this.dataList.add(nodeMap);
+        //adding the node whose Acl Inheritance is Break
+        rowSink.addRow(node.getName(), node.getPath());
     }
 
-    public JSONObject getJson() throws JSONException, RepositoryException {
-
-        JSONObject jsonObject = new JSONObject();
-        JSONArray jArray = new JSONArray();
-
-        for (Map<String, String> nodeMap : this.dataList) {
-            JSONArray item = new JSONArray();
-            item.put(nodeMap.get("nodeName"));
-            item.put(nodeMap.get("nodePath"));
-            jArray.put(item);        }
+    @Override
+    public boolean isNodeList() {
+        return true;
+    }
 
+    @Override
+    protected JSONObject getSummary() throws JSONException, RepositoryException {
+        JSONObject jsonObject = super.getSummary();
         jsonObject.put("recordsTotal", totalContent);
         jsonObject.put("recordsFiltered", totalContent);
-        jsonObject.put("siteName", siteNode.getName());
-        jsonObject.put("siteDisplayableName", siteNode.getDisplayableName());
-        jsonObject.put("data", jArray);
         return jsonObject;
     }
 
+    @Override
+    public String getRowsKey() {
+        return "data";
+    }
+
 
 
 }
@@ -113,7 +113,7 @@ public class ReportBeforeDate extends QueryReport {
             nodeMap.put("type", node.getPrimaryNodeTypeName());
             nodeMap.put("typeName", node.getPrimaryNodeTypeName().split(":")[1]);
 
-            dataList.add(nodeMap);
+            rowSink.addRow(nodeMap);
 
 
             /*setting the counter*/
@@ -125,15 +125,16 @@ public class ReportBeforeDate extends QueryReport {
     }
 
     /**
-     * getJson
+     * getSummary
+     * <p>The chart data; the table rows are appended under "items" by the row sink.</p>
      *
      * @return {@link JSONObject}
      * @throws JSONException
      */
-    public JSONObject getJson() throws JSONException {
+    @Override
+    protected JSONObject getSummary() throws JSONException {
         JSONObject jsonObject = new JSONObject();
-        JSONArray jArray = new JSONArray();
-        JSONArray jsonArrayLabels = new JSONArray();;
+        JSONArray jsonArrayLabels = new JSONArray();
         JSONArray jsonArrayValues = new JSONArray();
 
         /* filling the chart data */
@@ -142,15 +143,8 @@ public class ReportBeforeDate extends QueryReport {
             jsonArrayValues.put(dataMap.get(dateKey));
         }
 
-        /* filling the table data */
-        for (Map<String, String> itemMap :dataList){
-            jArray.put(new JSONObject(itemMap));
-        }
-
-        jsonObject.put("items",jArray);
         jsonObject.put("chartLabels",jsonArrayLabels);
         jsonObject.put("chartValues",jsonArrayValues);
-
         return jsonObject;
     }
 
@@ -45,6 +45,11 @@ package org.jahia.modules.contentreports.bean;
 
 
 import org.jahia.exceptions.JahiaException;
+import org.jahia.modules.contentreports.service.NodeColumns;
+import org.jahia.modules.contentreports.service.OverviewEngine;
+import org.jahia.modules.contentreports.service.OverviewNode;
+import org.jahia.modules.contentreports.service.ReportIndex;
+import org.jahia.modules.contentreports.service.StringPool;
 import org.jahia.services.content.JCRNodeWrapper;
 import org.jahia.services.content.JCRSessionWrapper;
 import org.jahia.services.content.decorator.JCRSiteNode;
@@ -54,6 +59,10 @@ import org.json.JSONObject;
 import org.jahia.utils.i18n.Messages;
 
 import javax.jcr.RepositoryException;
+import javax.jcr.Value;
+import javax.jcr.query.Row;
+import java.io.IOException;
+import java.io.Writer;
 import java.util.*;
 
 /**
@@ -64,6 +73,7 @@ import java.util.*;
 public class ReportByAllDate extends QueryReport {
 
     private static final String BUNDLE = "resources.contentReportReact";
+    private static final String[] ROW_COLUMNS = {"jcr:primaryType", "jcr:createdBy", "jcr:created", "jcr:lastModifiedBy", "jcr:lastModified"};
     private Map<Integer, Map<Integer, Map<String, Integer>>> dataMap;
     private Boolean useSystemUser;
     private SearchActionType actionType;
@@ -84,15 +94,45 @@ public class ReportByAllDate extends QueryReport {
         this.actionType = actionType;
         this.totalPages = 0;
         this.totalContent = 0;
-        this.setDataMap(new HashMap<Integer, Map<Integer, Map<String, Integer>>>());
+        this.setDataMap(new TreeMap<Integer, Map<Integer, Map<String, Integer>>>());
     }
 
     @Override
     public void execute(JCRSessionWrapper session, int offset, int limit) throws RepositoryException, JSONException, JahiaException {
-        String pageQueryStr = "SELECT * FROM [jnt:page] AS item WHERE ISDESCENDANTNODE(item,['" + searchPath + "'])";
-        String contentQueryStr = "SELECT * FROM [jmix:editorialContent] AS item WHERE ISDESCENDANTNODE(item,['" + searchPath + "'])";
-        fillReport(session, pageQueryStr, offset, limit);
-        fillReport(session, contentQueryStr, offset, limit);
+        ReportIndex.SiteIndex index = ReportIndex.getReadyIndex(session, searchPath);
+        if (index != null) {
+            fillFromIndex(index);
+            return;
+        }
+        // the months are counted over every node, the offset/limit of the request cannot apply to the nodes read,
+        // the pages and the editorial contents are scanned together and a node of both types is counted once
+        fillMergedReport(session, new String[]{"jnt:page", "jmix:editorialContent"}, "ISDESCENDANTNODE(item,['" + searchPath + "'])",
+                null, null, 0, NO_LIMIT);
+    }
+
+    @Override
+    protected String[] getRowColumns() {
+        return ROW_COLUMNS;
+    }
+
+    /* same counters, read from the columns of the report index, a node of both types is counted once
+     * as a page like the merged scan does */
+    private void fillFromIndex(ReportIndex.SiteIndex index) {
+        boolean creation = actionType.equals(SearchActionType.CREATION);
+        NodeColumns columns = index.getColumns(searchPath);
+        StringPool names = columns.getNames();
+        int[] users = creation ? columns.getCreatedBy() : columns.getLastModifiedBy();
+        long[] dates = creation ? columns.getCreated() : columns.getLastModified();
+        for (int row = 0; row < columns.size(); row++) {
+            visitNode();
+            boolean page = columns.isOfType(row, OverviewEngine.PAGE);
+            boolean content = columns.isOfType(row, OverviewEngine.EDITORIAL_CONTENT);
+            String userName = names.get(users[row]);
+            if (!page && !content || userName == null || dates[row] == OverviewNode.NO_DATE) {
+                continue;
+            }
+            addItem(userName, new Date(dates[row]), page ? SearchContentType.PAGE : SearchContentType.CONTENT);
+        }
     }
 
     /**
@@ -114,39 +154,62 @@ public class ReportByAllDate extends QueryReport {
         }
 
         if (node.hasProperty(propertyName)) {
-            String userName = node.getPropertyAsString(propertyName);
-            if (userName.equalsIgnoreCase("system") && !useSystemUser)
-                return;
+            addItem(node.getPropertyAsString(propertyName), itemDate,
+                    node.isNodeType("jnt:page") ? SearchContentType.PAGE : SearchContentType.CONTENT);
+        }
+    }
 
-            Calendar calendar = new GregorianCalendar();
-            calendar.setTime(itemDate);
-            int year = calendar.get(Calendar.YEAR);
-            int month = calendar.get(Calendar.MONTH) + 1;
+    @Override
+    public void addItem(Row row) throws RepositoryException {
+        boolean creation = actionType.equals(SearchActionType.CREATION);
+        String userName = getRowString(row, creation ? "jcr:createdBy" : "jcr:lastModifiedBy");
+        Value itemDate = row.getValue(creation ? "jcr:created" : "jcr:lastModified");
+        String primaryType = getRowString(row, "jcr:primaryType");
+        if (userName != null && itemDate != null) {
+            addItem(userName, itemDate.getDate().getTime(),
+                    primaryType != null && getNodeType(primaryType).isNodeType("jnt:page") ? SearchContentType.PAGE : SearchContentType.CONTENT);
+        }
+    }
 
-            if (!getDataMap().containsKey(year))
-                getDataMap().put(year, new HashMap());
+    private void addItem(String userName, Date itemDate, SearchContentType contentType) {
+        if (userName.equalsIgnoreCase("system") && !useSystemUser)
+            return;
 
-            if (!getDataMap().get(year).containsKey(month))
-                getDataMap().get(year).put(month, new HashMap());
+        Calendar calendar = new GregorianCalendar();
+        calendar.setTime(itemDate);
+        int year = calendar.get(Calendar.YEAR);
+        int month = calendar.get(Calendar.MONTH) + 1;
 
-            SearchContentType contentType = node.isNodeType("jnt:page") ? SearchContentType.PAGE : SearchContentType.CONTENT;
+        if (!getDataMap().containsKey(year))
+            getDataMap().put(year, new TreeMap());
 
-             /*setting the counter*/
-            if (getDataMap().get(year).get(month).containsKey(contentType.toString())) {
-                getDataMap().get(year).get(month).put(contentType.toString(), (getDataMap().get(year).get(month).get(contentType.toString()) + 1));
-            } else {
-                getDataMap().get(year).get(month).put(contentType.toString(), 1);
-            }
+        if (!getDataMap().get(year).containsKey(month))
+            getDataMap().get(year).put(month, new HashMap());
 
-            if (SearchContentType.PAGE.equals(contentType)) {
-                setTotalPages(getTotalPages() + 1);
-            } else {
-                setTotalContent(getTotalContent() + 1);
-            }
+         /*setting the counter*/
+        if (getDataMap().get(year).get(month).containsKey(contentType.toString())) {
+            getDataMap().get(year).get(month).put(contentType.toString(), (getDataMap().get(year).get(month).get(contentType.toString()) + 1));
+        } else {
+            getDataMap().get(year).get(month).put(contentType.toString(), 1);
+        }
 
+        if (SearchContentType.PAGE.equals(contentType)) {
+            setTotalPages(getTotalPages() + 1);
+        } else {
+            setTotalContent(getTotalContent() + 1);
         }
     }
 
+    @Override
+    public void writeJson(Writer writer) throws JSONException, RepositoryException, IOException {
+        getJson().write(writer);
+    }
+
+    @Override
+    public boolean streamRows(Writer writer) {
+        return false;
+    }
+
     /**
      * getJson
      *
@@ -43,8 +43,13 @@
  */
 package org.jahia.modules.contentreports.bean;
 
-import org.apache.commons.collections.map.HashedMap;
+import org.apache.commons.lang.StringUtils;
 import org.jahia.exceptions.JahiaException;
+import org.jahia.modules.contentreports.service.IdHistogram;
+import org.jahia.modules.contentreports.service.NodeColumns;
+import org.jahia.modules.contentreports.service.OverviewEngine;
+import org.jahia.modules.contentreports.service.ReportIndex;
+import org.jahia.modules.contentreports.service.StringPool;
 import org.jahia.services.content.JCRNodeWrapper;
 import org.jahia.services.content.JCRSessionWrapper;
 import org.jahia.services.content.decorator.JCRSiteNode;
@@ -52,25 +57,47 @@ import org.json.JSONArray;
 import org.json.JSONException;
 import org.json.JSONObject;
 import javax.jcr.RepositoryException;
+import javax.jcr.query.Row;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Future;
 
 /**
  * ReportByAuthor Class.
+ * <p>Counts the pages or the contents by author and by node type, with int counters indexed by the ids
+ * of the authors and types. The nodes of one author are listed on demand, when the report is given
+ * that author, instead of being shipped with the counters of every author.</p>
  *
  * Created by Juan Carlos Rodas.
  */
 public class ReportByAuthor extends QueryReport {
 
-    private final String PROPERTY_COUNT = "itemCount";
-    private final String PROPERTY_AUTHOR_DETAIL = "authorDetail";
-    private final String PROPERTY_PAGE_DETAIL = "pageDetail";
-    private Integer totalItems;
-    private Map<String, Map<String, Object>> dataMap;
+    /* the properties read by the counters, and by the detail of an author */
+    private static final String[] ROW_COLUMNS = {"jcr:primaryType", "jcr:createdBy", "jcr:lastModifiedBy"};
+    private static final String[] DETAIL_COLUMNS = {"jcr:primaryType", "jcr:created", "jcr:lastModified", "j:published", "j:locktoken"};
+    private String[] detailFields = {"j:nodename", "jcr:primaryType", "jcr:created", "jcr:lastModified"};
+    private int totalItems;
+    private StringPool users;
+    private StringPool types;
+    private IdHistogram userCounts;
+    /* the type counts of each author, indexed by the id of the author */
+    private List<IdHistogram> userTypeCounts;
     private Boolean useSystemUser;
     private String searchPath;
     private SearchContentType reportType;
     private SearchActionType actionType;
+    /* the author whose nodes are listed, null for the counters of all the authors */
+    private String author;
+    private int sortCol;
+    private String order;
+    private long totalContent;
+    /* the window of the request, applied to the rows of the authors */
+    private int rowOffset;
+    private int rowLimit;
 
     /**
      * The ReportByAuthor constructor.
@@ -80,12 +107,33 @@ public class ReportByAuthor extends QueryReport {
      * @param useSystemUser {@link Boolean}
      */
     public ReportByAuthor(JCRSiteNode siteNode, String path, SearchContentType reportType, SearchActionType actionType, Boolean useSystemUser) {
+        this(siteNode, path, reportType, actionType, useSystemUser, null, 0, null);
+    }
+
+    /**
+     * The ReportByAuthor constructor, for the detail of an author.
+     *
+     * @param reportType {@link SearchContentType}
+     * @param actionType {@link SearchActionType}
+     * @param useSystemUser {@link Boolean}
+     * @param author the author whose nodes are listed, null for the counters of all the authors
+     * @param sortCol the sorted column of the detail
+     * @param order the sort direction of the detail
+     */
+    public ReportByAuthor(JCRSiteNode siteNode, String path, SearchContentType reportType, SearchActionType actionType, Boolean useSystemUser,
+                          String author, int sortCol, String order) {
         super(siteNode);
         this.searchPath = path;
         this.useSystemUser = useSystemUser;
         this.reportType = reportType;
         this.actionType = actionType;
-        this.dataMap = new HashMap<>();
+        this.author = StringUtils.isNotEmpty(author) ? author : null;
+        this.sortCol = sortCol;
+        this.order = order;
+        this.users = new StringPool();
+        this.types = new StringPool();
+        this.userCounts = new IdHistogram();
+        this.userTypeCounts = new ArrayList<>();
         this.totalItems = 0;
     }
 
@@ -94,7 +142,56 @@ public class ReportByAuthor extends QueryReport {
         String strQuery = "SELECT * FROM ";
         strQuery += (reportType.equals(BaseReport.SearchContentType.PAGE) ? "[jnt:page] " : "[jmix:editorialContent] ");
         strQuery += "AS item WHERE ISDESCENDANTNODE(item,['" + searchPath + "'])";
-        fillReport(session, strQuery, offset, limit);
+        if (author != null) {
+            strQuery += " AND item.[" + getUserProperty() + "] = '" + StringUtils.replace(author, "'", "''") + "'";
+            Future<Long> total = submitTotalCount(session, strQuery);
+            fillSortedReport(session, strQuery, "item", getSortField(detailFields, sortCol), order, offset, limit);
+            totalContent = getTotalCount(total, strQuery);
+            return;
+        }
+        // the authors are counted over every node, the offset/limit of the request applies to the rows of the authors
+        this.rowOffset = offset;
+        this.rowLimit = limit;
+        ReportIndex.SiteIndex index = ReportIndex.getReadyIndex(session, searchPath);
+        if (index != null) {
+            fillFromIndex(index);
+            return;
+        }
+        fillReport(session, strQuery, 0, NO_LIMIT);
+    }
+
+    /* same counters, read from the columns of the report index */
+    private void fillFromIndex(ReportIndex.SiteIndex index) {
+        int typeMask = reportType.equals(BaseReport.SearchContentType.PAGE) ? OverviewEngine.PAGE : OverviewEngine.EDITORIAL_CONTENT;
+        NodeColumns columns = index.getColumns(searchPath);
+        StringPool names = columns.getNames();
+        int[] userIds = actionType.equals(SearchActionType.CREATION) ? columns.getCreatedBy() : columns.getLastModifiedBy();
+        int[] primaryTypes = columns.getPrimaryTypes();
+        for (int row = 0; row < columns.size(); row++) {
+            if (!columns.isOfType(row, typeMask)) {
+                continue;
+            }
+            visitNode();
+            addItem(names.get(userIds[row]), names.get(primaryTypes[row]));
+        }
+    }
+
+    private String getUserProperty() {
+        return actionType.equals(SearchActionType.CREATION) ? "jcr:createdBy" : "jcr:lastModifiedBy";
+    }
+
+    private boolean acceptUser(String userName) {
+        return useSystemUser || !userName.equalsIgnoreCase("system");
+    }
+
+    @Override
+    protected String[] getRowColumns() {
+        return author != null ? DETAIL_COLUMNS : ROW_COLUMNS;
+    }
+
+    @Override
+    public boolean isNodeList() {
+        return author != null;
     }
 
     /**
@@ -103,288 +200,157 @@ public class ReportByAuthor extends QueryReport {
      * @throws RepositoryException
      */
     public void addItem(JCRNodeWrapper node) throws RepositoryException {
+        if (author != null) {
+            addDetailItem(node.getSession(), node.getPath(), node.getPrimaryNodeTypeName(),
+                    node.hasProperty("jcr:created") ? node.getPropertyAsString("jcr:created") : "",
+                    node.hasProperty("jcr:lastModified") ? node.getPropertyAsString("jcr:lastModified") : "",
+                    node.hasProperty("j:published") ? node.getPropertyAsString("j:published") : "false",
+                    node.hasProperty("j:locktoken") ? "true" : "false");
+            return;
+        }
+        String userProperty = getUserProperty();
+        if (node.hasProperty(userProperty)) {
+            addItem(node.getPropertyAsString(userProperty), node.getPrimaryNodeTypeName());
+        }
+    }
 
-        String propertyName = "";
-        if (actionType.equals(SearchActionType.CREATION))
-            propertyName = "jcr:createdBy";
-        else if (actionType.equals(SearchActionType.UPDATE))
-            propertyName = "jcr:lastModifiedBy";
-
-        if (node.hasProperty(propertyName)) {
-            String userName = node.getPropertyAsString(propertyName);
-            if (userName.equalsIgnoreCase("system") && !useSystemUser)
-                return;
-
-            if (!getDataMap().containsKey(userName))
-                getDataMap().put(userName, new HashedMap());
-
-            /*setting the counter*/
-            if (getDataMap().get(userName).containsKey(PROPERTY_COUNT)) {
-                getDataMap().get(userName).put(PROPERTY_COUNT, ((Integer) getDataMap().get(userName).get(PROPERTY_COUNT) + 1));
-            } else {
-                getDataMap().get(userName).put(PROPERTY_COUNT, 1);
-            }
-
-            /*setting the author detail*/
-            if (!getDataMap().get(userName).containsKey(PROPERTY_AUTHOR_DETAIL))
-                getDataMap().get(userName).put(PROPERTY_AUTHOR_DETAIL, new ReportByAuthorDetail());
-
-            ((ReportByAuthorDetail) getDataMap().get(userName).get(PROPERTY_AUTHOR_DETAIL)).addAuthorDetailItem(node);
-
-
-             /*setting the page author detail*/
-            if (!getDataMap().get(userName).containsKey(PROPERTY_PAGE_DETAIL))
-                getDataMap().get(userName).put(PROPERTY_PAGE_DETAIL, new ReportByAuthorPageDetail());
-
-            ((ReportByAuthorPageDetail) getDataMap().get(userName).get(PROPERTY_PAGE_DETAIL)).addAuthorPageDetailItem(node);
+    @Override
+    public void addItem(Row row) throws RepositoryException {
+        if (author != null) {
+            addDetailItem(null, row.getPath(), getRowString(row, "jcr:primaryType"),
+                    StringUtils.defaultString(getRowString(row, "jcr:created")),
+                    StringUtils.defaultString(getRowString(row, "jcr:lastModified")),
+                    StringUtils.defaultString(getRowString(row, "j:published"), "false"),
+                    row.getValue("j:locktoken") != null ? "true" : "false");
+            return;
+        }
+        addItem(getRowString(row, getUserProperty()), getRowString(row, "jcr:primaryType"));
+    }
 
+    /* one id lookup for the author, one for the type, then int counters */
+    private void addItem(String userName, String primaryNodeTypeName) {
+        if (userName == null || primaryNodeTypeName == null || !acceptUser(userName)) {
+            return;
+        }
+        int userId = users.getId(userName);
+        userCounts.add(userId);
+        while (userTypeCounts.size() <= userId) {
+            userTypeCounts.add(new IdHistogram());
+        }
+        userTypeCounts.get(userId).add(types.getId(primaryNodeTypeName));
+        totalItems++;
+    }
 
-            setTotalItems(getTotalItems() + 1);
+    /* a node of the author, its title is read with the titles of the other rows of the page */
+    private void addDetailItem(JCRSessionWrapper session, String path, String type, String created, String modified,
+                               String published, String locked) throws RepositoryException {
+        String nodeName = StringUtils.substringAfterLast(path, "/");
+        PendingRow row = titles -> {
+            String title = titles.get(path, locale.toString());
+            Map<String, String> item = new HashMap<>();
+            item.put("title", nodeName);
+            item.put("jcrtitle", title != null ? title : nodeName);
+            item.put("path", path);
+            item.put("type", type);
+            item.put("typeName", StringUtils.substringAfter(type, ":"));
+            item.put("created", created);
+            item.put("modified", modified);
+            item.put("published", published);
+            item.put("locked", locked);
+            rowSink.addRow(item);
+        };
+        if (session != null) {
+            deferRow(session, path, row);
+        } else {
+            deferRow(path, row);
         }
     }
 
     /**
      * getJson
+     * <p>the counters of the authors, or the page of nodes when the report is given an author.</p>
      *
      * @return {@link JSONObject}
      * @throws JSONException
+     * @throws RepositoryException
      */
-    public JSONObject getJson() throws JSONException {
+    public JSONObject getJson() throws JSONException, RepositoryException {
+        if (author != null) {
+            return super.getJson();
+        }
         JSONObject jsonObject = new JSONObject();
         JSONArray jArray = new JSONArray();
-        JSONObject jsonObjectItem;
-
-        ReportByAuthorDetail authorDetail;
-        JSONObject jsonObjectItemAuthorDetail;
-        JSONArray jsonArrayItemAuthorDetail;
-        JSONObject jsonObjectSubItemAuthorDetail;
 
-        ReportByAuthorPageDetail authorPageDetail;
-        JSONObject jsonObjectItemPageDetail;
-        JSONArray jsonArrayItemPageDetail;
-        JSONObject jsonObjectSubItemPageDetail;
-
-        for (String key : dataMap.keySet()) {
-            jsonObjectItem = new JSONObject();
-            jsonObjectItem.put("user", key);
-            jsonObjectItem.put("itemCount", dataMap.get(key).get(PROPERTY_COUNT));
-            jsonObjectItem.put("percentaje", (Float.parseFloat(((Integer) dataMap.get(key).get(PROPERTY_COUNT) * 100) + "") / totalItems));
+        RowWindow window = new RowWindow(rowOffset, rowLimit);
+        for (int userId : userCounts.getIds()) {
+            if (!window.accept()) {
+                continue;
+            }
+            int userCount = userCounts.get(userId);
+            JSONObject jsonObjectItem = new JSONObject();
+            jsonObjectItem.put("user", users.get(userId));
+            jsonObjectItem.put("itemCount", userCount);
+            jsonObjectItem.put("percentaje", (float) userCount * 100 / totalItems);
 
             /* part of author detail */
-            authorDetail = (ReportByAuthorDetail) dataMap.get(key).get(PROPERTY_AUTHOR_DETAIL);
-            jsonObjectItemAuthorDetail = new JSONObject();
-            jsonObjectItemAuthorDetail.put("totalCount", authorDetail.getTotalAuthorDetailItems());
-
-            jsonArrayItemAuthorDetail = new JSONArray();
-            for (String keyAuthorDetail : authorDetail.getDetailAuthorMap().keySet()) {
-                jsonObjectSubItemAuthorDetail = new JSONObject();
-                jsonObjectSubItemAuthorDetail.put("type", keyAuthorDetail);
-                jsonObjectSubItemAuthorDetail.put("typeName", (keyAuthorDetail.split(":")[1]));
-                jsonObjectSubItemAuthorDetail.put("itemCount", authorDetail.getDetailAuthorMap().get(keyAuthorDetail));
-                jsonObjectSubItemAuthorDetail.put("percentaje", (Float.parseFloat((authorDetail.getDetailAuthorMap().get(keyAuthorDetail) * 100) + "") / authorDetail.getTotalAuthorDetailItems()));
+            IdHistogram typeCounts = userTypeCounts.get(userId);
+            JSONObject jsonObjectItemAuthorDetail = new JSONObject();
+            jsonObjectItemAuthorDetail.put("totalCount", typeCounts.getTotal());
+            JSONArray jsonArrayItemAuthorDetail = new JSONArray();
+            for (int typeId : typeCounts.getIds()) {
+                String type = types.get(typeId);
+                JSONObject jsonObjectSubItemAuthorDetail = new JSONObject();
+                jsonObjectSubItemAuthorDetail.put("type", type);
+                jsonObjectSubItemAuthorDetail.put("typeName", StringUtils.substringAfter(type, ":"));
+                jsonObjectSubItemAuthorDetail.put("itemCount", typeCounts.get(typeId));
+                jsonObjectSubItemAuthorDetail.put("percentaje", (float) typeCounts.get(typeId) * 100 / typeCounts.getTotal());
                 jsonArrayItemAuthorDetail.put(jsonObjectSubItemAuthorDetail);
             }
             jsonObjectItemAuthorDetail.put("items", jsonArrayItemAuthorDetail);
             jsonObjectItem.put("itemAuthorDetails", jsonObjectItemAuthorDetail);
 
-            /* part of page details */
-            authorPageDetail = (ReportByAuthorPageDetail) dataMap.get(key).get(PROPERTY_PAGE_DETAIL);
-            jsonObjectItemPageDetail = new JSONObject();
-            jsonArrayItemPageDetail = new JSONArray();
-            for (String keyPageDetail : authorPageDetail.getDetailAuthorPageMap().keySet()) {
-                jsonObjectSubItemPageDetail = new JSONObject();
-                jsonObjectSubItemPageDetail.put("title", keyPageDetail);
-                for (String keyPageDetailItem : authorPageDetail.getDetailAuthorPageMap().get(keyPageDetail).keySet()) {
-                    jsonObjectSubItemPageDetail.put(keyPageDetailItem, authorPageDetail.getDetailAuthorPageMap().get(keyPageDetail).get(keyPageDetailItem));
-                }
-                jsonArrayItemPageDetail.put(jsonObjectSubItemPageDetail);
-            }
-            jsonObjectItemPageDetail.put("items", jsonArrayItemPageDetail);
-            jsonObjectItem.put("itemAuthorPageDetails", jsonObjectItemPageDetail);
-
-
             /* setting each item to the json object */
             jArray.put(jsonObjectItem);
         }
 
         jsonObject.put("reportType", reportType.name());
         jsonObject.put("totalItems", totalItems);
+        jsonObject.put("recordsTotal", window.getTotal());
         jsonObject.put("items", jArray);
 
         return jsonObject;
     }
 
-    /**
-     * getTotalItems
-     *
-     * @return {@link Integer}
-     */
-    public Integer getTotalItems() {
-        return totalItems;
-    }
-
-    /**
-     * setTotalItems
-     *
-     * @param totalItems {@link Integer}
-     */
-    public void setTotalItems(Integer totalItems) {
-        this.totalItems = totalItems;
+    @Override
+    public void writeJson(Writer writer) throws JSONException, RepositoryException, IOException {
+        if (author != null) {
+            super.writeJson(writer);
+            return;
+        }
+        getJson().write(writer);
     }
 
-    /**
-     * getDataMap
-     *
-     * @return {@link Map}
-     */
-    public Map<String, Map<String, Object>> getDataMap() {
-        return dataMap;
+    @Override
+    public boolean streamRows(Writer writer) throws IOException {
+        return author != null && super.streamRows(writer);
     }
 
-    /**
-     * ReportByAuthorDetail Class.
-     */
-    public class ReportByAuthorDetail {
-
-        private Integer totalAuthorDetailItems;
-        private Map<String, Integer> detailAuthorMap;
-
-        /* The constructor for the class. */
-        public ReportByAuthorDetail() {
-            this.setTotalAuthorDetailItems(0);
-            this.setDetailAuthorMap(new HashMap<String, Integer>());
-        }
-
-        /**
-         * addAuthorDetailItem
-         * <p>add detail item for specific author.</p>
-         *
-         * @param detailNode {@link JCRNodeWrapper}
-         * @throws RepositoryException
-         */
-        public void addAuthorDetailItem(JCRNodeWrapper detailNode) throws RepositoryException {
-            String primaryNodeTypeName = detailNode.getPrimaryNodeTypeName();
-
-            /*setting the counter*/
-            if (getDetailAuthorMap().containsKey(primaryNodeTypeName)) {
-                getDetailAuthorMap().put(primaryNodeTypeName, getDetailAuthorMap().get(primaryNodeTypeName) + 1);
-            } else {
-                getDetailAuthorMap().put(primaryNodeTypeName, 1);
-            }
-            setTotalAuthorDetailItems(getTotalAuthorDetailItems() + 1);
-        }
-
-        /**
-         * getTotalAuthorDetailItems
-         *
-         * @return {@link Integer}
-         */
-        public Integer getTotalAuthorDetailItems() {
-            return totalAuthorDetailItems;
-        }
-
-        /**
-         * setTotalAuthorDetailItems
-         *
-         * @param totalAuthorDetailItems {@link Integer}
-         */
-        public void setTotalAuthorDetailItems(Integer totalAuthorDetailItems) {
-            this.totalAuthorDetailItems = totalAuthorDetailItems;
-        }
-
-        /**
-         * getDetailAuthorMap
-         *
-         * @return {@link Map}
-         */
-        public Map<String, Integer> getDetailAuthorMap() {
-            return detailAuthorMap;
-        }
-
-        /**
-         * setDetailAuthorMap
-         *
-         * @param detailAuthorMap {@link Map}
-         */
-        public void setDetailAuthorMap(Map<String, Integer> detailAuthorMap) {
-            this.detailAuthorMap = detailAuthorMap;
-        }
+    @Override
+    protected JSONObject getSummary() throws JSONException, RepositoryException {
+        JSONObject jsonObject = super.getSummary();
+        jsonObject.put("reportType", reportType.name());
+        jsonObject.put("user", author);
+        jsonObject.put("recordsTotal", totalContent);
+        jsonObject.put("recordsFiltered", totalContent);
+        return jsonObject;
     }
 
     /**
-     * ReportByAuthorPageDetail Class
+     * getTotalItems
+     *
+     * @return the number of nodes counted
      */
-    public class ReportByAuthorPageDetail {
-
-        private Integer totalAuthorPageItems;
-        private Map<String, Map<String, String>> detailAuthorPageMap;
-
-        /* the constructor for the class */
-        public ReportByAuthorPageDetail() {
-            this.setTotalAuthorPageItems(0);
-            this.setDetailAuthorPageMap(new HashMap<String, Map<String, String>>());
-        }
-
-        /**
-         * addAuthorPageDetailItem
-         * <p>add detail item for specific author page item.</p>
-         *
-         * @param detailNode {@link JCRNodeWrapper}
-         * @throws RepositoryException
-         */
-        public void addAuthorPageDetailItem(JCRNodeWrapper detailNode) throws RepositoryException {
-            String nodeTitle = detailNode.getName();
-
-            /*setting the key if not exists*/
-            if (!getDetailAuthorPageMap().containsKey(nodeTitle))
-                getDetailAuthorPageMap().put(nodeTitle, new HashedMap());
-
-            /*setting the data from the node*/
-            getDetailAuthorPageMap().get(nodeTitle).put("jcrtitle", detailNode.hasProperty("jcr:title") ? detailNode.getPropertyAsString("jcr:title") : nodeTitle);
-            getDetailAuthorPageMap().get(nodeTitle).put("type", detailNode.getPrimaryNodeTypeName());
-            getDetailAuthorPageMap().get(nodeTitle).put("typeName", detailNode.getPrimaryNodeTypeName().split(":")[1]);
-            getDetailAuthorPageMap().get(nodeTitle).put("created", detailNode.hasProperty("jcr:created") ? detailNode.getPropertyAsString("jcr:created") : "");
-            getDetailAuthorPageMap().get(nodeTitle).put("modified", detailNode.hasProperty("jcr:lastModified") ? detailNode.getPropertyAsString("jcr:lastModified") : "");
-            getDetailAuthorPageMap().get(nodeTitle).put("published", detailNode.hasProperty("j:published") ? detailNode.getPropertyAsString("j:published") : "false");
-            getDetailAuthorPageMap().get(nodeTitle).put("locked", detailNode.hasProperty("j:locktoken") ? "true" : "false");
-        }
-
-        /**
-         * getTotalAuthorPageItems
-         *
-         * @return {@link Integer}
-         */
-        public Integer getTotalAuthorPageItems() {
-            return totalAuthorPageItems;
-        }
-
-        /**
-         * setTotalAuthorPageItems
-         *
-         * @param totalAuthorPageItems {@link Integer}
-         */
-        public void setTotalAuthorPageItems(Integer totalAuthorPageItems) {
-            this.totalAuthorPageItems = totalAuthorPageItems;
-        }
-
-        /**
-         * getDetailAuthorPageMap
-         *
-         * @return {@link Map}
-         */
-        public Map<String, Map<String, String>> getDetailAuthorPageMap() {
-            return detailAuthorPageMap;
-        }
-
-        /**
-         * setDetailAuthorPageMap
-         *
-         * @param detailAuthorPageMap {@link Map}
-         */
-        public void setDetailAuthorPageMap(Map<String, Map<String, String>> detailAuthorPageMap) {
-            this.detailAuthorPageMap = detailAuthorPageMap;
-        }
+    public int getTotalItems() {
+        return totalItems;
     }
-
-
 }
@@ -53,6 +53,8 @@ import org.json.JSONException;
 import org.json.JSONObject;
 
 import javax.jcr.RepositoryException;
+import java.io.IOException;
+import java.io.Writer;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -104,7 +106,8 @@ public class ReportByAuthorDetailed extends QueryReport {
         String strQuery = "SELECT * FROM ";
         strQuery += (reportType.equals(SearchContentType.PAGE) ? "[jnt:page] " : "[jmix:editorialContent] ");
         strQuery += "AS item WHERE [" + propertyName + "]='" + username + "' AND ISDESCENDANTNODE(item,['" + searchPath + "'])";
-        fillReport(session, strQuery, offset, limit);
+        // the details are counted over every node of the author, the offset/limit of the request cannot apply to the nodes read
+        fillReport(session, strQuery, 0, NO_LIMIT);
     }
 
     /**
@@ -147,6 +150,16 @@ public class ReportByAuthorDetailed extends QueryReport {
         }
     }
 
+    @Override
+    public void writeJson(Writer writer) throws JSONException, RepositoryException, IOException {
+        getJson().write(writer);
+    }
+
+    @Override
+    public boolean streamRows(Writer writer) {
+        return false;
+    }
+
     /**
      * getJson
      *
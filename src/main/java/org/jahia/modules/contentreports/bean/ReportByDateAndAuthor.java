@@ -49,12 +49,13 @@ import org.jahia.exceptions.JahiaException;
 import org.jahia.services.content.JCRNodeWrapper;
 import org.jahia.services.content.JCRSessionWrapper;
 import org.jahia.services.content.decorator.JCRSiteNode;
-import org.json.JSONArray;
 import org.json.JSONException;
 import org.json.JSONObject;
 
 import javax.jcr.RepositoryException;
+import javax.jcr.query.Row;
 import java.util.*;
+import java.util.concurrent.Future;
 
 /**
  * ReportByAllDate Class.
@@ -65,7 +66,6 @@ public class ReportByDateAndAuthor extends QueryReport {
 
     private static final String BUNDLE = "resources.contentReportReact";
     private Map<Integer, Map<Integer, Map<String, Integer>>> dataMap;
-    private Map<String, Map<String, Object>> pageMap;
     private Boolean useSystemUser;
     private SearchActionType actionType;
     private long totalContent = 0;
@@ -81,6 +81,7 @@ public class ReportByDateAndAuthor extends QueryReport {
     private String sortOrder;
     private String typeAuthorSearch;
     private String[] resultFields = {"j:nodename", "j:nodename", "jcr:primaryType", "jcr:created", "jcr:lastModified", "j:published", "j:locktoken"};
+    private static final String[] ROW_COLUMNS = {"jcr:primaryType", "jcr:created", "jcr:lastModified", "j:published", "j:locktoken"};
 
 
     /**
@@ -109,7 +110,6 @@ public class ReportByDateAndAuthor extends QueryReport {
         this.sortCol = sortCol;
         this.sortOrder = sortOrder;
         this.setDataMap(new HashMap<Integer, Map<Integer, Map<String, Integer>>>());
-        this.setPageMap(new HashMap<String, Map<String, Object>>());
     }
 
     @Override
@@ -132,12 +132,22 @@ public class ReportByDateAndAuthor extends QueryReport {
             searchByAuthorStatement = " AND item.["+usernameField+"] = '"+searchUsername+"'";
         }
 
-        String orderStatement = " order by item.["+resultFields[sortCol]+"] " + sortOrder;
 
-        query = "SELECT * FROM [ " + nodetype + " ] AS item WHERE ISDESCENDANTNODE(item,['" + searchPath + "']) " + searchByDateStatement + searchByAuthorStatement + orderStatement;
+        query = "SELECT * FROM [ " + nodetype + " ] AS item WHERE ISDESCENDANTNODE(item,['" + searchPath + "']) " + searchByDateStatement + searchByAuthorStatement;
         System.out.println(query);
-        fillReport(session, query, offset, limit);
-        totalContent = getTotalCount(session, query);
+        Future<Long> total = submitTotalCount(session, query);
+        fillSortedReport(session, query, "item", getSortField(resultFields, sortCol), sortOrder, offset, limit);
+        totalContent = getTotalCount(total, query);
+    }
+
+    @Override
+    protected String[] getRowColumns() {
+        return ROW_COLUMNS;
+    }
+
+    @Override
+    public boolean isNodeList() {
+        return true;
     }
 
     /**
@@ -150,19 +160,27 @@ public class ReportByDateAndAuthor extends QueryReport {
     public void addItem(JCRNodeWrapper node) throws RepositoryException {
         String propertyName = "";
         Date itemDate = null;
-        pageMap.put(node.getIdentifier(), new HashMap<String, Object>());
-        Map<String, Object> nodeEntry = pageMap.get(node.getIdentifier());
-        nodeEntry.put("name",  WordUtils.abbreviate(node.getDisplayableName(),90,130,"..."));
-        nodeEntry.put("path", node.getPath());
-        nodeEntry.put("type", node.getPrimaryNodeType().getAlias());
-        nodeEntry.put("created", node.getPropertyAsString("jcr:created"));
-        nodeEntry.put("modified", node.getPropertyAsString("jcr:lastModified"));
-        nodeEntry.put("published", node.getPropertyAsString("j:published"));
-        if (node.hasProperty("j:locktoken")) {
-            nodeEntry.put("locked", !node.getPropertyAsString("j:locktoken").isEmpty());
-        } else {
-            nodeEntry.put("locked", false);
-        }
+        rowSink.addRow(
+                WordUtils.abbreviate(node.getDisplayableName(),90,130,"..."),
+                node.getPath(),
+                node.getPrimaryNodeType().getAlias(),
+                node.getPropertyAsString("jcr:created"),
+                node.getPropertyAsString("jcr:lastModified"),
+                node.getPropertyAsString("j:published"),
+                node.hasProperty("j:locktoken") && !node.getPropertyAsString("j:locktoken").isEmpty());
+    }
+
+    @Override
+    public void addItem(Row row) throws RepositoryException {
+        String lockToken = getRowString(row, "j:locktoken");
+        rowSink.addRow(
+                WordUtils.abbreviate(((JCRNodeWrapper) row.getNode()).getDisplayableName(),90,130,"..."),
+                row.getPath(),
+                getNodeType(getRowString(row, "jcr:primaryType")).getAlias(),
+                getRowString(row, "jcr:created"),
+                getRowString(row, "jcr:lastModified"),
+                getRowString(row, "j:published"),
+                lockToken != null && !lockToken.isEmpty());
     }
 
     /*
@@ -214,48 +232,24 @@ public class ReportByDateAndAuthor extends QueryReport {
     */
 
     /**
-     * getJson
+     * getSummary
      *
      * @return {@link JSONObject}
      * @throws JSONException
      */
-    public JSONObject getJson() throws JSONException {
+    @Override
+    protected JSONObject getSummary() throws JSONException {
         JSONObject jsonObject = new JSONObject();
-        JSONArray jArray = new JSONArray();
-        JSONArray jsonArrayItem;
-
-        for (String content : pageMap.keySet()) {
-
-                /*jsonObjectItem = new JSONObject();
-                jsonObjectItem.put("title", pageMap.get(content).get("name"));
-                jsonObjectItem.put("created", pageMap.get(content).get("created"));
-                jsonObjectItem.put("modified", pageMap.get(content).get("modified"));
-                jsonObjectItem.put("published", pageMap.get(content).get("published"));
-                jsonObjectItem.put("locked", pageMap.get(content).get("locked"));
-                jsonObjectItem.put("path", pageMap.get(content).get("path"));
-                jsonObjectItem.put("type", pageMap.get(content).get("type"));
-                /* setting each item to the json object */
-                jsonArrayItem = new JSONArray();
-
-                jsonArrayItem.put(pageMap.get(content).get("name"));
-                jsonArrayItem.put(pageMap.get(content).get("path"));
-                jsonArrayItem.put(pageMap.get(content).get("type"));
-                jsonArrayItem.put(pageMap.get(content).get("created"));
-                jsonArrayItem.put(pageMap.get(content).get("modified"));
-                jsonArrayItem.put(pageMap.get(content).get("published"));
-                jsonArrayItem.put(pageMap.get(content).get("locked"));
-
-                jArray.put(jsonArrayItem);
-
-        }
-
         jsonObject.put("recordsTotal", totalContent);
         jsonObject.put("recordsFiltered", totalContent);
-        jsonObject.put("data", jArray);
-
         return jsonObject;
     }
 
+    @Override
+    public String getRowsKey() {
+        return "data";
+    }
+
     /**
      * getDataMap
      *
@@ -299,12 +293,5 @@ public class ReportByDateAndAuthor extends QueryReport {
     }
 
 
-    public Map<String, Map<String, Object>> getPageMap() {
-        return pageMap;
-    }
-
-    public void setPageMap(Map<String, Map<String, Object>> pageMap) {
-        this.pageMap = pageMap;
-    }
 
 }
@@ -29,7 +29,6 @@ import org.jahia.modules.contentreports.service.ExpiredConditionService;
 import org.jahia.services.content.JCRNodeWrapper;
 import org.jahia.services.content.JCRSessionWrapper;
 import org.jahia.services.content.decorator.JCRSiteNode;
-import org.json.JSONArray;
 import org.json.JSONException;
 import org.json.JSONObject;
 import org.slf4j.Logger;
@@ -38,10 +37,10 @@ import org.slf4j.LoggerFactory;
 import javax.jcr.RepositoryException;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
-import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Future;
 
 import static java.time.ZoneId.systemDefault;
 
@@ -55,6 +54,8 @@ public class ReportByExpiredContent extends QueryReport {
     private ConditionService conditionService;
     private long totalContent;
     private String searchPath;
+    private int sortCol;
+    private String order;
     private Set<String> seenNodes;
 
 
@@ -62,10 +63,14 @@ public class ReportByExpiredContent extends QueryReport {
      * Constructor for ReportByExpiredContent
      * @param siteNode JCRSite node
      * @param searchPath path on where to perform the queries
+     * @param sortCol the sorted column
+     * @param order the sort direction
      */
-    public ReportByExpiredContent(JCRSiteNode siteNode, String searchPath) {
+    public ReportByExpiredContent(JCRSiteNode siteNode, String searchPath, int sortCol, String order) {
         super(siteNode);
         this.searchPath = searchPath;
+        this.sortCol = sortCol;
+        this.order = order;
         this.conditionService = new ExpiredConditionService();
         seenNodes = new HashSet<>();
     }
@@ -83,7 +88,7 @@ public class ReportByExpiredContent extends QueryReport {
         String innerJoinStartEndDateCondition = "INNER JOIN [jnt:startEndDateCondition] as condition ON ISCHILDNODE(condition,child)\n";
         String innerJoinDayOfWeekCondition = "INNER JOIN [jnt:dayOfWeekCondition] as dow ON ISCHILDNODE(dow,child) \n";
         String innerJoinTimeOfDayCondition = "INNER JOIN [jnt:timeOfDayCondition] as tod ON ISCHILDNODE(tod,child) \n";
-        String afterEndDate = "condition.end < CAST('"+ nowFormatted +"' AS DATE) ORDER BY parent.Name ASC";
+        String afterEndDate = "condition.end < CAST('"+ nowFormatted +"' AS DATE)";
 
         String queryNodesWithExpiredDates = queryConditionVisibilityNodes
                 + innerJoinStartEndDateCondition
@@ -113,46 +118,51 @@ public class ReportByExpiredContent extends QueryReport {
                 + "AND " + afterEndDate;
         logger.debug(queryStartEndNodesWithTimeOfDayAndDayOfWeek);
 
-        long totalNumOfNodesExpiredDates = getTotalCount(session, queryNodesWithExpiredDates);
-        long excludedNodes = getTotalCount(session, queryStartEndNodesWithDayOfWeek)
-                + getTotalCount(session, queryStartEndNodesWithTimeOfDay)
-                + getTotalCount(session, queryStartEndNodesWithTimeOfDayAndDayOfWeek);
+        // the counts run together, while the page is read
+        Future<Long> expiredNodes = submitTotalCount(session, queryNodesWithExpiredDates);
+        Future<Long> withDayOfWeek = submitTotalCount(session, queryStartEndNodesWithDayOfWeek);
+        Future<Long> withTimeOfDay = submitTotalCount(session, queryStartEndNodesWithTimeOfDay);
+        Future<Long> withTimeOfDayAndDayOfWeek = submitTotalCount(session, queryStartEndNodesWithTimeOfDayAndDayOfWeek);
+        fillReport(session, queryNodesWithExpiredDates + getSortStatement(), offset, limit);
+
+        long totalNumOfNodesExpiredDates = getTotalCount(expiredNodes, queryNodesWithExpiredDates);
+        long excludedNodes = getTotalCount(withDayOfWeek, queryStartEndNodesWithDayOfWeek)
+                + getTotalCount(withTimeOfDay, queryStartEndNodesWithTimeOfDay)
+                + getTotalCount(withTimeOfDayAndDayOfWeek, queryStartEndNodesWithTimeOfDayAndDayOfWeek);
         totalContent = totalNumOfNodesExpiredDates - excludedNodes;
-        fillReport(session, queryNodesWithExpiredDates, offset, limit);
+    }
+
+    /* the name and the type of the node are sorted in the query, as is the date of its condition,
+     * the other columns are computed from the conditions */
+    private String getSortStatement() {
+        if (sortCol == 3) {
+            return getOrderStatement("condition", "end", order);
+        }
+        return getOrderStatement("parent", sortCol == 2 ? "jcr:primaryType" : "j:nodename", order);
     }
 
     @Override public void addItem(JCRNodeWrapper node) throws RepositoryException {
 
         Map<String, String> expiredConditions = conditionService.getConditions(node);
         if (expiredConditions.size() == 1 && !seenNodes.contains(node.getName())) {
-            Map<String, String> map = new HashMap<>();
-            map.put("name", node.getName());
-            map.put("path", node.getParent().getPath());
-            map.put("type", String.join("<br/>", node.getNodeTypes()));
-            map.put("expiresOn", expiredConditions.values().iterator().next());
-            this.dataList.add(map);
+            rowSink.addRow(
+                    node.getName(),
+                    node.getParent().getPath(),
+                    String.join("<br/>", node.getNodeTypes()),
+                    expiredConditions.values().iterator().next());
             this.seenNodes.add(node.getName());
         }
     }
-    @Override public JSONObject getJson() throws JSONException, RepositoryException {
-
-        JSONObject jsonObject = new JSONObject();
-        JSONArray jArray = new JSONArray();
-
-        for (Map<String, String> nodeMap : this.dataList) {
-            JSONArray item = new JSONArray();
-            item.put(nodeMap.get("name"));
-            item.put(nodeMap.get("path"));
-            item.put(nodeMap.get("type"));
-            item.put(nodeMap.get("expiresOn"));
-            jArray.put(item);
-        }
-
+    @Override
+    protected JSONObject getSummary() throws JSONException, RepositoryException {
+        JSONObject jsonObject = super.getSummary();
         jsonObject.put("recordsTotal", totalContent);
         jsonObject.put("recordsFiltered", totalContent);
-        jsonObject.put("siteName", siteNode.getName());
-        jsonObject.put("siteDisplayableName", siteNode.getDisplayableName());
-        jsonObject.put("data", jArray);
         return jsonObject;
     }
+
+    @Override
+    public String getRowsKey() {
+        return "data";
+    }
 }
@@ -29,7 +29,6 @@ import org.jahia.modules.contentreports.service.FutureConditionService;
 import org.jahia.services.content.JCRNodeWrapper;
 import org.jahia.services.content.JCRSessionWrapper;
 import org.jahia.services.content.decorator.JCRSiteNode;
-import org.json.JSONArray;
 import org.json.JSONException;
 import org.json.JSONObject;
 import org.slf4j.Logger;
@@ -38,10 +37,10 @@ import org.slf4j.LoggerFactory;
 import javax.jcr.RepositoryException;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
-import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Future;
 
 import static java.time.ZoneId.systemDefault;
 
@@ -54,6 +53,8 @@ public class ReportByFutureContent extends QueryReport {
     private static final Logger logger = LoggerFactory.getLogger(ReportByFutureContent.class);
     private ConditionService conditionService;
     private String searchPath;
+    private int sortCol;
+    private String order;
     private long totalContent;
     private Set<String> seenNodes;
 
@@ -61,10 +62,14 @@ public class ReportByFutureContent extends QueryReport {
      * Constructor for ReportByFutureContent
      * @param siteNode JCRSite node
      * @param searchPath path on where to perform the queries
+     * @param sortCol the sorted column
+     * @param order the sort direction
      */
-    public ReportByFutureContent(JCRSiteNode siteNode, String searchPath) {
+    public ReportByFutureContent(JCRSiteNode siteNode, String searchPath, int sortCol, String order) {
         super(siteNode);
         this.searchPath = searchPath;
+        this.sortCol = sortCol;
+        this.order = order;
         conditionService = new FutureConditionService();
         seenNodes = new HashSet<>();
     }
@@ -114,46 +119,51 @@ public class ReportByFutureContent extends QueryReport {
         logger.debug(queryFutureDatesWithDayOfWeekAndTimeOfDay);
 
 
-        long totalNumOfNodesWithFutureDates = getTotalCount(session, queryAllNodesWithFutureDates);
-        long excludedNodeCount = getTotalCount(session, queryFutureDateWithDayOfWeek)
-                + getTotalCount(session, queryFutureDateWithTimeOfDay)
-                + getTotalCount(session, queryFutureDatesWithDayOfWeekAndTimeOfDay);
+        // the counts run together, while the page is read
+        Future<Long> futureNodes = submitTotalCount(session, queryAllNodesWithFutureDates);
+        Future<Long> withDayOfWeek = submitTotalCount(session, queryFutureDateWithDayOfWeek);
+        Future<Long> withTimeOfDay = submitTotalCount(session, queryFutureDateWithTimeOfDay);
+        Future<Long> withDayOfWeekAndTimeOfDay = submitTotalCount(session, queryFutureDatesWithDayOfWeekAndTimeOfDay);
+        fillReport(session, queryAllNodesWithFutureDates + getSortStatement(), offset, limit);
+
+        long totalNumOfNodesWithFutureDates = getTotalCount(futureNodes, queryAllNodesWithFutureDates);
+        long excludedNodeCount = getTotalCount(withDayOfWeek, queryFutureDateWithDayOfWeek)
+                + getTotalCount(withTimeOfDay, queryFutureDateWithTimeOfDay)
+                + getTotalCount(withDayOfWeekAndTimeOfDay, queryFutureDatesWithDayOfWeekAndTimeOfDay);
         totalContent = totalNumOfNodesWithFutureDates - excludedNodeCount;
-        fillReport(session, queryAllNodesWithFutureDates, offset, limit);
+    }
+
+    /* the name and the type of the node are sorted in the query, as is the date of its condition,
+     * the other columns are computed from the conditions */
+    private String getSortStatement() {
+        if (sortCol == 3) {
+            return getOrderStatement("condition", "start", order);
+        }
+        return getOrderStatement("parent", sortCol == 2 ? "jcr:primaryType" : "j:nodename", order);
     }
 
     @Override public void addItem(JCRNodeWrapper node) throws RepositoryException {
         Map<String, String> futureConditions = conditionService.getConditions(node);
         if (futureConditions.size() > 0 && !seenNodes.contains(node.getName())) {
-            Map<String, String> map = new HashMap<>();
-            map.put("name", node.getName());
-            map.put("path", node.getParent().getPath());
-            map.put("type", String.join("<br/>", node.getNodeTypes()));
-            map.put("liveDate", futureConditions.values().stream().iterator().next());
-            this.dataList.add(map);
+            rowSink.addRow(
+                    node.getName(),
+                    node.getParent().getPath(),
+                    String.join("<br/>", node.getNodeTypes()),
+                    futureConditions.values().stream().iterator().next());
             this.seenNodes.add(node.getName());
         }
     }
 
-    @Override public JSONObject getJson() throws JSONException, RepositoryException {
-
-        JSONObject jsonObject = new JSONObject();
-        JSONArray jArray = new JSONArray();
-
-        for (Map<String, String> nodeMap : this.dataList) {
-            JSONArray item = new JSONArray();
-            item.put(nodeMap.get("name"));
-            item.put(nodeMap.get("path"));
-            item.put(nodeMap.get("type"));
-            item.put(nodeMap.get("liveDate"));
-            jArray.put(item);
-        }
-
+    @Override
+    protected JSONObject getSummary() throws JSONException, RepositoryException {
+        JSONObject jsonObject = super.getSummary();
         jsonObject.put("recordsTotal", totalContent);
         jsonObject.put("recordsFiltered", totalContent);
-        jsonObject.put("siteName", siteNode.getName());
-        jsonObject.put("siteDisplayableName", siteNode.getDisplayableName());
-        jsonObject.put("data", jArray);
         return jsonObject;
     }
+
+    @Override
+    public String getRowsKey() {
+        return "data";
+    }
 }
@@ -44,6 +44,10 @@
 package org.jahia.modules.contentreports.bean;
 
 import org.jahia.exceptions.JahiaException;
+import org.jahia.modules.contentreports.service.IdHistogram;
+import org.jahia.modules.contentreports.service.NodeColumns;
+import org.jahia.modules.contentreports.service.ReportIndex;
+import org.jahia.modules.contentreports.service.StringPool;
 import org.jahia.services.content.JCRSessionWrapper;
 import org.jahia.services.content.decorator.JCRSiteNode;
 import org.json.JSONArray;
@@ -52,10 +56,15 @@ import org.json.JSONObject;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import javax.jcr.RepositoryException;
+import javax.jcr.Value;
+import javax.jcr.query.Query;
+import javax.jcr.query.RowIterator;
 import java.util.Locale;
 
 /**
  * ReportByLanguage Class.
+ * <p>The languages of the site, with the number of translations of each one counted in a single pass
+ * over the jcr:language of the translation nodes.</p>
  *
  * Created by Juan Carlos Rodas.
  */
@@ -63,6 +72,9 @@ public class ReportByLanguage extends BaseReport {
 
     private static Logger logger = LoggerFactory.getLogger(ReportByLanguage.class);
 
+    private StringPool languages;
+    private IdHistogram languageCounts;
+
     /**
      * The constructor for the class.
      *
@@ -70,10 +82,37 @@ public class ReportByLanguage extends BaseReport {
      */
     public ReportByLanguage(JCRSiteNode siteNode) {
         super(siteNode);
+        this.languages = new StringPool();
+        this.languageCounts = new IdHistogram();
     }
 
     @Override
     public void execute(JCRSessionWrapper session, int offset, int limit) throws RepositoryException, JSONException, JahiaException {
+        ReportIndex.SiteIndex index = ReportIndex.getReadyIndex(session, siteNode.getPath());
+        if (index != null) {
+            NodeColumns columns = index.getColumns(siteNode.getPath());
+            languages = columns.getNames();
+            languageCounts = new IdHistogram(languages.size());
+            int translationType = languages.find("jnt:translation");
+            int[] primaryTypes = columns.getPrimaryTypes();
+            int[] rowLanguages = columns.getLanguages();
+            for (int row = 0; row < columns.size(); row++) {
+                visitNode();
+                if (translationType != StringPool.NONE && primaryTypes[row] == translationType) {
+                    languageCounts.add(rowLanguages[row]);
+                }
+            }
+            return;
+        }
+        String strQuery = "SELECT item.[jcr:language] AS language FROM [jnt:translation] AS item WHERE ISDESCENDANTNODE(item,['" + siteNode.getPath() + "'])";
+        RowIterator rows = session.getWorkspace().getQueryManager().createQuery(strQuery, Query.JCR_SQL2).execute().getRows();
+        while (rows.hasNext()) {
+            visitNode();
+            Value language = rows.nextRow().getValue("language");
+            if (language != null) {
+                languageCounts.add(languages.getId(language.getString()));
+            }
+        }
     }
 
     /**
@@ -100,11 +139,13 @@ public class ReportByLanguage extends BaseReport {
             jsonObjectItem.put("displayVariant", locale.getDisplayVariant());
             jsonObjectItem.put("availableEdit", !siteNode.getInactiveLanguages().contains(locale.toString()));
             jsonObjectItem.put("availableLive", !siteNode.getInactiveLiveLanguages().contains(locale.toString()));
+            jsonObjectItem.put("itemCount", languageCounts.get(languages.find(locale.toString())));
             jArray.put(jsonObjectItem);
         }
 
         jsonObject.put("siteName", siteNode.getName());
         jsonObject.put("siteDisplayableName", siteNode.getDisplayableName());
+        jsonObject.put("totalItems", languageCounts.getTotal());
         jsonObject.put("languageItems", jArray);
         return jsonObject;
     }
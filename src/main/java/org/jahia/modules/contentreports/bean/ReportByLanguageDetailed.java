@@ -49,7 +49,6 @@ import org.jahia.exceptions.JahiaException;
 import org.jahia.services.content.JCRNodeWrapper;
 import org.jahia.services.content.JCRSessionWrapper;
 import org.jahia.services.content.decorator.JCRSiteNode;
-import org.json.JSONArray;
 import org.json.JSONException;
 import org.json.JSONObject;
 import org.slf4j.Logger;
@@ -66,7 +65,6 @@ public class ReportByLanguageDetailed extends QueryReport {
 
     private static Logger logger = LoggerFactory.getLogger(ReportByLanguageDetailed.class);
 
-    private List<Map<String, String>> listMap;
     private Map<String, String> itemMap;
     private NodeLangInformation langInformation;
     private String language;
@@ -79,7 +77,6 @@ public class ReportByLanguageDetailed extends QueryReport {
      */
     public ReportByLanguageDetailed(JCRSiteNode siteNode, String language) {
         super(siteNode);
-        this.listMap = new ArrayList<>();
         this.language = language;
     }
 
@@ -130,27 +127,19 @@ public class ReportByLanguageDetailed extends QueryReport {
         }
 
         /* adding the node lang information to map */
-        this.listMap.add(itemMap);
+        rowSink.addRow(itemMap);
     }
 
     /**
-     * getJson
+     * getSummary
      *
      * @return {@link JSONObject}
      * @throws JSONException
-     * @throws RepositoryException
      */
-    public JSONObject getJson() throws JSONException, RepositoryException {
+    @Override
+    protected JSONObject getSummary() throws JSONException {
         JSONObject jsonObject = new JSONObject();
-        JSONArray jArray = new JSONArray();
-
-        /* get all items from list */
-        for (Map<String, String> itemMap : this.listMap) {
-            jArray.put(new JSONObject(itemMap));
-        }
-
         jsonObject.put("language", language);
-        jsonObject.put("items", jArray);
         return jsonObject;
     }
 
@@ -43,9 +43,6 @@
  */
 package org.jahia.modules.contentreports.bean;
 
-import org.apache.commons.collections.map.HashedMap;
-import org.apache.commons.lang.StringUtils;
-import org.apache.commons.lang.WordUtils;
 import org.jahia.api.Constants;
 import org.jahia.exceptions.JahiaException;
 import org.jahia.services.content.JCRNodeWrapper;
@@ -57,37 +54,63 @@ import org.json.JSONException;
 import org.json.JSONObject;
 
 import javax.jcr.RepositoryException;
-import java.text.DateFormat;
-import java.text.SimpleDateFormat;
-import java.util.*;
+import javax.jcr.Value;
+import javax.jcr.query.Query;
+import javax.jcr.query.Row;
+import javax.jcr.query.RowIterator;
 
 /**
  * ReportByStatus Class.
+ * <p>Counts the editorial contents by status in a single pass of a projection query, no node is loaded.</p>
  *
  * Created by Juan Carlos Rodas.
  */
 public class ReportByStatus extends BaseReport {
 
-    private final String PROPERTY_NAME = "name";
-    private final String PROPERTY_LIST = "list";
-    private final String PROPERTY_ITEMS = "items";
-    private DateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd");
-    private Map<String, Map<String, Object>> dataMap;
     private static final String BUNDLE = "resources.contentReportReact";
+    private static final int NO_STATUS = -1;
+    /* the statuses, in the order they are checked: code and resource key */
+    private static final String[][] STATUSES = {
+            {"WIP", "cgnt_contentReports.status.workInProgress"},
+            {"MNP", "cgnt_contentReports.status.modifiedNotPublished"},
+            {"NVP", "cgnt_contentReports.status.neverPublished"},
+            {"UNP", "cgnt_contentReports.status.unpublished"}
+    };
+    private static final int WIP = 0;
+    private static final int MNP = 1;
+    private static final int NVP = 2;
+    private static final int UNP = 3;
+
+    private String searchPath;
+    private int[] statusCounts;
 
     /**
      * The class constructor.
      */
     public ReportByStatus(JCRSiteNode siteNode, String path) {
         super(siteNode);
-        this.dataMap = new HashMap<>();
+        this.searchPath = path;
+        this.statusCounts = new int[STATUSES.length];
     }
 
     @Override
     public void execute(JCRSessionWrapper session, int offset, int limit) throws RepositoryException, JSONException, JahiaException {
-//        String strQuery = "SELECT * FROM [jmix:editorialContent] AS item WHERE ISDESCENDANTNODE(item,['" + searchPath + "'])";
-//        return fillIreport(session, strQuery, new ReportByStatus(), null).getJson();
-
+        String strQuery = "SELECT item.[" + Constants.WORKINPROGRESS_STATUS + "] AS wipStatus, item.[jcr:lastModified] AS lastModified, " +
+                "item.[j:lastPublished] AS lastPublished, item.[" + Constants.PUBLISHED + "] AS published " +
+                "FROM [jmix:editorialContent] AS item WHERE ISDESCENDANTNODE(item,['" + searchPath + "'])";
+        RowIterator rows = session.getWorkspace().getQueryManager().createQuery(strQuery, Query.JCR_SQL2).execute().getRows();
+        while (rows.hasNext()) {
+            Row row = rows.nextRow();
+            visitNode();
+            Value wipStatus = row.getValue("wipStatus");
+            Value lastModified = row.getValue("lastModified");
+            Value lastPublished = row.getValue("lastPublished");
+            Value published = row.getValue("published");
+            count(getStatus(wipStatus != null ? wipStatus.getString() : null,
+                    lastModified != null ? lastModified.getDate().getTimeInMillis() : 0,
+                    lastPublished != null ? lastPublished.getDate().getTimeInMillis() : 0,
+                    published != null ? published.getBoolean() : null));
+        }
     }
 
     /**
@@ -97,14 +120,38 @@ public class ReportByStatus extends BaseReport {
      * @throws RepositoryException
      */
     public void addItem(JCRNodeWrapper node) throws RepositoryException {
-        if (node.hasProperty(Constants.WORKINPROGRESS))
-            addItemDataToList("WIP", "cgnt_contentReports.status.workInProgress", "work in progress", node);
-        else if (node.getLastPublishedAsDate() != null && node.getLastPublishedAsDate().before(node.getLastModifiedAsDate()))
-            addItemDataToList("MNP", "cgnt_contentReports.status.modifiedNotPublished", "modified not published", node);
-        else if (!node.hasProperty(Constants.PUBLISHED) &&  node.getLastPublishedAsDate() != null)
-            addItemDataToList("NVP", "cgnt_contentReports.status.neverPublished", "never published", node);
-        else if (node.getLastPublishedAsDate() != null && node.hasProperty(Constants.PUBLISHED) && !node.getProperty(Constants.PUBLISHED).getBoolean())
-            addItemDataToList("UNP", "cgnt_contentReports.status.unpublished", "unpublished", node);
+        count(getStatus(node.hasProperty(Constants.WORKINPROGRESS_STATUS) ? node.getPropertyAsString(Constants.WORKINPROGRESS_STATUS) : null,
+                node.getLastModifiedAsDate() != null ? node.getLastModifiedAsDate().getTime() : 0,
+                node.getLastPublishedAsDate() != null ? node.getLastPublishedAsDate().getTime() : 0,
+                node.hasProperty(Constants.PUBLISHED) ? node.getProperty(Constants.PUBLISHED).getBoolean() : null));
+    }
+
+    /**
+     * getStatus
+     *
+     * @param wipStatus     the work in progress status, null when not set
+     * @param lastModified  the last modification date, 0 when unknown
+     * @param lastPublished the last publication date, 0 when never published
+     * @param published     the published flag, null when not set
+     * @return the index of the status in {@link #STATUSES}, {@link #NO_STATUS} when none applies
+     */
+    private static int getStatus(String wipStatus, long lastModified, long lastPublished, Boolean published) {
+        if (wipStatus != null && !Constants.WORKINPROGRESS_STATUS_DISABLED.equals(wipStatus)) {
+            return WIP;
+        } else if (lastPublished != 0 && lastPublished < lastModified) {
+            return MNP;
+        } else if (published == null && lastPublished != 0) {
+            return NVP;
+        } else if (lastPublished != 0 && published != null && !published) {
+            return UNP;
+        }
+        return NO_STATUS;
+    }
+
+    private void count(int status) {
+        if (status != NO_STATUS) {
+            statusCounts[status]++;
+        }
     }
 
     /**
@@ -118,74 +165,23 @@ public class ReportByStatus extends BaseReport {
         JSONObject jsonObject = new JSONObject();
         JSONArray jArray = new JSONArray();
         JSONObject jsonObjectItem;
+        int totalItems = 0;
 
-        JSONArray jsonArrayItemDetail;
-        JSONObject jsonObjectSubItemDetail;
-
-        for (String key : dataMap.keySet()) {
-            jsonObjectItem = new JSONObject();
-            jsonObjectItem.put(PROPERTY_NAME, dataMap.get(key).get(PROPERTY_NAME));
-
-            /* part of items detail */
-            jsonArrayItemDetail = new JSONArray();
-            for (JCRNodeWrapper nodeItem : (ArrayList<JCRNodeWrapper>) dataMap.get(key).get(PROPERTY_LIST)) {
-                jsonObjectSubItemDetail = new JSONObject();
-                jsonObjectSubItemDetail.put("path", nodeItem.getPath());
-                jsonObjectSubItemDetail.put("canonicalPath", nodeItem.getCanonicalPath());
-                jsonObjectSubItemDetail.put("identifier", nodeItem.getIdentifier());
-                jsonObjectSubItemDetail.put("title", nodeItem.hasProperty("jcr:title") ? nodeItem.getPropertyAsString("jcr:title") : "");
-                jsonObjectSubItemDetail.put("displayableName", WordUtils.abbreviate(nodeItem.getDisplayableName(),90,130,"..."));
-                jsonObjectSubItemDetail.put("name", nodeItem.getName());
-                jsonObjectSubItemDetail.put("displayTitle", nodeItem.hasProperty("jcr:title") ? nodeItem.getPropertyAsString("jcr:title") : nodeItem.getDisplayableName());
-                jsonObjectSubItemDetail.put("primaryNodeType", nodeItem.getPrimaryNodeType());
-                jsonObjectSubItemDetail.put("type", nodeItem.getPrimaryNodeTypeName().split(":")[1]);
-                jsonObjectSubItemDetail.put("path", nodeItem.getPath());
-                jsonObjectSubItemDetail.put("identifier", nodeItem.getIdentifier());
-                jsonObjectSubItemDetail.put("created", dateFormat.format(nodeItem.getCreationDateAsDate()));
-                jsonObjectSubItemDetail.put("lastModified", dateFormat.format(nodeItem.getLastModifiedAsDate()));
-                jsonObjectSubItemDetail.put("lastModifiedBy", nodeItem.getModificationUser());
-                jsonObjectSubItemDetail.put("published", nodeItem.hasProperty("j:published") ? true : false);
-                jsonObjectSubItemDetail.put("lock", nodeItem.isLocked() ? true : false);
-                jsonObjectSubItemDetail.put("language", StringUtils.isNotEmpty(nodeItem.getLanguage()) ? nodeItem.getLanguage() : "");
-                jsonArrayItemDetail.put(jsonObjectSubItemDetail);
+        for (int status = 0; status < STATUSES.length; status++) {
+            if (statusCounts[status] == 0) {
+                continue;
             }
-            jsonObjectItem.put(PROPERTY_ITEMS, jsonArrayItemDetail);
+            jsonObjectItem = new JSONObject();
+            jsonObjectItem.put("status", STATUSES[status][0]);
+            jsonObjectItem.put("name", Messages.get(BUNDLE, STATUSES[status][1], locale));
+            jsonObjectItem.put("itemCount", statusCounts[status]);
             jArray.put(jsonObjectItem);
+            totalItems += statusCounts[status];
         }
 
+        jsonObject.put("totalItems", totalItems);
         jsonObject.put("statusItems", jArray);
         return jsonObject;
     }
 
-    /**
-     * addItemDataToList
-     * <p>method add a node to a list, divided by status.</p>
-     *
-     * @param statusName {@link String}
-     * @param statusNameKey {@link String}
-     * @param defaultNameValue {@link String}
-     * @param node {@link JCRNodeWrapper}
-     */
-    private void addItemDataToList(String statusName, String statusNameKey, String defaultNameValue, JCRNodeWrapper node){
-        if(!dataMap.containsKey(statusName))
-            dataMap.put(statusName, new HashedMap());
-
-        if(!dataMap.get(statusName).containsKey(PROPERTY_NAME))
-            dataMap.get(statusName).put(PROPERTY_NAME,  Messages.get(BUNDLE, statusNameKey, locale));
-
-        if(!dataMap.get(statusName).containsKey(PROPERTY_LIST))
-            dataMap.get(statusName).put(PROPERTY_LIST, new ArrayList<JCRNodeWrapper>());
-
-        ((ArrayList)dataMap.get(statusName).get(PROPERTY_LIST)).add(node);
-    }
-
-    /**
-     * getDataMap
-     *
-     * @return {@link Map}
-     */
-    public Map<String, Map<String, Object>> getDataMap() {
-        return dataMap;
-    }
-
 }
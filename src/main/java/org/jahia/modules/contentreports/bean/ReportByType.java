@@ -44,6 +44,11 @@
 package org.jahia.modules.contentreports.bean;
 
 import org.jahia.exceptions.JahiaException;
+import org.jahia.modules.contentreports.service.IdHistogram;
+import org.jahia.modules.contentreports.service.NodeColumns;
+import org.jahia.modules.contentreports.service.OverviewEngine;
+import org.jahia.modules.contentreports.service.ReportIndex;
+import org.jahia.modules.contentreports.service.StringPool;
 import org.jahia.services.content.JCRNodeWrapper;
 import org.jahia.services.content.JCRSessionWrapper;
 import org.jahia.services.content.decorator.JCRSiteNode;
@@ -51,31 +56,53 @@ import org.json.JSONArray;
 import org.json.JSONException;
 import org.json.JSONObject;
 import javax.jcr.RepositoryException;
-import java.util.HashMap;
-import java.util.Map;
+import javax.jcr.query.Query;
+import javax.jcr.query.RowIterator;
 
 /**
  * ReportByType Class.
+ * <p>Counts the editorial contents by node type in a single pass, only the type of each node is read.</p>
  *
  * Created by Juan Carlos Rodas.
  */
 public class ReportByType extends BaseReport {
 
-    private Map<String, String> dataMap;
+    private String searchPath;
+    protected StringPool types;
+    protected IdHistogram typeCounts;
 
     /**
      * The class constructor.
      */
     public ReportByType(JCRSiteNode siteNode, String path) {
         super(siteNode);
-        this.dataMap = new HashMap<>();
+        this.searchPath = path;
+        this.types = new StringPool();
+        this.typeCounts = new IdHistogram();
     }
 
     @Override
     public void execute(JCRSessionWrapper session, int offset, int limit) throws RepositoryException, JSONException, JahiaException {
-//        String strQuery = "SELECT * FROM [jmix:editorialContent] AS item WHERE ISDESCENDANTNODE(item,['" + searchPath + "'])";
-//        return fillIreport(session, strQuery, new ReportByType(), null).getJson();
-
+        ReportIndex.SiteIndex index = ReportIndex.getReadyIndex(session, searchPath);
+        if (index != null) {
+            NodeColumns columns = index.getColumns(searchPath);
+            int[] primaryTypes = columns.getPrimaryTypes();
+            types = columns.getNames();
+            typeCounts = new IdHistogram(types.size());
+            for (int row = 0; row < columns.size(); row++) {
+                visitNode();
+                if (columns.isOfType(row, OverviewEngine.EDITORIAL_CONTENT)) {
+                    typeCounts.add(primaryTypes[row]);
+                }
+            }
+            return;
+        }
+        String strQuery = "SELECT item.[jcr:primaryType] AS primaryType FROM [jmix:editorialContent] AS item WHERE ISDESCENDANTNODE(item,['" + searchPath + "'])";
+        RowIterator rows = session.getWorkspace().getQueryManager().createQuery(strQuery, Query.JCR_SQL2).execute().getRows();
+        while (rows.hasNext()) {
+            visitNode();
+            typeCounts.add(types.getId(rows.nextRow().getValue("primaryType").getString()));
+        }
     }
 
     /**
@@ -86,11 +113,7 @@ public class ReportByType extends BaseReport {
      * @throws RepositoryException
      */
     public void addItem(JCRNodeWrapper node, SearchContentType contentType) throws RepositoryException {
-        String type = node.getPrimaryNodeTypeName().split(":")[1];
-
-        if (!getDataMap().containsKey(type))
-            getDataMap().put(type, node.getPrimaryNodeTypeName());
-
+        typeCounts.add(types.getId(node.getPrimaryNodeTypeName()));
     }
 
     /**
@@ -102,28 +125,32 @@ public class ReportByType extends BaseReport {
     public JSONObject getJson() throws JSONException {
         JSONObject jsonObject = new JSONObject();
         JSONArray jArray = new JSONArray();
-        JSONObject jsonObjectItem;
-
 
-        for (String key : dataMap.keySet()) {
-            jsonObjectItem = new JSONObject();
-            jsonObjectItem.put("type", key);
-            jsonObjectItem.put("techName", dataMap.get(key));
+        /* the highest counts first */
+        for (int typeId : typeCounts.getIds()) {
             /* setting each item to the json object */
-            jArray.put(jsonObjectItem);
+            jArray.put(getTypeItem(typeId));
         }
 
+        jsonObject.put("totalItems", typeCounts.getTotal());
         jsonObject.put("items", jArray);
         return jsonObject;
     }
 
     /**
-     * getDataMap
+     * getTypeItem
      *
-     * @return {@link Map}
+     * @param typeId the id of a counted node type
+     * @return the json item of the node type
+     * @throws JSONException
      */
-    public Map<String, String> getDataMap() {
-        return dataMap;
+    protected JSONObject getTypeItem(int typeId) throws JSONException {
+        String techName = types.get(typeId);
+        JSONObject jsonObjectItem = new JSONObject();
+        jsonObjectItem.put("type", techName.split(":")[1]);
+        jsonObjectItem.put("techName", techName);
+        jsonObjectItem.put("itemCount", typeCounts.get(typeId));
+        return jsonObjectItem;
     }
 
 }
@@ -50,14 +50,13 @@ import org.jahia.exceptions.JahiaException;
 import org.jahia.services.content.JCRNodeWrapper;
 import org.jahia.services.content.JCRSessionWrapper;
 import org.jahia.services.content.decorator.JCRSiteNode;
-import org.json.JSONArray;
 import org.json.JSONException;
 import org.json.JSONObject;
 
 import javax.jcr.NodeIterator;
 import javax.jcr.RepositoryException;
-import java.util.Date;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Locale;
 import java.util.Map;
 
@@ -70,24 +69,28 @@ public class ReportByUnstranslated extends QueryReport {
 
     private static final String BUNDLE = "resources.contentReportReact";
     private Map<Integer, Map<Integer, Map<String, Integer>>> dataMap;
-    private Map<String, Map<String, Object>> pageMap;
     private Boolean useSystemUser;
     private Integer totalPages = 0;
     private Integer totalContent = 0;
     private String searchPath;
     private String typeSearch;
+    private int sortCol;
+    private String order;
+    private RowWindow window;
+    private String[] resultFields = {"j:nodename", "jcr:primaryType", "j:nodename", "jcr:created"};
 
 
     String searchLanguage;
 
-    public ReportByUnstranslated(JCRSiteNode siteNode, String searchLanguage, String searchPath, String typeSearch) {
+    public ReportByUnstranslated(JCRSiteNode siteNode, String searchLanguage, String searchPath, String typeSearch, int sortCol, String order) {
         super(siteNode);
         this.searchPath = searchPath;
         this.searchLanguage = searchLanguage;
         this.typeSearch = typeSearch;
+        this.sortCol = sortCol;
+        this.order = order;
 
         this.setDataMap(new HashMap<Integer, Map<Integer, Map<String, Integer>>>());
-        this.setPageMap(new HashMap<String, Map<String, Object>>());
     }
 
     @Override
@@ -96,23 +99,18 @@ public class ReportByUnstranslated extends QueryReport {
         String nodetype;
         if (typeSearch.equals("pages")) { nodetype = "jnt:page"; } else { nodetype = "jmix:editorialContent"; }
 
-        query = "SELECT * FROM [" + nodetype + "] AS item WHERE ISDESCENDANTNODE(item,['" + searchPath + "']) ";
-        fillReport(session, query, offset, 1000); // temporary limit until a real server side pagination is implemented
-        setTotalContent(pageMap.size());
+        query = "SELECT * FROM [" + nodetype + "] AS item WHERE ISDESCENDANTNODE(item,['" + searchPath + "']) "
+                + getOrderStatement("item", getSortField(resultFields, sortCol), order);
+        // the translations are checked on each node, the page is taken from the nodes kept
+        window = new RowWindow(offset, limit);
+        fillReport(session, query, 0, NO_LIMIT);
+        setTotalContent(window.getTotal());
     }
 
-    /**
-     * addItem
-     *
-     * @param node {@link JCRNodeWrapper}
-     * @throws RepositoryException
-     */
-
-    public void addItem(JCRNodeWrapper node) throws RepositoryException {
-        String propertyName = "";
-        Date itemDate = null;
+    @Override
+    protected boolean acceptNode(JCRNodeWrapper node) throws RepositoryException {
         if (node.hasNode("j:translation_"+searchLanguage)) {
-            return;
+            return false;
         }
 
         boolean hasJTranslationNodes = false;
@@ -123,46 +121,45 @@ public class ReportByUnstranslated extends QueryReport {
             }
 
         }
-        if (!hasJTranslationNodes)
-            return;
+        return hasJTranslationNodes && window.accept();
+    }
+
+    @Override
+    public boolean isNodeList() {
+        return true;
+    }
+
+    /**
+     * addItem
+     *
+     * @param node {@link JCRNodeWrapper}
+     * @throws RepositoryException
+     */
 
-        pageMap.put(node.getIdentifier(), new HashMap<String, Object>());
-        Map<String, Object> nodeEntry = pageMap.get(node.getIdentifier());
-        nodeEntry.put("name",  WordUtils.abbreviate(node.getDisplayableName(),90,130,"..."));
+    public void addItem(JCRNodeWrapper node) throws RepositoryException {
+        Map<String, Object> nodeEntry = new LinkedHashMap<>();
+        nodeEntry.put("title",  WordUtils.abbreviate(node.getDisplayableName(),90,130,"..."));
         nodeEntry.put("path", node.getPath());
         nodeEntry.put("type", node.getPrimaryNodeType().getAlias());
         nodeEntry.put("date", node.getPropertyAsString("jcr:created"));
+        rowSink.addRow(nodeEntry);
 
     }
 
 
 
     /**
-     * getJson
+     * getSummary
      *
      * @return {@link JSONObject}
      * @throws JSONException
      */
-    public JSONObject getJson() throws JSONException {
+    @Override
+    protected JSONObject getSummary() throws JSONException {
         JSONObject jsonObject = new JSONObject();
-        JSONArray jArray = new JSONArray();
-        JSONObject jsonObjectItem;
-
-        for (String content : pageMap.keySet()) {
-
-                jsonObjectItem = new JSONObject();
-                jsonObjectItem.put("title", pageMap.get(content).get("name"));
-                jsonObjectItem.put("path", pageMap.get(content).get("path"));
-                jsonObjectItem.put("type", pageMap.get(content).get("type"));
-                jsonObjectItem.put("date", pageMap.get(content).get("date"));
-                /* setting each item to the json object */
-                jArray.put(jsonObjectItem);
-
-        }
-
-        jsonObject.put("totalContent", jArray.length());
-        jsonObject.put("items", jArray);
-
+        jsonObject.put("totalContent", totalContent);
+        jsonObject.put("recordsTotal", totalContent);
+        jsonObject.put("recordsFiltered", totalContent);
         return jsonObject;
     }
 
@@ -220,12 +217,4 @@ public class ReportByUnstranslated extends QueryReport {
         this.totalPages = totalPages;
     }
 
-    public Map<String, Map<String, Object>> getPageMap() {
-        return pageMap;
-    }
-
-    public void setPageMap(Map<String, Map<String, Object>> pageMap) {
-        this.pageMap = pageMap;
-    }
-
 }
@@ -46,13 +46,11 @@ package org.jahia.modules.contentreports.bean;
 import org.apache.commons.collections.map.HashedMap;
 import org.apache.commons.lang.StringUtils;
 import org.jahia.exceptions.JahiaException;
-import org.jahia.services.content.JCRContentUtils;
+import org.jahia.modules.contentreports.util.ParentPageResolver;
 import org.jahia.services.content.JCRNodeWrapper;
 import org.jahia.services.content.JCRSessionWrapper;
 import org.jahia.services.content.decorator.JCRSiteNode;
-import org.json.JSONArray;
 import org.json.JSONException;
-import org.json.JSONObject;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -84,6 +82,17 @@ public class ReportContentFromAnotherSite extends QueryReport {
         fillReport(session, pageQueryStr, offset, limit);
     }
 
+    @Override
+    protected boolean acceptNode(JCRNodeWrapper node) throws RepositoryException {
+        JCRSiteNode itemSiteNode = node.getProperty("j:node").getValue().getNode().getResolveSite();
+        return !this.siteNode.getPath().equals(itemSiteNode.getPath());
+    }
+
+    @Override
+    public boolean isNodeList() {
+        return true;
+    }
+
     /**
      * addItem
      *
@@ -93,61 +102,35 @@ public class ReportContentFromAnotherSite extends QueryReport {
     public void addItem(JCRNodeWrapper node) throws RepositoryException {
         JCRNodeWrapper referenceNode = node.getProperty("j:node").getValue().getNode();
         JCRSiteNode itemSiteNode = referenceNode.getResolveSite();
-        JCRNodeWrapper itemParentPage = JCRContentUtils.getParentOfType(node, "jnt:page");
+        ParentPageResolver.PageInfo itemParentPage = getPageResolver(node.getSession()).getParentPage(node.getPath());
 
-        if(!this.siteNode.getPath().equals(itemSiteNode.getPath())){
-            Map<String, String> nodeMap = new HashedMap();
-            nodeMap.put("nodePath", node.getPath());
-            nodeMap.put("nodeUrl ", node.getUrl());
-            nodeMap.put("nodeName", node.getName());
-            nodeMap.put("nodeType", referenceNode.getPrimaryNodeTypeName().split(":")[1]);
-            nodeMap.put("nodeTechName", referenceNode.getPrimaryNodeTypeName());
-            nodeMap.put("nodeDisplayableName", node.getDisplayableName());
-            nodeMap.put("nodeTitle", (node.hasI18N(this.locale) && node.getI18N(this.defaultLocale).hasProperty("jcr:title")) ? node.getI18N(this.defaultLocale).getProperty("jcr:title").getString() : "");
-            nodeMap.put("currentSiteName", this.siteNode.getName());
-            nodeMap.put("currentSiteDisplayableName", this.siteNode.getDisplayableName());
-            nodeMap.put("currentSitePath", this.siteNode.getPath());
-            nodeMap.put("currentSiteUrl" , this.siteNode.getHome().getUrl());
-            nodeMap.put("sourceSiteName" , itemSiteNode.getName());
-            nodeMap.put("sourceSiteDisplayableName", itemSiteNode.getDisplayableName());
-            nodeMap.put("sourceSitePath" , itemSiteNode.getPath());
-            nodeMap.put("sourceSiteUrl"  , itemSiteNode.getHome().getUrl());
-            nodeMap.put("nodeUsedInPageName", itemParentPage.getName());
-            nodeMap.put("nodeUsedInPageDisplayableName", itemParentPage.getDisplayableName());
-            nodeMap.put("nodeUsedInPagePath", itemParentPage.getPath());
-            nodeMap.put("nodeUsedInPageUrl", itemParentPage.getUrl());
-            nodeMap.put("nodeUsedInPageTitle", (itemParentPage.hasI18N(this.locale) && itemParentPage.getI18N(this.defaultLocale).hasProperty("jcr:title")) ? itemParentPage.getI18N(this.defaultLocale).getProperty("jcr:title").getString() : "");
-            nodeMap.put("referenceNodeTitle", (referenceNode.hasI18N(this.locale) && referenceNode.getI18N(this.defaultLocale).hasProperty("jcr:title")) ? referenceNode.getI18N(this.defaultLocale).getProperty("jcr:title").getString() : referenceNode.getDisplayableName());
+        Map<String, String> nodeMap = new HashedMap();
+        nodeMap.put("nodePath", node.getPath());
+        nodeMap.put("nodeUrl ", node.getUrl());
+        nodeMap.put("nodeName", node.getName());
+        nodeMap.put("nodeType", referenceNode.getPrimaryNodeTypeName().split(":")[1]);
+        nodeMap.put("nodeTechName", referenceNode.getPrimaryNodeTypeName());
+        nodeMap.put("nodeDisplayableName", node.getDisplayableName());
+        nodeMap.put("currentSiteName", this.siteNode.getName());
+        nodeMap.put("currentSiteDisplayableName", this.siteNode.getDisplayableName());
+        nodeMap.put("currentSitePath", this.siteNode.getPath());
+        nodeMap.put("currentSiteUrl" , this.siteNode.getHome().getUrl());
+        nodeMap.put("sourceSiteName" , itemSiteNode.getName());
+        nodeMap.put("sourceSiteDisplayableName", itemSiteNode.getDisplayableName());
+        nodeMap.put("sourceSitePath" , itemSiteNode.getPath());
+        nodeMap.put("sourceSiteUrl"  , itemSiteNode.getHome().getUrl());
+        nodeMap.put("nodeUsedInPageName", itemParentPage.getName());
+        nodeMap.put("nodeUsedInPageDisplayableName", itemParentPage.getDisplayableName());
+        nodeMap.put("nodeUsedInPagePath", itemParentPage.getPath());
+        nodeMap.put("nodeUsedInPageUrl", itemParentPage.getUrl());
+        nodeMap.put("nodeUsedInPageTitle", itemParentPage.getTitle());
+        nodeMap.put("referenceNodeTitle", (referenceNode.hasI18N(this.locale) && referenceNode.getI18N(this.defaultLocale).hasProperty("jcr:title")) ? referenceNode.getI18N(this.defaultLocale).getProperty("jcr:title").getString() : referenceNode.getDisplayableName());
+        String path = node.getPath();
+        deferRow(node.getSession(), path, titles -> {
+            nodeMap.put("nodeTitle", getTitle(titles, path));
             nodeMap.put("displayTitle", StringUtils.isNotEmpty(nodeMap.get("nodeTitle")) ? nodeMap.get("nodeTitle") : nodeMap.get("referenceNodeTitle"));
-            this.dataList.add(nodeMap);
-        }
-    }
-
-    /**
-     * getJson
-     *
-     * @return {@link JSONObject}
-     * @throws JSONException
-     * @throws RepositoryException
-     */
-    public JSONObject getJson() throws JSONException, RepositoryException {
-
-        JSONObject jsonObject = new JSONObject();
-        JSONArray jArray = new JSONArray();
-        JSONObject jsonObjectItem;
-
-        for (Map<String, String> nodeMap : this.dataList) {
-            jsonObjectItem = new JSONObject();
-            for (String key: nodeMap.keySet()) {
-                jsonObjectItem.put(key, nodeMap.get(key));
-            }
-            jArray.put(jsonObjectItem);
-        }
-
-        jsonObject.put("siteName", siteNode.getName());
-        jsonObject.put("siteDisplayableName", siteNode.getDisplayableName());
-        jsonObject.put("items", jArray);
-        return jsonObject;
+            rowSink.addRow(nodeMap);
+        });
     }
 
 
@@ -43,15 +43,12 @@
  */
 package org.jahia.modules.contentreports.bean;
 
-import org.apache.commons.collections.map.HashedMap;
-import org.apache.commons.lang.StringUtils;
 import org.apache.commons.lang.WordUtils;
-import org.jahia.services.content.JCRContentUtils;
+import org.jahia.modules.contentreports.util.ParentPageResolver;
 import org.jahia.services.content.JCRNodeWrapper;
 import org.jahia.services.content.JCRSessionWrapper;
 import org.jahia.services.content.decorator.JCRSiteNode;
 import org.jahia.utils.i18n.Messages;
-import org.json.JSONArray;
 import org.json.JSONException;
 import org.json.JSONObject;
 import org.slf4j.Logger;
@@ -59,8 +56,8 @@ import org.slf4j.LoggerFactory;
 
 import javax.jcr.RepositoryException;
 import javax.jcr.query.Query;
-import java.util.*;
 import java.util.stream.Stream;
+import java.util.concurrent.Future;
 
 /**
  * The ReportContentMarkedForDeletion Class.
@@ -96,13 +93,18 @@ public class ReportContentMarkedForDeletion extends QueryReport {
         StringBuilder queryBuilder = new StringBuilder();
         queryBuilder.append("SELECT * FROM").append(reportType.equals(BaseReport.SearchContentType.PAGE) ? "[jnt:page] " : "[jnt:content] ")
                 .append("AS item ").append("WHERE item.[jcr:mixinTypes] = 'jmix:markedForDeletionRoot' ")
-                .append("and ISDESCENDANTNODE(item,['").append(searchPath).append("']) ").append(" order by item.[")
-                .append(resultFields[sortCol]).append("] ").append(order);
+                .append("and ISDESCENDANTNODE(item,['").append(searchPath).append("']) ");
 
         String query = queryBuilder.toString();
         sessionWrapper = session;
-        fillReport(session, query, offset, limit);
-        totalContent = getTotalCount(session, query);
+        Future<Long> total = submitTotalCount(session, query);
+        fillSortedReport(session, query, "item", getSortField(resultFields, sortCol), order, offset, limit);
+        totalContent = getTotalCount(total, query);
+    }
+
+    @Override
+    public boolean isNodeList() {
+        return true;
     }
 
     /**
@@ -113,56 +115,30 @@ public class ReportContentMarkedForDeletion extends QueryReport {
      */
     public void addItem(JCRNodeWrapper node) throws RepositoryException {
 
-        JCRNodeWrapper itemParentPage = node;
-        if (!node.isNodeType("jnt:page")) {
-            itemParentPage = JCRContentUtils.getParentOfType(node, "jnt:page");
-        }
-        Map<String, String> nodeMap = new HashedMap();
-        nodeMap.put("nodePath", node.getPath());
-        nodeMap.put("nodeName", node.getName());
-        nodeMap.put("nodeType", node.getPrimaryNodeType().getLabel(this.defaultLocale));
-        nodeMap.put("nodeTypeName", node.getPrimaryNodeType().getName());
-        if (itemParentPage != null) {
-            nodeMap.put("nodeUsedInPagePath", itemParentPage.getPath());
-            nodeMap.put("nodePresentOnPage", "true");
-        } else {
-            nodeMap.put("nodeUsedInPagePath", node.getParent().getPath());
-            nodeMap.put("nodePresentOnPage", "false");
-        }
-        nodeMap.put("subNodesMarkedForDeletion", this.countSubNodes(node).toString());
-        nodeMap.put("nodeDisplayableName", WordUtils.abbreviate(node.getDisplayableName(), 90, 130, "..."));
-        nodeMap.put("nodeTitle", (node.hasI18N(this.locale) && node.getI18N(this.defaultLocale).hasProperty("jcr:title")) ?
-                node.getI18N(this.defaultLocale).getProperty("jcr:title").getString() :
-                "");
-        nodeMap.put("displayTitle", StringUtils.isNotEmpty(nodeMap.get("nodeTitle")) ? nodeMap.get("nodeTitle") : nodeMap.get("nodeName"));
-        nodeMap.put("publishStatus", getPublicationStatusOfANode(node));
-        this.dataList.add(nodeMap);
+        ParentPageResolver.PageInfo itemParentPage = getPageResolver(node.getSession()).getPage(node);
+        rowSink.addRow(
+                WordUtils.abbreviate(node.getDisplayableName(), 90, 130, "..."),
+                node.getPrimaryNodeType().getLabel(this.defaultLocale),
+                node.getPath(),
+                itemParentPage != null ? itemParentPage.getPath() : node.getParent().getPath(),
+                this.countSubNodes(node).toString(),
+                getPublicationStatusOfANode(node),
+                itemParentPage != null ? "nodePresentOnPage" : "nodeNotPresentOnPage");
     }
 
-    @Override public JSONObject getJson() throws JSONException, RepositoryException {
-
-        JSONObject jsonObject = new JSONObject();
-        JSONArray jArray = new JSONArray();
-
-        for (Map<String, String> nodeMap : this.dataList) {
-            JSONArray item = new JSONArray();
-            item.put(nodeMap.get("nodeDisplayableName"));
-            item.put(nodeMap.get("nodeType"));
-            item.put(nodeMap.get("nodePath"));
-            item.put(nodeMap.get("nodeUsedInPagePath"));
-            item.put(nodeMap.get("subNodesMarkedForDeletion"));
-            item.put(nodeMap.get("publishStatus"));
-            item.put(Boolean.valueOf(nodeMap.get("nodePresentOnPage")) ? "nodePresentOnPage" : "nodeNotPresentOnPage");
-            jArray.put(item);
-        }
+    @Override
+    protected JSONObject getSummary() throws JSONException, RepositoryException {
+        JSONObject jsonObject = super.getSummary();
         jsonObject.put("recordsTotal", totalContent);
         jsonObject.put("recordsFiltered", totalContent);
-        jsonObject.put("siteName", siteNode.getName());
-        jsonObject.put("siteDisplayableName", siteNode.getDisplayableName());
-        jsonObject.put("data", jArray);
         return jsonObject;
     }
 
+    @Override
+    public String getRowsKey() {
+        return "data";
+    }
+
     private Long countSubNodes(JCRNodeWrapper node) {
         StringBuilder queryBuilder = new StringBuilder();
         queryBuilder
@@ -43,18 +43,11 @@
  */
 package org.jahia.modules.contentreports.bean;
 
-import org.jahia.ajax.gwt.client.data.workflow.GWTJahiaWorkflow;
-import org.jahia.ajax.gwt.client.data.workflow.GWTJahiaWorkflowDefinition;
-import org.jahia.ajax.gwt.helper.WorkflowHelper;
 import org.jahia.exceptions.JahiaException;
+import org.jahia.modules.contentreports.service.WorkflowSnapshot;
 import org.jahia.services.content.JCRNodeWrapper;
 import org.jahia.services.content.JCRSessionWrapper;
 import org.jahia.services.content.decorator.JCRSiteNode;
-import org.jahia.services.workflow.Workflow;
-import org.jahia.services.workflow.WorkflowAction;
-import org.jahia.services.workflow.WorkflowService;
-import org.jahia.services.workflow.WorkflowTask;
-import org.json.JSONArray;
 import org.json.JSONException;
 import org.json.JSONObject;
 import org.slf4j.Logger;
@@ -64,6 +57,7 @@ import javax.jcr.RepositoryException;
 import java.text.DateFormat;
 import java.text.SimpleDateFormat;
 import java.util.*;
+import java.util.concurrent.Future;
 
 /**
  * The ReportContentWaitingPublication Class.
@@ -74,24 +68,39 @@ public class ReportContentWaitingPublication extends QueryReport {
     private static Logger logger = LoggerFactory.getLogger(ReportContentWaitingPublication.class);
     protected static final String BUNDLE = "resources.contentReportReact";
     private long totalContent;
-    List<WaitingPublicationElement> dataList;
+    private int sortCol;
+    private String order;
+    /* the workflow columns are not node properties, they are sorted by name */
+    private String[] resultFields = {"j:nodename", "jcr:primaryType", "j:nodename"};
+    /* the workflows of the run, each process is read once */
+    private WorkflowSnapshot workflows;
 
 
     /**
      * Instantiates a new Report pages without title.
      *
      * @param siteNode the site node {@link JCRSiteNode}
+     * @param sortCol the sorted column
+     * @param order the sort direction
      */
-    public ReportContentWaitingPublication(JCRSiteNode siteNode) {
+    public ReportContentWaitingPublication(JCRSiteNode siteNode, int sortCol, String order) {
         super(siteNode);
-        this.dataList  = new ArrayList<>();
+        this.sortCol = sortCol;
+        this.order = order;
     }
 
     @Override
     public void execute(JCRSessionWrapper session, int offset, int limit) throws RepositoryException, JSONException, JahiaException {
         String pageQueryStr = "SELECT * FROM [jmix:workflow] AS item WHERE [j:processId] is not null and ISDESCENDANTNODE(item,['" + siteNode.getPath() + "'])";
-        fillReport(session, pageQueryStr, offset, limit);
-        totalContent = getTotalCount(session, pageQueryStr);
+        Future<Long> total = submitTotalCount(session, pageQueryStr);
+        workflows = new WorkflowSnapshot();
+        fillSortedReport(session, pageQueryStr, "item", getSortField(resultFields, sortCol), order, offset, limit);
+        totalContent = getTotalCount(total, pageQueryStr);
+    }
+
+    @Override
+    public boolean isNodeList() {
+        return true;
     }
 
     /**
@@ -101,54 +110,42 @@ public class ReportContentWaitingPublication extends QueryReport {
      * @throws RepositoryException
      */
     public void addItem(JCRNodeWrapper node) throws RepositoryException {
-            dataList.add(new WaitingPublicationElement(node, localeMap));
+        WaitingPublicationElement element = new WaitingPublicationElement(node, localeMap);
+        deferRow(node.getSession(), element.getPath(), titles -> addElement(element, titles.get(element.getPath(), defaultLocale.toString())));
     }
 
-    /**
-     * getJson
-     *
-     * @return {@link JSONObject}
-     * @throws JSONException
-     * @throws RepositoryException
-     */
-    public JSONObject getJson() throws JSONException, RepositoryException {
-
-        JSONObject jsonObject = new JSONObject();
-        JSONArray jArray = new JSONArray();
-        JSONArray jsonArrayItem;
-
-        JSONArray jArray2;
-        JSONObject jsonObjectItem2;
-
-        for (WaitingPublicationElement element : this.dataList) {
-            jsonArrayItem = new JSONArray();
-            jArray2 = new JSONArray();
-            jsonArrayItem.put(element.getName());
-
-            jsonArrayItem.put(element.getType());
-            jsonArrayItem.put(element.getPath());
-
-            for (String key: element.getElementMap().keySet()) {
-                jsonArrayItem.put(element.getElementMap().get(key).get("wfStarted"));
-                jsonArrayItem.put(element.getElementMap().get(key).get("wfDName"));
-                jsonArrayItem.put(element.getElementMap().get(key).get("wfName"));
-                for (String key2: element.getElementMap().get(key).keySet()) {
-                    jsonArrayItem.put( element.getElementMap().get(key).get(key2));
-                }
-
+    private void addElement(WaitingPublicationElement element, String title) {
+        if (title != null) {
+            element.setTitle(title);
+        }
+        List<Object> row = new ArrayList<>();
+        row.add(element.getName());
+        row.add(element.getType());
+        row.add(element.getPath());
+        for (String key: element.getElementMap().keySet()) {
+            row.add(element.getElementMap().get(key).get("wfStarted"));
+            row.add(element.getElementMap().get(key).get("wfDName"));
+            row.add(element.getElementMap().get(key).get("wfName"));
+            for (String key2: element.getElementMap().get(key).keySet()) {
+                row.add(element.getElementMap().get(key).get(key2));
             }
-            jArray.put(jsonArrayItem);
         }
+        rowSink.addRow(row.toArray());
+    }
 
+    @Override
+    protected JSONObject getSummary() throws JSONException, RepositoryException {
+        JSONObject jsonObject = super.getSummary();
         jsonObject.put("recordsTotal", totalContent);
         jsonObject.put("recordsFiltered", totalContent);
-        jsonObject.put("siteName", siteNode.getName());
-        jsonObject.put("siteDisplayableName", siteNode.getDisplayableName());
-        jsonObject.put("data", jArray);
-
         return jsonObject;
     }
 
+    @Override
+    public String getRowsKey() {
+        return "data";
+    }
+
     /* WaitingPublicationElement Class.*/
     class WaitingPublicationElement{
 
@@ -167,74 +164,15 @@ public class ReportContentWaitingPublication extends QueryReport {
             this.elementMap = new HashMap();
             this.path  = node.getPath() ;
             this.url   = node.getUrl();
-            this.title = (node.hasI18N(defaultLocale) && node.getI18N(defaultLocale).hasProperty("jcr:title")) ? node.getI18N(defaultLocale).getProperty("jcr:title").getString() : node.getName();
+            // replaced by the title of the default language once the titles of the rows are read
+            this.title = node.getName();
             this.name  = node.getName();
             this.type  = node.getPrimaryNodeTypeName().split(":")[1];
             this.techName = node.getPrimaryNodeTypeName();
 
             for (String lang : localeMap.keySet()) {
-                logger.info(node + "###" +  lang + "###" + localeMap.get(lang));
-                List<Workflow> wfList = WorkflowService.getInstance().getActiveWorkflows(node, localeMap.get(lang), localeMap.get(lang));
-
-                this.elementMap.put(lang, new HashMap());
-                this.elementMap.get(lang).put("wfStarted", getWorkflowData( wfList, "startTime"));
-                this.elementMap.get(lang).put("wfName", getWorkflowData( wfList, "name"));
-                this.elementMap.get(lang).put("wfDName", getWorkflowData( wfList, "displayableName"));
-                this.elementMap.get(lang).put("wfStartUser", getWorkflowData( wfList, "startUser"));
-                this.elementMap.get(lang).put("wfProvider", getWorkflowData( wfList, "provider"));
-                this.elementMap.get(lang).put("wfComments", getWorkflowData( wfList, "comments"));
-            }
-        }
-
-        /**
-         * getWorkflowData
-         * <p>return the information by workflow as string.</p>
-         *
-         * @param wList
-         * @param field
-         * @return
-         */
-        private String getWorkflowData(List<Workflow> wList, String field){
-            StringBuilder sb = new StringBuilder();
-            HashMap<String, String> displayableName = new HashMap<>();
-
-            if(wList != null) {
-                for (Workflow wf : wList) {
-                    if (sb.length() > 0) { sb.append(","); }
-                    if(field.equalsIgnoreCase("startTime")) {
-                        sb.append(dateFormat.format(wf.getStartTime()));
-                        break;
-                    }
-                    if(field.equalsIgnoreCase("name")) {
-                        sb.append(wf.getName());
-                        break;
-                    }
-                    if(field.equalsIgnoreCase("displayableName")) {
-                        WorkflowHelper wh = new WorkflowHelper();
-                        GWTJahiaWorkflow gwtWD = wh.getGWTJahiaWorkflow(wf);
-                        displayableName.put(wf.getId(), gwtWD.getVariables().get("jcr_title").getValues().toArray()[0].toString());
-                    }
-                    if(field.equalsIgnoreCase("startUser")) {
-                        sb.append(wf.getStartUser());
-                        break;
-                    }
-                    if(field.equalsIgnoreCase("provider")) {
-                        sb.append(wf.getProvider());
-                        break;
-                    }
-                    if(field.equalsIgnoreCase("comments")) {
-                        sb.append(wf.getComments());
-                        break;
-                    }
-                }
-            }
-
-            if(field.equalsIgnoreCase("displayableName")) {
-                for (String key : displayableName.keySet()) {
-                    sb.append(displayableName.get(key) + "<br />");
-                }
+                this.elementMap.put(lang, WorkflowSnapshot.getFields(workflows.getActiveWorkflows(node, localeMap.get(lang)), dateFormat));
             }
-            return sb.toString();
         }
 
         /**
@@ -0,0 +1,206 @@
+/*
+ * ==========================================================================================
+ * =                   JAHIA'S DUAL LICENSING - IMPORTANT INFORMATION                       =
+ * ==========================================================================================
+ *
+ *                                 http://www.jahia.com
+ *
+ *     Copyright (C) 2002-2020 Jahia Solutions Group SA. All rights reserved.
+ *
+ *     THIS FILE IS AVAILABLE UNDER TWO DIFFERENT LICENSES:
+ *     1/GPL OR 2/JSEL
+ *
+ *     1/ GPL
+ *     ==================================================================================
+ *
+ *     IF YOU DECIDE TO CHOOSE THE GPL LICENSE, YOU MUST COMPLY WITH THE FOLLOWING TERMS:
+ *
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ *
+ *     2/ JSEL - Commercial and Supported Versions of the program
+ *     ===================================================================================
+ *
+ *     IF YOU DECIDE TO CHOOSE THE JSEL LICENSE, YOU MUST COMPLY WITH THE FOLLOWING TERMS:
+ *
+ *     Alternatively, commercial and supported versions of the program - also known as
+ *     Enterprise Distributions - must be used in accordance with the terms and conditions
+ *     contained in a separate written agreement between you and Jahia Solutions Group SA.
+ *
+ *     If you are unsure which license is appropriate for your use,
+ *     please contact the sales department at sales@jahia.com.
+ */
+package org.jahia.modules.contentreports.bean;
+
+import org.apache.commons.lang.StringUtils;
+import org.jahia.services.content.JCRNodeWrapper;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import javax.jcr.Node;
+import javax.jcr.Property;
+import javax.jcr.PropertyType;
+import javax.jcr.RepositoryException;
+import javax.jcr.Value;
+import javax.jcr.query.Row;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * The ReportCursor Class.
+ * <p>Position of the last row of a page in a sorted report: the value of the sorted property
+ * and the identifier of the node. The next page is read with a range condition on these
+ * values instead of an offset, so its cost does not grow with the number of rows already read.</p>
+ * <p>The repository sorts the nodes without the sorted property before the others in ascending
+ * order and after them in descending order, the conditions follow the same rule.</p>
+ */
+public final class ReportCursor {
+
+    private final String field;
+    private final boolean descending;
+    private final String value;
+    private final int type;
+    private final String identifier;
+
+    private ReportCursor(String field, boolean descending, String value, int type, String identifier) {
+        this.field = field;
+        this.descending = descending;
+        this.value = value;
+        this.type = type;
+        this.identifier = identifier;
+    }
+
+    /**
+     * of
+     * <p>the cursor positioned after the given node.</p>
+     *
+     * @param node {@link JCRNodeWrapper} the last node of the page
+     * @param field the sorted property
+     * @param direction the sort direction
+     * @return {@link ReportCursor}
+     * @throws RepositoryException
+     */
+    public static ReportCursor of(JCRNodeWrapper node, String field, String direction) throws RepositoryException {
+        // the stored value is read, not the one of the current language returned by the wrapper
+        Node realNode = node.getRealNode();
+        String value = null;
+        int type = PropertyType.STRING;
+        if (realNode.hasProperty(field) && !realNode.getProperty(field).isMultiple()) {
+            Property property = realNode.getProperty(field);
+            value = property.getString();
+            type = property.getType();
+        }
+        return new ReportCursor(field, isDescending(direction), value, type, node.getIdentifier());
+    }
+
+    /**
+     * of
+     * <p>the cursor positioned after the given row, the row holding the sorted property and jcr:uuid.</p>
+     *
+     * @param row {@link Row} the last row of the page
+     * @param field the sorted property
+     * @param direction the sort direction
+     * @return {@link ReportCursor}
+     * @throws RepositoryException
+     */
+    public static ReportCursor of(Row row, String field, String direction) throws RepositoryException {
+        Value value = row.getValue(field);
+        return new ReportCursor(field, isDescending(direction), value != null ? value.getString() : null,
+                value != null ? value.getType() : PropertyType.STRING, row.getValue("jcr:uuid").getString());
+    }
+
+    /**
+     * decode
+     *
+     * @param cursor the opaque cursor returned with a page
+     * @return {@link ReportCursor}
+     * @throws IllegalArgumentException when the cursor is not one returned by a report
+     */
+    public static ReportCursor decode(String cursor) {
+        try {
+            JSONObject json = new JSONObject(new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8));
+            return new ReportCursor(json.getString("f"), json.getBoolean("d"), json.has("v") ? json.getString("v") : null,
+                    PropertyType.valueFromName(json.getString("t")), json.getString("id"));
+        } catch (JSONException | IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid report cursor: " + cursor, e);
+        }
+    }
+
+    /**
+     * encode
+     *
+     * @return the opaque cursor returned with a page
+     * @throws JSONException
+     */
+    public String encode() throws JSONException {
+        JSONObject json = new JSONObject();
+        json.put("f", field);
+        json.put("d", descending);
+        if (value != null) {
+            json.put("v", value);
+        }
+        json.put("t", PropertyType.nameFromValue(type));
+        json.put("id", identifier);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(json.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * isSortedBy
+     *
+     * @param sortField the sorted property of the request
+     * @param direction the sort direction of the request
+     * @return true when the cursor was built for the same order
+     */
+    public boolean isSortedBy(String sortField, String direction) {
+        return field.equals(sortField) && descending == isDescending(direction);
+    }
+
+    /**
+     * getCondition
+     * <p>the condition selecting the nodes after the cursor, to add to the where clause of the query.</p>
+     *
+     * @param selector the selector name of the query
+     * @return {@link String}
+     */
+    public String getCondition(String selector) {
+        String property = selector + ".[" + field + "]";
+        String after = selector + ".[jcr:uuid] > " + literal(identifier, PropertyType.STRING);
+        if (value == null) {
+            return descending ? "(" + property + " IS NULL AND " + after + ")"
+                    : "(" + property + " IS NOT NULL OR " + after + ")";
+        }
+        String bound = literal(value, type);
+        String sameValue = "(" + property + " = " + bound + " AND " + after + ")";
+        return descending ? "(" + property + " < " + bound + " OR " + property + " IS NULL OR " + sameValue + ")"
+                : "(" + property + " > " + bound + " OR " + sameValue + ")";
+    }
+
+    private static String literal(String value, int type) {
+        String quoted = "'" + StringUtils.replace(value, "'", "''") + "'";
+        switch (type) {
+            case PropertyType.DATE:
+            case PropertyType.LONG:
+            case PropertyType.DOUBLE:
+            case PropertyType.DECIMAL:
+            case PropertyType.BOOLEAN:
+                return "CAST(" + quoted + " AS " + PropertyType.nameFromValue(type).toUpperCase() + ")";
+            default:
+                return quoted;
+        }
+    }
+
+    private static boolean isDescending(String direction) {
+        return "DESC".equals(QueryReport.getSortDirection(direction));
+    }
+}
@@ -43,17 +43,25 @@
  */
 package org.jahia.modules.contentreports.bean;
 
-import org.jahia.services.content.JCRContentUtils;
+import org.apache.commons.lang.StringUtils;
+import org.jahia.modules.contentreports.util.ParentPageResolver;
 import org.jahia.services.content.JCRNodeWrapper;
 import org.jahia.services.content.JCRSessionWrapper;
-import org.jahia.services.content.JCRValueWrapper;
 import org.jahia.services.content.decorator.JCRSiteNode;
-import org.json.JSONArray;
+import org.jahia.services.content.nodetypes.ExtendedNodeType;
+import org.jahia.services.content.nodetypes.ExtendedPropertyDefinition;
+import org.jahia.services.content.nodetypes.NodeTypeRegistry;
 import org.json.JSONException;
 import org.json.JSONObject;
 
 import javax.jcr.*;
-import javax.jcr.nodetype.PropertyDefinition;
+import javax.jcr.query.Query;
+import javax.jcr.query.RowIterator;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.TreeSet;
 
 /**
  * Short description of the class
@@ -64,7 +72,8 @@ public class ReportDisplayLinks extends BaseReport {
     protected static final String BUNDLE = "resources.contentReportReact";
     private String originPath;
     private String destinationPath;
-    private JSONArray dataList = new JSONArray();
+    private ReportRowSink rowSink = new JsonRowSink();
+    private RowWindow window = new RowWindow(0, -1);
 
     public ReportDisplayLinks(JCRSiteNode siteNode, String originPath, String destinationPath) {
         super(siteNode);
@@ -76,58 +85,134 @@ public class ReportDisplayLinks extends BaseReport {
     public void execute(JCRSessionWrapper session, int offset, int limit) throws RepositoryException, JSONException {
         JCRNodeWrapper originNode;
         originNode = session.getNode(originPath);
-        linkReferencesToNode(originNode);
+        // the whole origin tree has to be read to know the total, only the requested page is kept
+        window = new RowWindow(offset, limit);
+        Set<String> referenceProperties = getReferenceProperties();
+        if (referenceProperties.isEmpty()) {
+            return;
+        }
+        Set<String> destinationIds = getDestinationIds(session);
+        if (destinationIds.isEmpty()) {
+            return;
+        }
+        linkReferencesToNode(originNode, referenceProperties, destinationIds);
+        // the descendants of the origin holding one of the reference properties, read as a flat result instead of walking the tree
+        StringBuilder queryStr = new StringBuilder("SELECT * FROM [nt:base] AS item WHERE ISDESCENDANTNODE(item,['")
+                .append(escape(originPath)).append("']) AND (");
+        boolean first = true;
+        for (String property : referenceProperties) {
+            queryStr.append(first ? "" : " OR ").append("item.[").append(property).append("] IS NOT NULL");
+            first = false;
+        }
+        queryStr.append(") ORDER BY item.[jcr:uuid] ASC");
+        NodeIterator nodes = session.getWorkspace().getQueryManager().createQuery(queryStr.toString(), Query.JCR_SQL2).execute().getNodes();
+        while (nodes.hasNext()) {
+            linkReferencesToNode((JCRNodeWrapper) nodes.nextNode(), referenceProperties, destinationIds);
+        }
     }
 
-    private void linkReferencesToNode (JCRNodeWrapper node) throws RepositoryException {
-        PropertyIterator propIt = node.getProperties() ;
-        while (propIt.hasNext()) {
-            Property actualProperty = propIt.nextProperty();
-            PropertyDefinition actualPropertyDefinition = actualProperty.getDefinition();
-            if (actualPropertyDefinition.getRequiredType() == PropertyType.REFERENCE || actualPropertyDefinition.getRequiredType() == PropertyType.WEAKREFERENCE) {
-                if (actualProperty.isMultiple()) {
-                    Value[] values = actualProperty.getValues();
-                    for (Value value : values) {
-                        JCRValueWrapper propertyValue = (JCRValueWrapper) value;
-                        addItem(node, propertyValue.getNode());
-                    }
-                } else {
-                    addItem(node, (JCRNodeWrapper) actualProperty.getNode());
+    /* the properties declared as references by the registered node types, residual definitions excluded */
+    private static Set<String> getReferenceProperties() {
+        Set<String> properties = new TreeSet<>();
+        NodeTypeRegistry.JahiaNodeTypeIterator nodeTypes = NodeTypeRegistry.getInstance().getAllNodeTypes();
+        while (nodeTypes.hasNext()) {
+            ExtendedNodeType nodeType = nodeTypes.nextNodeType();
+            for (ExtendedPropertyDefinition definition : nodeType.getDeclaredPropertyDefinitions()) {
+                if ((definition.getRequiredType() == PropertyType.REFERENCE || definition.getRequiredType() == PropertyType.WEAKREFERENCE)
+                        && !"*".equals(definition.getName())) {
+                    properties.add(definition.getName());
                 }
             }
         }
+        return properties;
+    }
 
-        for (JCRNodeWrapper childNode : node.getNodes()) {
-            linkReferencesToNode(childNode);
+    /* the identifiers of the nodes under the destination, so that the references are filtered before loading their target */
+    private Set<String> getDestinationIds(JCRSessionWrapper session) throws RepositoryException {
+        Set<String> ids = new HashSet<>();
+        RowIterator rows = session.getWorkspace().getQueryManager().createQuery("SELECT item.[jcr:uuid] AS [jcr:uuid] FROM [mix:referenceable] AS item WHERE ISDESCENDANTNODE(item,['"
+                + escape(destinationPath) + "'])", Query.JCR_SQL2).execute().getRows();
+        while (rows.hasNext()) {
+            Value id = rows.nextRow().getValue("jcr:uuid");
+            if (id != null) {
+                ids.add(id.getString());
+            }
         }
+        return ids;
     }
 
-    private void addItem(JCRNodeWrapper referenceNode, JCRNodeWrapper referencedNode) throws RepositoryException {
+    private static String escape(String path) {
+        return StringUtils.replace(path, "'", "''");
+    }
 
-        if (referencedNode != null && referencedNode.getPath().startsWith(destinationPath + "/")) {
-            JCRNodeWrapper scopeNode = JCRContentUtils.getParentOfType(referenceNode, "jnt:page");
-            // Avoid adding nodes that can't be rendered such as users nodes for example
-            if (scopeNode == null) {
-                return;
+    private void linkReferencesToNode(JCRNodeWrapper node, Set<String> referenceProperties, Set<String> destinationIds) throws RepositoryException {
+        visitNode();
+        for (String propertyName : referenceProperties) {
+            if (!node.hasProperty(propertyName)) {
+                continue;
+            }
+            Property property = node.getProperty(propertyName);
+            if (property.getType() != PropertyType.REFERENCE && property.getType() != PropertyType.WEAKREFERENCE) {
+                continue;
+            }
+            if (property.isMultiple()) {
+                for (Value value : property.getValues()) {
+                    addItem(node, value.getString(), destinationIds);
+                }
+            } else {
+                addItem(node, property.getValue().getString(), destinationIds);
             }
-            JSONArray dataItem = new JSONArray();
-            dataItem.put(referencedNode.getPrimaryNodeTypeName());
-            dataItem.put(referencedNode.getPath());
-            dataItem.put(referenceNode.getPath());
-            dataItem.put(referencedNode.getPropertyAsString("jcr:lastModified"));
-            dataItem.put(scopeNode.getPath());
-            dataList.put(dataItem);
         }
     }
 
+    private void addItem(JCRNodeWrapper referenceNode, String referencedId, Set<String> destinationIds) throws RepositoryException {
+        if (!destinationIds.contains(referencedId)) {
+            return;
+        }
+        ParentPageResolver.PageInfo scopeNode = getPageResolver(referenceNode.getSession()).getParentPage(referenceNode.getPath());
+        // Avoid adding nodes that can't be rendered such as users nodes for example
+        if (scopeNode == null || !window.accept()) {
+            return;
+        }
+        // only the referenced nodes of the page are loaded
+        JCRNodeWrapper referencedNode;
+        try {
+            referencedNode = referenceNode.getSession().getNodeByIdentifier(referencedId);
+        } catch (ItemNotFoundException e) {
+            return;
+        }
+        rowSink.addRow(
+                referencedNode.getPrimaryNodeTypeName(),
+                referencedNode.getPath(),
+                referenceNode.getPath(),
+                referencedNode.getPropertyAsString("jcr:lastModified"),
+                scopeNode.getPath());
+    }
+
     @Override
     public JSONObject getJson() throws JSONException {
+        JSONObject jsonObject = getSummary();
+        jsonObject.put("data", rowSink.toJSONArray());
+        return jsonObject;
+    }
+
+    @Override
+    public void writeJson(Writer writer) throws JSONException, IOException {
+        writeJson(writer, getSummary(), "data", rowSink);
+    }
+
+    @Override
+    public boolean streamRows(Writer writer) throws IOException {
+        this.rowSink = openRows(writer, "data");
+        return true;
+    }
+
+    private JSONObject getSummary() throws JSONException {
         JSONObject jsonObject = new JSONObject();
-        jsonObject.put("recordsTotal", dataList.length());
-        jsonObject.put("recordsFiltered", dataList.length());
+        jsonObject.put("recordsTotal", window.getTotal());
+        jsonObject.put("recordsFiltered", window.getTotal());
         jsonObject.put("siteName", siteNode.getName());
         jsonObject.put("siteDisplayableName", siteNode.getDisplayableName());
-        jsonObject.put("data", dataList);
         return jsonObject;
     }
 }
@@ -49,7 +49,6 @@ import org.jahia.modules.contentreports.service.LiveConditionService;
 import org.jahia.services.content.JCRNodeWrapper;
 import org.jahia.services.content.JCRSessionWrapper;
 import org.jahia.services.content.decorator.JCRSiteNode;
-import org.json.JSONArray;
 import org.json.JSONException;
 import org.json.JSONObject;
 import org.slf4j.Logger;
@@ -58,9 +57,9 @@ import org.slf4j.LoggerFactory;
 import javax.jcr.RepositoryException;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Future;
 import java.util.stream.Collectors;
 
 import static java.time.ZoneId.of;
@@ -77,6 +76,8 @@ public class ReportLiveContents extends QueryReport {
     private static final Logger logger = LoggerFactory.getLogger(ReportLiveContents.class);
     private final ConditionService conditionService;
     private String searchPath;
+    private int sortCol;
+    private String order;
     private long totalContent;
     private static final String IS_CONDITION_MATCHED_PROP = "isConditionMatched";
     private static final String LIST_OF_CONDITIONS_PROP = "listOfConditions";
@@ -86,10 +87,14 @@ public class ReportLiveContents extends QueryReport {
      * Constructor for ReportLiveContents
      * @param siteNode JCRSite node
      * @param searchPath path on where to perform the queries
+     * @param sortCol the sorted column
+     * @param order the sort direction
      */
-    public ReportLiveContents(JCRSiteNode siteNode, String searchPath) {
+    public ReportLiveContents(JCRSiteNode siteNode, String searchPath, int sortCol, String order) {
         super(siteNode);
         this.searchPath = searchPath;
+        this.sortCol = sortCol;
+        this.order = order;
         this.conditionService = new LiveConditionService();
     }
 
@@ -140,15 +145,27 @@ public class ReportLiveContents extends QueryReport {
                 + whereInSearchPath
                 + andWithInvalidDates;
         logger.debug(queryInvalidStartEndWithDayOfWeekAndTimeOfDay);
-        long totalNumOfNodesWithConditionalVisibility = getTotalCount(session, query);
+        // the counts run together, while the page is read
+        Future<Long> allNodes = submitTotalCount(session, query);
+        Future<Long> invalidStartEndDate = submitTotalCount(session, queryInvalidStartEndDate);
+        Future<Long> invalidWithDayOfWeek = submitTotalCount(session, queryInvalidStartEndWithDayOfWeek);
+        Future<Long> invalidWithTimeOfDay = submitTotalCount(session, queryInvalidStartEndWithTimeOfDay);
+        Future<Long> invalidWithDayOfWeekAndTimeOfDay = submitTotalCount(session, queryInvalidStartEndWithDayOfWeekAndTimeOfDay);
+        fillReport(session, query + getSortStatement(), offset, limit);
+
+        long totalNumOfNodesWithConditionalVisibility = getTotalCount(allNodes, query);
         long excludedNodes =
-                getTotalCount(session, queryInvalidStartEndDate)
-                        - getTotalCount(session, queryInvalidStartEndWithDayOfWeek)
-                        - getTotalCount(session, queryInvalidStartEndWithTimeOfDay)
-                        - getTotalCount(session, queryInvalidStartEndWithDayOfWeekAndTimeOfDay);
+                getTotalCount(invalidStartEndDate, queryInvalidStartEndDate)
+                        - getTotalCount(invalidWithDayOfWeek, queryInvalidStartEndWithDayOfWeek)
+                        - getTotalCount(invalidWithTimeOfDay, queryInvalidStartEndWithTimeOfDay)
+                        - getTotalCount(invalidWithDayOfWeekAndTimeOfDay, queryInvalidStartEndWithDayOfWeekAndTimeOfDay);
 
         totalContent = totalNumOfNodesWithConditionalVisibility - excludedNodes;
-        fillReport(session, query, offset, limit);
+    }
+
+    /* the name and the type of the node are sorted in the query, the other columns are computed from the conditions */
+    private String getSortStatement() {
+        return getOrderStatement("parent", sortCol == 2 ? "jcr:primaryType" : "j:nodename", order);
     }
 
     @Override public void addItem(JCRNodeWrapper node) throws RepositoryException {
@@ -159,40 +176,27 @@ public class ReportLiveContents extends QueryReport {
                 .map(Map.Entry::getValue)
                 .collect(Collectors.toList());
         if (!conditions.isEmpty()) {
-            Map<String, String> map = new HashMap<>();
-            map.put("name", node.getName());
-            map.put("path", node.getParent().getPath());
-            map.put("type", String.join("<br/>", node.getNodeTypes()));
-            map.put(CURRENT_STATUS_PROP, liveConditions.getOrDefault(CURRENT_STATUS_PROP, "not visible"));
-            map.put(LIST_OF_CONDITIONS_PROP, String.join("<br/>", conditions));
-            map.put(IS_CONDITION_MATCHED_PROP, liveConditions.getOrDefault(IS_CONDITION_MATCHED_PROP, "false"));
-            this.dataList.add(map);
+            rowSink.addRow(
+                    node.getName(),
+                    node.getParent().getPath(),
+                    String.join("<br/>", node.getNodeTypes()),
+                    String.join("<br/>", conditions),
+                    liveConditions.getOrDefault(IS_CONDITION_MATCHED_PROP, "false"),
+                    liveConditions.getOrDefault(CURRENT_STATUS_PROP, "not visible"));
         }
     }
 
     @Override
-    public JSONObject getJson() throws JSONException, RepositoryException {
-
-        JSONObject jsonObject = new JSONObject();
-        JSONArray jArray = new JSONArray();
-
-        for (Map<String, String> nodeMap : this.dataList) {
-            JSONArray item = new JSONArray();
-            item.put(nodeMap.get("name"));
-            item.put(nodeMap.get("path"));
-            item.put(nodeMap.get("type"));
-            item.put(nodeMap.get(LIST_OF_CONDITIONS_PROP));
-            item.put(nodeMap.get(IS_CONDITION_MATCHED_PROP));
-            item.put(nodeMap.get(CURRENT_STATUS_PROP));
-            jArray.put(item);
-        }
-
+    protected JSONObject getSummary() throws JSONException, RepositoryException {
+        JSONObject jsonObject = super.getSummary();
         jsonObject.put("recordsTotal", totalContent);
         jsonObject.put("recordsFiltered", totalContent);
-        jsonObject.put("siteName", siteNode.getName());
-        jsonObject.put("siteDisplayableName", siteNode.getDisplayableName());
-        jsonObject.put("data", jArray);
         return jsonObject;
     }
 
+    @Override
+    public String getRowsKey() {
+        return "data";
+    }
+
 }
@@ -43,21 +43,18 @@
  */
 package org.jahia.modules.contentreports.bean;
 
-import org.apache.commons.collections.map.HashedMap;
-import org.apache.commons.lang.StringUtils;
-import org.apache.commons.lang.WordUtils;
-import org.jahia.services.content.JCRContentUtils;
+import org.jahia.modules.contentreports.util.ParentPageResolver;
 import org.jahia.services.content.JCRNodeWrapper;
 import org.jahia.services.content.JCRSessionWrapper;
 import org.jahia.services.content.decorator.JCRSiteNode;
-import org.json.JSONArray;
 import org.json.JSONException;
 import org.json.JSONObject;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import javax.jcr.RepositoryException;
-import java.util.*;
+import javax.jcr.query.Row;
+import java.util.concurrent.Future;
 
 /**
  * The ReportLockedContent Class.
@@ -71,6 +68,7 @@ public class ReportLockedContent extends QueryReport {
     private int sortCol;
     private String order;
     private String[] resultFields = {"j:nodename", "jcr:primaryType", "jcr:createdBy", "jcr:lockOwner", "j:nodename"};
+    private static final String[] ROW_COLUMNS = {"jcr:primaryType", "jcr:createdBy", "jcr:lockOwner"};
 
     /**
      * Instantiates a new Report pages without title.
@@ -85,10 +83,20 @@ public class ReportLockedContent extends QueryReport {
 
     @Override
     public void execute(JCRSessionWrapper session, int offset, int limit) throws RepositoryException, JSONException {
-        String orderStatement = " order by item.[" + resultFields[sortCol] + "] " + order;
-        String pageQueryStr = "SELECT * FROM [jmix:editorialContent] AS item WHERE [j:lockTypes] is not null and ISDESCENDANTNODE(item,['" + siteNode.getPath() + "'])" + orderStatement;
-        fillReport(session, pageQueryStr, offset, limit);
-        totalContent = getTotalCount(session, pageQueryStr);
+        String pageQueryStr = "SELECT * FROM [jmix:editorialContent] AS item WHERE [j:lockTypes] is not null and ISDESCENDANTNODE(item,['" + siteNode.getPath() + "'])";
+        Future<Long> total = submitTotalCount(session, pageQueryStr);
+        fillSortedReport(session, pageQueryStr, "item", getSortField(resultFields, sortCol), order, offset, limit);
+        totalContent = getTotalCount(total, pageQueryStr);
+    }
+
+    @Override
+    protected String[] getRowColumns() {
+        return ROW_COLUMNS;
+    }
+
+    @Override
+    public boolean isNodeList() {
+        return true;
     }
 
     /**
@@ -99,57 +107,37 @@ public class ReportLockedContent extends QueryReport {
      */
     public void addItem(JCRNodeWrapper node) throws RepositoryException {
 
-        JCRNodeWrapper itemParentPage = node;
-        if (!node.isNodeType("jnt:page")) {
-            itemParentPage = JCRContentUtils.getParentOfType(node, "jnt:page");
-        }
-        Map<String, String> nodeMap = new HashedMap();
-        nodeMap.put("nodePath", node.getPath());
-        nodeMap.put("nodeUrl ", node.getUrl());
-        nodeMap.put("nodeName", node.getName());
-        nodeMap.put("nodeType", node.getPrimaryNodeTypeName());
-        nodeMap.put("nodeTypeTechName", node.getPrimaryNodeTypeName().split(":")[1]);
-        nodeMap.put("nodeTypeName", node.getPrimaryNodeType().getName());
-        nodeMap.put("nodeTypePrefix", node.getPrimaryNodeType().getPrefix());
-        nodeMap.put("nodeTypePrefix", node.getPrimaryNodeType().getPrefix());
-        nodeMap.put("nodeTypeAlias", node.getPrimaryNodeType().getAlias());
-        nodeMap.put("nodeAuthor", node.getCreationUser());
-        nodeMap.put("nodeLockedBy", node.getPropertyAsString("jcr:lockOwner"));
-        if (itemParentPage != null) {
-            nodeMap.put("nodeUsedInPageName", itemParentPage.getName());
-            nodeMap.put("nodeUsedInPageDisplayableName", itemParentPage.getDisplayableName());
-            nodeMap.put("nodeUsedInPagePath", itemParentPage.getPath());
-            nodeMap.put("nodeUsedInPageUrl", itemParentPage.getUrl());
-            nodeMap.put("nodeUsedInPageTitle", (itemParentPage.hasI18N(this.locale) && itemParentPage.getI18N(this.defaultLocale).hasProperty("jcr:title")) ? itemParentPage.getI18N(this.defaultLocale).getProperty("jcr:title").getString() : "");
-        }
-        nodeMap.put("nodeDisplayableName", WordUtils.abbreviate(node.getDisplayableName(),90,130,"..."));
-        nodeMap.put("nodeTitle", (node.hasI18N(this.locale) && node.getI18N(this.defaultLocale).hasProperty("jcr:title")) ? node.getI18N(this.defaultLocale).getProperty("jcr:title").getString() : "");
-        nodeMap.put("displayTitle", StringUtils.isNotEmpty(nodeMap.get("nodeTitle")) ? nodeMap.get("nodeTitle") : nodeMap.get("nodeName"));
-        this.dataList.add(nodeMap);
+        ParentPageResolver.PageInfo itemParentPage = getPageResolver(node.getSession()).getPage(node);
+        rowSink.addRow(
+                node.getName(),
+                node.getPrimaryNodeTypeName(),
+                node.getCreationUser(),
+                node.getPropertyAsString("jcr:lockOwner"),
+                itemParentPage != null ? itemParentPage.getPath() : null);
     }
 
     @Override
-    public JSONObject getJson() throws JSONException, RepositoryException {
-
-        JSONObject jsonObject = new JSONObject();
-        JSONArray jArray = new JSONArray();
+    public void addItem(Row row) throws RepositoryException {
+        rowSink.addRow(
+                getRowName(row),
+                getRowString(row, "jcr:primaryType"),
+                getRowString(row, "jcr:createdBy"),
+                getRowString(row, "jcr:lockOwner"),
+                getRowParentPage(row));
+    }
 
-        for (Map<String, String> nodeMap : this.dataList) {
-            JSONArray item = new JSONArray();
-            item.put(nodeMap.get("nodeName"));
-            item.put(nodeMap.get("nodeType"));
-            item.put(nodeMap.get("nodeAuthor"));
-            item.put(nodeMap.get("nodeLockedBy"));
-            item.put(nodeMap.get("nodeUsedInPagePath"));
-            jArray.put(item);
-        }
+    @Override
+    protected JSONObject getSummary() throws JSONException, RepositoryException {
+        JSONObject jsonObject = super.getSummary();
         jsonObject.put("recordsTotal", totalContent);
         jsonObject.put("recordsFiltered", totalContent);
-        jsonObject.put("siteName", siteNode.getName());
-        jsonObject.put("siteDisplayableName", siteNode.getDisplayableName());
-        jsonObject.put("data", jArray);
         return jsonObject;
     }
 
+    @Override
+    public String getRowsKey() {
+        return "data";
+    }
+
 
 }
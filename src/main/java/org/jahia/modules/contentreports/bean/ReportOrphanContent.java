@@ -44,18 +44,26 @@
 package org.jahia.modules.contentreports.bean;
 
 import org.apache.commons.collections.map.HashedMap;
+import org.jahia.registries.ServicesRegistry;
 import org.apache.commons.lang.StringUtils;
-import org.jahia.services.content.JCRContentUtils;
+import org.jahia.modules.contentreports.service.NodeSummary;
+import org.jahia.modules.contentreports.service.OverviewEngine;
+import org.jahia.modules.contentreports.service.ReportIndex;
+import org.jahia.modules.contentreports.util.ParentPageResolver;
 import org.jahia.services.content.JCRNodeWrapper;
 import org.jahia.services.content.JCRSessionWrapper;
 import org.jahia.services.content.decorator.JCRSiteNode;
+import org.jahia.services.usermanager.JahiaUserManagerService;
 import org.json.JSONException;
+import org.json.JSONObject;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import javax.jcr.NodeIterator;
 import javax.jcr.RepositoryException;
+import javax.jcr.Value;
 import javax.jcr.query.Query;
+import javax.jcr.query.Row;
+import javax.jcr.query.RowIterator;
 import java.util.*;
 
 /**
@@ -64,9 +72,16 @@ import java.util.*;
 public class ReportOrphanContent extends QueryReport {
     private static Logger logger = LoggerFactory.getLogger(ReportOrphanContent.class);
     protected static final String BUNDLE = "resources.contentReportReact";
+    /* past this number of unknown authors, the orphans are filtered in memory instead of by the query */
+    private static final int MAX_AUTHOR_TERMS = 100;
 
-    private Map<String, JCRNodeWrapper> userMap;
-
+    /* the authors met during the run, true when the user provider does not know them */
+    private Map<String, Boolean> unknownAuthors;
+    /* the page of the rows read from the report index, the queries are windowed by the merged query */
+    private RowWindow window;
+    private int total;
+    /* true when the merged rows are filtered on their author in memory */
+    private boolean filterAuthors;
 
 
     /**
@@ -77,72 +92,155 @@ public class ReportOrphanContent extends QueryReport {
     public ReportOrphanContent(JCRSiteNode siteNode) {
         super(siteNode);
         this.siteNode = siteNode;
-        this.userMap = new HashedMap();
+        this.unknownAuthors = new HashMap<>();
     }
 
     @Override
     public void execute(JCRSessionWrapper session, int offset, int limit) throws RepositoryException, JSONException {
-        this.fillUserData(session);
-        String pageQueryStr = "SELECT * FROM [jnt:page] AS item WHERE ISDESCENDANTNODE(item,['" + siteNode.getPath() + "'])";
-        String contentQueryStr = "SELECT * FROM [jmix:editorialContent] AS item WHERE ISDESCENDANTNODE(item,['" + siteNode.getPath() + "'])";
-        fillReport(session, pageQueryStr, offset, limit);
-        fillReport(session, contentQueryStr, offset, limit);
+        // the orphans are only known once the author is checked, so the pages and the contents
+        // are read entirely and a single page of rows is taken over both of them
+        window = new RowWindow(offset, limit);
+        ReportIndex.SiteIndex index = ReportIndex.getReadyIndex(session, siteNode.getPath());
+        if (index != null) {
+            // a single pass, a page that is also an editorial content is listed once
+            fillFromIndex(session, index, OverviewEngine.PAGE | OverviewEngine.EDITORIAL_CONTENT);
+            flushRows();
+            total = window.getTotal();
+            return;
+        }
+        // the distinct authors are read first, then checked against the user provider,
+        // and only the nodes of the unknown ones are loaded
+        Set<String> authors = getAuthors(session, "jnt:page");
+        authors.addAll(getAuthors(session, "jmix:editorialContent"));
+        List<String> orphanAuthors = new ArrayList<>();
+        for (String author : authors) {
+            if (isUnknownAuthor(author)) {
+                orphanAuthors.add("item.[jcr:createdBy] = '" + StringUtils.replace(author, "'", "''") + "'");
+            }
+        }
+        if (orphanAuthors.isEmpty()) {
+            return;
+        }
+        // the pages and the contents of these authors are read as a single result, sorted by identifier;
+        // a clause per author does not scale to the sites with many removed accounts, past a threshold
+        // the projected rows of the site are read and their author is checked in memory
+        window = null;
+        String constraint = "ISDESCENDANTNODE(item,['" + siteNode.getPath() + "'])";
+        filterAuthors = orphanAuthors.size() > MAX_AUTHOR_TERMS;
+        if (!filterAuthors) {
+            constraint += " AND (" + String.join(" OR ", orphanAuthors) + ")";
+        }
+        fillMergedReport(session, new String[]{"jnt:page", "jmix:editorialContent"}, constraint, null, null, offset, limit);
+        total = getMergedTotal();
+    }
+
+    /* the distinct creators of the nodes of a type in the site, read from a projection */
+    private Set<String> getAuthors(JCRSessionWrapper session, String nodeType) throws RepositoryException {
+        Set<String> authors = new HashSet<>();
+        RowIterator rows = session.getWorkspace().getQueryManager().createQuery("SELECT item.[jcr:createdBy] AS [jcr:createdBy] FROM ["
+                + nodeType + "] AS item WHERE ISDESCENDANTNODE(item,['" + siteNode.getPath() + "'])", Query.JCR_SQL2).execute().getRows();
+        while (rows.hasNext()) {
+            Value author = rows.nextRow().getValue("jcr:createdBy");
+            if (author != null) {
+                authors.add(author.getString());
+            }
+        }
+        return authors;
     }
 
     /**
-     * addItem
+     * isUnknownAuthor
+     * <p>each distinct author is looked up once in the user provider, the site users included.</p>
      *
-     * @param node        {@link JCRNodeWrapper}
-     * @throws RepositoryException
+     * @param author the jcr:createdBy of a node
+     * @return true when the author is neither system nor a known user
      */
-    public void addItem(JCRNodeWrapper node) throws RepositoryException {
+    private boolean isUnknownAuthor(String author) {
+        if (author == null || author.equalsIgnoreCase("system")) {
+            return false;
+        }
+        return unknownAuthors.computeIfAbsent(author, name -> {
+            JahiaUserManagerService userService = ServicesRegistry.getInstance().getJahiaUserManagerService();
+            return userService.lookupUser(name, siteNode.getSiteKey()) == null;
+        });
+    }
 
-        if (!node.getCreationUser().equalsIgnoreCase("system") && !this.userMap.containsKey(node.getCreationUser())) {
-            JCRNodeWrapper itemParentPage = node;
-            if (!node.isNodeType("jnt:page")) {
-                itemParentPage = JCRContentUtils.getParentOfType(node, "jnt:page");
+    /* the authors are checked on the summaries of the report index, only the orphans are read from the session */
+    private void fillFromIndex(JCRSessionWrapper session, ReportIndex.SiteIndex index, int typeMask) throws RepositoryException {
+        for (NodeSummary summary : index.getDescendants(siteNode.getPath())) {
+            String author = summary.getCreatedBy();
+            if (!summary.isOfType(typeMask) || !isUnknownAuthor(author)) {
+                continue;
+            }
+            if (session.nodeExists(summary.getPath())) {
+                emitNode(session.getNode(summary.getPath()));
             }
-
-            Map<String, String> nodeMap = new HashedMap();
-            nodeMap.put("nodePath", node.getPath());
-            nodeMap.put("nodeUrl ", node.getUrl());
-            nodeMap.put("nodeName", node.getName());
-            nodeMap.put("nodeType", node.getPrimaryNodeTypeName());
-            nodeMap.put("nodeTypeTechName", node.getPrimaryNodeTypeName().split(":")[1]);
-            nodeMap.put("nodeTypeName", node.getPrimaryNodeType().getName());
-            nodeMap.put("nodeTypePrefix", node.getPrimaryNodeType().getPrefix());
-            nodeMap.put("nodeTypePrefix", node.getPrimaryNodeType().getPrefix());
-            nodeMap.put("nodeTypeAlias", node.getPrimaryNodeType().getAlias());
-            nodeMap.put("nodeAuthor", node.getCreationUser());
-            nodeMap.put("nodeUsedInPageName", itemParentPage.getName());
-            nodeMap.put("nodeUsedInPageDisplayableName", itemParentPage.getDisplayableName());
-            nodeMap.put("nodeUsedInPagePath", itemParentPage.getPath());
-            nodeMap.put("nodeUsedInPageUrl", itemParentPage.getUrl());
-            nodeMap.put("nodeUsedInPageTitle", (itemParentPage.hasI18N(this.locale) && itemParentPage.getI18N(this.defaultLocale).hasProperty("jcr:title")) ? itemParentPage.getI18N(this.defaultLocale).getProperty("jcr:title").getString() : "");
-            nodeMap.put("nodeDisplayableName", node.getDisplayableName());
-            nodeMap.put("nodeTitle", (node.hasI18N(this.locale) && node.getI18N(this.defaultLocale).hasProperty("jcr:title")) ? node.getI18N(this.defaultLocale).getProperty("jcr:title").getString() : "");
-            nodeMap.put("displayTitle", StringUtils.isNotEmpty(nodeMap.get("nodeTitle")) ? nodeMap.get("nodeTitle") : nodeMap.get("nodeName"));
-            this.dataList.add(nodeMap);
         }
     }
 
+    @Override
+    protected String[] getMergedFilterColumns() {
+        return filterAuthors ? new String[]{"jcr:createdBy"} : null;
+    }
+
+    @Override
+    protected boolean acceptMergedRow(Row row) throws RepositoryException {
+        return isUnknownAuthor(getRowString(row, "jcr:createdBy"));
+    }
+
+    @Override
+    protected boolean acceptNode(JCRNodeWrapper node) throws RepositoryException {
+        return isUnknownAuthor(node.getCreationUser()) && (window == null || window.accept());
+    }
+
+    @Override
+    public boolean isNodeList() {
+        return true;
+    }
+
     /**
-     * fillUserData
-     * <p>fill the user map with the user nodes from jahia. </p>
+     * addItem
      *
+     * @param node        {@link JCRNodeWrapper}
      * @throws RepositoryException
      */
-    private void fillUserData(JCRSessionWrapper session) throws RepositoryException {
-        String queryStr = "SELECT * FROM [jnt:user] ";
-        // Getting the items  nodes.
-        Query query = session.getWorkspace().getQueryManager().createQuery(queryStr, Query.JCR_SQL2);
-        NodeIterator iterator = query.execute().getNodes();
-        while (iterator.hasNext()) {
-            JCRNodeWrapper nodeItem = (JCRNodeWrapper) iterator.next();
-            this.userMap.put(nodeItem.getName(), nodeItem);
-        }
+    public void addItem(JCRNodeWrapper node) throws RepositoryException {
+        ParentPageResolver.PageInfo itemParentPage = getPageResolver(node.getSession()).getPage(node);
+
+        Map<String, String> nodeMap = new HashedMap();
+        nodeMap.put("nodePath", node.getPath());
+        nodeMap.put("nodeUrl ", node.getUrl());
+        nodeMap.put("nodeName", node.getName());
+        nodeMap.put("nodeType", node.getPrimaryNodeTypeName());
+        nodeMap.put("nodeTypeTechName", node.getPrimaryNodeTypeName().split(":")[1]);
+        nodeMap.put("nodeTypeName", node.getPrimaryNodeType().getName());
+        nodeMap.put("nodeTypePrefix", node.getPrimaryNodeType().getPrefix());
+        nodeMap.put("nodeTypePrefix", node.getPrimaryNodeType().getPrefix());
+        nodeMap.put("nodeTypeAlias", node.getPrimaryNodeType().getAlias());
+        nodeMap.put("nodeAuthor", node.getCreationUser());
+        nodeMap.put("nodeUsedInPageName", itemParentPage.getName());
+        nodeMap.put("nodeUsedInPageDisplayableName", itemParentPage.getDisplayableName());
+        nodeMap.put("nodeUsedInPagePath", itemParentPage.getPath());
+        nodeMap.put("nodeUsedInPageUrl", itemParentPage.getUrl());
+        nodeMap.put("nodeUsedInPageTitle", itemParentPage.getTitle());
+        nodeMap.put("nodeDisplayableName", node.getDisplayableName());
+        String path = node.getPath();
+        deferRow(node.getSession(), path, titles -> {
+            nodeMap.put("nodeTitle", getTitle(titles, path));
+            nodeMap.put("displayTitle", StringUtils.isNotEmpty(nodeMap.get("nodeTitle")) ? nodeMap.get("nodeTitle") : nodeMap.get("nodeName"));
+            rowSink.addRow(nodeMap);
+        });
     }
 
+    @Override
+    protected JSONObject getSummary() throws JSONException, RepositoryException {
+        JSONObject jsonObject = super.getSummary();
+        jsonObject.put("recordsTotal", total);
+        jsonObject.put("recordsFiltered", total);
+        return jsonObject;
+    }
+
+
 
 
 }
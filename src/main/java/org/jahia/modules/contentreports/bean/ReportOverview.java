@@ -45,6 +45,13 @@ package org.jahia.modules.contentreports.bean;
 
 import org.jahia.data.templates.JahiaTemplatesPackage;
 import org.jahia.exceptions.JahiaException;
+import org.jahia.modules.contentreports.service.ActivityHistogramAccumulator;
+import org.jahia.modules.contentreports.service.ContributorAccumulator;
+import org.jahia.modules.contentreports.service.OverviewEngine;
+import org.jahia.modules.contentreports.service.PublicationAccumulator;
+import org.jahia.modules.contentreports.service.RecentActivityAccumulator;
+import org.jahia.modules.contentreports.service.ReportExecutor;
+import org.jahia.modules.contentreports.service.TypeCountAccumulator;
 import org.jahia.registries.ServicesRegistry;
 import org.jahia.services.content.JCRSessionWrapper;
 import org.jahia.services.content.decorator.JCRSiteNode;
@@ -60,6 +67,10 @@ import javax.jcr.query.Query;
 import java.text.DateFormat;
 import java.text.SimpleDateFormat;
 import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 /**
  * The ReportOverview Class
@@ -72,24 +83,21 @@ public class ReportOverview extends BaseReport {
 
     protected DateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd");
 
-    private Integer pagesNumber;
     private Integer templatesNumber;
     private Integer usersNumber;
-    private Integer contentsNumber;
-    private Integer editorialContentsNumber;
     private Integer workflowTasksNumber;
-    private Integer filesNumber;
     private Integer imagesNumber;
     private List<String> languages;
-    
-    // Content Activity metrics (last 30 days)
-    private Integer newContentLast30Days;
-    private Integer modifiedContentLast30Days;
-    private Integer publishedContentLast30Days;
-    private Integer unpublishedNodes;
-    private Integer publishedNodes;
-    private Double averageTimeToPublish; // in days
-    private List<Map<String, Object>> topContributors;
+    private OverviewEngine overviewEngine;
+    private List<String> partialMetrics;
+    /* the activity histogram, null when it is not requested */
+    private ActivityHistogramAccumulator.Granularity activityGranularity;
+    private long activityFrom;
+    private long activityTo;
+    /* the top contributors, exact counts of the content authors by default */
+    private int contributorsLimit = 5;
+    private ContributorAccumulator.Role contributorsRole = ContributorAccumulator.Role.CREATED_BY;
+    private boolean contributorsApproximate;
 
 
     /**
@@ -100,190 +108,147 @@ public class ReportOverview extends BaseReport {
     public ReportOverview(JCRSiteNode siteNode) {
         super(siteNode);
 
-        this.pagesNumber     = 0;
         this.templatesNumber = 0;
         this.usersNumber     = 0;
-        this.contentsNumber  = 0;
-        this.editorialContentsNumber = 0;
         this.workflowTasksNumber = 0;
-        this.filesNumber = 0;
         this.imagesNumber = 0;
         this.languages = new ArrayList<>();
-        
-        // Initialize activity metrics
-        this.newContentLast30Days = 0;
-        this.modifiedContentLast30Days = 0;
-        this.publishedContentLast30Days = 0;
-        this.unpublishedNodes = 0;
-        this.publishedNodes = 0;
-        this.averageTimeToPublish = 0.0;
-        this.topContributors = new ArrayList<>();
+        this.partialMetrics = new ArrayList<>();
     }
 
     @Override
     public void execute(JCRSessionWrapper session, int offset, int limit) throws RepositoryException, JSONException, JahiaException {
+        /* the metrics do not depend on each other, they are computed concurrently */
+        ReportExecutor executor = ReportExecutor.getInstance();
+
         /* getting the templates for site */
-        JahiaTemplateManagerService templateService = ServicesRegistry.getInstance().getJahiaTemplateManagerService();
-        List<JahiaTemplatesPackage>  tpack = templateService.getInstalledModulesForSite(siteNode.getSiteKey(), true, true, false);
-        this.templatesNumber = tpack.size();
+        final JahiaTemplateManagerService templateService = ServicesRegistry.getInstance().getJahiaTemplateManagerService();
+        Future<Integer> templatesFuture = executor.submit(() -> {
+            List<JahiaTemplatesPackage> tpack = templateService.getInstalledModulesForSite(siteNode.getSiteKey(), true, true, false);
+            return tpack.size();
+        });
 
         /* getting the users for site */
-        JahiaUserManagerService userService = ServicesRegistry.getInstance().getJahiaUserManagerService();
-        List<String> uList = userService.getUserList(siteNode.getSiteKey());
-        this.usersNumber = uList.size();
+        final JahiaUserManagerService userService = ServicesRegistry.getInstance().getJahiaUserManagerService();
+        Future<Integer> usersFuture = executor.submit(() -> userService.getUserList(siteNode.getSiteKey()).size());
+
+        /*
+         * the pending workflows (multi-valued j:processId) and the images are counted by their own
+         * queries, with the acl checks of the scan so that every metric counts what the user can read.
+         */
+        final String workflowQueryStr = "SELECT [rep:count(item,skipChecks=0)] FROM [jmix:workflow] AS item WHERE [j:processId] is not null AND ISDESCENDANTNODE(item,['" + siteNode.getPath() + "'])";
+        Future<Integer> workflowFuture = executor.submitAs(session, sessionWrapper -> getCount(sessionWrapper, workflowQueryStr));
+
+        final String imagesQueryStr = "SELECT [rep:count(item,skipChecks=0)] FROM [jmix:image] AS item WHERE ISDESCENDANTNODE(item,['" + siteNode.getPath() + "'])";
+        Future<Integer> imagesFuture = executor.submitAs(session, sessionWrapper -> getCount(sessionWrapper, imagesQueryStr));
+
+        /* all the other metrics are computed in a single scan of the site */
+        final OverviewEngine engine = new OverviewEngine(siteNode.getPath())
+                .add(new TypeCountAccumulator(OverviewEngine.PAGE, "nbPages"))
+                .add(new TypeCountAccumulator(OverviewEngine.CONTENT, "nbContents"))
+                .add(new TypeCountAccumulator(OverviewEngine.EDITORIAL_CONTENT, "nbEditorialContents"))
+                .add(new TypeCountAccumulator(OverviewEngine.FILE, "nbFiles"))
+                .add(new RecentActivityAccumulator(getActivityStart()))
+                .add(new PublicationAccumulator())
+                .add(new ContributorAccumulator(contributorsLimit, contributorsRole, contributorsApproximate));
+        if (activityGranularity != null) {
+            engine.add(new ActivityHistogramAccumulator(activityGranularity, activityFrom, activityTo));
+        }
+        Future<OverviewEngine> engineFuture = executor.submitAs(session, sessionWrapper -> {
+            engine.run(sessionWrapper);
+            return engine;
+        });
 
-        /* getting the pages count */
-        String pageQueryStr = "SELECT [rep:count(item,skipChecks=1)] FROM [jnt:page] AS item WHERE ISDESCENDANTNODE(item,['" + siteNode.getPath() + "'])";
-        QueryWrapper q = session.getWorkspace().getQueryManager().createQuery(pageQueryStr, Query.JCR_SQL2);
-        this.pagesNumber = (int) q.execute().getRows().nextRow().getValue("count").getLong();
-        
-        /* getting the jnt:content count */
-        String contentQueryStr = "SELECT [rep:count(item,skipChecks=1)] FROM [jnt:content] AS item WHERE ISDESCENDANTNODE(item,['" + siteNode.getPath() + "'])";
-        QueryWrapper contentQuery = session.getWorkspace().getQueryManager().createQuery(contentQueryStr, Query.JCR_SQL2);
-        this.contentsNumber = (int) contentQuery.execute().getRows().nextRow().getValue("count").getLong();
-        
-        /* getting the jmix:editorialContent count */
-        String editorialQueryStr = "SELECT [rep:count(item,skipChecks=1)] FROM [jmix:editorialContent] AS item WHERE ISDESCENDANTNODE(item,['" + siteNode.getPath() + "'])";
-        QueryWrapper editorialQuery = session.getWorkspace().getQueryManager().createQuery(editorialQueryStr, Query.JCR_SQL2);
-        this.editorialContentsNumber = (int) editorialQuery.execute().getRows().nextRow().getValue("count").getLong();
-        
-        /* getting the pending workflow tasks count - nodes with workflow processes */
-        String workflowQueryStr = "SELECT [rep:count(item,skipChecks=1)] FROM [jmix:workflow] AS item WHERE [j:processId] is not null AND ISDESCENDANTNODE(item,['" + siteNode.getPath() + "'])";
-        QueryWrapper workflowQuery = session.getWorkspace().getQueryManager().createQuery(workflowQueryStr, Query.JCR_SQL2);
-        this.workflowTasksNumber = (int) workflowQuery.execute().getRows().nextRow().getValue("count").getLong();
-        
-        /* getting the files count (all assets) */
-        String filesQueryStr = "SELECT [rep:count(item,skipChecks=1)] FROM [jnt:file] AS item WHERE ISDESCENDANTNODE(item,['" + siteNode.getPath() + "'])";
-        QueryWrapper filesQuery = session.getWorkspace().getQueryManager().createQuery(filesQueryStr, Query.JCR_SQL2);
-        this.filesNumber = (int) filesQuery.execute().getRows().nextRow().getValue("count").getLong();
-        
-        /* getting the images count */
-        String imagesQueryStr = "SELECT [rep:count(item,skipChecks=1)] FROM [jmix:image] AS item WHERE ISDESCENDANTNODE(item,['" + siteNode.getPath() + "'])";
-        QueryWrapper imagesQuery = session.getWorkspace().getQueryManager().createQuery(imagesQueryStr, Query.JCR_SQL2);
-        this.imagesNumber = (int) imagesQuery.execute().getRows().nextRow().getValue("count").getLong();
-        
         /* getting the site languages */
         Set<String> languageSet = siteNode.getLanguages();
         if (languageSet != null && !languageSet.isEmpty()) {
             this.languages = new ArrayList<>(languageSet);
             Collections.sort(this.languages);
         }
-        
-        // Calculate Content Activity metrics (last 30 days)
-        Calendar cal = Calendar.getInstance();
-        cal.add(Calendar.DAY_OF_MONTH, -30);
-        String thirtyDaysAgo = dateFormat.format(cal.getTime());
-        
-        /* getting new content in last 30 days */
-        String newContentQueryStr = "SELECT [rep:count(item,skipChecks=1)] FROM [jmix:editorialContent] AS item " +
-                "WHERE ISDESCENDANTNODE(item,['" + siteNode.getPath() + "']) " +
-                "AND [jcr:created] >= CAST('" + thirtyDaysAgo + "T00:00:00.000Z' AS DATE)";
-        QueryWrapper newContentQuery = session.getWorkspace().getQueryManager().createQuery(newContentQueryStr, Query.JCR_SQL2);
-        this.newContentLast30Days = (int) newContentQuery.execute().getRows().nextRow().getValue("count").getLong();
-        
-        /* getting modified content in last 30 days */
-        String modifiedContentQueryStr = "SELECT [rep:count(item,skipChecks=1)] FROM [jmix:editorialContent] AS item " +
-                "WHERE ISDESCENDANTNODE(item,['" + siteNode.getPath() + "']) " +
-                "AND [jcr:lastModified] >= CAST('" + thirtyDaysAgo + "T00:00:00.000Z' AS DATE)";
-        QueryWrapper modifiedContentQuery = session.getWorkspace().getQueryManager().createQuery(modifiedContentQueryStr, Query.JCR_SQL2);
-        this.modifiedContentLast30Days = (int) modifiedContentQuery.execute().getRows().nextRow().getValue("count").getLong();
-        
-        /* getting published content in last 30 days (nodes with j:lastPublished in last 30 days) */
-        String publishedContentQueryStr = "SELECT [rep:count(item,skipChecks=1)] FROM [jmix:lastPublished] AS item " +
-                "WHERE ISDESCENDANTNODE(item,['" + siteNode.getPath() + "']) " +
-                "AND [j:lastPublished] >= CAST('" + thirtyDaysAgo + "T00:00:00.000Z' AS DATE)";
-        QueryWrapper publishedContentQuery = session.getWorkspace().getQueryManager().createQuery(publishedContentQueryStr, Query.JCR_SQL2);
-        this.publishedContentLast30Days = (int) publishedContentQuery.execute().getRows().nextRow().getValue("count").getLong();
-        
-        /* getting unpublished vs published nodes count */
-        String publishedNodesQueryStr = "SELECT [rep:count(item,skipChecks=1)] FROM [jmix:editorialContent] AS item " +
-                "WHERE ISDESCENDANTNODE(item,['" + siteNode.getPath() + "']) " +
-                "AND [j:published] = true";
-        QueryWrapper publishedNodesQuery = session.getWorkspace().getQueryManager().createQuery(publishedNodesQueryStr, Query.JCR_SQL2);
-        this.publishedNodes = (int) publishedNodesQuery.execute().getRows().nextRow().getValue("count").getLong();
-        
-        // Unpublished = total editorial content - published
-        this.unpublishedNodes = this.editorialContentsNumber - this.publishedNodes;
-        
-        /* Calculate average time from creation to publication */
-        try {
-            String avgTimeQueryStr = "SELECT item.[jcr:created] AS created, item.[j:lastPublished] AS published " +
-                    "FROM [jmix:lastPublished] AS item " +
-                    "WHERE ISDESCENDANTNODE(item,['" + siteNode.getPath() + "']) " +
-                    "AND item.[j:lastPublished] is not null " +
-                    "AND item.[jcr:created] is not null";
-            QueryWrapper avgTimeQuery = session.getWorkspace().getQueryManager().createQuery(avgTimeQueryStr, Query.JCR_SQL2);
-            javax.jcr.query.RowIterator rows = avgTimeQuery.execute().getRows();
-            
-            long totalDiff = 0;
-            int count = 0;
-            while (rows.hasNext()) {
-                javax.jcr.query.Row row = rows.nextRow();
-                try {
-                    Calendar created = row.getValue("created").getDate();
-                    Calendar published = row.getValue("published").getDate();
-                    long diffInMillis = published.getTimeInMillis() - created.getTimeInMillis();
-                    long diffInDays = diffInMillis / (1000 * 60 * 60 * 24);
-                    if (diffInDays >= 0) { // Only positive differences
-                        totalDiff += diffInDays;
-                        count++;
-                    }
-                } catch (Exception e) {
-                    // Skip rows with invalid dates
-                }
-            }
-            
-            if (count > 0) {
-                this.averageTimeToPublish = (double) totalDiff / count;
-            }
-        } catch (Exception e) {
-            logger.warn("Error calculating average time to publish", e);
-            this.averageTimeToPublish = 0.0;
-        }
-        
-        /* Getting top contributors (authors/editors) */
+
+        long deadline = System.currentTimeMillis() + executor.getMetricTimeout();
+        this.templatesNumber = join("nbTemplates", templatesFuture, deadline, 0);
+        this.usersNumber = join("nbUsers", usersFuture, deadline, 0);
+        this.workflowTasksNumber = join("nbWorkflowTasks", workflowFuture, deadline, 0);
+        this.imagesNumber = join("nbImages", imagesFuture, deadline, 0);
+        this.overviewEngine = join("contentScan", engineFuture, deadline, null);
+    }
+
+    /**
+     * join
+     * <p>wait for a metric until the deadline, a metric which fails or is not ready in time
+     * is reported as partial instead of failing the whole overview.</p>
+     *
+     * @param metric       the name of the metric
+     * @param future       {@link Future}
+     * @param deadline     the deadline in milliseconds
+     * @param defaultValue the value used when the metric is not available
+     * @return the metric value
+     */
+    private <T> T join(String metric, Future<T> future, long deadline, T defaultValue) {
         try {
-            // Query all editorial content and aggregate by author manually
-            String topContributorsQueryStr = "SELECT item.[jcr:createdBy] AS author " +
-                    "FROM [jmix:editorialContent] AS item " +
-                    "WHERE ISDESCENDANTNODE(item,['" + siteNode.getPath() + "'])";
-            QueryWrapper topContributorsQuery = session.getWorkspace().getQueryManager().createQuery(topContributorsQueryStr, Query.JCR_SQL2);
-            javax.jcr.query.RowIterator rows = topContributorsQuery.execute().getRows();
-            
-            // Collect contributors with their counts manually
-            Map<String, Integer> contributorMap = new HashMap<>();
-            while (rows.hasNext()) {
-                javax.jcr.query.Row row = rows.nextRow();
-                try {
-                    String author = row.getValue("author").getString();
-                    if (author != null && !author.isEmpty()) {
-                        contributorMap.put(author, contributorMap.getOrDefault(author, 0) + 1);
-                    }
-                } catch (Exception e) {
-                    // Skip invalid rows
-                    logger.debug("Skipping row without valid author", e);
-                }
-            }
-            
-            // Sort by count (descending) and get top 5
-            List<Map.Entry<String, Integer>> sortedContributors = new ArrayList<>(contributorMap.entrySet());
-            sortedContributors.sort((e1, e2) -> e2.getValue().compareTo(e1.getValue()));
-            
-            this.topContributors = new ArrayList<>();
-            int topLimit = Math.min(5, sortedContributors.size());
-            for (int i = 0; i < topLimit; i++) {
-                Map.Entry<String, Integer> entry = sortedContributors.get(i);
-                Map<String, Object> contributor = new HashMap<>();
-                contributor.put("username", entry.getKey());
-                contributor.put("contentCount", entry.getValue());
-                this.topContributors.add(contributor);
-            }
-            
-            logger.info("Found {} top contributors from {} total authors", topLimit, contributorMap.size());
-        } catch (Exception e) {
-            logger.error("Error calculating top contributors", e);
-            this.topContributors = new ArrayList<>();
+            return future.get(Math.max(0, deadline - System.currentTimeMillis()), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            logger.warn("Overview metric {} of site {} timed out", metric, siteNode.getSiteKey());
+            future.cancel(true);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            future.cancel(true);
+        } catch (ExecutionException e) {
+            logger.error("Error calculating overview metric " + metric, e.getCause());
         }
+        this.partialMetrics.add(metric);
+        return defaultValue;
+    }
+
+    private static int getCount(JCRSessionWrapper session, String queryStr) throws RepositoryException {
+        QueryWrapper query = session.getWorkspace().getQueryManager().createQuery(queryStr, Query.JCR_SQL2);
+        return (int) query.execute().getRows().nextRow().getValue("count").getLong();
+    }
+
+    /**
+     * setActivityHistogram
+     * <p>add the counts of created, modified and published nodes per period to the overview,
+     * computed in the same scan as the other metrics.</p>
+     *
+     * @param granularity the size of the periods, null for no histogram
+     * @param from        a date of the first period, in milliseconds
+     * @param to          a date of the last period, in milliseconds
+     */
+    public void setActivityHistogram(ActivityHistogramAccumulator.Granularity granularity, long from, long to) {
+        this.activityGranularity = granularity;
+        this.activityFrom = from;
+        this.activityTo = to;
+    }
+
+    /**
+     * setTopContributors
+     * <p>select how the top contributors are counted, the approximate mode keeps a bounded
+     * summary of the authors instead of a counter per author.</p>
+     *
+     * @param limit       the number of contributors kept
+     * @param role        the property counted for each author
+     * @param approximate true to count with a bounded Space-Saving summary
+     */
+    public void setTopContributors(int limit, ContributorAccumulator.Role role, boolean approximate) {
+        this.contributorsLimit = limit;
+        this.contributorsRole = role;
+        this.contributorsApproximate = approximate;
+    }
+
+    /**
+     * getActivityStart
+     * <p>the start of the content activity period (last 30 days), midnight UTC.</p>
+     *
+     * @return the start of the period in milliseconds
+     */
+    private long getActivityStart() {
+        Calendar cal = Calendar.getInstance();
+        cal.add(Calendar.DAY_OF_MONTH, -30);
+        Calendar start = Calendar.getInstance(TimeZone.getTimeZone("UTC"));
+        start.clear();
+        start.set(cal.get(Calendar.YEAR), cal.get(Calendar.MONTH), cal.get(Calendar.DAY_OF_MONTH));
+        return start.getTimeInMillis();
     }
 
     /**
@@ -297,26 +262,18 @@ public class ReportOverview extends BaseReport {
         JSONObject jsonObject = new JSONObject();
         jsonObject.put("siteName", siteNode.getName());
         jsonObject.put("siteDisplayableName", siteNode.getDisplayableName());
-        jsonObject.put("nbPages", pagesNumber);
         jsonObject.put("nbTemplates", templatesNumber);
         jsonObject.put("nbUsers", usersNumber);
-        jsonObject.put("nbContents", contentsNumber);
-        jsonObject.put("nbEditorialContents", editorialContentsNumber);
         jsonObject.put("nbWorkflowTasks", workflowTasksNumber);
-        jsonObject.put("nbFiles", filesNumber);
         jsonObject.put("nbImages", imagesNumber);
         jsonObject.put("languages", languages);
         jsonObject.put("nbLanguages", languages.size());
-        
-        // Content Activity metrics
-        jsonObject.put("newContentLast30Days", newContentLast30Days);
-        jsonObject.put("modifiedContentLast30Days", modifiedContentLast30Days);
-        jsonObject.put("publishedContentLast30Days", publishedContentLast30Days);
-        jsonObject.put("unpublishedNodes", unpublishedNodes);
-        jsonObject.put("publishedNodes", publishedNodes);
-        jsonObject.put("averageTimeToPublish", averageTimeToPublish);
-        jsonObject.put("topContributors", topContributors);
-        
+        if (overviewEngine != null) {
+            overviewEngine.fill(jsonObject);
+        }
+        jsonObject.put("partial", !partialMetrics.isEmpty());
+        jsonObject.put("partialMetrics", partialMetrics);
+
         return jsonObject;
     }
 
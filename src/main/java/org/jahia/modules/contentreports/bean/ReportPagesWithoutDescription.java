@@ -47,8 +47,6 @@ import org.jahia.services.content.decorator.JCRSiteNode;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.HashMap;
-
 /**
  * The ReportPagesWithoutDescription Class.
  * <p>
@@ -65,6 +63,15 @@ public class ReportPagesWithoutDescription extends I18NPropertyReport {
      */
     public ReportPagesWithoutDescription(JCRSiteNode siteNode, String language) {
         super(siteNode, language, "jnt:page","jcr:description", "mix:title");
-        this.dataMap = new HashMap<>();
+    }
+
+    /**
+     * Instantiates a new Report pages without title.
+     *
+     * @param siteNode the site node {@link JCRSiteNode}
+     * @param order the sort direction of the paths
+     */
+    public ReportPagesWithoutDescription(JCRSiteNode siteNode, String language, String order) {
+        super(siteNode, language, "jnt:page","jcr:description", "mix:title", order);
     }
 }
@@ -43,18 +43,19 @@
  */
 package org.jahia.modules.contentreports.bean;
 
-import org.apache.commons.collections.map.HashedMap;
+import org.apache.commons.lang.StringUtils;
+import org.jahia.modules.contentreports.service.TitleResolver;
 import org.jahia.services.content.JCRNodeWrapper;
 import org.jahia.services.content.JCRSessionWrapper;
 import org.jahia.services.content.decorator.JCRSiteNode;
-import org.json.JSONArray;
 import org.json.JSONException;
 import org.json.JSONObject;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import javax.jcr.RepositoryException;
-import java.util.Map;
+import javax.jcr.query.Row;
+import java.util.concurrent.Future;
 
 /**
  * ReportPagesWithoutKeyword Class.
@@ -68,6 +69,8 @@ public class ReportPagesWithoutKeyword extends QueryReport {
     private String sortOrder;
     private int sortCol;
     private String[] resultFields = {"jcr:title", "j:nodename"};
+    /* the title is read from the translations, the row only needs the path */
+    private static final String[] ROW_COLUMNS = {};
 
     /**
      * Instantiates a new Report pages without keyword.
@@ -82,14 +85,24 @@ public class ReportPagesWithoutKeyword extends QueryReport {
 
     @Override
     public void execute(JCRSessionWrapper session, int offset, int limit) throws RepositoryException, JSONException {
-        String orderStatement = " order by item.["+resultFields[sortCol]+"] " + sortOrder;
 
-        String query = "SELECT * FROM [jnt:page] AS item WHERE ISDESCENDANTNODE(item,['" + siteNode.getPath() + "']) and [j:keywords] is null" + orderStatement;
-        fillReport(session, query, offset, limit);
-        totalContent = getTotalCount(session, query);
+        String query = "SELECT * FROM [jnt:page] AS item WHERE ISDESCENDANTNODE(item,['" + siteNode.getPath() + "']) and [j:keywords] is null";
+        Future<Long> total = submitTotalCount(session, query);
+        fillSortedReport(session, query, "item", getSortField(resultFields, sortCol), sortOrder, offset, limit);
+        totalContent = getTotalCount(total, query);
 
     }
 
+    @Override
+    protected String[] getRowColumns() {
+        return ROW_COLUMNS;
+    }
+
+    @Override
+    public boolean isNodeList() {
+        return true;
+    }
+
     /**
      * addItem
      *
@@ -97,33 +110,32 @@ public class ReportPagesWithoutKeyword extends QueryReport {
      * @throws RepositoryException
      */
     public void addItem(JCRNodeWrapper node) throws RepositoryException {
-        // if pages translation without title
-        HashedMap map = new HashedMap();
-        map.put("nodePath", node.getPath());
-        map.put("nodeUrl", node.getUrl());
-        map.put("nodeName", node.getName());
-        map.put("nodeDisplayableName", node.getDisplayableName());
-        map.put("nodeTitle", (node.hasI18N(this.defaultLocale) && node.getI18N(this.defaultLocale).hasProperty("jcr:title")) ? node.getI18N(this.defaultLocale).getProperty("jcr:title").getString() : "");
-        this.dataList.add(map);
+        String path = node.getPath();
+        deferRow(node.getSession(), path, titles -> addPageRow(titles, path));
     }
 
-    public JSONObject getJson() throws JSONException, RepositoryException {
-
-        JSONObject jsonObject = new JSONObject();
-        JSONArray jArray = new JSONArray();
+    @Override
+    public void addItem(Row row) throws RepositoryException {
+        String path = row.getPath();
+        deferRow(path, titles -> addPageRow(titles, path));
+    }
 
-        for (Map<String, String> nodeMap : this.dataList) {
-            JSONArray item = new JSONArray();
-            item.put(nodeMap.get("nodeTitle"));
-            item.put(nodeMap.get("nodePath"));
-            jArray.put(item);        }
+    /* the title of the page in the default language, once read with the titles of the other rows */
+    private void addPageRow(TitleResolver.Titles titles, String path) {
+        rowSink.addRow(StringUtils.defaultString(titles.get(path, this.defaultLocale.toString())), path);
+    }
 
+    @Override
+    protected JSONObject getSummary() throws JSONException, RepositoryException {
+        JSONObject jsonObject = super.getSummary();
         jsonObject.put("recordsTotal", totalContent);
         jsonObject.put("recordsFiltered", totalContent);
-        jsonObject.put("siteName", siteNode.getName());
-        jsonObject.put("siteDisplayableName", siteNode.getDisplayableName());
-        jsonObject.put("data", jArray);
         return jsonObject;
     }
 
+    @Override
+    public String getRowsKey() {
+        return "data";
+    }
+
 }
@@ -47,8 +47,6 @@ import org.jahia.services.content.decorator.JCRSiteNode;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.*;
-
 /**
  * ReportPagesWithoutTitle Class.
  *
@@ -65,7 +63,16 @@ public class ReportPagesWithoutTitle extends I18NPropertyReport {
      */
     public ReportPagesWithoutTitle(JCRSiteNode siteNode, String language) {
         super(siteNode, language, "jnt:page", "jcr:title", "mix:title");
-        this.dataMap = new HashMap<>();
+    }
+
+    /**
+     * Instantiates a new Report pages without title.
+     *
+     * @param siteNode the site node {@link JCRSiteNode}
+     * @param order the sort direction of the paths
+     */
+    public ReportPagesWithoutTitle(JCRSiteNode siteNode, String language, String order) {
+        super(siteNode, language, "jnt:page", "jcr:title", "mix:title", order);
     }
 
 
@@ -0,0 +1,101 @@
+/*
+ * ==========================================================================================
+ * =                   JAHIA'S DUAL LICENSING - IMPORTANT INFORMATION                       =
+ * ==========================================================================================
+ *
+ *                                 http://www.jahia.com
+ *
+ *     Copyright (C) 2002-2020 Jahia Solutions Group SA. All rights reserved.
+ *
+ *     THIS FILE IS AVAILABLE UNDER TWO DIFFERENT LICENSES:
+ *     1/GPL OR 2/JSEL
+ *
+ *     1/ GPL
+ *     ==================================================================================
+ *
+ *     IF YOU DECIDE TO CHOOSE THE GPL LICENSE, YOU MUST COMPLY WITH THE FOLLOWING TERMS:
+ *
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ *
+ *     2/ JSEL - Commercial and Supported Versions of the program
+ *     ===================================================================================
+ *
+ *     IF YOU DECIDE TO CHOOSE THE JSEL LICENSE, YOU MUST COMPLY WITH THE FOLLOWING TERMS:
+ *
+ *     Alternatively, commercial and supported versions of the program - also known as
+ *     Enterprise Distributions - must be used in accordance with the terms and conditions
+ *     contained in a separate written agreement between you and Jahia Solutions Group SA.
+ *
+ *     If you are unsure which license is appropriate for your use,
+ *     please contact the sales department at sales@jahia.com.
+ */
+package org.jahia.modules.contentreports.bean;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The ReportProgress Class.
+ * <p>Counts the nodes visited and the rows emitted by a report running in the background,
+ * and stops the report at its next node once it is cancelled.</p>
+ */
+public class ReportProgress {
+
+    private final AtomicLong nodesVisited = new AtomicLong();
+    private final AtomicLong rowsEmitted = new AtomicLong();
+    private volatile boolean cancelled;
+
+    /**
+     * nodeVisited
+     * <p>count one more node read by the report.</p>
+     *
+     * @throws CancellationException when the report has been cancelled
+     */
+    public void nodeVisited() {
+        if (cancelled) {
+            throw new CancellationException("The report has been cancelled");
+        }
+        nodesVisited.incrementAndGet();
+    }
+
+    /**
+     * setRowsEmitted
+     *
+     * @param count the number of rows built so far
+     */
+    public void setRowsEmitted(long count) {
+        rowsEmitted.set(count);
+    }
+
+    /**
+     * cancel
+     * <p>ask the report to stop, it is checked at each visited node.</p>
+     */
+    public void cancel() {
+        cancelled = true;
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    public long getNodesVisited() {
+        return nodesVisited.get();
+    }
+
+    public long getRowsEmitted() {
+        return rowsEmitted.get();
+    }
+}
@@ -0,0 +1,108 @@
+/*
+ * ==========================================================================================
+ * =                   JAHIA'S DUAL LICENSING - IMPORTANT INFORMATION                       =
+ * ==========================================================================================
+ *
+ *                                 http://www.jahia.com
+ *
+ *     Copyright (C) 2002-2020 Jahia Solutions Group SA. All rights reserved.
+ *
+ *     THIS FILE IS AVAILABLE UNDER TWO DIFFERENT LICENSES:
+ *     1/GPL OR 2/JSEL
+ *
+ *     1/ GPL
+ *     ==================================================================================
+ *
+ *     IF YOU DECIDE TO CHOOSE THE GPL LICENSE, YOU MUST COMPLY WITH THE FOLLOWING TERMS:
+ *
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ *
+ *     2/ JSEL - Commercial and Supported Versions of the program
+ *     ===================================================================================
+ *
+ *     IF YOU DECIDE TO CHOOSE THE JSEL LICENSE, YOU MUST COMPLY WITH THE FOLLOWING TERMS:
+ *
+ *     Alternatively, commercial and supported versions of the program - also known as
+ *     Enterprise Distributions - must be used in accordance with the terms and conditions
+ *     contained in a separate written agreement between you and Jahia Solutions Group SA.
+ *
+ *     If you are unsure which license is appropriate for your use,
+ *     please contact the sales department at sales@jahia.com.
+ */
+package org.jahia.modules.contentreports.bean;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Map;
+
+/**
+ * ReportRowSink Interface.
+ * <p>Receives the rows of a report as they are produced,
+ * so that the reports do not have to keep their own intermediate lists.</p>
+ */
+public interface ReportRowSink {
+
+    /**
+     * addRow
+     * <p>add a row made of positional values (table reports).</p>
+     *
+     * @param values the column values of the row
+     * @throws JSONException
+     */
+    void addRow(Object... values) throws JSONException;
+
+    /**
+     * addRow
+     * <p>add a row made of named values (item reports).</p>
+     *
+     * @param values {@link Map}
+     * @throws JSONException
+     */
+    void addRow(Map<String, ?> values) throws JSONException;
+
+    /**
+     * getRowCount
+     *
+     * @return the number of rows received so far
+     */
+    int getRowCount();
+
+    /**
+     * isStreamed
+     *
+     * @return true when the rows are written to the response as they are received
+     */
+    boolean isStreamed();
+
+    /**
+     * writeTo
+     * <p>write the received rows as a json array, a streamed sink only closes the array it has written.</p>
+     *
+     * @param writer {@link Writer}
+     * @throws IOException
+     */
+    void writeTo(Writer writer) throws IOException;
+
+    /**
+     * toJSONArray
+     *
+     * @return {@link JSONArray}
+     * @throws JSONException
+     */
+    JSONArray toJSONArray() throws JSONException;
+}
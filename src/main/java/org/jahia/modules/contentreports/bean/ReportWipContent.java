@@ -43,22 +43,21 @@
  */
 package org.jahia.modules.contentreports.bean;
 
-import org.apache.commons.collections.map.HashedMap;
 import org.apache.commons.lang.WordUtils;
 import org.jahia.api.Constants;
-import org.jahia.services.content.JCRContentUtils;
+import org.jahia.modules.contentreports.util.ParentPageResolver;
 import org.jahia.services.content.JCRNodeWrapper;
 import org.jahia.services.content.JCRSessionWrapper;
 import org.jahia.services.content.decorator.JCRSiteNode;
-import org.json.JSONArray;
 import org.json.JSONException;
 import org.json.JSONObject;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import javax.jcr.RepositoryException;
+import javax.jcr.query.Row;
 import java.util.Arrays;
-import java.util.Map;
+import java.util.concurrent.Future;
 
 /**
  * Created by Francois Pral.
@@ -70,7 +69,8 @@ public class ReportWipContent extends QueryReport {
     private int sortCol;
     private String searchPath;
     private String order;
-    private String[] resultFields = {"j:nodename", "jcr:primaryType", "jcr:createdBy", "j:workInProgressStatus", "j:nodename"};
+    private String[] resultFields = {"j:nodename", "jcr:primaryType", "j:workInProgressStatus", "j:nodename", "j:nodename"};
+    private static final String[] ROW_COLUMNS = {"jcr:primaryType", Constants.WORKINPROGRESS_STATUS};
     private SearchContentType reportType;
 
     /**
@@ -89,13 +89,25 @@ public class ReportWipContent extends QueryReport {
     @Override
     public void execute(JCRSessionWrapper session, int offset, int limit) throws RepositoryException, JSONException {
 
-        String orderStatement = " order by item.[" + resultFields[sortCol] + "] " + order;
         String strQuery = "SELECT * FROM ";
         strQuery += (reportType.equals(BaseReport.SearchContentType.PAGE) ? "[jnt:page] " : "[jmix:editorialContent] ");
-        strQuery += "AS item WHERE [j:workInProgressStatus] is not null  and [j:workInProgressStatus]<> \""+ Constants.WORKINPROGRESS_STATUS_DISABLED +"\" and ISDESCENDANTNODE(item,['" + searchPath + "'])" + orderStatement;
+        strQuery += "AS item WHERE [j:workInProgressStatus] is not null  and [j:workInProgressStatus]<> \""+ Constants.WORKINPROGRESS_STATUS_DISABLED +"\" and ISDESCENDANTNODE(item,['" + searchPath + "'])";
 
-        fillReport(session, strQuery, offset, limit);
-        totalContent = getTotalCount(session, strQuery);
+        Future<Long> total = submitTotalCount(session, strQuery);
+
+        fillSortedReport(session, strQuery, "item", getSortField(resultFields, sortCol), order, offset, limit);
+
+        totalContent = getTotalCount(total, strQuery);
+    }
+
+    @Override
+    protected String[] getRowColumns() {
+        return ROW_COLUMNS;
+    }
+
+    @Override
+    public boolean isNodeList() {
+        return true;
     }
 
     /**
@@ -106,50 +118,48 @@ public class ReportWipContent extends QueryReport {
      */
     public void addItem(JCRNodeWrapper node) throws RepositoryException {
 
-        Map<String, String> nodeMap = new HashedMap();
-        JCRNodeWrapper itemParentPage = node;
-        if (!node.isNodeType("jnt:page")) {
-            itemParentPage = JCRContentUtils.getParentOfType(node, "jnt:page");
-        }
-        if (itemParentPage != null) {
-            nodeMap.put("nodeUsedInPagePath", itemParentPage.getPath());
-        }
-
-        nodeMap.put("nodeDisplayableName", WordUtils.abbreviate(node.getDisplayableName(),90,130,"..."));
-        nodeMap.put("nodePath", node.getPath());
-        nodeMap.put("nodeTypeName", node.getPrimaryNodeType().getLabel(this.defaultLocale));
-        String WIPStatus = node.getPropertyAsString(Constants.WORKINPROGRESS_STATUS);
-        if (WIPStatus.equals(Constants.WORKINPROGRESS_STATUS_LANG)){
-            nodeMap.put("nodeWip", Arrays.toString(Arrays.asList(node.getProperty(Constants.WORKINPROGRESS_LANGUAGES).getValues()).stream().map(s -> "\"" + s + "\"").toArray()));
-        } else {
-            nodeMap.put("nodeWip", "[\"" + WIPStatus + "\"]");
-        }
+        ParentPageResolver.PageInfo itemParentPage = getPageResolver(node.getSession()).getPage(node);
 
-        this.dataList.add(nodeMap);
+        rowSink.addRow(
+                WordUtils.abbreviate(node.getDisplayableName(),90,130,"..."),
+                node.getPrimaryNodeType().getLabel(this.defaultLocale),
+                getWipStatus(node, node.getPropertyAsString(Constants.WORKINPROGRESS_STATUS)),
+                node.getPath(),
+                itemParentPage != null ? itemParentPage.getPath() : null);
     }
 
     @Override
-    public JSONObject getJson() throws JSONException, RepositoryException {
-
-        JSONObject jsonObject = new JSONObject();
-        JSONArray jArray = new JSONArray();
-
-        for (Map<String, String> nodeMap : this.dataList) {
-            JSONArray item = new JSONArray();
-            item.put(nodeMap.get("nodeDisplayableName"));
-            item.put(nodeMap.get("nodeTypeName"));
-            item.put(nodeMap.get("nodeWip"));
-            item.put(nodeMap.get("nodePath"));
-            item.put(nodeMap.get("nodeUsedInPagePath"));
-            jArray.put(item);
+    public void addItem(Row row) throws RepositoryException {
+        JCRNodeWrapper node = (JCRNodeWrapper) row.getNode();
+        rowSink.addRow(
+                WordUtils.abbreviate(node.getDisplayableName(),90,130,"..."),
+                getNodeType(getRowString(row, "jcr:primaryType")).getLabel(this.defaultLocale),
+                getWipStatus(node, getRowString(row, Constants.WORKINPROGRESS_STATUS)),
+                row.getPath(),
+                getRowParentPage(row));
+    }
+
+    /* the status, or the languages in progress, formatted as a json array */
+    private static String getWipStatus(JCRNodeWrapper node, String wipStatus) throws RepositoryException {
+        if (wipStatus.equals(Constants.WORKINPROGRESS_STATUS_LANG)) {
+            // the multi-valued languages are not projected, they are read from the node in this case only
+            return Arrays.toString(Arrays.asList(node.getProperty(Constants.WORKINPROGRESS_LANGUAGES).getValues()).stream().map(s -> "\"" + s + "\"").toArray());
         }
+        return "[\"" + wipStatus + "\"]";
+    }
+
+    @Override
+    protected JSONObject getSummary() throws JSONException, RepositoryException {
+        JSONObject jsonObject = super.getSummary();
         jsonObject.put("recordsTotal", totalContent);
         jsonObject.put("recordsFiltered", totalContent);
-        jsonObject.put("siteName", siteNode.getName());
-        jsonObject.put("siteDisplayableName", siteNode.getDisplayableName());
-        jsonObject.put("data", jArray);
         return jsonObject;
     }
 
+    @Override
+    public String getRowsKey() {
+        return "data";
+    }
+
 
 }
@@ -0,0 +1,93 @@
+/*
+ * ==========================================================================================
+ * =                   JAHIA'S DUAL LICENSING - IMPORTANT INFORMATION                       =
+ * ==========================================================================================
+ *
+ *                                 http://www.jahia.com
+ *
+ *     Copyright (C) 2002-2020 Jahia Solutions Group SA. All rights reserved.
+ *
+ *     THIS FILE IS AVAILABLE UNDER TWO DIFFERENT LICENSES:
+ *     1/GPL OR 2/JSEL
+ *
+ *     1/ GPL
+ *     ==================================================================================
+ *
+ *     IF YOU DECIDE TO CHOOSE THE GPL LICENSE, YOU MUST COMPLY WITH THE FOLLOWING TERMS:
+ *
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ *
+ *     2/ JSEL - Commercial and Supported Versions of the program
+ *     ===================================================================================
+ *
+ *     IF YOU DECIDE TO CHOOSE THE JSEL LICENSE, YOU MUST COMPLY WITH THE FOLLOWING TERMS:
+ *
+ *     Alternatively, commercial and supported versions of the program - also known as
+ *     Enterprise Distributions - must be used in accordance with the terms and conditions
+ *     contained in a separate written agreement between you and Jahia Solutions Group SA.
+ *
+ *     If you are unsure which license is appropriate for your use,
+ *     please contact the sales department at sales@jahia.com.
+ */
+package org.jahia.modules.contentreports.bean;
+
+/**
+ * The RowWindow Class.
+ * <p>Applies the requested offset/limit to the rows a report accepts itself,
+ * for the reports that filter their nodes after the query or that do not use a query at all.
+ * Every accepted row is counted, so the total stays correct while only the rows
+ * of the requested page are built.</p>
+ */
+public class RowWindow {
+
+    private final int offset;
+    private final int limit;
+    private int position;
+
+    public RowWindow(int offset, int limit) {
+        this.offset = Math.max(offset, 0);
+        this.limit = limit;
+        this.position = 0;
+    }
+
+    /**
+     * accept
+     * <p>count one more row of the report.</p>
+     *
+     * @return true when the row belongs to the requested page and has to be added
+     */
+    public boolean accept() {
+        int index = position++;
+        return index >= offset && (limit < 0 || index < offset + limit);
+    }
+
+    /**
+     * getTotal
+     *
+     * @return the number of rows accepted so far
+     */
+    public int getTotal() {
+        return position;
+    }
+
+    /**
+     * isFull
+     *
+     * @return true when the requested page is complete
+     */
+    public boolean isFull() {
+        return limit >= 0 && position >= offset + limit;
+    }
+}
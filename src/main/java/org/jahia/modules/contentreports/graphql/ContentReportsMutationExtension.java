@@ -0,0 +1,23 @@
+package org.jahia.modules.contentreports.graphql;
+
+import graphql.annotations.annotationTypes.GraphQLDescription;
+import graphql.annotations.annotationTypes.GraphQLField;
+import graphql.annotations.annotationTypes.GraphQLName;
+import graphql.annotations.annotationTypes.GraphQLNonNull;
+import graphql.annotations.annotationTypes.GraphQLTypeExtension;
+import org.jahia.modules.graphql.provider.dxm.admin.GqlAdminMutation;
+
+import javax.jcr.RepositoryException;
+
+@GraphQLTypeExtension(GqlAdminMutation.class)
+@GraphQLDescription("Content report GraphQL mutations for admin tooling")
+public class ContentReportsMutationExtension {
+
+    @GraphQLField
+    @GraphQLDescription("Run and cancel the content report jobs of a given site")
+    public static GqlContentReportsMutation contentReports(@GraphQLName("siteKey") @GraphQLNonNull String siteKey,
+                                                           @GraphQLName("language") @GraphQLDescription("Language/locale to use (e.g. en, en-US)") String language)
+            throws RepositoryException {
+        return new GqlContentReportsMutation(new GqlContentReports(siteKey, language));
+    }
+}
@@ -7,24 +7,53 @@ import graphql.annotations.annotationTypes.GraphQLNonNull;
 import org.apache.commons.lang3.StringUtils;
 import org.jahia.exceptions.JahiaException;
 import org.jahia.modules.contentreports.bean.BaseReport;
+import org.jahia.modules.contentreports.bean.QueryReport;
+import org.jahia.modules.contentreports.bean.ReportCursor;
 import org.jahia.modules.contentreports.bean.ReportOverview;
 import org.jahia.modules.contentreports.exception.ContentReportException;
+import org.jahia.modules.contentreports.service.ActivityHistogramAccumulator;
 import org.jahia.modules.contentreports.service.ContentReportFactory;
+import org.jahia.modules.contentreports.service.ContributorAccumulator;
+import org.jahia.modules.contentreports.service.ReportCacheKey;
+import org.jahia.modules.contentreports.service.ReportExecutor;
+import org.jahia.modules.contentreports.service.ReportJob;
+import org.jahia.modules.contentreports.service.ReportJobService;
+import org.jahia.modules.contentreports.service.ReportResultCache;
+import org.jahia.modules.contentreports.service.ReportSnapshotStore;
+import org.jahia.services.content.JCRNodeWrapper;
 import org.jahia.services.content.JCRSessionFactory;
 import org.jahia.services.content.JCRSessionWrapper;
 import org.jahia.services.content.decorator.JCRSiteNode;
 import org.jahia.utils.LanguageCodeConverters;
 import org.json.JSONException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import javax.jcr.RepositoryException;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.LinkedHashMap;
+import java.util.TimeZone;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 
 
 @GraphQLDescription("Collection of content reports available for a site")
 public class GqlContentReports {
 
+    private static final Logger logger = LoggerFactory.getLogger(GqlContentReports.class);
+
+    private static final int DEFAULT_OFFSET = 0;
+    private static final int DEFAULT_LIMIT = 10;
+
     private final JCRSessionWrapper session;
     private final JCRSiteNode siteNode;
     private final Locale locale;
@@ -35,6 +64,24 @@ public class GqlContentReports {
         this.locale = resolveLocale(language, siteNode);
     }
 
+    private static long parseDay(String day) throws ContentReportException {
+        SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd");
+        dateFormat.setTimeZone(TimeZone.getTimeZone("UTC"));
+        try {
+            return dateFormat.parse(day.trim()).getTime();
+        } catch (ParseException e) {
+            throw new ContentReportException("Invalid date " + day + ", expected yyyy-MM-dd");
+        }
+    }
+
+    private static long getDefaultActivityStart(ActivityHistogramAccumulator.Granularity granularity, long to) {
+        Calendar calendar = Calendar.getInstance(TimeZone.getTimeZone("UTC"));
+        calendar.setTimeInMillis(to);
+        calendar.add(granularity == ActivityHistogramAccumulator.Granularity.MONTH ? Calendar.MONTH
+                : granularity == ActivityHistogramAccumulator.Granularity.WEEK ? Calendar.WEEK_OF_YEAR : Calendar.DAY_OF_MONTH, -29);
+        return calendar.getTimeInMillis();
+    }
+
     private Locale resolveLocale(String language, JCRSiteNode site) {
         Locale resolved = null;
         if (StringUtils.isNotBlank(language)) {
@@ -51,9 +98,38 @@ public class GqlContentReports {
 
     @GraphQLField
     @GraphQLDescription("Summary report of pages, templates and users")
-    public GqlReportOverview overview() throws RepositoryException, JSONException, JahiaException {
+    public GqlReportOverview overview(@GraphQLName("activityGranularity") @GraphQLDescription("DAY, WEEK or MONTH to add the activity histogram, none when empty") String activityGranularity,
+                                      @GraphQLName("activityFrom") @GraphQLDescription("First day of the activity histogram (yyyy-MM-dd), 30 periods before the last one by default") String activityFrom,
+                                      @GraphQLName("activityTo") @GraphQLDescription("Last day of the activity histogram (yyyy-MM-dd), today by default") String activityTo,
+                                      @GraphQLName("contributorsLimit") @GraphQLDescription("Number of top contributors, 5 by default") Integer contributorsLimit,
+                                      @GraphQLName("contributorsRole") @GraphQLDescription("CREATED_BY or LAST_MODIFIED_BY, the property counted for the top contributors, CREATED_BY by default") String contributorsRole,
+                                      @GraphQLName("contributorsApproximate") @GraphQLDescription("Count the top contributors with a bounded summary instead of a counter per author") Boolean contributorsApproximate)
+            throws RepositoryException, JSONException, JahiaException, ContentReportException {
         ReportOverview report = new ReportOverview(siteNode);
-        populateReport(report, null, null);
+        if (StringUtils.isNotBlank(activityGranularity)) {
+            ActivityHistogramAccumulator.Granularity granularity;
+            try {
+                granularity = ActivityHistogramAccumulator.Granularity.valueOf(activityGranularity.trim().toUpperCase(Locale.ENGLISH));
+            } catch (IllegalArgumentException e) {
+                throw new ContentReportException("Unknown activity granularity " + activityGranularity);
+            }
+            long to = StringUtils.isNotBlank(activityTo) ? parseDay(activityTo) : System.currentTimeMillis();
+            long from = StringUtils.isNotBlank(activityFrom) ? parseDay(activityFrom) : getDefaultActivityStart(granularity, to);
+            report.setActivityHistogram(granularity, from, to);
+        }
+        if (contributorsLimit != null || StringUtils.isNotBlank(contributorsRole) || contributorsApproximate != null) {
+            ContributorAccumulator.Role role = ContributorAccumulator.Role.CREATED_BY;
+            if (StringUtils.isNotBlank(contributorsRole)) {
+                try {
+                    role = ContributorAccumulator.Role.valueOf(contributorsRole.trim().toUpperCase(Locale.ENGLISH));
+                } catch (IllegalArgumentException e) {
+                    throw new ContentReportException("Unknown contributors role " + contributorsRole);
+                }
+            }
+            report.setTopContributors(contributorsLimit != null && contributorsLimit > 0 ? contributorsLimit : 5, role,
+                    Boolean.TRUE.equals(contributorsApproximate));
+        }
+        populateReport(session, report, null, null);
         return new GqlReportOverview(report.getJson());
     }
 
@@ -72,11 +148,13 @@ public class GqlContentReports {
                             @GraphQLName("parameterValue5") String parameterValue5,
                             @GraphQLName("parameterName6") String parameterName6,
                             @GraphQLName("parameterValue6") String parameterValue6,
+                            @GraphQLName("parameters") @GraphQLDescription("Parameters of the report, added after the numbered name/value pairs") List<GqlReportParameterInput> parameters,
                             @GraphQLName("offset") Integer offset,
                             @GraphQLName("limit") Integer limit,
                             @GraphQLName("sortColumn") Integer sortColumn,
-                            @GraphQLName("sortDirection") String sortDirection)
-            throws RepositoryException, JSONException, JahiaException, ContentReportException {
+                            @GraphQLName("sortDirection") String sortDirection,
+                            @GraphQLName("cursor") @GraphQLDescription("Cursor returned as nextCursor by the previous page, replaces the offset") String cursor)
+            throws RepositoryException, JSONException, JahiaException, ContentReportException, IOException {
         // Build parameter map from individual name/value pairs
         // Allow empty string values as they may be intentionally passed (e.g., for includeIfEmpty fields)
         Map<String, String> paramMap = new LinkedHashMap<>();
@@ -98,16 +176,244 @@ public class GqlContentReports {
         if (StringUtils.isNotBlank(parameterName6)) {
             paramMap.put(parameterName6, parameterValue6 != null ? parameterValue6 : "");
         }
+        putParameters(paramMap, parameters);
+
+        return renderReport(session, siteNode, reportId, paramMap, offset, limit, sortColumn, sortDirection, cursor);
+    }
+
+    @GraphQLField
+    @GraphQLDescription("Execute several legacy content reports in one request, a failing report does not fail the others")
+    public List<GqlReportResult> reports(@GraphQLName("requests") @GraphQLNonNull List<GqlReportRequestInput> requests) {
+        // each report runs on the report executor in its own session, the site and locale resolved once are shared
+        ReportExecutor executor = ReportExecutor.getInstance();
+        String sitePath = siteNode.getPath();
+        List<Future<GqlReportResult>> futures = new ArrayList<>();
+        for (GqlReportRequestInput request : requests) {
+            if (request == null) {
+                continue;
+            }
+            try {
+                futures.add(executor.submitAs(session, taskSession -> runBatchRequest(taskSession, sitePath, request)));
+            } catch (RepositoryException e) {
+                logger.warn("Content report {} could not be submitted in a batch request", request.getReportId(), e);
+                futures.add(CompletableFuture.completedFuture(GqlReportResult.failure(request.getReportId(), e.getMessage())));
+            }
+        }
+
+        List<GqlReportResult> results = new ArrayList<>(futures.size());
+        for (Future<GqlReportResult> future : futures) {
+            try {
+                results.add(future.get());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                futures.forEach(pending -> pending.cancel(true));
+                throw new IllegalStateException("Interrupted while waiting for the content reports", e);
+            } catch (ExecutionException e) {
+                // runBatchRequest reports its own failures, only an unexpected error gets here
+                logger.warn("Content report failed in a batch request", e.getCause());
+                results.add(GqlReportResult.failure(null, e.getCause().getMessage()));
+            }
+        }
+        return results;
+    }
+
+    @GraphQLField
+    @GraphQLDescription("Execute a content report listing nodes, the fields of the nodes are only read when they are selected")
+    public GqlNodeReport nodeReport(@GraphQLName("reportId") @GraphQLNonNull String reportId,
+                                   @GraphQLName("parameters") List<GqlReportParameterInput> parameters,
+                                   @GraphQLName("offset") Integer offset,
+                                   @GraphQLName("limit") Integer limit,
+                                   @GraphQLName("sortColumn") Integer sortColumn,
+                                   @GraphQLName("sortDirection") String sortDirection,
+                                   @GraphQLName("cursor") @GraphQLDescription("Cursor returned as nextCursor by the previous page, replaces the offset") String cursor)
+            throws RepositoryException, JSONException, JahiaException, ContentReportException {
+        Map<String, String> paramMap = new LinkedHashMap<>();
+        putParameters(paramMap, parameters);
+
+        BaseReport report = buildReport(siteNode, reportId, paramMap, sortColumn, sortDirection, cursor);
+        if (!(report instanceof QueryReport) || !((QueryReport) report).isNodeList()) {
+            throw new ContentReportException("Report " + reportId + " does not list nodes, use rawReport instead");
+        }
+        QueryReport queryReport = (QueryReport) report;
+        List<JCRNodeWrapper> nodes = new ArrayList<>();
+        queryReport.collectNodes(nodes);
+        populateReport(session, report, offset, limit);
+        ReportCursor nextCursor = queryReport.getNextCursor();
+        return new GqlNodeReport(nodes, queryReport.getRecordsTotal(), nextCursor != null ? nextCursor.encode() : null, locale);
+    }
+
+    @GraphQLField
+    @GraphQLDescription("Job submitted by the current user with the contentReports.submitJob mutation, null when it is unknown or expired")
+    public GqlReportJob job(@GraphQLName("jobId") @GraphQLNonNull String jobId) {
+        ReportJobService jobService = ReportJobService.getInstance();
+        ReportJob job = jobService != null ? jobService.getJob(jobId, session.getUser().getUserKey()) : null;
+        return job != null && job.getSiteKey().equals(siteNode.getSiteKey()) ? new GqlReportJob(job) : null;
+    }
+
+    @GraphQLField
+    @GraphQLDescription("Jobs submitted by the current user for the site, oldest first")
+    public List<GqlReportJob> jobs() {
+        List<GqlReportJob> result = new ArrayList<>();
+        ReportJobService jobService = ReportJobService.getInstance();
+        if (jobService != null) {
+            for (ReportJob job : jobService.getJobs(session.getUser().getUserKey())) {
+                if (job.getSiteKey().equals(siteNode.getSiteKey())) {
+                    result.add(new GqlReportJob(job));
+                }
+            }
+        }
+        return result;
+    }
+
+    @GraphQLField
+    @GraphQLDescription("Page of a snapshot of the site, sorted and filtered from the snapshot file, with the same json as rawReport; null when it is unknown, expired or of another site")
+    public String snapshot(@GraphQLName("snapshotId") @GraphQLNonNull String snapshotId,
+                           @GraphQLName("offset") Integer offset,
+                           @GraphQLName("limit") Integer limit,
+                           @GraphQLName("sortColumn") Integer sortColumn,
+                           @GraphQLName("sortDirection") String sortDirection,
+                           @GraphQLName("filter") @GraphQLDescription("Text searched in the text columns, case insensitive") String filter)
+            throws IOException, JSONException {
+        ReportSnapshotStore store = ReportSnapshotStore.getInstance();
+        if (getSiteSnapshot(store, snapshotId) == null) {
+            return null;
+        }
+        return store.getPage(snapshotId, session.getUser().getUserKey(), sortColumn, "desc".equalsIgnoreCase(sortDirection), filter,
+                offset != null ? offset : DEFAULT_OFFSET, limit != null ? limit : DEFAULT_LIMIT);
+    }
+
+    @GraphQLField
+    @GraphQLDescription("Snapshots of the current user for the site, oldest first")
+    public List<GqlReportSnapshot> snapshots() {
+        List<GqlReportSnapshot> result = new ArrayList<>();
+        ReportSnapshotStore store = ReportSnapshotStore.getInstance();
+        if (store != null) {
+            for (ReportSnapshotStore.Entry entry : store.getSnapshots(session.getUser().getUserKey())) {
+                if (entry.getSiteKey().equals(siteNode.getSiteKey())) {
+                    result.add(new GqlReportSnapshot(entry));
+                }
+            }
+        }
+        return result;
+    }
+
+    @GraphQLField
+    @GraphQLDescription("Hit, miss and eviction counters of the report result cache")
+    public GqlReportCacheStatistics cacheStatistics() {
+        return new GqlReportCacheStatistics(ReportResultCache.getInstance());
+    }
+
+    GqlReportJob submitJob(String reportId, List<GqlReportParameterInput> parameters, Integer sortColumn, String sortDirection,
+                           boolean snapshot)
+            throws RepositoryException, ContentReportException {
+        ReportJobService jobService = ReportJobService.getInstance();
+        if (jobService == null) {
+            throw new ContentReportException("The content report jobs are not available");
+        }
+        Map<String, String> paramMap = new LinkedHashMap<>();
+        putParameters(paramMap, parameters);
+        // fail now on an unknown report rather than in the job
+        buildReport(siteNode, reportId, paramMap, sortColumn, sortDirection, null);
+
+        String sitePath = siteNode.getPath();
+        ReportJob job = jobService.submit(session, reportId, siteNode.getSiteKey(), snapshot, jobSession -> {
+            BaseReport report = buildReport((JCRSiteNode) jobSession.getNode(sitePath), reportId, paramMap, sortColumn, sortDirection, null);
+            report.setLocale(locale);
+            return report;
+        });
+        return new GqlReportJob(job);
+    }
+
+    boolean cancelJob(String jobId) {
+        ReportJobService jobService = ReportJobService.getInstance();
+        return jobService != null && jobService.cancel(jobId, session.getUser().getUserKey());
+    }
+
+    boolean deleteSnapshot(String snapshotId) {
+        ReportSnapshotStore store = ReportSnapshotStore.getInstance();
+        return getSiteSnapshot(store, snapshotId) != null && store.remove(snapshotId, session.getUser().getUserKey());
+    }
 
-        BaseReport report = ContentReportFactory.build(reportId, siteNode, paramMap, sortColumn, sortDirection);
-        populateReport(report, offset, limit);
-        return report.getJson().toString();
+    /* the snapshot of the current user, only when it was taken on the current site */
+    private ReportSnapshotStore.Entry getSiteSnapshot(ReportSnapshotStore store, String snapshotId) {
+        ReportSnapshotStore.Entry entry = store != null ? store.getEntry(snapshotId, session.getUser().getUserKey()) : null;
+        return entry != null && entry.getSiteKey().equals(siteNode.getSiteKey()) ? entry : null;
+    }
+
+    private GqlReportResult runBatchRequest(JCRSessionWrapper taskSession, String sitePath, GqlReportRequestInput request) {
+        Map<String, String> paramMap = new LinkedHashMap<>();
+        putParameters(paramMap, request.getParameters());
+        try {
+            JCRSiteNode taskSite = (JCRSiteNode) taskSession.getNode(sitePath);
+            return GqlReportResult.success(request.getReportId(), renderReport(taskSession, taskSite, request.getReportId(), paramMap,
+                    request.getOffset(), request.getLimit(), request.getSortColumn(), request.getSortDirection(), request.getCursor()));
+        } catch (Exception e) {
+            logger.warn("Content report {} failed in a batch request", request.getReportId(), e);
+            return GqlReportResult.failure(request.getReportId(), e.getMessage());
+        }
+    }
+
+    private String renderReport(JCRSessionWrapper reportSession, JCRSiteNode site, String reportId, Map<String, String> paramMap,
+                                Integer offset, Integer limit, Integer sortColumn, String sortDirection, String cursor)
+            throws RepositoryException, JSONException, JahiaException, ContentReportException, IOException {
+        ReportResultCache cache = ReportResultCache.getInstance();
+        ReportCacheKey cacheKey = null;
+        long generation = 0;
+        if (cache != null) {
+            cacheKey = new ReportCacheKey(reportId, site.getSiteKey(), paramMap, locale, sortColumn, sortDirection,
+                    offset != null ? offset : DEFAULT_OFFSET, limit != null ? limit : DEFAULT_LIMIT, cursor,
+                    reportSession.getWorkspace().getName(), reportSession.getUser().getUserKey());
+            String cached = cache.get(cacheKey);
+            if (cached != null) {
+                return cached;
+            }
+            generation = cache.getGeneration();
+        }
+
+        BaseReport report = buildReport(site, reportId, paramMap, sortColumn, sortDirection, cursor);
+        /* the rows go straight to the payload while the report executes */
+        StringWriter writer = new StringWriter();
+        report.streamRows(writer);
+        populateReport(reportSession, report, offset, limit);
+        report.writeJson(writer);
+        String payload = writer.toString();
+
+        if (cache != null) {
+            cache.put(cacheKey, ContentReportFactory.getInvalidationScope(reportId, site, paramMap), payload, generation);
+        }
+        return payload;
+    }
+
+    private void putParameters(Map<String, String> paramMap, List<GqlReportParameterInput> parameters) {
+        if (parameters == null) {
+            return;
+        }
+        for (GqlReportParameterInput parameter : parameters) {
+            if (parameter != null && StringUtils.isNotBlank(parameter.getName())) {
+                paramMap.put(parameter.getName(), parameter.getValue() != null ? parameter.getValue() : "");
+            }
+        }
+    }
+
+    private BaseReport buildReport(JCRSiteNode site, String reportId, Map<String, String> paramMap, Integer sortColumn,
+                                   String sortDirection, String cursor) throws ContentReportException {
+        BaseReport report = ContentReportFactory.build(reportId, site, paramMap, sortColumn, sortDirection);
+        if (StringUtils.isNotEmpty(cursor) && report instanceof QueryReport) {
+            // reports without a sorted query ignore the cursor and use the offset
+            try {
+                ((QueryReport) report).setCursor(ReportCursor.decode(cursor));
+            } catch (IllegalArgumentException e) {
+                throw new ContentReportException(e.getMessage(), e);
+            }
+        }
+        return report;
     }
 
-    private void populateReport(BaseReport report, Integer offset, Integer limit) throws RepositoryException, JSONException, JahiaException {
-        int start = offset != null ? offset : 0;
-        int size = limit != null ? limit : 10;
+    private void populateReport(JCRSessionWrapper reportSession, BaseReport report, Integer offset, Integer limit)
+            throws RepositoryException, JSONException, JahiaException {
+        int start = offset != null ? offset : DEFAULT_OFFSET;
+        int size = limit != null ? limit : DEFAULT_LIMIT;
         report.setLocale(locale);
-        report.execute(session, start, size);
+        report.execute(reportSession, start, size);
     }
 }
@@ -0,0 +1,44 @@
+package org.jahia.modules.contentreports.graphql;
+
+import graphql.annotations.annotationTypes.GraphQLDescription;
+import graphql.annotations.annotationTypes.GraphQLField;
+import graphql.annotations.annotationTypes.GraphQLName;
+import graphql.annotations.annotationTypes.GraphQLNonNull;
+import org.jahia.modules.contentreports.exception.ContentReportException;
+
+import javax.jcr.RepositoryException;
+import java.util.List;
+
+@GraphQLName("ContentReportsMutation")
+@GraphQLDescription("Content report mutations available for a site")
+public class GqlContentReportsMutation {
+
+    private final GqlContentReports reports;
+
+    public GqlContentReportsMutation(GqlContentReports reports) {
+        this.reports = reports;
+    }
+
+    @GraphQLField
+    @GraphQLDescription("Run a legacy content report in the background, its result is read from contentReports.job once completed")
+    public GqlReportJob submitJob(@GraphQLName("reportId") @GraphQLNonNull String reportId,
+                                  @GraphQLName("parameters") List<GqlReportParameterInput> parameters,
+                                  @GraphQLName("sortColumn") Integer sortColumn,
+                                  @GraphQLName("sortDirection") String sortDirection,
+                                  @GraphQLName("snapshot") @GraphQLDescription("Store the rows in a snapshot, to be paged, sorted and filtered with contentReports.snapshot") Boolean snapshot)
+            throws RepositoryException, ContentReportException {
+        return reports.submitJob(reportId, parameters, sortColumn, sortDirection, Boolean.TRUE.equals(snapshot));
+    }
+
+    @GraphQLField
+    @GraphQLDescription("Cancel a queued or running job, returns false when it is unknown or already finished")
+    public boolean cancelJob(@GraphQLName("jobId") @GraphQLNonNull String jobId) {
+        return reports.cancelJob(jobId);
+    }
+
+    @GraphQLField
+    @GraphQLDescription("Delete a snapshot of the site, returns false when it is unknown, expired or of another site")
+    public boolean deleteSnapshot(@GraphQLName("snapshotId") @GraphQLNonNull String snapshotId) {
+        return reports.deleteSnapshot(snapshotId);
+    }
+}
@@ -0,0 +1,48 @@
+package org.jahia.modules.contentreports.graphql;
+
+import graphql.annotations.annotationTypes.GraphQLDescription;
+import graphql.annotations.annotationTypes.GraphQLField;
+import graphql.annotations.annotationTypes.GraphQLName;
+import org.jahia.services.content.JCRNodeWrapper;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.stream.Collectors;
+
+/**
+ * Page of a report listing nodes, the nodes are resolved field by field.
+ */
+@GraphQLName("ContentNodeReport")
+@GraphQLDescription("Page of nodes returned by a content report")
+public class GqlNodeReport {
+
+    private final List<JCRNodeWrapper> nodes;
+    private final long totalCount;
+    private final String nextCursor;
+    private final Locale locale;
+
+    public GqlNodeReport(List<JCRNodeWrapper> nodes, long totalCount, String nextCursor, Locale locale) {
+        this.nodes = nodes;
+        this.totalCount = totalCount;
+        this.nextCursor = nextCursor;
+        this.locale = locale;
+    }
+
+    @GraphQLField
+    @GraphQLDescription("Number of nodes of the report, over all the pages")
+    public int getTotalCount() {
+        return (int) Math.min(totalCount, Integer.MAX_VALUE);
+    }
+
+    @GraphQLField
+    @GraphQLDescription("Cursor of the next page, null on the last page or when the report is not sorted by a query")
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    @GraphQLField
+    @GraphQLDescription("Nodes of the requested page")
+    public List<GqlReportNode> getNodes() {
+        return nodes.stream().map(node -> new GqlReportNode(node, locale)).collect(Collectors.toList());
+    }
+}
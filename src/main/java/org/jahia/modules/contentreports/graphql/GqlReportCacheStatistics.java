@@ -0,0 +1,61 @@
+package org.jahia.modules.contentreports.graphql;
+
+import graphql.annotations.annotationTypes.GraphQLDescription;
+import graphql.annotations.annotationTypes.GraphQLField;
+import org.jahia.modules.contentreports.service.ReportResultCache;
+
+@GraphQLDescription("Statistics of the report result cache")
+public class GqlReportCacheStatistics {
+
+    private final ReportResultCache cache;
+
+    public GqlReportCacheStatistics(ReportResultCache cache) {
+        this.cache = cache;
+    }
+
+    @GraphQLField
+    @GraphQLDescription("True when the cache component is active")
+    public boolean isEnabled() {
+        return cache != null;
+    }
+
+    @GraphQLField
+    @GraphQLDescription("Number of reports served from the cache")
+    public int getHits() {
+        return cache != null ? toInt(cache.getHits()) : 0;
+    }
+
+    @GraphQLField
+    @GraphQLDescription("Number of reports computed because they were not in the cache")
+    public int getMisses() {
+        return cache != null ? toInt(cache.getMisses()) : 0;
+    }
+
+    @GraphQLField
+    @GraphQLDescription("Number of entries dropped because the cache was full or the entry expired")
+    public int getEvictions() {
+        return cache != null ? toInt(cache.getEvictions()) : 0;
+    }
+
+    @GraphQLField
+    @GraphQLDescription("Number of entries dropped because of a content change under the report path")
+    public int getInvalidations() {
+        return cache != null ? toInt(cache.getInvalidations()) : 0;
+    }
+
+    @GraphQLField
+    @GraphQLDescription("Current number of entries")
+    public int getSize() {
+        return cache != null ? cache.getSize() : 0;
+    }
+
+    @GraphQLField
+    @GraphQLDescription("Maximum number of entries")
+    public int getMaxEntries() {
+        return cache != null ? cache.getMaxEntries() : 0;
+    }
+
+    private static int toInt(long counter) {
+        return (int) Math.min(Integer.MAX_VALUE, counter);
+    }
+}
@@ -0,0 +1,110 @@
+package org.jahia.modules.contentreports.graphql;
+
+import graphql.annotations.annotationTypes.GraphQLDescription;
+import graphql.annotations.annotationTypes.GraphQLField;
+import graphql.annotations.annotationTypes.GraphQLName;
+import graphql.annotations.annotationTypes.GraphQLNonNull;
+import org.jahia.modules.contentreports.service.ReportJob;
+import org.json.JSONException;
+
+import java.io.IOException;
+import java.time.Instant;
+
+@GraphQLName("ContentReportJob")
+@GraphQLDescription("Content report running in the background")
+public class GqlReportJob {
+
+    private final ReportJob job;
+
+    public GqlReportJob(ReportJob job) {
+        this.job = job;
+    }
+
+    @GraphQLField
+    @GraphQLNonNull
+    @GraphQLDescription("Identifier of the job")
+    public String getId() {
+        return job.getId();
+    }
+
+    @GraphQLField
+    @GraphQLDescription("Identifier of the report")
+    public String getReportId() {
+        return job.getReportId();
+    }
+
+    @GraphQLField
+    @GraphQLDescription("QUEUED, RUNNING, COMPLETED, FAILED or CANCELLED")
+    public String getStatus() {
+        return job.getStatus().name();
+    }
+
+    @GraphQLField
+    @GraphQLDescription("True once the job is completed, failed or cancelled")
+    public boolean isFinished() {
+        return job.isFinished();
+    }
+
+    @GraphQLField
+    @GraphQLDescription("Number of nodes read by the report so far")
+    public int getNodesVisited() {
+        return toInt(job.getProgress().getNodesVisited());
+    }
+
+    @GraphQLField
+    @GraphQLDescription("Number of rows built by the report so far")
+    public int getRowsEmitted() {
+        return toInt(job.getProgress().getRowsEmitted());
+    }
+
+    @GraphQLField
+    @GraphQLDescription("Number of rows of the result, once the job is completed")
+    public int getRowCount() {
+        return job.getRowCount();
+    }
+
+    @GraphQLField
+    @GraphQLDescription("Snapshot holding the rows of the result, when the job was submitted with snapshot")
+    public String getSnapshotId() {
+        return job.getSnapshotId();
+    }
+
+    @GraphQLField
+    @GraphQLDescription("Error message when the job failed")
+    public String getError() {
+        return job.getError();
+    }
+
+    @GraphQLField
+    @GraphQLDescription("Date the job was submitted")
+    public String getSubmitted() {
+        return toDate(job.getSubmittedAt());
+    }
+
+    @GraphQLField
+    @GraphQLDescription("Date the report started, null while it is queued")
+    public String getStarted() {
+        return toDate(job.getStartedAt());
+    }
+
+    @GraphQLField
+    @GraphQLDescription("Date the job finished, null while it is queued or running")
+    public String getFinished() {
+        return toDate(job.getFinishedAt());
+    }
+
+    @GraphQLField
+    @GraphQLDescription("Page of the result with the same json as rawReport, null until the job is completed")
+    public String result(@GraphQLName("offset") Integer offset,
+                         @GraphQLName("limit") Integer limit) throws JSONException, IOException {
+        return job.getPage(offset != null ? offset : 0, limit != null ? limit : -1);
+    }
+
+    private static String toDate(long time) {
+        return time > 0 ? Instant.ofEpochMilli(time).toString() : null;
+    }
+
+    private static int toInt(long value) {
+        return (int) Math.min(value, Integer.MAX_VALUE);
+    }
+}
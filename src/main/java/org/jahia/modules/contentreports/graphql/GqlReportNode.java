@@ -0,0 +1,142 @@
+package org.jahia.modules.contentreports.graphql;
+
+import graphql.annotations.annotationTypes.GraphQLDescription;
+import graphql.annotations.annotationTypes.GraphQLField;
+import graphql.annotations.annotationTypes.GraphQLName;
+import graphql.annotations.annotationTypes.GraphQLNonNull;
+import org.jahia.services.content.JCRContentUtils;
+import org.jahia.services.content.JCRNodeWrapper;
+
+import javax.jcr.Node;
+import javax.jcr.RepositoryException;
+import java.util.Locale;
+
+/**
+ * Node returned by a content report, each field is read from the node only when it is selected.
+ */
+@GraphQLName("ContentReportNode")
+@GraphQLDescription("Node listed by a content report")
+public class GqlReportNode {
+
+    private final JCRNodeWrapper node;
+    private final Locale locale;
+
+    public GqlReportNode(JCRNodeWrapper node, Locale locale) {
+        this.node = node;
+        this.locale = locale;
+    }
+
+    @GraphQLField
+    @GraphQLNonNull
+    @GraphQLDescription("Identifier of the node")
+    public String getUuid() throws RepositoryException {
+        return node.getIdentifier();
+    }
+
+    @GraphQLField
+    @GraphQLNonNull
+    @GraphQLDescription("Path of the node")
+    public String getPath() {
+        return node.getPath();
+    }
+
+    @GraphQLField
+    @GraphQLNonNull
+    @GraphQLDescription("Name of the node")
+    public String getName() {
+        return node.getName();
+    }
+
+    @GraphQLField
+    @GraphQLDescription("Displayable name of the node")
+    public String getDisplayableName() {
+        return node.getDisplayableName();
+    }
+
+    @GraphQLField
+    @GraphQLDescription("jcr:title of the node in the report language, null when it is not translated")
+    public String getTitle() throws RepositoryException {
+        if (!node.hasI18N(locale)) {
+            return null;
+        }
+        Node translation = node.getI18N(locale);
+        return translation.hasProperty("jcr:title") ? translation.getProperty("jcr:title").getString() : null;
+    }
+
+    @GraphQLField
+    @GraphQLDescription("Primary node type name of the node")
+    public String getPrimaryNodeType() throws RepositoryException {
+        return node.getPrimaryNodeTypeName();
+    }
+
+    @GraphQLField
+    @GraphQLDescription("Label of the primary node type in the report language")
+    public String getTypeLabel() throws RepositoryException {
+        return node.getPrimaryNodeType().getLabel(locale);
+    }
+
+    @GraphQLField
+    @GraphQLDescription("URL of the node")
+    public String getUrl() {
+        return node.getUrl();
+    }
+
+    @GraphQLField
+    @GraphQLDescription("User who created the node")
+    public String getCreatedBy() {
+        return node.getCreationUser();
+    }
+
+    @GraphQLField
+    @GraphQLDescription("Creation date of the node")
+    public String getCreated() {
+        return node.getPropertyAsString("jcr:created");
+    }
+
+    @GraphQLField
+    @GraphQLDescription("User who last modified the node")
+    public String getLastModifiedBy() {
+        return node.getModificationUser();
+    }
+
+    @GraphQLField
+    @GraphQLDescription("Last modification date of the node")
+    public String getLastModified() {
+        return node.getPropertyAsString("jcr:lastModified");
+    }
+
+    @GraphQLField
+    @GraphQLDescription("True when the node is published")
+    public boolean isPublished() {
+        return Boolean.parseBoolean(node.getPropertyAsString("j:published"));
+    }
+
+    @GraphQLField
+    @GraphQLDescription("Owner of the lock on the node, null when it is not locked")
+    public String getLockOwner() {
+        return node.getPropertyAsString("jcr:lockOwner");
+    }
+
+    @GraphQLField
+    @GraphQLDescription("Page of the node, the node itself when it is a page")
+    public GqlReportNode getParentPage() throws RepositoryException {
+        JCRNodeWrapper page = node.isNodeType("jnt:page") ? node : JCRContentUtils.getParentOfType(node, "jnt:page");
+        return page != null ? new GqlReportNode(page, locale) : null;
+    }
+
+    @GraphQLField
+    @GraphQLDescription("Node referenced by j:node, for the content references")
+    public GqlReportNode getReferencedNode() throws RepositoryException {
+        if (!node.hasProperty("j:node")) {
+            return null;
+        }
+        JCRNodeWrapper referenced = (JCRNodeWrapper) node.getProperty("j:node").getNode();
+        return referenced != null ? new GqlReportNode(referenced, locale) : null;
+    }
+
+    @GraphQLField
+    @GraphQLDescription("Value of a property of the node as a string, null when it is not set")
+    public String getProperty(@GraphQLName("name") @GraphQLNonNull String name) {
+        return node.getPropertyAsString(name);
+    }
+}
@@ -135,7 +135,7 @@ public class GqlReportOverview {
     }
 
     @GraphQLField
-    @GraphQLDescription("Top 5 contributors by content count")
+    @GraphQLDescription("Top contributors by content count, 5 by default")
     public List<GqlContributor> getTopContributors() {
         JSONArray contributorsArray = payload.optJSONArray("topContributors");
         List<GqlContributor> contributors = new ArrayList<>();
@@ -145,7 +145,8 @@ public class GqlReportOverview {
                 if (contributorObj != null) {
                     contributors.add(new GqlContributor(
                         contributorObj.optString("username"),
-                        contributorObj.optInt("contentCount")
+                        contributorObj.optInt("contentCount"),
+                        contributorObj.optInt("countError")
                     ));
                 }
             }
@@ -153,14 +154,76 @@ public class GqlReportOverview {
         return contributors;
     }
 
+    @GraphQLField
+    @GraphQLDescription("Property counted for the top contributors, CREATED_BY or LAST_MODIFIED_BY")
+    public String getTopContributorsRole() {
+        return payload.optString("topContributorsRole", "CREATED_BY");
+    }
+
+    @GraphQLField
+    @GraphQLDescription("True when the top contributors were counted with a bounded summary, their counts may then be overestimated")
+    public boolean isTopContributorsApproximate() {
+        return payload.optBoolean("topContributorsApproximate");
+    }
+
+    @GraphQLField
+    @GraphQLDescription("Size of the periods of the activity histogram, null when it was not requested")
+    public String getActivityGranularity() {
+        JSONObject activity = payload.optJSONObject("activity");
+        return activity != null ? activity.optString("granularity") : null;
+    }
+
+    @GraphQLField
+    @GraphQLDescription("Created, modified and published counts per period, oldest first, empty when the histogram was not requested")
+    public List<GqlActivityBucket> getActivity() {
+        JSONObject activity = payload.optJSONObject("activity");
+        JSONArray bucketsArray = activity != null ? activity.optJSONArray("buckets") : null;
+        List<GqlActivityBucket> buckets = new ArrayList<>();
+        if (bucketsArray != null) {
+            for (int i = 0; i < bucketsArray.length(); i++) {
+                JSONObject bucketObj = bucketsArray.optJSONObject(i);
+                if (bucketObj != null) {
+                    buckets.add(new GqlActivityBucket(
+                        bucketObj.optString("start"),
+                        bucketObj.optInt("created"),
+                        bucketObj.optInt("modified"),
+                        bucketObj.optInt("published")
+                    ));
+                }
+            }
+        }
+        return buckets;
+    }
+
+    @GraphQLField
+    @GraphQLDescription("True when some metrics could not be computed in time and are reported with default values")
+    public boolean isPartial() {
+        return payload.optBoolean("partial");
+    }
+
+    @GraphQLField
+    @GraphQLDescription("Names of the metrics missing from a partial overview")
+    public List<String> getPartialMetrics() {
+        JSONArray metricsArray = payload.optJSONArray("partialMetrics");
+        List<String> metrics = new ArrayList<>();
+        if (metricsArray != null) {
+            for (int i = 0; i < metricsArray.length(); i++) {
+                metrics.add(metricsArray.optString(i));
+            }
+        }
+        return metrics;
+    }
+
     // Inner class for contributor data
     public static class GqlContributor {
         private final String username;
         private final int contentCount;
+        private final int countError;
 
-        public GqlContributor(String username, int contentCount) {
+        public GqlContributor(String username, int contentCount, int countError) {
             this.username = username;
             this.contentCount = contentCount;
+            this.countError = countError;
         }
 
         @GraphQLField
@@ -170,9 +233,54 @@ public class GqlReportOverview {
         }
 
         @GraphQLField
-        @GraphQLDescription("Number of content items created by this contributor")
+        @GraphQLDescription("Number of content items created, or last modified, by this contributor")
         public int getContentCount() {
             return contentCount;
         }
+
+        @GraphQLField
+        @GraphQLDescription("Maximum overestimation of the content count, always 0 for exact counts")
+        public int getCountError() {
+            return countError;
+        }
+    }
+
+    // Inner class for activity histogram data
+    public static class GqlActivityBucket {
+        private final String start;
+        private final int created;
+        private final int modified;
+        private final int published;
+
+        public GqlActivityBucket(String start, int created, int modified, int published) {
+            this.start = start;
+            this.created = created;
+            this.modified = modified;
+            this.published = published;
+        }
+
+        @GraphQLField
+        @GraphQLDescription("First day of the period (yyyy-MM-dd, UTC)")
+        public String getStart() {
+            return start;
+        }
+
+        @GraphQLField
+        @GraphQLDescription("Number of editorial content items created in the period")
+        public int getCreated() {
+            return created;
+        }
+
+        @GraphQLField
+        @GraphQLDescription("Number of editorial content items last modified in the period")
+        public int getModified() {
+            return modified;
+        }
+
+        @GraphQLField
+        @GraphQLDescription("Number of nodes last published in the period")
+        public int getPublished() {
+            return published;
+        }
     }
 }
@@ -0,0 +1,123 @@
+package org.jahia.modules.contentreports.graphql;
+
+import graphql.annotations.annotationTypes.GraphQLDescription;
+import graphql.annotations.annotationTypes.GraphQLField;
+import graphql.annotations.annotationTypes.GraphQLName;
+import graphql.annotations.annotationTypes.GraphQLNonNull;
+import graphql.annotations.annotationTypes.GraphQLType;
+
+import java.util.List;
+
+/**
+ * GraphQL input type describing one report of a batch request.
+ */
+@GraphQLType
+@GraphQLName("ContentReportRequestInput")
+@GraphQLDescription("Report to execute in a batch request, with the same arguments as rawReport")
+public class GqlReportRequestInput {
+
+    private String reportId;
+    private List<GqlReportParameterInput> parameters;
+    private Integer offset;
+    private Integer limit;
+    private Integer sortColumn;
+    private String sortDirection;
+    private String cursor;
+
+    public GqlReportRequestInput() {
+    }
+
+    public GqlReportRequestInput(@GraphQLName("reportId") String reportId,
+                                 @GraphQLName("parameters") List<GqlReportParameterInput> parameters,
+                                 @GraphQLName("offset") Integer offset,
+                                 @GraphQLName("limit") Integer limit,
+                                 @GraphQLName("sortColumn") Integer sortColumn,
+                                 @GraphQLName("sortDirection") String sortDirection,
+                                 @GraphQLName("cursor") String cursor) {
+        this.reportId = reportId;
+        this.parameters = parameters;
+        this.offset = offset;
+        this.limit = limit;
+        this.sortColumn = sortColumn;
+        this.sortDirection = sortDirection;
+        this.cursor = cursor;
+    }
+
+    @GraphQLField
+    @GraphQLName("reportId")
+    @GraphQLNonNull
+    @GraphQLDescription("Identifier of the legacy report")
+    public String getReportId() {
+        return reportId;
+    }
+
+    @GraphQLField
+    @GraphQLName("parameters")
+    @GraphQLDescription("Parameters of the report")
+    public List<GqlReportParameterInput> getParameters() {
+        return parameters;
+    }
+
+    @GraphQLField
+    @GraphQLName("offset")
+    @GraphQLDescription("Index of the first row")
+    public Integer getOffset() {
+        return offset;
+    }
+
+    @GraphQLField
+    @GraphQLName("limit")
+    @GraphQLDescription("Number of rows of the page")
+    public Integer getLimit() {
+        return limit;
+    }
+
+    @GraphQLField
+    @GraphQLName("sortColumn")
+    @GraphQLDescription("Index of the column the rows are sorted by")
+    public Integer getSortColumn() {
+        return sortColumn;
+    }
+
+    @GraphQLField
+    @GraphQLName("sortDirection")
+    @GraphQLDescription("asc or desc")
+    public String getSortDirection() {
+        return sortDirection;
+    }
+
+    @GraphQLField
+    @GraphQLName("cursor")
+    @GraphQLDescription("Cursor returned as nextCursor by the previous page, replaces the offset")
+    public String getCursor() {
+        return cursor;
+    }
+
+    public void setReportId(String reportId) {
+        this.reportId = reportId;
+    }
+
+    public void setParameters(List<GqlReportParameterInput> parameters) {
+        this.parameters = parameters;
+    }
+
+    public void setOffset(Integer offset) {
+        this.offset = offset;
+    }
+
+    public void setLimit(Integer limit) {
+        this.limit = limit;
+    }
+
+    public void setSortColumn(Integer sortColumn) {
+        this.sortColumn = sortColumn;
+    }
+
+    public void setSortDirection(String sortDirection) {
+        this.sortDirection = sortDirection;
+    }
+
+    public void setCursor(String cursor) {
+        this.cursor = cursor;
+    }
+}
@@ -0,0 +1,46 @@
+package org.jahia.modules.contentreports.graphql;
+
+import graphql.annotations.annotationTypes.GraphQLDescription;
+import graphql.annotations.annotationTypes.GraphQLField;
+import graphql.annotations.annotationTypes.GraphQLName;
+
+@GraphQLName("ContentReportResult")
+@GraphQLDescription("Result of one report of a batch request")
+public class GqlReportResult {
+
+    private final String reportId;
+    private final String payload;
+    private final String error;
+
+    private GqlReportResult(String reportId, String payload, String error) {
+        this.reportId = reportId;
+        this.payload = payload;
+        this.error = error;
+    }
+
+    public static GqlReportResult success(String reportId, String payload) {
+        return new GqlReportResult(reportId, payload, null);
+    }
+
+    public static GqlReportResult failure(String reportId, String error) {
+        return new GqlReportResult(reportId, null, error);
+    }
+
+    @GraphQLField
+    @GraphQLDescription("Identifier of the report")
+    public String getReportId() {
+        return reportId;
+    }
+
+    @GraphQLField
+    @GraphQLDescription("JSON payload of the report, as returned by rawReport, null when it failed")
+    public String getPayload() {
+        return payload;
+    }
+
+    @GraphQLField
+    @GraphQLDescription("Error message when the report failed")
+    public String getError() {
+        return error;
+    }
+}
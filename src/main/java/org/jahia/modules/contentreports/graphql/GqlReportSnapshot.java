@@ -0,0 +1,57 @@
+package org.jahia.modules.contentreports.graphql;
+
+import graphql.annotations.annotationTypes.GraphQLDescription;
+import graphql.annotations.annotationTypes.GraphQLField;
+import graphql.annotations.annotationTypes.GraphQLName;
+import graphql.annotations.annotationTypes.GraphQLNonNull;
+import org.jahia.modules.contentreports.service.ReportSnapshotStore;
+
+import java.time.Instant;
+
+@GraphQLName("ContentReportSnapshot")
+@GraphQLDescription("Rows of a completed report stored on disk, read with contentReports.snapshot")
+public class GqlReportSnapshot {
+
+    private final ReportSnapshotStore.Entry entry;
+
+    public GqlReportSnapshot(ReportSnapshotStore.Entry entry) {
+        this.entry = entry;
+    }
+
+    @GraphQLField
+    @GraphQLNonNull
+    @GraphQLDescription("Identifier of the snapshot")
+    public String getId() {
+        return entry.getId();
+    }
+
+    @GraphQLField
+    @GraphQLDescription("Identifier of the report")
+    public String getReportId() {
+        return entry.getReportId();
+    }
+
+    @GraphQLField
+    @GraphQLDescription("Number of rows of the snapshot")
+    public int getRowCount() {
+        return entry.getRowCount();
+    }
+
+    @GraphQLField
+    @GraphQLDescription("Size of the snapshot file, in bytes")
+    public int getSize() {
+        return (int) Math.min(entry.getLength(), Integer.MAX_VALUE);
+    }
+
+    @GraphQLField
+    @GraphQLDescription("Date the snapshot was created")
+    public String getCreated() {
+        return Instant.ofEpochMilli(entry.getCreatedAt()).toString();
+    }
+
+    @GraphQLField
+    @GraphQLDescription("Date the snapshot expires")
+    public String getExpires() {
+        return Instant.ofEpochMilli(entry.getExpiresAt()).toString();
+    }
+}
@@ -0,0 +1,181 @@
+package org.jahia.modules.contentreports.service;
+/*
+ * ==========================================================================================
+ * =                            JAHIA'S ENTERPRISE DISTRIBUTION                             =
+ * ==========================================================================================
+ *
+ *                                  http://www.jahia.com
+ *
+ * JAHIA'S ENTERPRISE DISTRIBUTIONS LICENSING - IMPORTANT INFORMATION
+ * ==========================================================================================
+ *
+ *     Copyright (C) 2002-2020 Jahia Solutions Group. All rights reserved.
+ *
+ *     This file is part of a Jahia's Enterprise Distribution.
+ *
+ *     Jahia's Enterprise Distributions must be used in accordance with the terms
+ *     contained in the Jahia Solutions Group Terms &amp; Conditions as well as
+ *     the Jahia Sustainable Enterprise License (JSEL).
+ *
+ *     For questions regarding licensing, support, production usage...
+ *     please contact our team at sales@jahia.com or go to http://www.jahia.com/license.
+ *
+ * ==========================================================================================
+ */
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.text.DateFormat;
+import java.text.SimpleDateFormat;
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.TimeZone;
+
+/**
+ * The ActivityHistogramAccumulator class.
+ * <p>Counts the editorial contents created or modified, and the nodes published, per day, week or month
+ * of a range, in the same scan as the other overview metrics. The buckets are sized once from the range,
+ * each date is then counted with an index computation, so that any number of periods costs a single scan.</p>
+ */
+public class ActivityHistogramAccumulator implements OverviewAccumulator {
+
+    /* the largest number of buckets of a histogram, older periods are dropped beyond it */
+    public static final int MAX_BUCKETS = 1000;
+
+    private static final long DAY = 24L * 60 * 60 * 1000;
+    private static final TimeZone UTC = TimeZone.getTimeZone("UTC");
+
+    /**
+     * The size of the buckets, the weeks start on monday, all the periods start at midnight UTC.
+     */
+    public enum Granularity {DAY, WEEK, MONTH}
+
+    private final Granularity granularity;
+    /* the start of each bucket, followed by the end of the last one */
+    private final long[] bounds;
+    /* the width of the buckets, 0 when they do not all have the same width */
+    private final long width;
+    private final long[] created;
+    private final long[] modified;
+    private final long[] published;
+
+    /**
+     * Instantiates a new activity histogram.
+     *
+     * @param granularity the size of the buckets
+     * @param from        a date of the first bucket, in milliseconds
+     * @param to          a date of the last bucket, in milliseconds
+     */
+    public ActivityHistogramAccumulator(Granularity granularity, long from, long to) {
+        this.granularity = granularity;
+        Calendar end = getPeriodStart(granularity, Math.max(from, to));
+        next(granularity, end);
+        Calendar start = getPeriodStart(granularity, Math.min(from, to));
+        int count = 0;
+        Calendar current = (Calendar) start.clone();
+        while (current.before(end) && count < MAX_BUCKETS) {
+            next(granularity, current);
+            count++;
+        }
+        // the most recent periods are kept when the range is too large
+        current = (Calendar) end.clone();
+        long[] starts = new long[count + 1];
+        starts[count] = end.getTimeInMillis();
+        for (int i = count - 1; i >= 0; i--) {
+            previous(granularity, current);
+            starts[i] = current.getTimeInMillis();
+        }
+        this.bounds = starts;
+        this.width = granularity == Granularity.DAY ? DAY : granularity == Granularity.WEEK ? 7 * DAY : 0;
+        this.created = new long[count];
+        this.modified = new long[count];
+        this.published = new long[count];
+    }
+
+    private static Calendar getPeriodStart(Granularity granularity, long date) {
+        Calendar calendar = Calendar.getInstance(UTC);
+        calendar.setTimeInMillis(date);
+        calendar.set(Calendar.HOUR_OF_DAY, 0);
+        calendar.set(Calendar.MINUTE, 0);
+        calendar.set(Calendar.SECOND, 0);
+        calendar.set(Calendar.MILLISECOND, 0);
+        if (granularity == Granularity.WEEK) {
+            int shift = (calendar.get(Calendar.DAY_OF_WEEK) - Calendar.MONDAY + 7) % 7;
+            calendar.add(Calendar.DAY_OF_MONTH, -shift);
+        } else if (granularity == Granularity.MONTH) {
+            calendar.set(Calendar.DAY_OF_MONTH, 1);
+        }
+        return calendar;
+    }
+
+    private static void next(Granularity granularity, Calendar calendar) {
+        add(granularity, calendar, 1);
+    }
+
+    private static void previous(Granularity granularity, Calendar calendar) {
+        add(granularity, calendar, -1);
+    }
+
+    private static void add(Granularity granularity, Calendar calendar, int amount) {
+        switch (granularity) {
+            case WEEK:
+                calendar.add(Calendar.WEEK_OF_YEAR, amount);
+                break;
+            case MONTH:
+                calendar.add(Calendar.MONTH, amount);
+                break;
+            default:
+                calendar.add(Calendar.DAY_OF_MONTH, amount);
+        }
+    }
+
+    /* the bucket of a date, -1 when the date is out of the range */
+    private int getBucket(long date) {
+        int count = created.length;
+        if (date == OverviewNode.NO_DATE || count == 0 || date < bounds[0] || date >= bounds[count]) {
+            return -1;
+        }
+        if (width > 0) {
+            return (int) ((date - bounds[0]) / width);
+        }
+        int index = Arrays.binarySearch(bounds, date);
+        return index >= 0 ? index : -index - 2;
+    }
+
+    @Override
+    public void accumulate(OverviewNode node) {
+        int bucket;
+        if (node.isOfType(OverviewEngine.EDITORIAL_CONTENT)) {
+            if ((bucket = getBucket(node.getCreated())) >= 0) {
+                created[bucket]++;
+            }
+            if ((bucket = getBucket(node.getLastModified())) >= 0) {
+                modified[bucket]++;
+            }
+        }
+        if ((bucket = getBucket(node.getLastPublished())) >= 0) {
+            published[bucket]++;
+        }
+    }
+
+    @Override
+    public void fill(JSONObject jsonObject) throws JSONException {
+        DateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd");
+        dateFormat.setTimeZone(UTC);
+        JSONArray buckets = new JSONArray();
+        for (int i = 0; i < created.length; i++) {
+            JSONObject bucket = new JSONObject();
+            bucket.put("start", dateFormat.format(bounds[i]));
+            bucket.put("created", created[i]);
+            bucket.put("modified", modified[i]);
+            bucket.put("published", published[i]);
+            buckets.put(bucket);
+        }
+        JSONObject activity = new JSONObject();
+        activity.put("granularity", granularity.name());
+        activity.put("buckets", buckets);
+        jsonObject.put("activity", activity);
+    }
+}
@@ -30,11 +30,14 @@ import org.jahia.modules.contentreports.bean.ReportPagesWithoutTitle;
 import org.jahia.modules.contentreports.bean.ReportWipContent;
 import org.jahia.modules.contentreports.exception.ContentReportException;
 import org.jahia.services.content.decorator.JCRSiteNode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import java.util.Collections;
 import java.util.Map;
 
 public final class ContentReportFactory {
+    private static Logger logger = LoggerFactory.getLogger(ContentReportFactory.class);
 
     private ContentReportFactory() {
     }
@@ -52,7 +55,10 @@ public final class ContentReportFactory {
                         cleanPath(params.get("pathTxt")),
                         isPages(params.get("typeSearch")) ? BaseReport.SearchContentType.PAGE : BaseReport.SearchContentType.CONTENT,
                         isCreated(params.get("typeAuthor")) ? BaseReport.SearchActionType.CREATION : BaseReport.SearchActionType.UPDATE,
-                        true
+                        true,
+                        params.get("author"),
+                        sortCol,
+                        order
                 );
             case "2":
                 return new ReportByAllDate(
@@ -74,11 +80,11 @@ public final class ContentReportFactory {
             case "8":
                 return new ReportByLanguageDetailed(siteNode, params.get("reqLang"));
             case "10":
-                return new ReportPagesWithoutTitle(siteNode, params.get("language"));
+                return new ReportPagesWithoutTitle(siteNode, params.get("language"), order);
             case "11":
                 return new ReportPagesWithoutKeyword(siteNode, sortCol, order);
             case "12":
-                return new ReportPagesWithoutDescription(siteNode, params.get("language"));
+                return new ReportPagesWithoutDescription(siteNode, params.get("language"), order);
             case "13":
                 return new ReportContentFromAnotherSite(siteNode);
             case "14":
@@ -86,23 +92,21 @@ public final class ContentReportFactory {
             case "15":
                 return new ReportLockedContent(siteNode, sortCol, order);
             case "16":
-                return new ReportContentWaitingPublication(siteNode);
+                return new ReportContentWaitingPublication(siteNode, sortCol, order);
             case "17":
                 return new ReportOverview(siteNode);
             case "18":
                 return new ReportCustomCacheContent(siteNode, sortCol, order);
             case "19":
-                return new ReportAclInheritanceStopped(siteNode);
+                return new ReportAclInheritanceStopped(siteNode, sortCol, order);
             case "20":
-                System.out.println("[ContentReportFactory] Building report 20 with params: " + params);
-                System.out.println("[ContentReportFactory] pathTxt raw value: '" + params.get("pathTxt") + "'");
-                System.out.println("[ContentReportFactory] pathTxt cleaned value: '" + cleanPath(params.get("pathTxt")) + "'");
-                // Use typeAuthorSearch if typeAuthor is not provided (due to 5-parameter limit)
+                logger.debug("Building report 20 with params: {}", params);
+                // Use typeAuthorSearch if typeAuthor is not provided (clients of the former six name/value pairs did not send it)
                 String typeAuthorValue = params.get("typeAuthor");
                 if (typeAuthorValue == null || typeAuthorValue.isEmpty()) {
                     typeAuthorValue = params.getOrDefault("typeAuthorSearch", "created");
                 }
-                System.out.println("[ContentReportFactory] Using typeAuthor value: '" + typeAuthorValue + "'");
+                logger.debug("Using typeAuthor value: '{}'", typeAuthorValue);
                 return new ReportByDateAndAuthor(
                         siteNode,
                         isCreated(typeAuthorValue) ? BaseReport.SearchActionType.CREATION : BaseReport.SearchActionType.UPDATE,
@@ -124,7 +128,9 @@ public final class ContentReportFactory {
                         siteNode,
                         params.get("selectLanguageBU"),
                         cleanPath(params.get("pathTxt")),
-                        params.get("selectTypeSearch")
+                        params.get("selectTypeSearch"),
+                        sortCol,
+                        order
                 );
             case "22":
                 return new ReportWipContent(
@@ -149,16 +155,41 @@ public final class ContentReportFactory {
                         order
                 );
             case "25":
-                return new ReportLiveContents(siteNode, cleanPath(params.get("searchPath")));
+                return new ReportLiveContents(siteNode, cleanPath(params.get("searchPath")), sortCol, order);
             case "26":
-                return new ReportByExpiredContent(siteNode, cleanPath(params.get("searchPath")));
+                return new ReportByExpiredContent(siteNode, cleanPath(params.get("searchPath")), sortCol, order);
             case "27":
-                return new ReportByFutureContent(siteNode, cleanPath(params.get("searchPath")));
+                return new ReportByFutureContent(siteNode, cleanPath(params.get("searchPath")), sortCol, order);
             default:
                 throw new ContentReportException("Invalid reportId: " + reportId);
         }
     }
 
+    /**
+     * Returns the repository path under which a change can alter the result of a report,
+     * used to invalidate the cached results of the report.
+     */
+    public static String getInvalidationScope(String reportId, JCRSiteNode siteNode, Map<String, String> parameters) {
+        Map<String, String> params = parameters != null ? parameters : Collections.emptyMap();
+        String path;
+        switch (reportId) {
+            case "13":
+            case "14":
+            case "17":
+            case "23":
+                // depend on other sites, on the users or on two unrelated paths
+                return "/";
+            case "25":
+            case "26":
+            case "27":
+                path = cleanPath(params.get("searchPath"));
+                break;
+            default:
+                path = cleanPath(params.get("pathTxt"));
+        }
+        return StringUtils.isNotBlank(path) ? path : siteNode.getPath();
+    }
+
     private static boolean isPages(String value) {
         return StringUtils.equalsIgnoreCase(value, "pages");
     }
@@ -0,0 +1,248 @@
+package org.jahia.modules.contentreports.service;
+/*
+ * ==========================================================================================
+ * =                            JAHIA'S ENTERPRISE DISTRIBUTION                             =
+ * ==========================================================================================
+ *
+ *                                  http://www.jahia.com
+ *
+ * JAHIA'S ENTERPRISE DISTRIBUTIONS LICENSING - IMPORTANT INFORMATION
+ * ==========================================================================================
+ *
+ *     Copyright (C) 2002-2020 Jahia Solutions Group. All rights reserved.
+ *
+ *     This file is part of a Jahia's Enterprise Distribution.
+ *
+ *     Jahia's Enterprise Distributions must be used in accordance with the terms
+ *     contained in the Jahia Solutions Group Terms &amp; Conditions as well as
+ *     the Jahia Sustainable Enterprise License (JSEL).
+ *
+ *     For questions regarding licensing, support, production usage...
+ *     please contact our team at sales@jahia.com or go to http://www.jahia.com/license.
+ *
+ * ==========================================================================================
+ */
+
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * The ContributorAccumulator class.
+ * <p>Counts the editorial contents created, or last modified, by each author and keeps the top contributors.
+ * In exact mode every author is counted and the top ones are selected with a heap of the requested size.
+ * In approximate mode a Space-Saving summary monitors a bounded number of authors: an author which is not
+ * monitored replaces the least counted one and inherits its count, which is then its maximum error. The memory
+ * stays proportional to the number of contributors requested whatever the number of authors of the site.</p>
+ */
+public class ContributorAccumulator implements OverviewAccumulator {
+
+    /* the number of authors monitored per requested contributor in approximate mode */
+    public static final int CAPACITY_FACTOR = 10;
+
+    /**
+     * The property counted for each author.
+     */
+    public enum Role {CREATED_BY, LAST_MODIFIED_BY}
+
+    private final int topLimit;
+    private final Role role;
+    private final boolean approximate;
+    /* the exact counters, null in approximate mode */
+    private final Map<String, int[]> counters;
+    /* the Space-Saving summary, a min-heap on the counts, null in exact mode */
+    private final String[] names;
+    private final int[] counts;
+    private final int[] errors;
+    private final Map<String, Integer> positions;
+    private int size;
+
+    /**
+     * Instantiates a new exact contributor accumulator on the authors of the contents.
+     *
+     * @param topLimit the number of contributors kept in the overview
+     */
+    public ContributorAccumulator(int topLimit) {
+        this(topLimit, Role.CREATED_BY, false);
+    }
+
+    /**
+     * Instantiates a new contributor accumulator.
+     *
+     * @param topLimit    the number of contributors kept in the overview
+     * @param role        the property counted for each author
+     * @param approximate true to count with a bounded Space-Saving summary
+     */
+    public ContributorAccumulator(int topLimit, Role role, boolean approximate) {
+        this.topLimit = Math.max(1, topLimit);
+        this.role = role;
+        this.approximate = approximate;
+        if (approximate) {
+            int capacity = this.topLimit * CAPACITY_FACTOR;
+            this.counters = null;
+            this.names = new String[capacity];
+            this.counts = new int[capacity];
+            this.errors = new int[capacity];
+            this.positions = new HashMap<>(capacity * 2);
+        } else {
+            this.counters = new HashMap<>();
+            this.names = null;
+            this.counts = null;
+            this.errors = null;
+            this.positions = null;
+        }
+    }
+
+    @Override
+    public void accumulate(OverviewNode node) {
+        String author = role == Role.LAST_MODIFIED_BY ? node.getLastModifiedBy() : node.getCreatedBy();
+        if (node.isOfType(OverviewEngine.EDITORIAL_CONTENT) && author != null && !author.isEmpty()) {
+            if (approximate) {
+                offer(author);
+            } else {
+                int[] counter = counters.get(author);
+                if (counter == null) {
+                    counters.put(author, new int[]{1});
+                } else {
+                    counter[0]++;
+                }
+            }
+        }
+    }
+
+    /**
+     * offer
+     * <p>count an author in the Space-Saving summary, the least counted author is replaced
+     * when the author is not monitored and the summary is full.</p>
+     *
+     * @param author the author
+     */
+    private void offer(String author) {
+        Integer position = positions.get(author);
+        if (position != null) {
+            counts[position]++;
+            siftDown(position);
+        } else if (size < names.length) {
+            names[size] = author;
+            counts[size] = 1;
+            errors[size] = 0;
+            positions.put(author, size);
+            siftUp(size++);
+        } else {
+            positions.remove(names[0]);
+            names[0] = author;
+            errors[0] = counts[0];
+            counts[0]++;
+            positions.put(author, 0);
+            siftDown(0);
+        }
+    }
+
+    private void siftUp(int index) {
+        while (index > 0) {
+            int parent = (index - 1) / 2;
+            if (counts[parent] <= counts[index]) {
+                return;
+            }
+            swap(parent, index);
+            index = parent;
+        }
+    }
+
+    private void siftDown(int index) {
+        while (true) {
+            int smallest = index;
+            int left = 2 * index + 1;
+            int right = left + 1;
+            if (left < size && counts[left] < counts[smallest]) {
+                smallest = left;
+            }
+            if (right < size && counts[right] < counts[smallest]) {
+                smallest = right;
+            }
+            if (smallest == index) {
+                return;
+            }
+            swap(smallest, index);
+            index = smallest;
+        }
+    }
+
+    private void swap(int i, int j) {
+        String name = names[i];
+        int count = counts[i];
+        int error = errors[i];
+        names[i] = names[j];
+        counts[i] = counts[j];
+        errors[i] = errors[j];
+        names[j] = name;
+        counts[j] = count;
+        errors[j] = error;
+        positions.put(names[i], i);
+        positions.put(names[j], j);
+    }
+
+    @Override
+    public void fill(JSONObject jsonObject) throws JSONException {
+        /* a min-heap of the top contributors, the least counted one is evicted first */
+        PriorityQueue<Contributor> top = new PriorityQueue<>(topLimit + 1, (c1, c2) -> {
+            int result = Integer.compare(c1.count, c2.count);
+            return result != 0 ? result : c2.name.compareTo(c1.name);
+        });
+        if (approximate) {
+            for (int i = 0; i < size; i++) {
+                offerTop(top, new Contributor(names[i], counts[i], errors[i]));
+            }
+        } else {
+            for (Map.Entry<String, int[]> entry : counters.entrySet()) {
+                offerTop(top, new Contributor(entry.getKey(), entry.getValue()[0], 0));
+            }
+        }
+
+        List<Map<String, Object>> topContributors = new ArrayList<>(top.size());
+        while (!top.isEmpty()) {
+            Contributor entry = top.poll();
+            Map<String, Object> contributor = new HashMap<>();
+            contributor.put("username", entry.name);
+            contributor.put("contentCount", entry.count);
+            contributor.put("countError", entry.error);
+            topContributors.add(0, contributor);
+        }
+        jsonObject.put("topContributors", topContributors);
+        jsonObject.put("topContributorsRole", role.name());
+        jsonObject.put("topContributorsApproximate", approximate);
+    }
+
+    private void offerTop(PriorityQueue<Contributor> top, Contributor entry) {
+        top.add(entry);
+        if (top.size() > topLimit) {
+            top.poll();
+        }
+    }
+
+    /**
+     * getAuthorCount
+     *
+     * @return the number of authors counted, at most the capacity of the summary in approximate mode
+     */
+    public int getAuthorCount() {
+        return approximate ? size : counters.size();
+    }
+
+    private static final class Contributor {
+        private final String name;
+        private final int count;
+        private final int error;
+
+        private Contributor(String name, int count, int error) {
+            this.name = name;
+            this.count = count;
+            this.error = error;
+        }
+    }
+}
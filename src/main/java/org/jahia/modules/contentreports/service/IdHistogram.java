@@ -0,0 +1,111 @@
+package org.jahia.modules.contentreports.service;
+/*
+ * ==========================================================================================
+ * =                            JAHIA'S ENTERPRISE DISTRIBUTION                             =
+ * ==========================================================================================
+ *
+ *                                  http://www.jahia.com
+ *
+ * JAHIA'S ENTERPRISE DISTRIBUTIONS LICENSING - IMPORTANT INFORMATION
+ * ==========================================================================================
+ *
+ *     Copyright (C) 2002-2020 Jahia Solutions Group. All rights reserved.
+ *
+ *     This file is part of a Jahia's Enterprise Distribution.
+ *
+ *     Jahia's Enterprise Distributions must be used in accordance with the terms
+ *     contained in the Jahia Solutions Group Terms &amp; Conditions as well as
+ *     the Jahia Sustainable Enterprise License (JSEL).
+ *
+ *     For questions regarding licensing, support, production usage...
+ *     please contact our team at sales@jahia.com or go to http://www.jahia.com/license.
+ *
+ * ==========================================================================================
+ */
+
+import java.util.Arrays;
+
+/**
+ * The IdHistogram class.
+ * <p>Counters indexed by the ids of a {@link StringPool}, in an int array growing with the ids.</p>
+ */
+public final class IdHistogram {
+    private int[] counts;
+    private int total;
+
+    public IdHistogram() {
+        this(16);
+    }
+
+    /**
+     * Instantiates a new histogram.
+     *
+     * @param capacity the expected number of ids, {@link StringPool#size()} usually
+     */
+    public IdHistogram(int capacity) {
+        this.counts = new int[Math.max(capacity, 1)];
+    }
+
+    /**
+     * add
+     *
+     * @param id the id to count, {@link StringPool#NONE} is ignored
+     */
+    public void add(int id) {
+        if (id < 0) {
+            return;
+        }
+        if (id >= counts.length) {
+            counts = Arrays.copyOf(counts, Math.max(id + 1, counts.length * 2));
+        }
+        counts[id]++;
+        total++;
+    }
+
+    /**
+     * get
+     *
+     * @param id an id
+     * @return the count of the id
+     */
+    public int get(int id) {
+        return id >= 0 && id < counts.length ? counts[id] : 0;
+    }
+
+    /**
+     * getTotal
+     *
+     * @return the sum of the counts
+     */
+    public int getTotal() {
+        return total;
+    }
+
+    /**
+     * getIds
+     *
+     * @return the ids counted at least once, the highest counts first
+     */
+    public int[] getIds() {
+        int found = 0;
+        for (int count : counts) {
+            if (count > 0) {
+                found++;
+            }
+        }
+        // count in the high bits and id in the low bits, so that one sort orders by count then id
+        long[] keys = new long[found];
+        int index = 0;
+        for (int id = 0; id < counts.length; id++) {
+            if (counts[id] > 0) {
+                keys[index++] = ((long) counts[id] << 32) | (Integer.MAX_VALUE - id);
+            }
+        }
+        Arrays.sort(keys);
+        int[] ids = new int[found];
+        for (int i = 0; i < found; i++) {
+            ids[i] = Integer.MAX_VALUE - (int) keys[found - 1 - i];
+        }
+        return ids;
+    }
+}
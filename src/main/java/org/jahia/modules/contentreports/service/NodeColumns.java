@@ -0,0 +1,188 @@
+package org.jahia.modules.contentreports.service;
+/*
+ * ==========================================================================================
+ * =                            JAHIA'S ENTERPRISE DISTRIBUTION                             =
+ * ==========================================================================================
+ *
+ *                                  http://www.jahia.com
+ *
+ * JAHIA'S ENTERPRISE DISTRIBUTIONS LICENSING - IMPORTANT INFORMATION
+ * ==========================================================================================
+ *
+ *     Copyright (C) 2002-2020 Jahia Solutions Group. All rights reserved.
+ *
+ *     This file is part of a Jahia's Enterprise Distribution.
+ *
+ *     Jahia's Enterprise Distributions must be used in accordance with the terms
+ *     contained in the Jahia Solutions Group Terms &amp; Conditions as well as
+ *     the Jahia Sustainable Enterprise License (JSEL).
+ *
+ *     For questions regarding licensing, support, production usage...
+ *     please contact our team at sales@jahia.com or go to http://www.jahia.com/license.
+ *
+ * ==========================================================================================
+ */
+
+import java.util.Arrays;
+
+/**
+ * The NodeColumns class.
+ * <p>The summaries of the nodes under a path, in one primitive array per value: the names as ids of the
+ * {@link StringPool} of the site, the dates as longs ({@link OverviewNode#NO_DATE} when unknown). The
+ * aggregating reports scan these arrays rather than the summaries.</p>
+ * <p>The columns are a snapshot taken from the {@link ReportIndex}, they never change once built,
+ * the arrays returned must not be modified.</p>
+ */
+public final class NodeColumns {
+    public static final byte PUBLISHED = 1;
+    public static final byte LOCKED = 1 << 1;
+
+    private final StringPool names;
+    private final long version;
+    private int size;
+    private int[] typeMasks;
+    private int[] primaryTypes;
+    private int[] createdBy;
+    private int[] lastModifiedBy;
+    private int[] workInProgressStatuses;
+    private int[] languages;
+    private long[] created;
+    private long[] lastModified;
+    private long[] lastPublished;
+    private byte[] flags;
+
+    private NodeColumns(StringPool names, long version, int capacity) {
+        this.names = names;
+        this.version = version;
+        this.typeMasks = new int[capacity];
+        this.primaryTypes = new int[capacity];
+        this.createdBy = new int[capacity];
+        this.lastModifiedBy = new int[capacity];
+        this.workInProgressStatuses = new int[capacity];
+        this.languages = new int[capacity];
+        this.created = new long[capacity];
+        this.lastModified = new long[capacity];
+        this.lastPublished = new long[capacity];
+        this.flags = new byte[capacity];
+    }
+
+    /**
+     * of
+     *
+     * @param names     the pool of the ids of the summaries
+     * @param summaries the summaries to copy
+     * @param version   the version of the index the summaries are read from
+     * @return the columns of the summaries, in their order
+     */
+    static NodeColumns of(StringPool names, Iterable<NodeSummary> summaries, long version) {
+        NodeColumns columns = new NodeColumns(names, version, 1024);
+        for (NodeSummary summary : summaries) {
+            columns.add(summary);
+        }
+        return columns;
+    }
+
+    private void add(NodeSummary summary) {
+        if (size == typeMasks.length) {
+            grow(size * 2);
+        }
+        typeMasks[size] = summary.typeMask;
+        primaryTypes[size] = summary.primaryType;
+        createdBy[size] = summary.createdBy;
+        lastModifiedBy[size] = summary.lastModifiedBy;
+        workInProgressStatuses[size] = summary.workInProgressStatus;
+        languages[size] = summary.language;
+        created[size] = summary.created;
+        lastModified[size] = summary.lastModified;
+        lastPublished[size] = summary.lastPublished;
+        flags[size] = (byte) ((summary.published ? PUBLISHED : 0) | (summary.locked ? LOCKED : 0));
+        size++;
+    }
+
+    private void grow(int capacity) {
+        typeMasks = Arrays.copyOf(typeMasks, capacity);
+        primaryTypes = Arrays.copyOf(primaryTypes, capacity);
+        createdBy = Arrays.copyOf(createdBy, capacity);
+        lastModifiedBy = Arrays.copyOf(lastModifiedBy, capacity);
+        workInProgressStatuses = Arrays.copyOf(workInProgressStatuses, capacity);
+        languages = Arrays.copyOf(languages, capacity);
+        created = Arrays.copyOf(created, capacity);
+        lastModified = Arrays.copyOf(lastModified, capacity);
+        lastPublished = Arrays.copyOf(lastPublished, capacity);
+        flags = Arrays.copyOf(flags, capacity);
+    }
+
+    long getVersion() {
+        return version;
+    }
+
+    /**
+     * getNames
+     *
+     * @return the pool giving the strings of the name ids of the columns
+     */
+    public StringPool getNames() {
+        return names;
+    }
+
+    /**
+     * size
+     *
+     * @return the number of nodes, the arrays may be longer
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * isOfType
+     *
+     * @param row  a row, lower than {@link #size()}
+     * @param mask a combination of the {@link OverviewEngine} type flags
+     * @return true when the node of the row is of one of the types
+     */
+    public boolean isOfType(int row, int mask) {
+        return (typeMasks[row] & mask) != 0;
+    }
+
+    public int[] getPrimaryTypes() {
+        return primaryTypes;
+    }
+
+    public int[] getCreatedBy() {
+        return createdBy;
+    }
+
+    public int[] getLastModifiedBy() {
+        return lastModifiedBy;
+    }
+
+    public int[] getWorkInProgressStatuses() {
+        return workInProgressStatuses;
+    }
+
+    public int[] getLanguages() {
+        return languages;
+    }
+
+    public long[] getCreated() {
+        return created;
+    }
+
+    public long[] getLastModified() {
+        return lastModified;
+    }
+
+    public long[] getLastPublished() {
+        return lastPublished;
+    }
+
+    /**
+     * getFlags
+     *
+     * @return the {@link #PUBLISHED} and {@link #LOCKED} flags of the nodes
+     */
+    public byte[] getFlags() {
+        return flags;
+    }
+}
@@ -0,0 +1,128 @@
+package org.jahia.modules.contentreports.service;
+/*
+ * ==========================================================================================
+ * =                            JAHIA'S ENTERPRISE DISTRIBUTION                             =
+ * ==========================================================================================
+ *
+ *                                  http://www.jahia.com
+ *
+ * JAHIA'S ENTERPRISE DISTRIBUTIONS LICENSING - IMPORTANT INFORMATION
+ * ==========================================================================================
+ *
+ *     Copyright (C) 2002-2020 Jahia Solutions Group. All rights reserved.
+ *
+ *     This file is part of a Jahia's Enterprise Distribution.
+ *
+ *     Jahia's Enterprise Distributions must be used in accordance with the terms
+ *     contained in the Jahia Solutions Group Terms &amp; Conditions as well as
+ *     the Jahia Sustainable Enterprise License (JSEL).
+ *
+ *     For questions regarding licensing, support, production usage...
+ *     please contact our team at sales@jahia.com or go to http://www.jahia.com/license.
+ *
+ * ==========================================================================================
+ */
+
+/**
+ * The NodeSummary class.
+ * <p>The values of one node kept by the {@link ReportIndex}. The names (node type, users, status,
+ * language) are kept as ids of the {@link StringPool} of the site, and a summary is replaced,
+ * never modified, when its node changes.</p>
+ */
+public final class NodeSummary {
+
+    final StringPool names;
+    final String path;
+    final int primaryType;
+    final int typeMask;
+    final long created;
+    final long lastModified;
+    final long lastPublished;
+    final boolean published;
+    final boolean locked;
+    final int createdBy;
+    final int lastModifiedBy;
+    final int workInProgressStatus;
+    final int language;
+
+    NodeSummary(StringPool names, String path, int primaryType, int typeMask, long created, long lastModified, long lastPublished,
+                boolean published, boolean locked, int createdBy, int lastModifiedBy, int workInProgressStatus,
+                int language) {
+        this.names = names;
+        this.path = path;
+        this.primaryType = primaryType;
+        this.typeMask = typeMask;
+        this.created = created;
+        this.lastModified = lastModified;
+        this.lastPublished = lastPublished;
+        this.published = published;
+        this.locked = locked;
+        this.createdBy = createdBy;
+        this.lastModifiedBy = lastModifiedBy;
+        this.workInProgressStatus = workInProgressStatus;
+        this.language = language;
+    }
+
+    public String getPath() {
+        return path;
+    }
+
+    public String getName() {
+        return path.substring(path.lastIndexOf('/') + 1);
+    }
+
+    public String getPrimaryType() {
+        return names.get(primaryType);
+    }
+
+    /**
+     * isOfType
+     *
+     * @param mask a combination of the {@link OverviewEngine} type flags
+     * @return true when the node is of one of the types
+     */
+    public boolean isOfType(int mask) {
+        return (typeMask & mask) != 0;
+    }
+
+    public long getCreated() {
+        return created;
+    }
+
+    public long getLastModified() {
+        return lastModified;
+    }
+
+    public long getLastPublished() {
+        return lastPublished;
+    }
+
+    public boolean isPublished() {
+        return published;
+    }
+
+    public boolean isLocked() {
+        return locked;
+    }
+
+    public String getCreatedBy() {
+        return names.get(createdBy);
+    }
+
+    public String getLastModifiedBy() {
+        return names.get(lastModifiedBy);
+    }
+
+    public String getWorkInProgressStatus() {
+        return names.get(workInProgressStatus);
+    }
+
+    /**
+     * getLanguage
+     *
+     * @return the language of a translation node, null for the other nodes
+     */
+    public String getLanguage() {
+        return names.get(language);
+    }
+}
@@ -0,0 +1,51 @@
+package org.jahia.modules.contentreports.service;
+/*
+ * ==========================================================================================
+ * =                            JAHIA'S ENTERPRISE DISTRIBUTION                             =
+ * ==========================================================================================
+ *
+ *                                  http://www.jahia.com
+ *
+ * JAHIA'S ENTERPRISE DISTRIBUTIONS LICENSING - IMPORTANT INFORMATION
+ * ==========================================================================================
+ *
+ *     Copyright (C) 2002-2020 Jahia Solutions Group. All rights reserved.
+ *
+ *     This file is part of a Jahia's Enterprise Distribution.
+ *
+ *     Jahia's Enterprise Distributions must be used in accordance with the terms
+ *     contained in the Jahia Solutions Group Terms &amp; Conditions as well as
+ *     the Jahia Sustainable Enterprise License (JSEL).
+ *
+ *     For questions regarding licensing, support, production usage...
+ *     please contact our team at sales@jahia.com or go to http://www.jahia.com/license.
+ *
+ * ==========================================================================================
+ */
+
+import org.json.JSONException;
+import org.json.JSONObject;
+
+/**
+ * The OverviewAccumulator interface.
+ * <p>Receives every node visited by the {@link OverviewEngine} scan and contributes
+ * its metrics to the overview json once the scan is over.</p>
+ */
+public interface OverviewAccumulator {
+
+    /**
+     * accumulate
+     *
+     * @param node the node currently visited, only valid during the call {@link OverviewNode}
+     */
+    void accumulate(OverviewNode node);
+
+    /**
+     * fill
+     * <p>put the accumulated metrics in the overview json.</p>
+     *
+     * @param jsonObject {@link JSONObject}
+     * @throws JSONException
+     */
+    void fill(JSONObject jsonObject) throws JSONException;
+}
@@ -0,0 +1,304 @@
+package org.jahia.modules.contentreports.service;
+/*
+ * ==========================================================================================
+ * =                            JAHIA'S ENTERPRISE DISTRIBUTION                             =
+ * ==========================================================================================
+ *
+ *                                  http://www.jahia.com
+ *
+ * JAHIA'S ENTERPRISE DISTRIBUTIONS LICENSING - IMPORTANT INFORMATION
+ * ==========================================================================================
+ *
+ *     Copyright (C) 2002-2020 Jahia Solutions Group. All rights reserved.
+ *
+ *     This file is part of a Jahia's Enterprise Distribution.
+ *
+ *     Jahia's Enterprise Distributions must be used in accordance with the terms
+ *     contained in the Jahia Solutions Group Terms &amp; Conditions as well as
+ *     the Jahia Sustainable Enterprise License (JSEL).
+ *
+ *     For questions regarding licensing, support, production usage...
+ *     please contact our team at sales@jahia.com or go to http://www.jahia.com/license.
+ *
+ * ==========================================================================================
+ */
+
+import org.jahia.services.content.JCRSessionWrapper;
+import org.jahia.services.content.nodetypes.ExtendedNodeType;
+import org.jahia.services.content.nodetypes.NodeTypeRegistry;
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.jcr.Node;
+import javax.jcr.RepositoryException;
+import javax.jcr.Value;
+import javax.jcr.nodetype.NoSuchNodeTypeException;
+import javax.jcr.nodetype.NodeType;
+import javax.jcr.query.Query;
+import javax.jcr.query.Row;
+import javax.jcr.query.RowIterator;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The OverviewEngine class.
+ * <p>Computes the overview metrics of a site with a single projection query over the
+ * nodes of the site: every row is read once and handed to all the registered
+ * {@link OverviewAccumulator}, instead of running one query per metric.</p>
+ * <p>The node types are resolved from the primary type name of the row through the
+ * node type registry, once per primary type. The multi-valued jcr:mixinTypes can not be read
+ * from the projected row: the nodes getting a type as a mixin, jmix:editorialContent added at
+ * runtime for instance, are read by a query on jcr:mixinTypes before the scan.</p>
+ */
+public class OverviewEngine {
+    private static Logger logger = LoggerFactory.getLogger(OverviewEngine.class);
+
+    public static final int PAGE = 1;
+    public static final int CONTENT = 1 << 1;
+    public static final int EDITORIAL_CONTENT = 1 << 2;
+    public static final int FILE = 1 << 3;
+
+    private static final String[] TYPE_NAMES = {"jnt:page", "jnt:content", "jmix:editorialContent", "jnt:file"};
+
+    private final String searchPath;
+    private final List<OverviewAccumulator> accumulators;
+    private final Map<String, Integer> typeMasks;
+    private long nodesVisited;
+
+    /**
+     * Instantiates a new overview engine.
+     *
+     * @param searchPath the path of the scanned subtree
+     */
+    public OverviewEngine(String searchPath) {
+        this.searchPath = searchPath;
+        this.accumulators = new ArrayList<>();
+        this.typeMasks = new HashMap<>();
+    }
+
+    /**
+     * add
+     *
+     * @param accumulator {@link OverviewAccumulator}
+     * @return this engine
+     */
+    public OverviewEngine add(OverviewAccumulator accumulator) {
+        accumulators.add(accumulator);
+        return this;
+    }
+
+    /**
+     * run
+     * <p>scan the subtree and feed each row to the accumulators.</p>
+     *
+     * @param session {@link JCRSessionWrapper}
+     * @throws RepositoryException
+     */
+    public void run(JCRSessionWrapper session) throws RepositoryException {
+        ReportIndex.SiteIndex index = ReportIndex.getReadyIndex(session, searchPath);
+        if (index != null) {
+            run(index);
+            return;
+        }
+        // acl nodes never carry any of the projected metrics, they are left out of the scan
+        String queryStr = "SELECT item.[jcr:primaryType] AS primaryType, item.[jcr:created] AS created, " +
+                "item.[jcr:lastModified] AS lastModified, item.[j:lastPublished] AS lastPublished, " +
+                "item.[j:published] AS published, item.[jcr:createdBy] AS createdBy, " +
+                "item.[jcr:lastModifiedBy] AS lastModifiedBy " +
+                "FROM [nt:base] AS item WHERE ISDESCENDANTNODE(item,['" + searchPath + "']) " +
+                "AND item.[jcr:primaryType] <> 'jnt:acl' AND item.[jcr:primaryType] <> 'jnt:ace'";
+        Map<String, Integer> mixinTypeMasks = getMixinTypeMasks(session, searchPath);
+        RowIterator rows = session.getWorkspace().getQueryManager().createQuery(queryStr, Query.JCR_SQL2).execute().getRows();
+
+        OverviewNode node = new OverviewNode();
+        while (rows.hasNext()) {
+            Row row = rows.nextRow();
+            node.reset();
+            node.primaryType = getString(row, "primaryType");
+            node.typeMask = getTypeMask(node.primaryType) | mixinTypeMasks.getOrDefault(row.getPath(), 0);
+            node.created = getDate(row, "created");
+            node.lastModified = getDate(row, "lastModified");
+            node.lastPublished = getDate(row, "lastPublished");
+            node.published = getBoolean(row, "published");
+            node.createdBy = getString(row, "createdBy");
+            node.lastModifiedBy = getString(row, "lastModifiedBy");
+            for (OverviewAccumulator accumulator : accumulators) {
+                accumulator.accumulate(node);
+            }
+            nodesVisited++;
+        }
+        logger.debug("Overview scan of {} visited {} nodes", searchPath, nodesVisited);
+    }
+
+    /* same scan, read from the summaries of the report index */
+    private void run(ReportIndex.SiteIndex index) {
+        OverviewNode node = new OverviewNode();
+        for (NodeSummary summary : index.getDescendants(searchPath)) {
+            node.reset();
+            node.primaryType = summary.getPrimaryType();
+            node.typeMask = summary.typeMask;
+            node.created = summary.created;
+            node.lastModified = summary.lastModified;
+            node.lastPublished = summary.lastPublished;
+            node.published = summary.published;
+            node.createdBy = summary.getCreatedBy();
+            node.lastModifiedBy = summary.getLastModifiedBy();
+            for (OverviewAccumulator accumulator : accumulators) {
+                accumulator.accumulate(node);
+            }
+            nodesVisited++;
+        }
+        logger.debug("Overview of {} read {} nodes from the report index", searchPath, nodesVisited);
+    }
+
+    /**
+     * fill
+     * <p>put the metrics of all the accumulators in the overview json.</p>
+     *
+     * @param jsonObject {@link JSONObject}
+     * @throws JSONException
+     */
+    public void fill(JSONObject jsonObject) throws JSONException {
+        for (OverviewAccumulator accumulator : accumulators) {
+            accumulator.fill(jsonObject);
+        }
+    }
+
+    public long getNodesVisited() {
+        return nodesVisited;
+    }
+
+    private int getTypeMask(String primaryType) {
+        if (primaryType == null) {
+            return 0;
+        }
+        return typeMasks.computeIfAbsent(primaryType, OverviewEngine::computeTypeMask);
+    }
+
+    /**
+     * computeTypeMask
+     *
+     * @param primaryType the primary node type name
+     * @return the type flags of the node type, 0 for an unknown node type
+     */
+    static int computeTypeMask(String primaryType) {
+        try {
+            return computeTypeMask(NodeTypeRegistry.getInstance().getNodeType(primaryType));
+        } catch (NoSuchNodeTypeException e) {
+            logger.debug("Unknown node type " + primaryType, e);
+            return 0;
+        }
+    }
+
+    /**
+     * computeTypeMask
+     *
+     * @param nodeType a node type
+     * @return the type flags of the node type
+     */
+    static int computeTypeMask(NodeType nodeType) {
+        int mask = 0;
+        for (int i = 0; i < TYPE_NAMES.length; i++) {
+            if (nodeType.isNodeType(TYPE_NAMES[i])) {
+                mask |= 1 << i;
+            }
+        }
+        return mask;
+    }
+
+    /**
+     * computeMixinTypeMask
+     *
+     * @param node a node
+     * @return the type flags the node gets from its mixins
+     * @throws RepositoryException
+     */
+    static int computeMixinTypeMask(Node node) throws RepositoryException {
+        int mask = 0;
+        for (NodeType mixin : node.getMixinNodeTypes()) {
+            mask |= computeTypeMask(mixin);
+        }
+        return mask;
+    }
+
+    /**
+     * getMixinTypeMasks
+     * <p>the type flags the nodes of a subtree get from their mixins, read with one query on
+     * jcr:mixinTypes per type having mixin subtypes.</p>
+     *
+     * @param session {@link JCRSessionWrapper}
+     * @param path    the path of the subtree
+     * @return the flags by path, only for the nodes having one of the types as a mixin
+     * @throws RepositoryException
+     */
+    static Map<String, Integer> getMixinTypeMasks(JCRSessionWrapper session, String path) throws RepositoryException {
+        Map<String, Integer> masks = new HashMap<>();
+        for (int i = 0; i < TYPE_NAMES.length; i++) {
+            List<String> mixinNames = getMixinNames(TYPE_NAMES[i]);
+            if (mixinNames.isEmpty()) {
+                continue;
+            }
+            StringBuilder queryStr = new StringBuilder("SELECT item.[jcr:primaryType] AS primaryType FROM [nt:base] AS item ")
+                    .append("WHERE ISDESCENDANTNODE(item,['").append(path.replace("'", "''")).append("']) AND (");
+            for (int j = 0; j < mixinNames.size(); j++) {
+                queryStr.append(j > 0 ? " OR " : "").append("item.[jcr:mixinTypes] = '").append(mixinNames.get(j)).append("'");
+            }
+            queryStr.append(")");
+            RowIterator rows = session.getWorkspace().getQueryManager().createQuery(queryStr.toString(), Query.JCR_SQL2).execute().getRows();
+            while (rows.hasNext()) {
+                masks.merge(rows.nextRow().getPath(), 1 << i, (first, second) -> first | second);
+            }
+        }
+        return masks;
+    }
+
+    /* the type itself when it is a mixin, and its mixin subtypes */
+    private static List<String> getMixinNames(String typeName) {
+        List<String> names = new ArrayList<>();
+        try {
+            ExtendedNodeType nodeType = NodeTypeRegistry.getInstance().getNodeType(typeName);
+            if (nodeType.isMixin()) {
+                names.add(typeName);
+            }
+            for (ExtendedNodeType subtype : nodeType.getSubtypesAsList()) {
+                if (subtype.isMixin()) {
+                    names.add(subtype.getName());
+                }
+            }
+        } catch (NoSuchNodeTypeException e) {
+            logger.debug("Unknown node type " + typeName, e);
+        }
+        return names;
+    }
+
+    private static String getString(Row row, String column) {
+        try {
+            Value value = row.getValue(column);
+            return value != null ? value.getString() : null;
+        } catch (RepositoryException e) {
+            return null;
+        }
+    }
+
+    private static long getDate(Row row, String column) {
+        try {
+            Value value = row.getValue(column);
+            return value != null ? value.getDate().getTimeInMillis() : OverviewNode.NO_DATE;
+        } catch (RepositoryException e) {
+            return OverviewNode.NO_DATE;
+        }
+    }
+
+    private static boolean getBoolean(Row row, String column) {
+        try {
+            Value value = row.getValue(column);
+            return value != null && value.getBoolean();
+        } catch (RepositoryException e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package org.jahia.modules.contentreports.service;
+/*
+ * ==========================================================================================
+ * =                            JAHIA'S ENTERPRISE DISTRIBUTION                             =
+ * ==========================================================================================
+ *
+ *                                  http://www.jahia.com
+ *
+ * JAHIA'S ENTERPRISE DISTRIBUTIONS LICENSING - IMPORTANT INFORMATION
+ * ==========================================================================================
+ *
+ *     Copyright (C) 2002-2020 Jahia Solutions Group. All rights reserved.
+ *
+ *     This file is part of a Jahia's Enterprise Distribution.
+ *
+ *     Jahia's Enterprise Distributions must be used in accordance with the terms
+ *     contained in the Jahia Solutions Group Terms &amp; Conditions as well as
+ *     the Jahia Sustainable Enterprise License (JSEL).
+ *
+ *     For questions regarding licensing, support, production usage...
+ *     please contact our team at sales@jahia.com or go to http://www.jahia.com/license.
+ *
+ * ==========================================================================================
+ */
+
+/**
+ * The OverviewNode class.
+ * <p>The projected values of one row of the overview scan. A single instance is
+ * reused for the whole scan, accumulators must not keep a reference to it.</p>
+ */
+public class OverviewNode {
+
+    /** date value of a property which is not set on the node */
+    public static final long NO_DATE = Long.MIN_VALUE;
+
+    String primaryType;
+    int typeMask;
+    long created;
+    long lastModified;
+    long lastPublished;
+    boolean published;
+    String createdBy;
+    String lastModifiedBy;
+
+    void reset() {
+        primaryType = null;
+        typeMask = 0;
+        created = NO_DATE;
+        lastModified = NO_DATE;
+        lastPublished = NO_DATE;
+        published = false;
+        createdBy = null;
+        lastModifiedBy = null;
+    }
+
+    public String getPrimaryType() {
+        return primaryType;
+    }
+
+    /**
+     * isOfType
+     *
+     * @param mask one or several of the {@link OverviewEngine} type flags
+     * @return true if the primary type of the node matches any of the flags
+     */
+    public boolean isOfType(int mask) {
+        return (typeMask & mask) != 0;
+    }
+
+    public long getCreated() {
+        return created;
+    }
+
+    public long getLastModified() {
+        return lastModified;
+    }
+
+    public long getLastPublished() {
+        return lastPublished;
+    }
+
+    public boolean isPublished() {
+        return published;
+    }
+
+    public String getCreatedBy() {
+        return createdBy;
+    }
+
+    public String getLastModifiedBy() {
+        return lastModifiedBy;
+    }
+}
@@ -0,0 +1,67 @@
+package org.jahia.modules.contentreports.service;
+/*
+ * ==========================================================================================
+ * =                            JAHIA'S ENTERPRISE DISTRIBUTION                             =
+ * ==========================================================================================
+ *
+ *                                  http://www.jahia.com
+ *
+ * JAHIA'S ENTERPRISE DISTRIBUTIONS LICENSING - IMPORTANT INFORMATION
+ * ==========================================================================================
+ *
+ *     Copyright (C) 2002-2020 Jahia Solutions Group. All rights reserved.
+ *
+ *     This file is part of a Jahia's Enterprise Distribution.
+ *
+ *     Jahia's Enterprise Distributions must be used in accordance with the terms
+ *     contained in the Jahia Solutions Group Terms &amp; Conditions as well as
+ *     the Jahia Sustainable Enterprise License (JSEL).
+ *
+ *     For questions regarding licensing, support, production usage...
+ *     please contact our team at sales@jahia.com or go to http://www.jahia.com/license.
+ *
+ * ==========================================================================================
+ */
+
+import org.json.JSONException;
+import org.json.JSONObject;
+
+/**
+ * The PublicationAccumulator class.
+ * <p>Counts the published and unpublished editorial contents and sums the delay
+ * between the creation and the last publication of the published nodes.</p>
+ */
+public class PublicationAccumulator implements OverviewAccumulator {
+
+    private static final long DAY_IN_MILLIS = 1000L * 60 * 60 * 24;
+
+    private int editorialContents;
+    private int publishedContents;
+    private long totalDelayInDays;
+    private int delayCount;
+
+    @Override
+    public void accumulate(OverviewNode node) {
+        if (node.isOfType(OverviewEngine.EDITORIAL_CONTENT)) {
+            editorialContents++;
+            if (node.isPublished()) {
+                publishedContents++;
+            }
+        }
+        if (node.getLastPublished() != OverviewNode.NO_DATE && node.getCreated() != OverviewNode.NO_DATE) {
+            long delayInDays = (node.getLastPublished() - node.getCreated()) / DAY_IN_MILLIS;
+            // Only positive differences
+            if (delayInDays >= 0) {
+                totalDelayInDays += delayInDays;
+                delayCount++;
+            }
+        }
+    }
+
+    @Override
+    public void fill(JSONObject jsonObject) throws JSONException {
+        jsonObject.put("publishedNodes", publishedContents);
+        jsonObject.put("unpublishedNodes", editorialContents - publishedContents);
+        jsonObject.put("averageTimeToPublish", delayCount > 0 ? (double) totalDelayInDays / delayCount : 0.0);
+    }
+}
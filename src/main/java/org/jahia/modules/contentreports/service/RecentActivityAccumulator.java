@@ -0,0 +1,71 @@
+package org.jahia.modules.contentreports.service;
+/*
+ * ==========================================================================================
+ * =                            JAHIA'S ENTERPRISE DISTRIBUTION                             =
+ * ==========================================================================================
+ *
+ *                                  http://www.jahia.com
+ *
+ * JAHIA'S ENTERPRISE DISTRIBUTIONS LICENSING - IMPORTANT INFORMATION
+ * ==========================================================================================
+ *
+ *     Copyright (C) 2002-2020 Jahia Solutions Group. All rights reserved.
+ *
+ *     This file is part of a Jahia's Enterprise Distribution.
+ *
+ *     Jahia's Enterprise Distributions must be used in accordance with the terms
+ *     contained in the Jahia Solutions Group Terms &amp; Conditions as well as
+ *     the Jahia Sustainable Enterprise License (JSEL).
+ *
+ *     For questions regarding licensing, support, production usage...
+ *     please contact our team at sales@jahia.com or go to http://www.jahia.com/license.
+ *
+ * ==========================================================================================
+ */
+
+import org.json.JSONException;
+import org.json.JSONObject;
+
+/**
+ * The RecentActivityAccumulator class.
+ * <p>Counts the editorial contents created or modified, and the nodes published,
+ * since a given date.</p>
+ */
+public class RecentActivityAccumulator implements OverviewAccumulator {
+
+    private final long since;
+    private int created;
+    private int modified;
+    private int published;
+
+    /**
+     * Instantiates a new recent activity accumulator.
+     *
+     * @param since the start of the period, in milliseconds
+     */
+    public RecentActivityAccumulator(long since) {
+        this.since = since;
+    }
+
+    @Override
+    public void accumulate(OverviewNode node) {
+        if (node.isOfType(OverviewEngine.EDITORIAL_CONTENT)) {
+            if (node.getCreated() != OverviewNode.NO_DATE && node.getCreated() >= since) {
+                created++;
+            }
+            if (node.getLastModified() != OverviewNode.NO_DATE && node.getLastModified() >= since) {
+                modified++;
+            }
+        }
+        if (node.getLastPublished() != OverviewNode.NO_DATE && node.getLastPublished() >= since) {
+            published++;
+        }
+    }
+
+    @Override
+    public void fill(JSONObject jsonObject) throws JSONException {
+        jsonObject.put("newContentLast30Days", created);
+        jsonObject.put("modifiedContentLast30Days", modified);
+        jsonObject.put("publishedContentLast30Days", published);
+    }
+}
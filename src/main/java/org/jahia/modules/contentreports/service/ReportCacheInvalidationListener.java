@@ -0,0 +1,77 @@
+package org.jahia.modules.contentreports.service;
+/*
+ * ==========================================================================================
+ * =                            JAHIA'S ENTERPRISE DISTRIBUTION                             =
+ * ==========================================================================================
+ *
+ *                                  http://www.jahia.com
+ *
+ * JAHIA'S ENTERPRISE DISTRIBUTIONS LICENSING - IMPORTANT INFORMATION
+ * ==========================================================================================
+ *
+ *     Copyright (C) 2002-2020 Jahia Solutions Group. All rights reserved.
+ *
+ *     This file is part of a Jahia's Enterprise Distribution.
+ *
+ *     Jahia's Enterprise Distributions must be used in accordance with the terms
+ *     contained in the Jahia Solutions Group Terms &amp; Conditions as well as
+ *     the Jahia Sustainable Enterprise License (JSEL).
+ *
+ *     For questions regarding licensing, support, production usage...
+ *     please contact our team at sales@jahia.com or go to http://www.jahia.com/license.
+ *
+ * ==========================================================================================
+ */
+
+import org.jahia.services.content.DefaultEventListener;
+import org.osgi.service.component.annotations.Component;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.jcr.RepositoryException;
+import javax.jcr.observation.Event;
+import javax.jcr.observation.EventIterator;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * The ReportCacheInvalidationListener class.
+ * <p>Listens to the changes of both workspaces, including the publications,
+ * and drops the cached report payloads depending on the changed paths.</p>
+ */
+@Component(service = DefaultEventListener.class, immediate = true)
+public class ReportCacheInvalidationListener extends DefaultEventListener {
+    private static Logger logger = LoggerFactory.getLogger(ReportCacheInvalidationListener.class);
+
+    public ReportCacheInvalidationListener() {
+        setAvailableDuringPublish(true);
+    }
+
+    @Override
+    public int getEventTypes() {
+        return Event.NODE_ADDED | Event.NODE_REMOVED | Event.NODE_MOVED
+                | Event.PROPERTY_ADDED | Event.PROPERTY_CHANGED | Event.PROPERTY_REMOVED;
+    }
+
+    @Override
+    public void onEvent(EventIterator events) {
+        ReportResultCache cache = ReportResultCache.getInstance();
+        if (cache == null) {
+            return;
+        }
+        Set<String> paths = new LinkedHashSet<>();
+        while (events.hasNext()) {
+            Event event = events.nextEvent();
+            try {
+                paths.add(event.getPath());
+            } catch (RepositoryException e) {
+                logger.warn("Unable to read the path of an event, clearing the report cache", e);
+                cache.clear();
+                return;
+            }
+        }
+        if (!paths.isEmpty()) {
+            cache.invalidate(paths);
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package org.jahia.modules.contentreports.service;
+/*
+ * ==========================================================================================
+ * =                            JAHIA'S ENTERPRISE DISTRIBUTION                             =
+ * ==========================================================================================
+ *
+ *                                  http://www.jahia.com
+ *
+ * JAHIA'S ENTERPRISE DISTRIBUTIONS LICENSING - IMPORTANT INFORMATION
+ * ==========================================================================================
+ *
+ *     Copyright (C) 2002-2020 Jahia Solutions Group. All rights reserved.
+ *
+ *     This file is part of a Jahia's Enterprise Distribution.
+ *
+ *     Jahia's Enterprise Distributions must be used in accordance with the terms
+ *     contained in the Jahia Solutions Group Terms &amp; Conditions as well as
+ *     the Jahia Sustainable Enterprise License (JSEL).
+ *
+ *     For questions regarding licensing, support, production usage...
+ *     please contact our team at sales@jahia.com or go to http://www.jahia.com/license.
+ *
+ * ==========================================================================================
+ */
+
+import java.util.Collections;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+
+/**
+ * The ReportCacheKey class.
+ * <p>Identifies a rendered report payload: the report, the site, the parameters
+ * (normalized in name order), the locale, the sort, the window or cursor and the workspace.
+ * The user is part of the key since the results are filtered by the acls.</p>
+ */
+public final class ReportCacheKey {
+
+    private final String reportId;
+    private final String siteKey;
+    private final Map<String, String> parameters;
+    private final String locale;
+    private final Integer sortColumn;
+    private final String sortDirection;
+    private final int offset;
+    private final int limit;
+    private final String cursor;
+    private final String workspace;
+    private final String userKey;
+    private final int hashCode;
+
+    public ReportCacheKey(String reportId, String siteKey, Map<String, String> parameters, Locale locale,
+                          Integer sortColumn, String sortDirection, int offset, int limit, String cursor,
+                          String workspace, String userKey) {
+        this.reportId = reportId;
+        this.siteKey = siteKey;
+        this.parameters = parameters != null ? Collections.unmodifiableMap(new TreeMap<>(parameters)) : Collections.<String, String>emptyMap();
+        this.locale = locale != null ? locale.toString() : null;
+        this.sortColumn = sortColumn;
+        this.sortDirection = sortDirection;
+        this.offset = offset;
+        this.limit = limit;
+        this.cursor = cursor;
+        this.workspace = workspace;
+        this.userKey = userKey;
+        this.hashCode = Objects.hash(reportId, siteKey, this.parameters, this.locale, sortColumn, sortDirection, offset, limit, cursor, workspace, userKey);
+    }
+
+    public String getReportId() {
+        return reportId;
+    }
+
+    public String getSiteKey() {
+        return siteKey;
+    }
+
+    public String getWorkspace() {
+        return workspace;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof ReportCacheKey)) {
+            return false;
+        }
+        ReportCacheKey that = (ReportCacheKey) o;
+        return offset == that.offset && limit == that.limit
+                && Objects.equals(reportId, that.reportId)
+                && Objects.equals(siteKey, that.siteKey)
+                && Objects.equals(parameters, that.parameters)
+                && Objects.equals(locale, that.locale)
+                && Objects.equals(sortColumn, that.sortColumn)
+                && Objects.equals(sortDirection, that.sortDirection)
+                && Objects.equals(cursor, that.cursor)
+                && Objects.equals(workspace, that.workspace)
+                && Objects.equals(userKey, that.userKey);
+    }
+
+    @Override
+    public int hashCode() {
+        return hashCode;
+    }
+
+    @Override
+    public String toString() {
+        return "ReportCacheKey{reportId=" + reportId + ", siteKey=" + siteKey + ", parameters=" + parameters
+                + ", locale=" + locale + ", sort=" + sortColumn + " " + sortDirection + ", offset=" + offset
+                + ", limit=" + limit + ", cursor=" + cursor + ", workspace=" + workspace + ", user=" + userKey + "}";
+    }
+}
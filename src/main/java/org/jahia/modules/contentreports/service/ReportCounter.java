@@ -0,0 +1,173 @@
+package org.jahia.modules.contentreports.service;
+/*
+ * ==========================================================================================
+ * =                            JAHIA'S ENTERPRISE DISTRIBUTION                             =
+ * ==========================================================================================
+ *
+ *                                  http://www.jahia.com
+ *
+ * JAHIA'S ENTERPRISE DISTRIBUTIONS LICENSING - IMPORTANT INFORMATION
+ * ==========================================================================================
+ *
+ *     Copyright (C) 2002-2020 Jahia Solutions Group. All rights reserved.
+ *
+ *     This file is part of a Jahia's Enterprise Distribution.
+ *
+ *     Jahia's Enterprise Distributions must be used in accordance with the terms
+ *     contained in the Jahia Solutions Group Terms &amp; Conditions as well as
+ *     the Jahia Sustainable Enterprise License (JSEL).
+ *
+ *     For questions regarding licensing, support, production usage...
+ *     please contact our team at sales@jahia.com or go to http://www.jahia.com/license.
+ *
+ * ==========================================================================================
+ */
+
+import org.apache.commons.lang3.StringUtils;
+import org.jahia.services.content.JCRSessionWrapper;
+import org.jahia.services.content.decorator.JCRSiteNode;
+import org.jahia.services.query.QueryWrapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.jcr.NodeIterator;
+import javax.jcr.RepositoryException;
+import javax.jcr.query.Query;
+import javax.jcr.query.RowIterator;
+import java.util.Collections;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * The ReportCounter class.
+ * <p>Counts the results of the report queries. A single selector query is counted with a
+ * rep:count query derived from it, which does not load the nodes; a join query falls back on
+ * the size of its result. The count runs on the {@link ReportExecutor}, while the report reads
+ * its page, and the totals are kept by the {@link ReportResultCache}, apart from the payloads, so that
+ * the following pages of the same report do not count again.</p>
+ * <p>The count checks the permissions of the session, it matches the nodes the report can read.</p>
+ */
+public final class ReportCounter {
+    private static Logger logger = LoggerFactory.getLogger(ReportCounter.class);
+
+    /* the report id of the keys of the cached totals */
+    private static final String TOTAL_CACHE_ID = "total";
+
+    private static final Pattern SELECT_ALL = Pattern.compile(
+            "^\\s*SELECT\\s+\\*\\s+FROM\\s+(\\[[^\\]]+\\])\\s+AS\\s+(\\w+)\\s", Pattern.CASE_INSENSITIVE);
+    private static final Pattern JOIN = Pattern.compile("\\bJOIN\\b", Pattern.CASE_INSENSITIVE);
+    private static final Pattern ORDER_BY = Pattern.compile("\\sORDER\\s+BY\\s", Pattern.CASE_INSENSITIVE);
+
+    private ReportCounter() {
+    }
+
+    /**
+     * toCountQuery
+     *
+     * @param queryStr a select query
+     * @return the rep:count query counting the same nodes, null when the query has several selectors
+     */
+    public static String toCountQuery(String queryStr) {
+        if (JOIN.matcher(queryStr).find()) {
+            return null;
+        }
+        Matcher select = SELECT_ALL.matcher(queryStr);
+        if (!select.find()) {
+            return null;
+        }
+        String rest = queryStr.substring(select.end());
+        Matcher order = ORDER_BY.matcher(rest);
+        if (order.find()) {
+            rest = rest.substring(0, order.start());
+        }
+        return "SELECT [rep:count(" + select.group(2) + ",skipChecks=0)] FROM " + select.group(1)
+                + " AS " + select.group(2) + " " + rest;
+    }
+
+    /**
+     * count
+     *
+     * @param session  {@link JCRSessionWrapper}
+     * @param queryStr a select query
+     * @return the number of results of the query
+     * @throws RepositoryException
+     */
+    public static long count(JCRSessionWrapper session, String queryStr) throws RepositoryException {
+        String countQueryStr = toCountQuery(queryStr);
+        if (countQueryStr != null) {
+            QueryWrapper query = session.getWorkspace().getQueryManager().createQuery(countQueryStr, Query.JCR_SQL2);
+            RowIterator rows = query.execute().getRows();
+            return rows.hasNext() ? rows.nextRow().getValue("count").getLong() : 0;
+        }
+        Query query = session.getWorkspace().getQueryManager().createQuery(queryStr, Query.JCR_SQL2);
+        NodeIterator nodes = query.execute().getNodes();
+        long size = nodes.getSize();
+        if (size < 0) {
+            // the size is not known in advance, the results are walked without being loaded
+            size = 0;
+            while (nodes.hasNext()) {
+                nodes.nextNode();
+                size++;
+            }
+        }
+        return size;
+    }
+
+    /**
+     * submitCount
+     * <p>count the results of the query in the background, or return the total cached
+     * by a previous page of the same report.</p>
+     *
+     * @param session  {@link JCRSessionWrapper}
+     * @param siteNode {@link JCRSiteNode} the site of the report, a change in the site drops the cached total
+     * @param queryStr a select query
+     * @return {@link Future} of the number of results
+     * @throws RepositoryException
+     */
+    public static Future<Long> submitCount(JCRSessionWrapper session, JCRSiteNode siteNode, final String queryStr) throws RepositoryException {
+        final ReportResultCache cache = ReportResultCache.getInstance();
+        if (cache == null || !cache.isCachingTotals()) {
+            return ReportExecutor.getInstance().submitAs(session, sessionWrapper -> count(sessionWrapper, queryStr));
+        }
+        final ReportCacheKey key = new ReportCacheKey(TOTAL_CACHE_ID, siteNode.getSiteKey(),
+                Collections.singletonMap("query", StringUtils.defaultString(toCountQuery(queryStr), queryStr)),
+                session.getLocale(), null, null, 0, 0, null, session.getWorkspace().getName(), session.getUser().getUserKey());
+        Long cached = cache.getTotal(key);
+        if (cached != null) {
+            return CompletableFuture.completedFuture(cached);
+        }
+        final long generation = cache.getGeneration();
+        final String scopePath = siteNode.getPath();
+        return ReportExecutor.getInstance().submitAs(session, sessionWrapper -> {
+            long total = count(sessionWrapper, queryStr);
+            cache.putTotal(key, scopePath, total, generation);
+            return total;
+        });
+    }
+
+    /**
+     * getCount
+     *
+     * @param total    {@link Future} returned by {@link #submitCount(JCRSessionWrapper, JCRSiteNode, String)}
+     * @param queryStr the counted query, for the logs
+     * @return the number of results, 0 when the count failed or timed out
+     */
+    public static long getCount(Future<Long> total, String queryStr) {
+        try {
+            return total.get(ReportExecutor.getInstance().getMetricTimeout(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (TimeoutException e) {
+            total.cancel(true);
+            logger.warn("Counting the results of [{}] timed out", queryStr);
+        } catch (ExecutionException e) {
+            logger.error("Problem counting the results of the jcr:query[" + queryStr + "]", e.getCause());
+        }
+        return 0;
+    }
+}
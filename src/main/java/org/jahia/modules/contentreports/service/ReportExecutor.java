@@ -0,0 +1,179 @@
+package org.jahia.modules.contentreports.service;
+/*
+ * ==========================================================================================
+ * =                            JAHIA'S ENTERPRISE DISTRIBUTION                             =
+ * ==========================================================================================
+ *
+ *                                  http://www.jahia.com
+ *
+ * JAHIA'S ENTERPRISE DISTRIBUTIONS LICENSING - IMPORTANT INFORMATION
+ * ==========================================================================================
+ *
+ *     Copyright (C) 2002-2020 Jahia Solutions Group. All rights reserved.
+ *
+ *     This file is part of a Jahia's Enterprise Distribution.
+ *
+ *     Jahia's Enterprise Distributions must be used in accordance with the terms
+ *     contained in the Jahia Solutions Group Terms &amp; Conditions as well as
+ *     the Jahia Sustainable Enterprise License (JSEL).
+ *
+ *     For questions regarding licensing, support, production usage...
+ *     please contact our team at sales@jahia.com or go to http://www.jahia.com/license.
+ *
+ * ==========================================================================================
+ */
+
+import org.jahia.services.content.JCRCallback;
+import org.jahia.services.content.JCRSessionWrapper;
+import org.jahia.services.content.JCRTemplate;
+import org.jahia.services.usermanager.JahiaUser;
+import org.osgi.service.component.annotations.Activate;
+import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.Deactivate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.jcr.RepositoryException;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The ReportExecutor class.
+ * <p>Bounded thread pool running the independent parts of the reports concurrently.
+ * JCR tasks are executed in their own session, opened for the user of the calling
+ * session, since a {@link JCRSessionWrapper} must not be shared between threads.</p>
+ * <p>When the component is not active the tasks are run in the calling thread.</p>
+ */
+@Component(service = ReportExecutor.class, immediate = true)
+public class ReportExecutor {
+    private static Logger logger = LoggerFactory.getLogger(ReportExecutor.class);
+
+    private static final int DEFAULT_POOL_SIZE = 4;
+    private static final int DEFAULT_QUEUE_SIZE = 200;
+    private static final long DEFAULT_METRIC_TIMEOUT = 30000L;
+
+    private static final ReportExecutor CALLER_RUNS = new ReportExecutor();
+    private static volatile ReportExecutor instance;
+
+    private ThreadPoolExecutor executorService;
+    private long metricTimeout = DEFAULT_METRIC_TIMEOUT;
+
+    /**
+     * getInstance
+     *
+     * @return the active executor, or an executor running the tasks in the calling thread
+     */
+    public static ReportExecutor getInstance() {
+        ReportExecutor current = instance;
+        return current != null ? current : CALLER_RUNS;
+    }
+
+    @Activate
+    public void activate(Map<String, ?> properties) {
+        int poolSize = getInt(properties, "poolSize", DEFAULT_POOL_SIZE);
+        int queueSize = getInt(properties, "queueSize", DEFAULT_QUEUE_SIZE);
+        this.metricTimeout = getInt(properties, "metricTimeout", (int) DEFAULT_METRIC_TIMEOUT);
+        // tasks refused by a full queue run in the calling thread rather than failing the report
+        this.executorService = new ThreadPoolExecutor(poolSize, poolSize, 60L, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueSize), new ReportThreadFactory(), new ThreadPoolExecutor.CallerRunsPolicy());
+        this.executorService.allowCoreThreadTimeOut(true);
+        instance = this;
+        logger.info("Content reports executor started with {} threads", poolSize);
+    }
+
+    @Deactivate
+    public void deactivate() {
+        if (instance == this) {
+            instance = null;
+        }
+        if (executorService != null) {
+            executorService.shutdownNow();
+            executorService = null;
+        }
+    }
+
+    /**
+     * submit
+     * <p>run a task which does not access the repository.</p>
+     *
+     * @param task {@link Callable}
+     * @param <T>  the result type
+     * @return {@link Future}
+     */
+    public <T> Future<T> submit(Callable<T> task) {
+        FutureTask<T> futureTask = new FutureTask<>(task);
+        ThreadPoolExecutor executor = executorService;
+        // a task submitted from a pool thread runs in that thread, so that a report executed on the pool
+        // never waits for its own sub-tasks queued behind it
+        if (executor != null && !(Thread.currentThread() instanceof ReportThread)) {
+            executor.execute(futureTask);
+        } else {
+            futureTask.run();
+        }
+        return futureTask;
+    }
+
+    /**
+     * submitAs
+     * <p>run a repository task in a new session of the user, workspace and locale of the calling session.</p>
+     *
+     * @param callerSession {@link JCRSessionWrapper}
+     * @param callback      {@link JCRCallback}
+     * @param <T>           the result type
+     * @return {@link Future}
+     * @throws RepositoryException
+     */
+    public <T> Future<T> submitAs(JCRSessionWrapper callerSession, final JCRCallback<T> callback) throws RepositoryException {
+        final JahiaUser user = callerSession.getUser();
+        final String workspace = callerSession.getWorkspace().getName();
+        final Locale locale = callerSession.getLocale();
+        return submit(() -> JCRTemplate.getInstance().doExecute(user, workspace, locale, callback));
+    }
+
+    /**
+     * getMetricTimeout
+     *
+     * @return the time allowed to a single metric, in milliseconds
+     */
+    public long getMetricTimeout() {
+        return metricTimeout;
+    }
+
+    private static int getInt(Map<String, ?> properties, String key, int defaultValue) {
+        Object value = properties != null ? properties.get(key) : null;
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(value.toString().trim());
+        } catch (NumberFormatException e) {
+            logger.warn("Invalid value {} for {}, using {}", value, key, defaultValue);
+            return defaultValue;
+        }
+    }
+
+    private static class ReportThread extends Thread {
+        ReportThread(Runnable runnable, String name) {
+            super(runnable, name);
+        }
+    }
+
+    private static class ReportThreadFactory implements ThreadFactory {
+        private final AtomicInteger counter = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new ReportThread(runnable, "content-reports-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
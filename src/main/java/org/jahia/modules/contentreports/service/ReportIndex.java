@@ -0,0 +1,446 @@
+package org.jahia.modules.contentreports.service;
+/*
+ * ==========================================================================================
+ * =                            JAHIA'S ENTERPRISE DISTRIBUTION                             =
+ * ==========================================================================================
+ *
+ *                                  http://www.jahia.com
+ *
+ * JAHIA'S ENTERPRISE DISTRIBUTIONS LICENSING - IMPORTANT INFORMATION
+ * ==========================================================================================
+ *
+ *     Copyright (C) 2002-2020 Jahia Solutions Group. All rights reserved.
+ *
+ *     This file is part of a Jahia's Enterprise Distribution.
+ *
+ *     Jahia's Enterprise Distributions must be used in accordance with the terms
+ *     contained in the Jahia Solutions Group Terms &amp; Conditions as well as
+ *     the Jahia Sustainable Enterprise License (JSEL).
+ *
+ *     For questions regarding licensing, support, production usage...
+ *     please contact our team at sales@jahia.com or go to http://www.jahia.com/license.
+ *
+ * ==========================================================================================
+ */
+
+import org.jahia.services.content.JCRSessionWrapper;
+import org.jahia.services.content.JCRTemplate;
+import org.osgi.service.component.annotations.Activate;
+import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.Deactivate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.jcr.Node;
+import javax.jcr.Property;
+import javax.jcr.RepositoryException;
+import javax.jcr.Value;
+import javax.jcr.query.Query;
+import javax.jcr.query.Row;
+import javax.jcr.query.RowIterator;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * The ReportIndex class.
+ * <p>Keeps a {@link NodeSummary} of every node of the sites (the acl nodes aside) of the default workspace,
+ * so that the reports reading the same few properties of all the nodes of a site do not query the repository.</p>
+ * <p>The index of a site is built in the background by a single projection query the first time a report asks
+ * for it, the reports query the repository until it is ready. It is then kept up to date from the
+ * repository events (see {@link ReportIndexListener}) and rebuilt after its maximum age, as the imports
+ * do not send events. The build and the updates all run on one thread, in that order.</p>
+ * <p>The index is read with a system session: it holds every node, whatever the permissions of the user
+ * running the report. It is therefore only used for the users reading every node of the site, the other
+ * reports query the repository with their own session.</p>
+ */
+@Component(service = ReportIndex.class, immediate = true)
+public class ReportIndex {
+    private static Logger logger = LoggerFactory.getLogger(ReportIndex.class);
+
+    static final String WORKSPACE = "default";
+    private static final long DEFAULT_MAX_AGE = 86400000L;
+    private static final String SITES = "/sites/";
+    private static final int MAX_CACHED_COLUMNS = 16;
+
+    private static volatile ReportIndex instance;
+
+    private final Map<String, SiteIndex> sites = new ConcurrentHashMap<>();
+    private final Map<String, Integer> typeMasks = new ConcurrentHashMap<>();
+    private ExecutorService updater;
+    private long maxAge = DEFAULT_MAX_AGE;
+
+    /**
+     * getInstance
+     *
+     * @return the active index, null when the component is not active or is disabled
+     */
+    public static ReportIndex getInstance() {
+        return instance;
+    }
+
+    @Activate
+    public void activate(Map<String, ?> properties) {
+        Object enabled = properties != null ? properties.get("enabled") : null;
+        if (enabled != null && !Boolean.parseBoolean(enabled.toString().trim())) {
+            logger.info("Content reports index disabled");
+            return;
+        }
+        Object configuredAge = properties != null ? properties.get("maxAge") : null;
+        try {
+            this.maxAge = configuredAge != null ? Long.parseLong(configuredAge.toString().trim()) : DEFAULT_MAX_AGE;
+        } catch (NumberFormatException e) {
+            logger.warn("Invalid value {} for maxAge, using {}", configuredAge, DEFAULT_MAX_AGE);
+        }
+        this.updater = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "content-reports-index");
+            thread.setDaemon(true);
+            return thread;
+        });
+        instance = this;
+    }
+
+    @Deactivate
+    public void deactivate() {
+        if (instance == this) {
+            instance = null;
+        }
+        if (updater != null) {
+            updater.shutdownNow();
+            updater = null;
+        }
+        sites.clear();
+    }
+
+    /**
+     * getReadyIndex
+     *
+     * @param session the session of the report
+     * @param path    the path the report reads, under a site
+     * @return the index of the site of the path, null when the report has to query the repository:
+     * the index is not active, is not built yet, the report does not read the default workspace,
+     * or the user of the session may not read every node of the site
+     */
+    public static SiteIndex getReadyIndex(JCRSessionWrapper session, String path) throws RepositoryException {
+        ReportIndex index = instance;
+        String siteKey = getSiteKey(path);
+        if (index == null || siteKey == null || !WORKSPACE.equals(session.getWorkspace().getName())
+                || !canReadSite(session, SITES + siteKey)) {
+            return null;
+        }
+        return index.getSiteIndex(siteKey);
+    }
+
+    /*
+     * the index is built with a system session, it is only given to a user reading the whole site:
+     * the user reads the site node and no acl below it stops the inheritance or denies a role
+     */
+    private static boolean canReadSite(JCRSessionWrapper session, String sitePath) throws RepositoryException {
+        if (session.isSystem() || session.getUser() != null && session.getUser().isRoot()) {
+            return true;
+        }
+        if (!session.nodeExists(sitePath) || !session.getNode(sitePath).hasPermission("jcr:read")) {
+            return false;
+        }
+        return JCRTemplate.getInstance().doExecuteWithSystemSessionAsUser(null, WORKSPACE, null, systemSession ->
+                !hasResult(systemSession, "SELECT * FROM [jnt:acl] AS acl WHERE ISDESCENDANTNODE(acl, ['" + sitePath + "']) "
+                        + "AND NOT ISCHILDNODE(acl, ['" + sitePath + "']) AND acl.[j:inherit] = false")
+                        && !hasResult(systemSession, "SELECT * FROM [jnt:ace] AS ace WHERE ISDESCENDANTNODE(ace, ['" + sitePath + "']) "
+                        + "AND ace.[j:aceType] = 'DENY'"));
+    }
+
+    private static boolean hasResult(JCRSessionWrapper session, String queryStr) throws RepositoryException {
+        Query query = session.getWorkspace().getQueryManager().createQuery(queryStr, Query.JCR_SQL2);
+        query.setLimit(1);
+        return query.execute().getNodes().hasNext();
+    }
+
+    private SiteIndex getSiteIndex(String siteKey) {
+        SiteIndex site = sites.get(siteKey);
+        if (site == null || site.builtAt > 0 && site.builtAt + maxAge < System.currentTimeMillis()) {
+            // an expired index is still used until the new one is ready
+            SiteIndex created = new SiteIndex(siteKey, site);
+            if (site == null ? sites.putIfAbsent(siteKey, created) == null : sites.replace(siteKey, site, created)) {
+                schedule(() -> build(created));
+            }
+        }
+        site = sites.get(siteKey);
+        if (site == null) {
+            return null;
+        }
+        return site.builtAt > 0 ? site : site.previous;
+    }
+
+    /**
+     * update
+     * <p>apply the changes observed in the repository to the indexes already built.</p>
+     *
+     * @param changedPaths the nodes added or whose properties changed
+     * @param removedPaths the nodes removed, with their subtree
+     * @param movedPaths   the new paths of the moved nodes, with their subtree
+     */
+    void update(Set<String> changedPaths, Set<String> removedPaths, Set<String> movedPaths) {
+        schedule(() -> {
+            try {
+                JCRTemplate.getInstance().doExecuteWithSystemSessionAsUser(null, WORKSPACE, null, session -> {
+                    for (String path : removedPaths) {
+                        SiteIndex site = getBuiltIndex(path);
+                        if (site != null) {
+                            site.removeTree(path);
+                        }
+                    }
+                    for (String path : movedPaths) {
+                        SiteIndex site = getBuiltIndex(path);
+                        if (site != null) {
+                            site.removeTree(path);
+                            load(session, site, path);
+                        }
+                    }
+                    for (String path : changedPaths) {
+                        SiteIndex site = getBuiltIndex(path);
+                        if (site != null) {
+                            reload(session, site, path);
+                        }
+                    }
+                    return null;
+                });
+            } catch (RepositoryException e) {
+                // the index can not be trusted anymore, it is built again on the next report
+                logger.warn("Unable to update the content reports index, it will be rebuilt", e);
+                sites.clear();
+            }
+        });
+    }
+
+    private SiteIndex getBuiltIndex(String path) {
+        String siteKey = getSiteKey(path);
+        SiteIndex site = siteKey != null ? sites.get(siteKey) : null;
+        return site != null && site.builtAt > 0 ? site : null;
+    }
+
+    private void schedule(Runnable task) {
+        ExecutorService executor = updater;
+        if (executor == null) {
+            return;
+        }
+        try {
+            executor.execute(task);
+        } catch (RejectedExecutionException e) {
+            logger.debug("Content reports index stopped", e);
+        }
+    }
+
+    private void build(SiteIndex site) {
+        long start = System.currentTimeMillis();
+        try {
+            JCRTemplate.getInstance().doExecuteWithSystemSessionAsUser(null, WORKSPACE, null, session -> {
+                load(session, site, SITES + site.siteKey);
+                return null;
+            });
+            site.builtAt = System.currentTimeMillis();
+            site.previous = null;
+            logger.info("Content reports index of site {} built with {} nodes in {} ms", site.siteKey, site.nodes.size(),
+                    site.builtAt - start);
+        } catch (RepositoryException | RuntimeException e) {
+            logger.error("Unable to build the content reports index of site " + site.siteKey, e);
+            sites.remove(site.siteKey, site);
+        }
+    }
+
+    /* indexes a node and its subtree with a projection query */
+    private void load(JCRSessionWrapper session, SiteIndex site, String path) throws RepositoryException {
+        reload(session, site, path);
+        String queryStr = "SELECT item.[jcr:primaryType] AS primaryType, item.[jcr:created] AS created, " +
+                "item.[jcr:lastModified] AS lastModified, item.[j:lastPublished] AS lastPublished, " +
+                "item.[j:published] AS published, item.[j:locktoken] AS locktoken, " +
+                "item.[jcr:createdBy] AS createdBy, item.[jcr:lastModifiedBy] AS lastModifiedBy, " +
+                "item.[j:workInProgressStatus] AS workInProgressStatus, item.[jcr:language] AS language " +
+                "FROM [nt:base] AS item WHERE ISDESCENDANTNODE(item,['" + path.replace("'", "''") + "']) " +
+                "AND item.[jcr:primaryType] <> 'jnt:acl' AND item.[jcr:primaryType] <> 'jnt:ace'";
+        Map<String, Integer> mixinTypeMasks = OverviewEngine.getMixinTypeMasks(session, path);
+        RowIterator rows = session.getWorkspace().getQueryManager().createQuery(queryStr, Query.JCR_SQL2).execute().getRows();
+        while (rows.hasNext()) {
+            Row row = rows.nextRow();
+            String primaryType = getString(row, "primaryType");
+            StringPool names = site.names;
+            int typeMask = getTypeMask(primaryType) | mixinTypeMasks.getOrDefault(row.getPath(), 0);
+            site.put(new NodeSummary(names, row.getPath(), names.getId(primaryType), typeMask,
+                    getDate(row, "created"), getDate(row, "lastModified"), getDate(row, "lastPublished"),
+                    getBoolean(row, "published"), getString(row, "locktoken") != null,
+                    names.getId(getString(row, "createdBy")), names.getId(getString(row, "lastModifiedBy")),
+                    names.getId(getString(row, "workInProgressStatus")), names.getId(getString(row, "language"))));
+        }
+    }
+
+    /* indexes a single node, or removes it when it does not exist anymore */
+    private void reload(JCRSessionWrapper session, SiteIndex site, String path) throws RepositoryException {
+        if (!session.nodeExists(path)) {
+            site.remove(path);
+            return;
+        }
+        Node node = session.getNode(path).getRealNode();
+        String primaryType = node.getPrimaryNodeType().getName();
+        if ("jnt:acl".equals(primaryType) || "jnt:ace".equals(primaryType)) {
+            return;
+        }
+        StringPool names = site.names;
+        site.put(new NodeSummary(names, path, names.getId(primaryType), getTypeMask(primaryType) | OverviewEngine.computeMixinTypeMask(node),
+                getDate(node, "jcr:created"), getDate(node, "jcr:lastModified"), getDate(node, "j:lastPublished"),
+                node.hasProperty("j:published") && node.getProperty("j:published").getBoolean(), node.hasProperty("j:locktoken"),
+                names.getId(getString(node, "jcr:createdBy")), names.getId(getString(node, "jcr:lastModifiedBy")),
+                names.getId(getString(node, "j:workInProgressStatus")), names.getId(getString(node, "jcr:language"))));
+    }
+
+    private int getTypeMask(String primaryType) {
+        return primaryType != null ? typeMasks.computeIfAbsent(primaryType, OverviewEngine::computeTypeMask) : 0;
+    }
+
+    /**
+     * getSiteKey
+     *
+     * @param path a repository path
+     * @return the key of the site of the path, null when it is not under /sites
+     */
+    static String getSiteKey(String path) {
+        if (path == null || !path.startsWith(SITES) || path.length() == SITES.length()) {
+            return null;
+        }
+        int end = path.indexOf('/', SITES.length());
+        return end < 0 ? path.substring(SITES.length()) : path.substring(SITES.length(), end);
+    }
+
+    private static String getString(Row row, String column) {
+        try {
+            Value value = row.getValue(column);
+            return value != null ? value.getString() : null;
+        } catch (RepositoryException e) {
+            return null;
+        }
+    }
+
+    private static long getDate(Row row, String column) {
+        try {
+            Value value = row.getValue(column);
+            return value != null ? value.getDate().getTimeInMillis() : OverviewNode.NO_DATE;
+        } catch (RepositoryException e) {
+            return OverviewNode.NO_DATE;
+        }
+    }
+
+    private static boolean getBoolean(Row row, String column) {
+        try {
+            Value value = row.getValue(column);
+            return value != null && value.getBoolean();
+        } catch (RepositoryException e) {
+            return false;
+        }
+    }
+
+    private static String getString(Node node, String name) throws RepositoryException {
+        if (!node.hasProperty(name)) {
+            return null;
+        }
+        Property property = node.getProperty(name);
+        return property.isMultiple() ? null : property.getString();
+    }
+
+    private static long getDate(Node node, String name) throws RepositoryException {
+        return node.hasProperty(name) ? node.getProperty(name).getDate().getTimeInMillis() : OverviewNode.NO_DATE;
+    }
+
+    /**
+     * The index of one site, ordered by path.
+     */
+    public static final class SiteIndex {
+        private final String siteKey;
+        private final ConcurrentSkipListMap<String, NodeSummary> nodes = new ConcurrentSkipListMap<>();
+        private final StringPool names = new StringPool();
+        private final Map<String, NodeColumns> columns = new ConcurrentHashMap<>();
+        private volatile long builtAt;
+        /* incremented on each change, the cached columns of an older version are built again */
+        private volatile long version;
+        /* the expired index, still used while this one is built */
+        private volatile SiteIndex previous;
+
+        private SiteIndex(String siteKey, SiteIndex previous) {
+            this.siteKey = siteKey;
+            this.previous = previous;
+        }
+
+        /**
+         * getDescendants
+         *
+         * @param path the path of a node
+         * @return the summaries of the nodes under the path, the node itself excluded, ordered by path
+         */
+        public Collection<NodeSummary> getDescendants(String path) {
+            // '0' is the character following '/', the range holds every path starting with path + "/"
+            return nodes.subMap(path + "/", true, path + "0", false).values();
+        }
+
+        /**
+         * get
+         *
+         * @param path the path of a node
+         * @return the summary of the node, null when it is not indexed
+         */
+        public NodeSummary get(String path) {
+            return nodes.get(path);
+        }
+
+        /**
+         * getColumns
+         *
+         * @param path the path of a node
+         * @return the columns of the nodes under the path, the node itself excluded, ordered by path
+         */
+        public NodeColumns getColumns(String path) {
+            long current = version;
+            NodeColumns cached = columns.get(path);
+            if (cached != null && cached.getVersion() == current) {
+                return cached;
+            }
+            NodeColumns built = NodeColumns.of(names, getDescendants(path), current);
+            if (columns.size() >= MAX_CACHED_COLUMNS) {
+                columns.clear();
+            }
+            columns.put(path, built);
+            return built;
+        }
+
+        /**
+         * getNames
+         *
+         * @return the pool of the name ids of the summaries
+         */
+        public StringPool getNames() {
+            return names;
+        }
+
+        public int size() {
+            return nodes.size();
+        }
+
+        private void put(NodeSummary summary) {
+            nodes.put(summary.path, summary);
+            version++;
+        }
+
+        private void remove(String path) {
+            if (nodes.remove(path) != null) {
+                version++;
+            }
+        }
+
+        private void removeTree(String path) {
+            nodes.remove(path);
+            nodes.subMap(path + "/", true, path + "0", false).clear();
+            version++;
+        }
+    }
+}
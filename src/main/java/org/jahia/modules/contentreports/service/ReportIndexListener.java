@@ -0,0 +1,98 @@
+package org.jahia.modules.contentreports.service;
+/*
+ * ==========================================================================================
+ * =                            JAHIA'S ENTERPRISE DISTRIBUTION                             =
+ * ==========================================================================================
+ *
+ *                                  http://www.jahia.com
+ *
+ * JAHIA'S ENTERPRISE DISTRIBUTIONS LICENSING - IMPORTANT INFORMATION
+ * ==========================================================================================
+ *
+ *     Copyright (C) 2002-2020 Jahia Solutions Group. All rights reserved.
+ *
+ *     This file is part of a Jahia's Enterprise Distribution.
+ *
+ *     Jahia's Enterprise Distributions must be used in accordance with the terms
+ *     contained in the Jahia Solutions Group Terms &amp; Conditions as well as
+ *     the Jahia Sustainable Enterprise License (JSEL).
+ *
+ *     For questions regarding licensing, support, production usage...
+ *     please contact our team at sales@jahia.com or go to http://www.jahia.com/license.
+ *
+ * ==========================================================================================
+ */
+
+import org.jahia.services.content.DefaultEventListener;
+import org.osgi.service.component.annotations.Component;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.jcr.RepositoryException;
+import javax.jcr.observation.Event;
+import javax.jcr.observation.EventIterator;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * The ReportIndexListener class.
+ * <p>Listens to the changes of the sites in the default workspace, including the publications,
+ * and passes the changed paths to the {@link ReportIndex}.</p>
+ */
+@Component(service = DefaultEventListener.class, immediate = true)
+public class ReportIndexListener extends DefaultEventListener {
+    private static Logger logger = LoggerFactory.getLogger(ReportIndexListener.class);
+
+    public ReportIndexListener() {
+        setWorkspace(ReportIndex.WORKSPACE);
+        setAvailableDuringPublish(true);
+    }
+
+    @Override
+    public int getEventTypes() {
+        return Event.NODE_ADDED | Event.NODE_REMOVED | Event.NODE_MOVED
+                | Event.PROPERTY_ADDED | Event.PROPERTY_CHANGED | Event.PROPERTY_REMOVED;
+    }
+
+    @Override
+    public String getPath() {
+        return "/sites";
+    }
+
+    @Override
+    public void onEvent(EventIterator events) {
+        ReportIndex index = ReportIndex.getInstance();
+        if (index == null) {
+            return;
+        }
+        Set<String> changedPaths = new LinkedHashSet<>();
+        Set<String> removedPaths = new LinkedHashSet<>();
+        Set<String> movedPaths = new LinkedHashSet<>();
+        while (events.hasNext()) {
+            Event event = events.nextEvent();
+            try {
+                String path = event.getPath();
+                switch (event.getType()) {
+                    case Event.NODE_REMOVED:
+                        removedPaths.add(path);
+                        break;
+                    case Event.NODE_MOVED:
+                        movedPaths.add(path);
+                        break;
+                    case Event.NODE_ADDED:
+                        changedPaths.add(path);
+                        break;
+                    default:
+                        // a property event: the node holding the property changed
+                        changedPaths.add(path.substring(0, path.lastIndexOf('/')));
+                        break;
+                }
+            } catch (RepositoryException e) {
+                logger.warn("Unable to read the path of an event, ignoring it", e);
+            }
+        }
+        if (!changedPaths.isEmpty() || !removedPaths.isEmpty() || !movedPaths.isEmpty()) {
+            index.update(changedPaths, removedPaths, movedPaths);
+        }
+    }
+}
@@ -0,0 +1,261 @@
+package org.jahia.modules.contentreports.service;
+/*
+ * ==========================================================================================
+ * =                            JAHIA'S ENTERPRISE DISTRIBUTION                             =
+ * ==========================================================================================
+ *
+ *                                  http://www.jahia.com
+ *
+ * JAHIA'S ENTERPRISE DISTRIBUTIONS LICENSING - IMPORTANT INFORMATION
+ * ==========================================================================================
+ *
+ *     Copyright (C) 2002-2020 Jahia Solutions Group. All rights reserved.
+ *
+ *     This file is part of a Jahia's Enterprise Distribution.
+ *
+ *     Jahia's Enterprise Distributions must be used in accordance with the terms
+ *     contained in the Jahia Solutions Group Terms &amp; Conditions as well as
+ *     the Jahia Sustainable Enterprise License (JSEL).
+ *
+ *     For questions regarding licensing, support, production usage...
+ *     please contact our team at sales@jahia.com or go to http://www.jahia.com/license.
+ *
+ * ==========================================================================================
+ */
+
+import org.jahia.modules.contentreports.bean.ReportProgress;
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.IOException;
+import java.util.UUID;
+import java.util.concurrent.Future;
+
+/**
+ * The ReportJob class.
+ * <p>A report submitted to the {@link ReportJobService}: its status, its progress and,
+ * once it is completed, its result which is then read page by page.</p>
+ */
+public class ReportJob {
+
+    /**
+     * the enum Status
+     */
+    public enum Status {QUEUED, RUNNING, COMPLETED, FAILED, CANCELLED}
+
+    private final String id;
+    private final String reportId;
+    private final String siteKey;
+    private final String userKey;
+    private final long submittedAt;
+    private final boolean snapshot;
+    private final ReportProgress progress = new ReportProgress();
+
+    private volatile Status status = Status.QUEUED;
+    private volatile long startedAt;
+    private volatile long finishedAt;
+    private volatile String error;
+    private volatile Future<?> future;
+
+    /* the result, set once when the job completes */
+    private JSONObject summary;
+    private JSONArray rows;
+    private String rowsKey;
+    private String snapshotId;
+    private int rowCount;
+
+    public ReportJob(String reportId, String siteKey, String userKey, boolean snapshot) {
+        this.id = UUID.randomUUID().toString();
+        this.reportId = reportId;
+        this.siteKey = siteKey;
+        this.userKey = userKey;
+        this.submittedAt = System.currentTimeMillis();
+        this.snapshot = snapshot;
+    }
+
+    void setFuture(Future<?> future) {
+        this.future = future;
+    }
+
+    /**
+     * start
+     *
+     * @return false when the job has been cancelled before it started
+     */
+    synchronized boolean start() {
+        if (status != Status.QUEUED) {
+            return false;
+        }
+        status = Status.RUNNING;
+        startedAt = System.currentTimeMillis();
+        return true;
+    }
+
+    /**
+     * complete
+     * <p>keep the result of the report, the rows apart from the other entries so that they can be paged.</p>
+     *
+     * @param json    the json of the report
+     * @param rowsKey the key of the rows in the json, null for the reports without rows
+     */
+    synchronized void complete(JSONObject json, String rowsKey) {
+        if (status != Status.RUNNING) {
+            return;
+        }
+        if (progress.isCancelled()) {
+            finish(Status.CANCELLED, null);
+            return;
+        }
+        JSONArray jsonRows = rowsKey != null ? json.optJSONArray(rowsKey) : null;
+        if (jsonRows != null) {
+            json.remove(rowsKey);
+            this.rowsKey = rowsKey;
+            this.rows = jsonRows;
+            this.rowCount = jsonRows.length();
+            progress.setRowsEmitted(rowCount);
+        }
+        this.summary = json;
+        finish(Status.COMPLETED, null);
+    }
+
+    /**
+     * completeWithSnapshot
+     * <p>the rows of the report are in a snapshot, the job only keeps its id.</p>
+     *
+     * @param json       the json of the report, without its rows
+     * @param snapshotId the id of the snapshot in the {@link ReportSnapshotStore}
+     * @param count      the number of rows
+     */
+    synchronized void completeWithSnapshot(JSONObject json, String snapshotId, int count) {
+        if (status != Status.RUNNING) {
+            return;
+        }
+        this.summary = json;
+        this.snapshotId = snapshotId;
+        this.rowCount = count;
+        progress.setRowsEmitted(count);
+        finish(progress.isCancelled() ? Status.CANCELLED : Status.COMPLETED, null);
+    }
+
+    synchronized void fail(String message) {
+        if (status == Status.RUNNING || status == Status.QUEUED) {
+            finish(progress.isCancelled() ? Status.CANCELLED : Status.FAILED, progress.isCancelled() ? null : message);
+        }
+    }
+
+    /**
+     * cancel
+     * <p>a queued job is dropped, a running job stops at the next node its report reads.</p>
+     *
+     * @return false when the job was already finished
+     */
+    synchronized boolean cancel() {
+        if (isFinished()) {
+            return false;
+        }
+        progress.cancel();
+        if (status == Status.QUEUED) {
+            finish(Status.CANCELLED, null);
+            if (future != null) {
+                future.cancel(false);
+            }
+        }
+        return true;
+    }
+
+    private void finish(Status finalStatus, String message) {
+        this.status = finalStatus;
+        this.error = message;
+        this.finishedAt = System.currentTimeMillis();
+    }
+
+    /**
+     * getPage
+     *
+     * @param offset index of the first row
+     * @param limit  number of rows, negative for all of them
+     * @return the json of the report with the requested rows only, null when the job is not completed
+     * @throws JSONException
+     * @throws IOException
+     */
+    public synchronized String getPage(int offset, int limit) throws JSONException, IOException {
+        if (status != Status.COMPLETED) {
+            return null;
+        }
+        if (snapshotId != null) {
+            ReportSnapshotStore store = ReportSnapshotStore.getInstance();
+            return store != null ? store.getPage(snapshotId, userKey, null, false, null, offset, limit) : null;
+        }
+        JSONObject page = new JSONObject();
+        for (String key : summary.keySet()) {
+            page.put(key, summary.get(key));
+        }
+        if (rows != null) {
+            int start = Math.min(Math.max(offset, 0), rows.length());
+            int end = limit < 0 ? rows.length() : Math.min(start + limit, rows.length());
+            JSONArray pageRows = new JSONArray();
+            for (int i = start; i < end; i++) {
+                pageRows.put(rows.get(i));
+            }
+            page.put(rowsKey, pageRows);
+        }
+        return page.toString();
+    }
+
+    public boolean isFinished() {
+        return status == Status.COMPLETED || status == Status.FAILED || status == Status.CANCELLED;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getReportId() {
+        return reportId;
+    }
+
+    public String getSiteKey() {
+        return siteKey;
+    }
+
+    public String getUserKey() {
+        return userKey;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public ReportProgress getProgress() {
+        return progress;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public long getSubmittedAt() {
+        return submittedAt;
+    }
+
+    public long getStartedAt() {
+        return startedAt;
+    }
+
+    public long getFinishedAt() {
+        return finishedAt;
+    }
+
+    public boolean isSnapshot() {
+        return snapshot;
+    }
+
+    public synchronized String getSnapshotId() {
+        return snapshotId;
+    }
+
+    public synchronized int getRowCount() {
+        return rowCount;
+    }
+}
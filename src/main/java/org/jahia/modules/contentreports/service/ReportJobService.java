@@ -0,0 +1,285 @@
+package org.jahia.modules.contentreports.service;
+/*
+ * ==========================================================================================
+ * =                            JAHIA'S ENTERPRISE DISTRIBUTION                             =
+ * ==========================================================================================
+ *
+ *                                  http://www.jahia.com
+ *
+ * JAHIA'S ENTERPRISE DISTRIBUTIONS LICENSING - IMPORTANT INFORMATION
+ * ==========================================================================================
+ *
+ *     Copyright (C) 2002-2020 Jahia Solutions Group. All rights reserved.
+ *
+ *     This file is part of a Jahia's Enterprise Distribution.
+ *
+ *     Jahia's Enterprise Distributions must be used in accordance with the terms
+ *     contained in the Jahia Solutions Group Terms &amp; Conditions as well as
+ *     the Jahia Sustainable Enterprise License (JSEL).
+ *
+ *     For questions regarding licensing, support, production usage...
+ *     please contact our team at sales@jahia.com or go to http://www.jahia.com/license.
+ *
+ * ==========================================================================================
+ */
+
+import org.jahia.modules.contentreports.bean.BaseReport;
+import org.jahia.modules.contentreports.bean.QueryReport;
+import org.jahia.modules.contentreports.exception.ContentReportException;
+import org.jahia.services.content.JCRSessionWrapper;
+import org.jahia.services.content.JCRTemplate;
+import org.jahia.services.usermanager.JahiaUser;
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.osgi.service.component.annotations.Activate;
+import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.Deactivate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.jcr.RepositoryException;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The ReportJobService class.
+ * <p>Runs the long reports in the background, on a small pool of its own so that they do not
+ * hold the threads of the {@link ReportExecutor}. A job is read back by its id, only by the
+ * user who submitted it, and is kept for a while after it finished.</p>
+ */
+@Component(service = ReportJobService.class, immediate = true)
+public class ReportJobService {
+    private static Logger logger = LoggerFactory.getLogger(ReportJobService.class);
+
+    private static final int DEFAULT_POOL_SIZE = 2;
+    private static final int DEFAULT_QUEUE_SIZE = 20;
+    private static final int DEFAULT_MAX_JOBS = 100;
+    private static final long DEFAULT_TIME_TO_LIVE = 3600000L;
+
+    private static volatile ReportJobService instance;
+
+    private ThreadPoolExecutor executorService;
+    private int maxJobs = DEFAULT_MAX_JOBS;
+    private long timeToLive = DEFAULT_TIME_TO_LIVE;
+    private final Map<String, ReportJob> jobs = new LinkedHashMap<>();
+
+    /**
+     * ReportBuilder
+     * <p>builds the report of a job in the session the job runs in.</p>
+     */
+    public interface ReportBuilder {
+        BaseReport build(JCRSessionWrapper session) throws RepositoryException, ContentReportException;
+    }
+
+    /**
+     * getInstance
+     *
+     * @return the active service, null when the component is not active
+     */
+    public static ReportJobService getInstance() {
+        return instance;
+    }
+
+    @Activate
+    public void activate(Map<String, ?> properties) {
+        int poolSize = (int) getLong(properties, "poolSize", DEFAULT_POOL_SIZE);
+        int queueSize = (int) getLong(properties, "queueSize", DEFAULT_QUEUE_SIZE);
+        this.maxJobs = (int) getLong(properties, "maxJobs", DEFAULT_MAX_JOBS);
+        this.timeToLive = getLong(properties, "timeToLive", DEFAULT_TIME_TO_LIVE);
+        // a full queue refuses the job instead of running a long report in the request thread
+        this.executorService = new ThreadPoolExecutor(poolSize, poolSize, 60L, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueSize), new JobThreadFactory(), new ThreadPoolExecutor.AbortPolicy());
+        this.executorService.allowCoreThreadTimeOut(true);
+        instance = this;
+        logger.info("Content report jobs started with {} threads", poolSize);
+    }
+
+    @Deactivate
+    public void deactivate() {
+        if (instance == this) {
+            instance = null;
+        }
+        synchronized (jobs) {
+            jobs.values().forEach(ReportJob::cancel);
+            jobs.clear();
+        }
+        if (executorService != null) {
+            executorService.shutdownNow();
+            executorService = null;
+        }
+    }
+
+    /**
+     * submit
+     * <p>queue a report, it runs entirely (no offset/limit) in a new session of the user, workspace and locale of the calling session.</p>
+     *
+     * @param callerSession {@link JCRSessionWrapper}
+     * @param reportId      the report identifier
+     * @param siteKey       the site of the report
+     * @param snapshot      true to store the rows in a snapshot of the {@link ReportSnapshotStore}
+     * @param builder       {@link ReportBuilder}
+     * @return the queued {@link ReportJob}
+     * @throws ContentReportException when too many jobs are queued
+     * @throws RepositoryException
+     */
+    public ReportJob submit(JCRSessionWrapper callerSession, String reportId, String siteKey, boolean snapshot, final ReportBuilder builder)
+            throws ContentReportException, RepositoryException {
+        final JahiaUser user = callerSession.getUser();
+        final String workspace = callerSession.getWorkspace().getName();
+        final Locale locale = callerSession.getLocale();
+        final ReportJob job = new ReportJob(reportId, siteKey, user.getUserKey(), snapshot);
+
+        synchronized (jobs) {
+            purge();
+            if (jobs.size() >= maxJobs) {
+                throw new ContentReportException("Too many content report jobs, try again once some of them are finished");
+            }
+            jobs.put(job.getId(), job);
+        }
+        try {
+            job.setFuture(executorService.submit(() -> run(job, user, workspace, locale, builder)));
+        } catch (RejectedExecutionException e) {
+            synchronized (jobs) {
+                jobs.remove(job.getId());
+            }
+            throw new ContentReportException("Too many content report jobs queued, try again later", e);
+        }
+        return job;
+    }
+
+    private void run(ReportJob job, JahiaUser user, String workspace, Locale locale, ReportBuilder builder) {
+        if (!job.start()) {
+            return;
+        }
+        try {
+            JCRTemplate.getInstance().doExecute(user, workspace, locale, session -> {
+                try {
+                    BaseReport report = builder.build(session);
+                    report.setProgress(job.getProgress());
+                    report.execute(session, 0, QueryReport.NO_LIMIT);
+                    complete(job, report);
+                } catch (RepositoryException | CancellationException e) {
+                    throw e;
+                } catch (Exception e) {
+                    throw new RepositoryException(e.getMessage(), e);
+                }
+                return null;
+            });
+        } catch (CancellationException e) {
+            job.fail(null);
+        } catch (RepositoryException | RuntimeException e) {
+            logger.warn("Content report job {} for report {} failed", job.getId(), job.getReportId(), e);
+            Throwable cause = e.getCause() != null ? e.getCause() : e;
+            job.fail(cause.getMessage());
+        }
+    }
+
+    private void complete(ReportJob job, BaseReport report) throws JSONException, RepositoryException, IOException {
+        JSONObject json = report.getJson();
+        String rowsKey = report.getRowsKey();
+        JSONArray rows = rowsKey != null ? json.optJSONArray(rowsKey) : null;
+        ReportSnapshotStore store = ReportSnapshotStore.getInstance();
+        if (job.isSnapshot() && store != null && rows != null) {
+            json.remove(rowsKey);
+            String snapshotId = store.create(job.getReportId(), job.getSiteKey(), job.getUserKey(), json, rowsKey, rows);
+            job.completeWithSnapshot(json, snapshotId, rows.length());
+        } else {
+            job.complete(json, rowsKey);
+        }
+    }
+
+    /**
+     * getJob
+     *
+     * @param jobId   the job id
+     * @param userKey the key of the user reading the job
+     * @return the job, null when it does not exist, has expired or belongs to another user
+     */
+    public ReportJob getJob(String jobId, String userKey) {
+        synchronized (jobs) {
+            purge();
+            ReportJob job = jobs.get(jobId);
+            return job != null && job.getUserKey().equals(userKey) ? job : null;
+        }
+    }
+
+    /**
+     * getJobs
+     *
+     * @param userKey the key of the user
+     * @return the jobs submitted by the user, oldest first
+     */
+    public List<ReportJob> getJobs(String userKey) {
+        List<ReportJob> userJobs = new ArrayList<>();
+        synchronized (jobs) {
+            purge();
+            for (ReportJob job : jobs.values()) {
+                if (job.getUserKey().equals(userKey)) {
+                    userJobs.add(job);
+                }
+            }
+        }
+        return userJobs;
+    }
+
+    /**
+     * cancel
+     *
+     * @param jobId   the job id
+     * @param userKey the key of the user cancelling the job
+     * @return true when the job was queued or running
+     */
+    public boolean cancel(String jobId, String userKey) {
+        ReportJob job = getJob(jobId, userKey);
+        return job != null && job.cancel();
+    }
+
+    /* drops the jobs finished for longer than the time to live, the caller holds the lock on the jobs */
+    private void purge() {
+        long expired = System.currentTimeMillis() - timeToLive;
+        Iterator<ReportJob> iterator = jobs.values().iterator();
+        while (iterator.hasNext()) {
+            ReportJob job = iterator.next();
+            if (job.isFinished() && job.getFinishedAt() < expired) {
+                iterator.remove();
+            }
+        }
+    }
+
+    private static long getLong(Map<String, ?> properties, String key, long defaultValue) {
+        Object value = properties != null ? properties.get(key) : null;
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return Long.parseLong(value.toString().trim());
+        } catch (NumberFormatException e) {
+            logger.warn("Invalid value {} for {}, using {}", value, key, defaultValue);
+            return defaultValue;
+        }
+    }
+
+    private static class JobThreadFactory implements ThreadFactory {
+        private final AtomicInteger counter = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "content-report-jobs-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
@@ -0,0 +1,328 @@
+package org.jahia.modules.contentreports.service;
+/*
+ * ==========================================================================================
+ * =                            JAHIA'S ENTERPRISE DISTRIBUTION                             =
+ * ==========================================================================================
+ *
+ *                                  http://www.jahia.com
+ *
+ * JAHIA'S ENTERPRISE DISTRIBUTIONS LICENSING - IMPORTANT INFORMATION
+ * ==========================================================================================
+ *
+ *     Copyright (C) 2002-2020 Jahia Solutions Group. All rights reserved.
+ *
+ *     This file is part of a Jahia's Enterprise Distribution.
+ *
+ *     Jahia's Enterprise Distributions must be used in accordance with the terms
+ *     contained in the Jahia Solutions Group Terms &amp; Conditions as well as
+ *     the Jahia Sustainable Enterprise License (JSEL).
+ *
+ *     For questions regarding licensing, support, production usage...
+ *     please contact our team at sales@jahia.com or go to http://www.jahia.com/license.
+ *
+ * ==========================================================================================
+ */
+
+import org.osgi.service.component.annotations.Activate;
+import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.Deactivate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The ReportResultCache class.
+ * <p>In memory LRU cache of the rendered report payloads, bounded in size and in time.
+ * Each entry records the repository path its report depends on, and is dropped when a
+ * change is observed under that path (see {@link ReportCacheInvalidationListener}).</p>
+ * <p>A payload rendered while a change happened under its path is not stored: the
+ * callers take a generation with {@link #getGeneration()} before rendering and pass it
+ * back to {@link #put(ReportCacheKey, String, String, long)}.</p>
+ * <p>The total counts of the reports are kept apart from the payloads, in a small map invalidated
+ * the same way, so that counting the pages of a report does not evict the rendered payloads.</p>
+ */
+@Component(service = ReportResultCache.class, immediate = true)
+public class ReportResultCache {
+    private static Logger logger = LoggerFactory.getLogger(ReportResultCache.class);
+
+    private static final int DEFAULT_MAX_ENTRIES = 200;
+    private static final long DEFAULT_TIME_TO_LIVE = 300000L;
+    private static final int RECENT_INVALIDATIONS = 512;
+    private static final int DEFAULT_MAX_TOTALS = 64;
+
+    private static volatile ReportResultCache instance;
+
+    private int maxEntries = DEFAULT_MAX_ENTRIES;
+    private long timeToLive = DEFAULT_TIME_TO_LIVE;
+    private boolean cacheTotals = true;
+    private int maxTotals = DEFAULT_MAX_TOTALS;
+    private Map<ReportCacheKey, CacheEntry> entries;
+    private Map<ReportCacheKey, CacheEntry> totals;
+
+    private long generation;
+    private final String[] recentPaths = new String[RECENT_INVALIDATIONS];
+    private final long[] recentGenerations = new long[RECENT_INVALIDATIONS];
+
+    private long hits;
+    private long misses;
+    private long evictions;
+    private long invalidations;
+
+    /**
+     * getInstance
+     *
+     * @return the active cache, null when the component is not active
+     */
+    public static ReportResultCache getInstance() {
+        return instance;
+    }
+
+    @Activate
+    public void activate(Map<String, ?> properties) {
+        this.maxEntries = (int) getLong(properties, "maxEntries", DEFAULT_MAX_ENTRIES);
+        this.timeToLive = getLong(properties, "timeToLive", DEFAULT_TIME_TO_LIVE);
+        this.cacheTotals = properties == null || properties.get("cacheTotals") == null
+                || Boolean.parseBoolean(properties.get("cacheTotals").toString().trim());
+        this.maxTotals = (int) getLong(properties, "maxTotals", DEFAULT_MAX_TOTALS);
+        this.entries = new LinkedHashMap<ReportCacheKey, CacheEntry>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<ReportCacheKey, CacheEntry> eldest) {
+                if (size() > maxEntries) {
+                    evictions++;
+                    return true;
+                }
+                return false;
+            }
+        };
+        this.totals = new LinkedHashMap<ReportCacheKey, CacheEntry>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<ReportCacheKey, CacheEntry> eldest) {
+                return size() > maxTotals;
+            }
+        };
+        instance = this;
+        logger.info("Content reports cache started with {} entries and a time to live of {} ms", maxEntries, timeToLive);
+    }
+
+    @Deactivate
+    public void deactivate() {
+        if (instance == this) {
+            instance = null;
+        }
+        clear();
+    }
+
+    /**
+     * get
+     *
+     * @param key {@link ReportCacheKey}
+     * @return the cached payload, null if absent or expired
+     */
+    public synchronized String get(ReportCacheKey key) {
+        CacheEntry entry = entries.get(key);
+        if (entry != null && entry.expiresAt < System.currentTimeMillis()) {
+            entries.remove(key);
+            evictions++;
+            entry = null;
+        }
+        if (entry == null) {
+            misses++;
+            return null;
+        }
+        hits++;
+        return entry.payload;
+    }
+
+    /**
+     * getTotal
+     *
+     * @param key {@link ReportCacheKey} of the counted query
+     * @return the cached total, null if absent or expired
+     */
+    public synchronized Long getTotal(ReportCacheKey key) {
+        CacheEntry entry = totals.get(key);
+        if (entry != null && entry.expiresAt < System.currentTimeMillis()) {
+            totals.remove(key);
+            entry = null;
+        }
+        return entry != null ? Long.valueOf(entry.payload) : null;
+    }
+
+    /**
+     * putTotal
+     *
+     * @param key        {@link ReportCacheKey} of the counted query
+     * @param scopePath  the path under which a change invalidates the total
+     * @param total      the number of results of the query
+     * @param generation the generation taken before counting
+     */
+    public synchronized void putTotal(ReportCacheKey key, String scopePath, long total, long generation) {
+        if (isInvalidatedSince(scopePath, generation)) {
+            logger.debug("Not caching the total of {}, its scope {} changed while it was counted", key, scopePath);
+            return;
+        }
+        totals.put(key, new CacheEntry(scopePath, Long.toString(total), System.currentTimeMillis() + timeToLive));
+    }
+
+    /**
+     * isCachingTotals
+     *
+     * @return true when the total counts of the reports are kept between the requests of their pages
+     */
+    public boolean isCachingTotals() {
+        return cacheTotals;
+    }
+
+    /**
+     * getGeneration
+     *
+     * @return the current invalidation generation, to be passed to {@link #put(ReportCacheKey, String, String, long)}
+     */
+    public synchronized long getGeneration() {
+        return generation;
+    }
+
+    /**
+     * put
+     *
+     * @param key        {@link ReportCacheKey}
+     * @param scopePath  the path under which a change invalidates the payload
+     * @param payload    the rendered payload
+     * @param generation the generation taken before rendering the payload
+     */
+    public synchronized void put(ReportCacheKey key, String scopePath, String payload, long generation) {
+        if (isInvalidatedSince(scopePath, generation)) {
+            logger.debug("Not caching {}, its scope {} changed while it was rendered", key, scopePath);
+            return;
+        }
+        entries.put(key, new CacheEntry(scopePath, payload, System.currentTimeMillis() + timeToLive));
+    }
+
+    /**
+     * invalidate
+     * <p>drop the entries depending on any of the changed paths.</p>
+     *
+     * @param paths the changed paths
+     */
+    public synchronized void invalidate(Collection<String> paths) {
+        for (String path : paths) {
+            generation++;
+            int slot = (int) (generation % RECENT_INVALIDATIONS);
+            recentPaths[slot] = path;
+            recentGenerations[slot] = generation;
+        }
+        invalidations += removeInScope(entries, paths);
+        removeInScope(totals, paths);
+    }
+
+    private static int removeInScope(Map<ReportCacheKey, CacheEntry> map, Collection<String> paths) {
+        int removed = 0;
+        Iterator<CacheEntry> iterator = map.values().iterator();
+        while (iterator.hasNext()) {
+            CacheEntry entry = iterator.next();
+            for (String path : paths) {
+                if (isInScope(path, entry.scopePath)) {
+                    iterator.remove();
+                    removed++;
+                    break;
+                }
+            }
+        }
+        return removed;
+    }
+
+    /**
+     * clear
+     */
+    public synchronized void clear() {
+        if (entries != null) {
+            entries.clear();
+        }
+        if (totals != null) {
+            totals.clear();
+        }
+    }
+
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    public synchronized long getEvictions() {
+        return evictions;
+    }
+
+    public synchronized long getInvalidations() {
+        return invalidations;
+    }
+
+    public synchronized int getSize() {
+        return entries != null ? entries.size() : 0;
+    }
+
+    public int getMaxEntries() {
+        return maxEntries;
+    }
+
+    public long getTimeToLive() {
+        return timeToLive;
+    }
+
+    private boolean isInvalidatedSince(String scopePath, long since) {
+        if (generation == since) {
+            return false;
+        }
+        if (generation - since >= RECENT_INVALIDATIONS) {
+            // too many changes to tell, do not take the risk of caching a stale payload
+            return true;
+        }
+        for (long g = since + 1; g <= generation; g++) {
+            int slot = (int) (g % RECENT_INVALIDATIONS);
+            if (recentGenerations[slot] == g && isInScope(recentPaths[slot], scopePath)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * a change at some path affects a scope when it is inside of it,
+     * or when it is an ancestor of the scope (move, removal).
+     */
+    private static boolean isInScope(String path, String scopePath) {
+        return "/".equals(scopePath) || path.equals(scopePath)
+                || path.startsWith(scopePath + "/") || scopePath.startsWith(path + "/");
+    }
+
+    private static long getLong(Map<String, ?> properties, String key, long defaultValue) {
+        Object value = properties != null ? properties.get(key) : null;
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return Long.parseLong(value.toString().trim());
+        } catch (NumberFormatException e) {
+            logger.warn("Invalid value {} for {}, using {}", value, key, defaultValue);
+            return defaultValue;
+        }
+    }
+
+    private static final class CacheEntry {
+        private final String scopePath;
+        private final String payload;
+        private final long expiresAt;
+
+        private CacheEntry(String scopePath, String payload, long expiresAt) {
+            this.scopePath = scopePath;
+            this.payload = payload;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
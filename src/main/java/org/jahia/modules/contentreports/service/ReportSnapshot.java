@@ -0,0 +1,485 @@
+package org.jahia.modules.contentreports.service;
+/*
+ * ==========================================================================================
+ * =                            JAHIA'S ENTERPRISE DISTRIBUTION                             =
+ * ==========================================================================================
+ *
+ *                                  http://www.jahia.com
+ *
+ * JAHIA'S ENTERPRISE DISTRIBUTIONS LICENSING - IMPORTANT INFORMATION
+ * ==========================================================================================
+ *
+ *     Copyright (C) 2002-2020 Jahia Solutions Group. All rights reserved.
+ *
+ *     This file is part of a Jahia's Enterprise Distribution.
+ *
+ *     Jahia's Enterprise Distributions must be used in accordance with the terms
+ *     contained in the Jahia Solutions Group Terms &amp; Conditions as well as
+ *     the Jahia Sustainable Enterprise License (JSEL).
+ *
+ *     For questions regarding licensing, support, production usage...
+ *     please contact our team at sales@jahia.com or go to http://www.jahia.com/license.
+ *
+ * ==========================================================================================
+ */
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The ReportSnapshot class.
+ * <p>The rows of a completed report stored in a file column by column, and read back
+ * through a memory mapping to serve pages, sorts and filters without querying the repository.</p>
+ * <p>Layout of the file, big-endian:</p>
+ * <ul>
+ *     <li>header: magic, row count, column count, named flag, rows key, summary json</li>
+ *     <li>column definitions: name and type, followed by the dictionary of the text columns</li>
+ *     <li>the length of each row, for the positional rows</li>
+ *     <li>the column data: dictionary index (int), epoch millis or number (long) or boolean (byte) per row</li>
+ * </ul>
+ */
+public class ReportSnapshot {
+
+    private static final int MAGIC = 0x43525331;
+
+    private static final byte STRING = 0;
+    private static final byte JSON = 1;
+    private static final byte DATE = 2;
+    private static final byte LONG = 3;
+    private static final byte BOOLEAN = 4;
+
+    private static final int NULL_INDEX = -1;
+    private static final long NULL_LONG = Long.MIN_VALUE;
+    private static final byte NULL_BYTE = -1;
+
+    private final MappedByteBuffer buffer;
+    private final int rowCount;
+    private final boolean named;
+    private final String rowsKey;
+    private final String summary;
+    private final String[] names;
+    private final byte[] types;
+    private final String[][] dictionaries;
+    private final int rowLengthsOffset;
+    private final int[] dataOffsets;
+
+    private ReportSnapshot(MappedByteBuffer buffer) throws IOException {
+        this.buffer = buffer;
+        ByteBuffer header = buffer.duplicate();
+        if (header.getInt() != MAGIC) {
+            throw new IOException("Not a content report snapshot");
+        }
+        rowCount = header.getInt();
+        int columnCount = header.getInt();
+        named = header.get() == 1;
+        rowsKey = readString(header);
+        summary = readString(header);
+        names = new String[columnCount];
+        types = new byte[columnCount];
+        dictionaries = new String[columnCount][];
+        for (int column = 0; column < columnCount; column++) {
+            names[column] = readString(header);
+            types[column] = header.get();
+            if (isText(types[column])) {
+                String[] dictionary = new String[header.getInt()];
+                for (int i = 0; i < dictionary.length; i++) {
+                    dictionary[i] = readString(header);
+                }
+                dictionaries[column] = dictionary;
+            }
+        }
+        rowLengthsOffset = header.position();
+        int offset = rowLengthsOffset + (named ? 0 : rowCount * 4);
+        dataOffsets = new int[columnCount];
+        for (int column = 0; column < columnCount; column++) {
+            dataOffsets[column] = offset;
+            offset += rowCount * width(types[column]);
+        }
+    }
+
+    /**
+     * open
+     *
+     * @param file the snapshot file
+     * @return the snapshot, mapped in memory
+     * @throws IOException
+     */
+    public static ReportSnapshot open(File file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            // the mapping stays valid once the channel is closed
+            return new ReportSnapshot(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    /**
+     * write
+     * <p>store the rows of a report, the other entries of its json are kept as they are.</p>
+     *
+     * @param file    the snapshot file
+     * @param json    the json of the report, without its rows
+     * @param rowsKey the key of the rows
+     * @param rows    the rows, arrays of values or objects
+     * @return the number of rows written
+     * @throws IOException
+     * @throws JSONException
+     */
+    public static int write(File file, JSONObject json, String rowsKey, JSONArray rows) throws IOException, JSONException {
+        int count = rows.length();
+        boolean namedRows = count > 0 && rows.get(0) instanceof JSONObject;
+        List<String> columnNames = new ArrayList<>();
+        Map<String, Integer> columnIndexes = new HashMap<>();
+        int[] rowLengths = new int[count];
+        Object[][] values = new Object[count][];
+        for (int row = 0; row < count; row++) {
+            Object item = rows.get(row);
+            if (namedRows) {
+                JSONObject object = (JSONObject) item;
+                Object[] rowValues = new Object[columnNames.size() + object.length()];
+                for (String key : object.keySet()) {
+                    Integer column = columnIndexes.get(key);
+                    if (column == null) {
+                        column = columnNames.size();
+                        columnIndexes.put(key, column);
+                        columnNames.add(key);
+                    }
+                    rowValues[column] = object.get(key);
+                }
+                values[row] = rowValues;
+            } else {
+                JSONArray array = (JSONArray) item;
+                Object[] rowValues = new Object[array.length()];
+                for (int column = 0; column < rowValues.length; column++) {
+                    rowValues[column] = array.get(column);
+                }
+                rowLengths[row] = rowValues.length;
+                while (columnNames.size() < rowValues.length) {
+                    columnNames.add("");
+                }
+                values[row] = rowValues;
+            }
+        }
+
+        int columnCount = columnNames.size();
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(count);
+            out.writeInt(columnCount);
+            out.writeByte(namedRows ? 1 : 0);
+            writeString(out, rowsKey);
+            writeString(out, json.toString());
+
+            byte[] columnTypes = new byte[columnCount];
+            List<Map<String, Integer>> columnDictionaries = new ArrayList<>();
+            for (int column = 0; column < columnCount; column++) {
+                columnTypes[column] = getType(values, column);
+                writeString(out, columnNames.get(column));
+                out.writeByte(columnTypes[column]);
+                Map<String, Integer> dictionary = null;
+                if (isText(columnTypes[column])) {
+                    dictionary = new LinkedHashMap<>();
+                    for (Object[] rowValues : values) {
+                        Object value = getValue(rowValues, column);
+                        if (value != null) {
+                            dictionary.putIfAbsent(value.toString(), dictionary.size());
+                        }
+                    }
+                    out.writeInt(dictionary.size());
+                    for (String entry : dictionary.keySet()) {
+                        writeString(out, entry);
+                    }
+                }
+                columnDictionaries.add(dictionary);
+            }
+
+            if (!namedRows) {
+                for (int length : rowLengths) {
+                    out.writeInt(length);
+                }
+            }
+            for (int column = 0; column < columnCount; column++) {
+                Map<String, Integer> dictionary = columnDictionaries.get(column);
+                for (Object[] rowValues : values) {
+                    Object value = getValue(rowValues, column);
+                    switch (columnTypes[column]) {
+                        case DATE:
+                            out.writeLong(value != null ? parseDate(value.toString()) : NULL_LONG);
+                            break;
+                        case LONG:
+                            out.writeLong(value != null ? ((Number) value).longValue() : NULL_LONG);
+                            break;
+                        case BOOLEAN:
+                            out.writeByte(value != null ? (((Boolean) value) ? 1 : 0) : NULL_BYTE);
+                            break;
+                        default:
+                            out.writeInt(value != null ? dictionary.get(value.toString()) : NULL_INDEX);
+                    }
+                }
+            }
+        }
+        return count;
+    }
+
+    /**
+     * getPage
+     *
+     * @param sortColumn index of the column to sort by (position of the column for the named rows), null to keep the order of the report
+     * @param descending true to sort in descending order
+     * @param filter     text searched in the text columns, case insensitive, null for all the rows
+     * @param offset     index of the first row
+     * @param limit      number of rows, negative for all of them
+     * @return the json of the report with the requested rows, recordsTotal and recordsFiltered
+     * @throws JSONException
+     */
+    public String getPage(Integer sortColumn, boolean descending, String filter, int offset, int limit) throws JSONException {
+        int[] selected = filter(filter);
+        if (sortColumn != null && sortColumn >= 0 && sortColumn < names.length) {
+            sort(selected, sortColumn, descending);
+        }
+
+        JSONObject page = new JSONObject(summary);
+        page.put("recordsTotal", rowCount);
+        page.put("recordsFiltered", selected.length);
+        int start = Math.min(Math.max(offset, 0), selected.length);
+        int end = limit < 0 ? selected.length : (int) Math.min((long) start + limit, selected.length);
+        JSONArray rows = new JSONArray();
+        for (int i = start; i < end; i++) {
+            rows.put(getRow(selected[i]));
+        }
+        page.put(rowsKey, rows);
+        return page.toString();
+    }
+
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    private int[] filter(String filter) {
+        if (filter == null || filter.isEmpty()) {
+            int[] all = new int[rowCount];
+            for (int row = 0; row < rowCount; row++) {
+                all[row] = row;
+            }
+            return all;
+        }
+        // the text is searched once in each dictionary, then the rows only compare indexes
+        String text = filter.toLowerCase();
+        boolean[][] matches = new boolean[names.length][];
+        for (int column = 0; column < names.length; column++) {
+            if (types[column] == STRING) {
+                String[] dictionary = dictionaries[column];
+                matches[column] = new boolean[dictionary.length];
+                for (int i = 0; i < dictionary.length; i++) {
+                    matches[column][i] = dictionary[i].toLowerCase().contains(text);
+                }
+            }
+        }
+        int[] selected = new int[rowCount];
+        int size = 0;
+        for (int row = 0; row < rowCount; row++) {
+            for (int column = 0; column < names.length; column++) {
+                if (matches[column] != null) {
+                    int index = buffer.getInt(dataOffsets[column] + row * 4);
+                    if (index != NULL_INDEX && matches[column][index]) {
+                        selected[size++] = row;
+                        break;
+                    }
+                }
+            }
+        }
+        return Arrays.copyOf(selected, size);
+    }
+
+    private void sort(int[] rows, int column, boolean descending) {
+        // each row gets the rank of its value, nulls first, then rank and row are packed in a long so that
+        // a primitive sort orders the rows and keeps the order of the report between equal values
+        int[] ranks = getRanks(column);
+        int maxRank = 0;
+        for (int rank : ranks) {
+            maxRank = Math.max(maxRank, rank);
+        }
+        long[] keys = new long[rows.length];
+        for (int i = 0; i < rows.length; i++) {
+            int rank = ranks[rows[i]];
+            keys[i] = ((long) (descending ? maxRank - rank : rank) << 32) | rows[i];
+        }
+        Arrays.sort(keys);
+        for (int i = 0; i < keys.length; i++) {
+            rows[i] = (int) keys[i];
+        }
+    }
+
+    private int[] getRanks(int column) {
+        int[] ranks = new int[rowCount];
+        int offset = dataOffsets[column];
+        if (isText(types[column])) {
+            String[] dictionary = dictionaries[column];
+            Integer[] order = new Integer[dictionary.length];
+            for (int i = 0; i < order.length; i++) {
+                order[i] = i;
+            }
+            Arrays.sort(order, (first, second) -> String.CASE_INSENSITIVE_ORDER.compare(dictionary[first], dictionary[second]));
+            int[] dictionaryRanks = new int[dictionary.length];
+            for (int i = 0; i < order.length; i++) {
+                dictionaryRanks[order[i]] = i + 1;
+            }
+            for (int row = 0; row < rowCount; row++) {
+                int index = buffer.getInt(offset + row * 4);
+                ranks[row] = index == NULL_INDEX ? 0 : dictionaryRanks[index];
+            }
+        } else if (types[column] == BOOLEAN) {
+            for (int row = 0; row < rowCount; row++) {
+                ranks[row] = buffer.get(offset + row) + 1;
+            }
+        } else {
+            long[] sorted = new long[rowCount];
+            for (int row = 0; row < rowCount; row++) {
+                sorted[row] = buffer.getLong(offset + row * 8);
+            }
+            Arrays.sort(sorted);
+            int distinct = 0;
+            for (int i = 0; i < sorted.length; i++) {
+                if (i == 0 || sorted[i] != sorted[distinct - 1]) {
+                    sorted[distinct++] = sorted[i];
+                }
+            }
+            for (int row = 0; row < rowCount; row++) {
+                long value = buffer.getLong(offset + row * 8);
+                // NULL_LONG is the smallest value, so the nulls get the first rank
+                ranks[row] = value == NULL_LONG ? 0 : Arrays.binarySearch(sorted, 0, distinct, value) + 1;
+            }
+        }
+        return ranks;
+    }
+
+    private Object getRow(int row) throws JSONException {
+        if (named) {
+            JSONObject object = new JSONObject();
+            for (int column = 0; column < names.length; column++) {
+                Object value = getValue(row, column);
+                if (value != null) {
+                    object.put(names[column], value);
+                }
+            }
+            return object;
+        }
+        int length = buffer.getInt(rowLengthsOffset + row * 4);
+        JSONArray array = new JSONArray();
+        for (int column = 0; column < length; column++) {
+            Object value = getValue(row, column);
+            array.put(value != null ? value : JSONObject.NULL);
+        }
+        return array;
+    }
+
+    private Object getValue(int row, int column) throws JSONException {
+        int offset = dataOffsets[column];
+        switch (types[column]) {
+            case DATE: {
+                long value = buffer.getLong(offset + row * 8);
+                return value != NULL_LONG ? Instant.ofEpochMilli(value).toString() : null;
+            }
+            case LONG: {
+                long value = buffer.getLong(offset + row * 8);
+                return value != NULL_LONG ? value : null;
+            }
+            case BOOLEAN: {
+                byte value = buffer.get(offset + row);
+                return value != NULL_BYTE ? value == 1 : null;
+            }
+            case JSON: {
+                int index = buffer.getInt(offset + row * 4);
+                if (index == NULL_INDEX) {
+                    return null;
+                }
+                String text = dictionaries[column][index];
+                return text.startsWith("[") ? new JSONArray(text) : new JSONObject(text);
+            }
+            default: {
+                int index = buffer.getInt(offset + row * 4);
+                return index != NULL_INDEX ? dictionaries[column][index] : null;
+            }
+        }
+    }
+
+    /* the narrowest type holding every value of the column */
+    private static byte getType(Object[][] values, int column) {
+        boolean booleans = true;
+        boolean longs = true;
+        boolean dates = true;
+        boolean json = true;
+        boolean empty = true;
+        for (Object[] rowValues : values) {
+            Object value = getValue(rowValues, column);
+            if (value == null) {
+                continue;
+            }
+            empty = false;
+            booleans &= value instanceof Boolean;
+            longs &= value instanceof Integer || value instanceof Long;
+            dates &= value instanceof String && parseDate((String) value) != NULL_LONG;
+            json &= value instanceof JSONArray || value instanceof JSONObject;
+        }
+        if (empty) {
+            return STRING;
+        }
+        return booleans ? BOOLEAN : longs ? LONG : dates ? DATE : json ? JSON : STRING;
+    }
+
+    private static Object getValue(Object[] rowValues, int column) {
+        Object value = column < rowValues.length ? rowValues[column] : null;
+        return value == JSONObject.NULL ? null : value;
+    }
+
+    private static long parseDate(String value) {
+        // only the ISO 8601 dates of the repository, e.g. 2020-01-31T10:15:30.000+01:00
+        if (value.length() < 20 || value.charAt(4) != '-' || value.charAt(10) != 'T') {
+            return NULL_LONG;
+        }
+        try {
+            return OffsetDateTime.parse(value).toInstant().toEpochMilli();
+        } catch (DateTimeParseException e) {
+            return NULL_LONG;
+        }
+    }
+
+    private static boolean isText(byte type) {
+        return type == STRING || type == JSON;
+    }
+
+    private static int width(byte type) {
+        return type == DATE || type == LONG ? 8 : type == BOOLEAN ? 1 : 4;
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.getInt()];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
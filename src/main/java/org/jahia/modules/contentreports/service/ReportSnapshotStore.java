@@ -0,0 +1,312 @@
+package org.jahia.modules.contentreports.service;
+/*
+ * ==========================================================================================
+ * =                            JAHIA'S ENTERPRISE DISTRIBUTION                             =
+ * ==========================================================================================
+ *
+ *                                  http://www.jahia.com
+ *
+ * JAHIA'S ENTERPRISE DISTRIBUTIONS LICENSING - IMPORTANT INFORMATION
+ * ==========================================================================================
+ *
+ *     Copyright (C) 2002-2020 Jahia Solutions Group. All rights reserved.
+ *
+ *     This file is part of a Jahia's Enterprise Distribution.
+ *
+ *     Jahia's Enterprise Distributions must be used in accordance with the terms
+ *     contained in the Jahia Solutions Group Terms &amp; Conditions as well as
+ *     the Jahia Sustainable Enterprise License (JSEL).
+ *
+ *     For questions regarding licensing, support, production usage...
+ *     please contact our team at sales@jahia.com or go to http://www.jahia.com/license.
+ *
+ * ==========================================================================================
+ */
+
+import org.jahia.settings.SettingsBean;
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.osgi.service.component.annotations.Activate;
+import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.Deactivate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * The ReportSnapshotStore class.
+ * <p>Keeps the snapshots of the completed reports under the Jahia var directory
+ * (see {@link ReportSnapshot} for the format). A snapshot expires after its time to live,
+ * and the oldest ones are removed when the store exceeds its size.</p>
+ * <p>Snapshots are only read by the user who created them, as the rows depend on the user's permissions,
+ * and the files of a previous run of the module are removed at activation.</p>
+ */
+@Component(service = ReportSnapshotStore.class, immediate = true)
+public class ReportSnapshotStore {
+    private static Logger logger = LoggerFactory.getLogger(ReportSnapshotStore.class);
+
+    private static final long DEFAULT_TIME_TO_LIVE = 86400000L;
+    private static final long DEFAULT_MAX_SIZE = 268435456L;
+    private static final String EXTENSION = ".snapshot";
+
+    private static volatile ReportSnapshotStore instance;
+
+    private File directory;
+    private long timeToLive = DEFAULT_TIME_TO_LIVE;
+    private long maxSize = DEFAULT_MAX_SIZE;
+    private long size;
+    /* the snapshots, oldest first */
+    private final Map<String, Entry> entries = new LinkedHashMap<>();
+
+    /**
+     * getInstance
+     *
+     * @return the active store, null when the component is not active
+     */
+    public static ReportSnapshotStore getInstance() {
+        return instance;
+    }
+
+    @Activate
+    public void activate(Map<String, ?> properties) {
+        this.timeToLive = getLong(properties, "timeToLive", DEFAULT_TIME_TO_LIVE);
+        this.maxSize = getLong(properties, "maxSize", DEFAULT_MAX_SIZE);
+        Object configured = properties != null ? properties.get("directory") : null;
+        this.directory = configured != null ? new File(configured.toString().trim())
+                : new File(SettingsBean.getInstance().getJahiaVarDiskPath(), "content-reports/snapshots");
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            logger.error("Cannot create the content report snapshot directory {}", directory);
+            return;
+        }
+        File[] previous = directory.listFiles((dir, name) -> name.endsWith(EXTENSION));
+        if (previous != null) {
+            for (File file : previous) {
+                delete(file);
+            }
+        }
+        instance = this;
+        logger.info("Content report snapshots stored in {} for {} ms, up to {} bytes", directory, timeToLive, maxSize);
+    }
+
+    @Deactivate
+    public synchronized void deactivate() {
+        if (instance == this) {
+            instance = null;
+        }
+        for (Entry entry : entries.values()) {
+            delete(entry.file);
+        }
+        entries.clear();
+        size = 0;
+    }
+
+    /**
+     * create
+     *
+     * @param reportId the report identifier
+     * @param siteKey  the site of the report
+     * @param userKey  the user who ran the report
+     * @param json     the json of the report, without its rows
+     * @param rowsKey  the key of the rows
+     * @param rows     the rows of the report
+     * @return the snapshot id
+     * @throws IOException
+     * @throws JSONException
+     */
+    public String create(String reportId, String siteKey, String userKey, JSONObject json, String rowsKey, JSONArray rows)
+            throws IOException, JSONException {
+        String id = UUID.randomUUID().toString();
+        File file = new File(directory, id + EXTENSION);
+        int rowCount;
+        try {
+            rowCount = ReportSnapshot.write(file, json, rowsKey, rows);
+        } catch (IOException | JSONException | RuntimeException e) {
+            delete(file);
+            throw e;
+        }
+        Entry entry = new Entry(id, reportId, siteKey, userKey, file, rowCount, timeToLive);
+        synchronized (this) {
+            entries.put(id, entry);
+            size += entry.length;
+            purge();
+        }
+        return id;
+    }
+
+    /**
+     * getPage
+     *
+     * @param id         the snapshot id
+     * @param userKey    the user reading the snapshot
+     * @param sortColumn see {@link ReportSnapshot#getPage(Integer, boolean, String, int, int)}
+     * @param descending see {@link ReportSnapshot#getPage(Integer, boolean, String, int, int)}
+     * @param filter     see {@link ReportSnapshot#getPage(Integer, boolean, String, int, int)}
+     * @param offset     index of the first row
+     * @param limit      number of rows, negative for all of them
+     * @return the page, null when the snapshot does not exist, has expired or belongs to another user
+     * @throws IOException
+     * @throws JSONException
+     */
+    public String getPage(String id, String userKey, Integer sortColumn, boolean descending, String filter, int offset, int limit)
+            throws IOException, JSONException {
+        Entry entry = getEntry(id, userKey);
+        return entry != null ? entry.open().getPage(sortColumn, descending, filter, offset, limit) : null;
+    }
+
+    /**
+     * getSnapshots
+     *
+     * @param userKey the user
+     * @return the snapshots of the user, oldest first
+     */
+    public synchronized List<Entry> getSnapshots(String userKey) {
+        purge();
+        List<Entry> snapshots = new ArrayList<>();
+        for (Entry entry : entries.values()) {
+            if (entry.userKey.equals(userKey)) {
+                snapshots.add(entry);
+            }
+        }
+        return snapshots;
+    }
+
+    /**
+     * getEntry
+     *
+     * @param id      the snapshot id
+     * @param userKey the user reading the snapshot
+     * @return the snapshot entry, null when it does not exist, has expired or belongs to another user
+     */
+    public synchronized Entry getEntry(String id, String userKey) {
+        purge();
+        Entry entry = id != null ? entries.get(id) : null;
+        return entry != null && entry.userKey.equals(userKey) ? entry : null;
+    }
+
+    /**
+     * remove
+     *
+     * @param id      the snapshot id
+     * @param userKey the user removing the snapshot
+     * @return true when the snapshot existed
+     */
+    public synchronized boolean remove(String id, String userKey) {
+        Entry entry = getEntry(id, userKey);
+        if (entry == null) {
+            return false;
+        }
+        evict(entry);
+        entries.remove(id);
+        return true;
+    }
+
+    /* drops the expired snapshots, then the oldest ones while the store is too large */
+    private void purge() {
+        long now = System.currentTimeMillis();
+        Iterator<Entry> iterator = entries.values().iterator();
+        while (iterator.hasNext()) {
+            Entry entry = iterator.next();
+            if (entry.expiresAt < now || size > maxSize) {
+                evict(entry);
+                iterator.remove();
+            }
+        }
+    }
+
+    private void evict(Entry entry) {
+        size -= entry.length;
+        delete(entry.file);
+    }
+
+    private static void delete(File file) {
+        if (file.exists() && !file.delete()) {
+            logger.warn("Cannot delete the content report snapshot {}", file);
+        }
+    }
+
+    private static long getLong(Map<String, ?> properties, String key, long defaultValue) {
+        Object value = properties != null ? properties.get(key) : null;
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return Long.parseLong(value.toString().trim());
+        } catch (NumberFormatException e) {
+            logger.warn("Invalid value {} for {}, using {}", value, key, defaultValue);
+            return defaultValue;
+        }
+    }
+
+    /**
+     * A snapshot of the store.
+     */
+    public static class Entry {
+        private final String id;
+        private final String reportId;
+        private final String siteKey;
+        private final String userKey;
+        private final File file;
+        private final int rowCount;
+        private final long length;
+        private final long createdAt;
+        private final long expiresAt;
+        private ReportSnapshot snapshot;
+
+        private Entry(String id, String reportId, String siteKey, String userKey, File file, int rowCount, long timeToLive) {
+            this.id = id;
+            this.reportId = reportId;
+            this.siteKey = siteKey;
+            this.userKey = userKey;
+            this.file = file;
+            this.rowCount = rowCount;
+            this.length = file.length();
+            this.createdAt = System.currentTimeMillis();
+            this.expiresAt = createdAt + timeToLive;
+        }
+
+        /* the file is mapped on first read and the mapping is kept with the entry */
+        private synchronized ReportSnapshot open() throws IOException {
+            if (snapshot == null) {
+                snapshot = ReportSnapshot.open(file);
+            }
+            return snapshot;
+        }
+
+        public String getId() {
+            return id;
+        }
+
+        public String getReportId() {
+            return reportId;
+        }
+
+        public String getSiteKey() {
+            return siteKey;
+        }
+
+        public int getRowCount() {
+            return rowCount;
+        }
+
+        public long getLength() {
+            return length;
+        }
+
+        public long getCreatedAt() {
+            return createdAt;
+        }
+
+        public long getExpiresAt() {
+            return expiresAt;
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package org.jahia.modules.contentreports.service;
+/*
+ * ==========================================================================================
+ * =                            JAHIA'S ENTERPRISE DISTRIBUTION                             =
+ * ==========================================================================================
+ *
+ *                                  http://www.jahia.com
+ *
+ * JAHIA'S ENTERPRISE DISTRIBUTIONS LICENSING - IMPORTANT INFORMATION
+ * ==========================================================================================
+ *
+ *     Copyright (C) 2002-2020 Jahia Solutions Group. All rights reserved.
+ *
+ *     This file is part of a Jahia's Enterprise Distribution.
+ *
+ *     Jahia's Enterprise Distributions must be used in accordance with the terms
+ *     contained in the Jahia Solutions Group Terms &amp; Conditions as well as
+ *     the Jahia Sustainable Enterprise License (JSEL).
+ *
+ *     For questions regarding licensing, support, production usage...
+ *     please contact our team at sales@jahia.com or go to http://www.jahia.com/license.
+ *
+ * ==========================================================================================
+ */
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The StringPool class.
+ * <p>Gives a stable int id to each distinct string, node type names or user names, so that the reports
+ * count with int arrays indexed by id rather than with maps of boxed counters.</p>
+ * <p>The ids are given by a single thread at a time, they can be read by any thread.</p>
+ */
+public final class StringPool {
+    /** the id of a null string */
+    public static final int NONE = -1;
+
+    private final Map<String, Integer> ids = new HashMap<>();
+    private volatile String[] values = new String[64];
+    private volatile int size;
+
+    /**
+     * getId
+     *
+     * @param value a string, may be null
+     * @return the id of the string, given on its first call, {@link #NONE} for null
+     */
+    public synchronized int getId(String value) {
+        if (value == null) {
+            return NONE;
+        }
+        Integer id = ids.get(value);
+        if (id != null) {
+            return id;
+        }
+        int newId = size;
+        String[] current = values;
+        if (newId == current.length) {
+            current = Arrays.copyOf(current, newId * 2);
+        }
+        current[newId] = value;
+        values = current;
+        ids.put(value, newId);
+        size = newId + 1;
+        return newId;
+    }
+
+    /**
+     * find
+     *
+     * @param value a string, may be null
+     * @return the id of the string, {@link #NONE} when it was never given one
+     */
+    public synchronized int find(String value) {
+        Integer id = value != null ? ids.get(value) : null;
+        return id != null ? id : NONE;
+    }
+
+    /**
+     * get
+     *
+     * @param id an id given by this pool
+     * @return the string of the id, null for {@link #NONE}
+     */
+    public String get(int id) {
+        if (id < 0 || id >= size) {
+            return null;
+        }
+        return values[id];
+    }
+
+    /**
+     * size
+     *
+     * @return the number of ids given, all the ids are lower
+     */
+    public int size() {
+        return size;
+    }
+}
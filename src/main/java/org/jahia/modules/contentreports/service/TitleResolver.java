@@ -0,0 +1,148 @@
+package org.jahia.modules.contentreports.service;
+/*
+ * ==========================================================================================
+ * =                            JAHIA'S ENTERPRISE DISTRIBUTION                             =
+ * ==========================================================================================
+ *
+ *                                  http://www.jahia.com
+ *
+ * JAHIA'S ENTERPRISE DISTRIBUTIONS LICENSING - IMPORTANT INFORMATION
+ * ==========================================================================================
+ *
+ *     Copyright (C) 2002-2020 Jahia Solutions Group. All rights reserved.
+ *
+ *     This file is part of a Jahia's Enterprise Distribution.
+ *
+ *     Jahia's Enterprise Distributions must be used in accordance with the terms
+ *     contained in the Jahia Solutions Group Terms &amp; Conditions as well as
+ *     the Jahia Sustainable Enterprise License (JSEL).
+ *
+ *     For questions regarding licensing, support, production usage...
+ *     please contact our team at sales@jahia.com or go to http://www.jahia.com/license.
+ *
+ * ==========================================================================================
+ */
+
+import org.apache.commons.lang3.StringUtils;
+import org.jahia.services.content.JCRSessionWrapper;
+
+import javax.jcr.RepositoryException;
+import javax.jcr.Value;
+import javax.jcr.query.Query;
+import javax.jcr.query.Row;
+import javax.jcr.query.RowIterator;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * The TitleResolver class.
+ * <p>Reads an i18n property, jcr:title usually, of a page of report rows in all their languages with
+ * one query over the jnt:translation children of the nodes, instead of reading the translations
+ * node by node. The rows are then built from the returned {@link Titles}.</p>
+ */
+public final class TitleResolver {
+    /* the number of nodes whose translations are read by one query */
+    public static final int BATCH_SIZE = 100;
+
+    private TitleResolver() {
+    }
+
+    /**
+     * getTitles
+     *
+     * @param session      the session of the report
+     * @param paths        the paths of the nodes
+     * @param propertyName the i18n property to read
+     * @return the values of the property by node and language
+     * @throws RepositoryException
+     */
+    public static Titles getTitles(JCRSessionWrapper session, Collection<String> paths, String propertyName) throws RepositoryException {
+        Titles titles = new Titles();
+        List<String> batch = new ArrayList<>(Math.min(paths.size(), BATCH_SIZE));
+        for (String path : paths) {
+            batch.add(path);
+            if (batch.size() == BATCH_SIZE) {
+                readTitles(session, batch, propertyName, titles);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            readTitles(session, batch, propertyName, titles);
+        }
+        return titles;
+    }
+
+    private static void readTitles(JCRSessionWrapper session, List<String> paths, String propertyName, Titles titles) throws RepositoryException {
+        StringBuilder queryStr = new StringBuilder("SELECT item.[jcr:language] AS language, item.[")
+                .append(propertyName).append("] AS value FROM [jnt:translation] AS item WHERE ");
+        for (int i = 0; i < paths.size(); i++) {
+            if (i > 0) {
+                queryStr.append(" OR ");
+            }
+            queryStr.append("ISCHILDNODE(item,['").append(StringUtils.replace(paths.get(i), "'", "''")).append("'])");
+        }
+        RowIterator rows = session.getWorkspace().getQueryManager().createQuery(queryStr.toString(), Query.JCR_SQL2).execute().getRows();
+        while (rows.hasNext()) {
+            Row row = rows.nextRow();
+            Value language = row.getValue("language");
+            if (language != null) {
+                Value value = row.getValue("value");
+                titles.put(StringUtils.substringBeforeLast(row.getPath(), "/"), language.getString(),
+                        value != null ? value.getString() : null);
+            }
+        }
+    }
+
+    /**
+     * The values of an i18n property of a set of nodes.
+     */
+    public static final class Titles {
+        private final Map<String, Map<String, String>> values = new HashMap<>();
+
+        private Titles() {
+        }
+
+        private void put(String path, String language, String value) {
+            values.computeIfAbsent(path, key -> new HashMap<>()).put(language, value);
+        }
+
+        /**
+         * hasTranslation
+         *
+         * @param path   the path of a node
+         * @param locale a locale
+         * @return true when the node has a translation node in the locale, with or without the property
+         */
+        public boolean hasTranslation(String path, Locale locale) {
+            Map<String, String> translations = values.get(path);
+            return translations != null && translations.containsKey(locale.toString());
+        }
+
+        /**
+         * get
+         *
+         * @param path     the path of a node
+         * @param language the language, as stored in jcr:language
+         * @return the value of the property in the language, null when the node has none
+         */
+        public String get(String path, String language) {
+            Map<String, String> translations = values.get(path);
+            return translations != null ? translations.get(language) : null;
+        }
+
+        /**
+         * get
+         *
+         * @param path the path of a node
+         * @return the values of the property by language, empty when the node has no translation
+         */
+        public Map<String, String> get(String path) {
+            Map<String, String> translations = values.get(path);
+            return translations != null ? translations : new HashMap<>();
+        }
+    }
+}
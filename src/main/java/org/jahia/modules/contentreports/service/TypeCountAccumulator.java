@@ -0,0 +1,65 @@
+package org.jahia.modules.contentreports.service;
+/*
+ * ==========================================================================================
+ * =                            JAHIA'S ENTERPRISE DISTRIBUTION                             =
+ * ==========================================================================================
+ *
+ *                                  http://www.jahia.com
+ *
+ * JAHIA'S ENTERPRISE DISTRIBUTIONS LICENSING - IMPORTANT INFORMATION
+ * ==========================================================================================
+ *
+ *     Copyright (C) 2002-2020 Jahia Solutions Group. All rights reserved.
+ *
+ *     This file is part of a Jahia's Enterprise Distribution.
+ *
+ *     Jahia's Enterprise Distributions must be used in accordance with the terms
+ *     contained in the Jahia Solutions Group Terms &amp; Conditions as well as
+ *     the Jahia Sustainable Enterprise License (JSEL).
+ *
+ *     For questions regarding licensing, support, production usage...
+ *     please contact our team at sales@jahia.com or go to http://www.jahia.com/license.
+ *
+ * ==========================================================================================
+ */
+
+import org.json.JSONException;
+import org.json.JSONObject;
+
+/**
+ * The TypeCountAccumulator class.
+ * <p>Counts the scanned nodes matching some {@link OverviewEngine} type flags.</p>
+ */
+public class TypeCountAccumulator implements OverviewAccumulator {
+
+    private final int typeMask;
+    private final String jsonKey;
+    private int count;
+
+    /**
+     * Instantiates a new type count accumulator.
+     *
+     * @param typeMask the {@link OverviewEngine} type flags to count
+     * @param jsonKey  the overview json key of the count
+     */
+    public TypeCountAccumulator(int typeMask, String jsonKey) {
+        this.typeMask = typeMask;
+        this.jsonKey = jsonKey;
+    }
+
+    @Override
+    public void accumulate(OverviewNode node) {
+        if (node.isOfType(typeMask)) {
+            count++;
+        }
+    }
+
+    @Override
+    public void fill(JSONObject jsonObject) throws JSONException {
+        jsonObject.put(jsonKey, count);
+    }
+
+    public int getCount() {
+        return count;
+    }
+}
@@ -0,0 +1,186 @@
+package org.jahia.modules.contentreports.service;
+/*
+ * ==========================================================================================
+ * =                            JAHIA'S ENTERPRISE DISTRIBUTION                             =
+ * ==========================================================================================
+ *
+ *                                  http://www.jahia.com
+ *
+ * JAHIA'S ENTERPRISE DISTRIBUTIONS LICENSING - IMPORTANT INFORMATION
+ * ==========================================================================================
+ *
+ *     Copyright (C) 2002-2020 Jahia Solutions Group. All rights reserved.
+ *
+ *     This file is part of a Jahia's Enterprise Distribution.
+ *
+ *     Jahia's Enterprise Distributions must be used in accordance with the terms
+ *     contained in the Jahia Solutions Group Terms &amp; Conditions as well as
+ *     the Jahia Sustainable Enterprise License (JSEL).
+ *
+ *     For questions regarding licensing, support, production usage...
+ *     please contact our team at sales@jahia.com or go to http://www.jahia.com/license.
+ *
+ * ==========================================================================================
+ */
+
+import org.apache.commons.lang3.StringUtils;
+import org.jahia.services.content.JCRNodeWrapper;
+import org.jahia.services.workflow.Workflow;
+import org.jahia.services.workflow.WorkflowService;
+import org.jahia.services.workflow.WorkflowVariable;
+
+import javax.jcr.Node;
+import javax.jcr.NodeIterator;
+import javax.jcr.RepositoryException;
+import javax.jcr.Value;
+import java.text.DateFormat;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * The WorkflowSnapshot class.
+ * <p>The active workflows of the nodes of a report run, indexed by node identifier and language.
+ * Each process referenced by the j:processId of a node or of its translations is read once per display
+ * language from the {@link WorkflowService} for the whole run, instead of once per node and per language,
+ * and the fields shown by the reports are computed in a single pass over the workflows.</p>
+ * <p>As {@link WorkflowService#getActiveWorkflows} was called with the language of each column as
+ * display locale, a process is read in the language it is shown in.</p>
+ */
+public class WorkflowSnapshot {
+    private static final String PROCESS_ID = "j:processId";
+
+    /* the processes read so far by provider:processId and display locale, null when the process is not active anymore */
+    private final Map<String, Workflow> processes = new HashMap<>();
+    /* the process keys by node identifier, then by language of the translation, the keys of the node itself under null */
+    private final Map<String, Map<Locale, List<String>>> processKeys = new HashMap<>();
+
+    /**
+     * getActiveWorkflows
+     * <p>the workflows of the node for the locale, as {@link WorkflowService#getActiveWorkflows} returns them.</p>
+     *
+     * @param node   {@link JCRNodeWrapper}
+     * @param locale {@link Locale} the language of the workflows, also the one they are displayed in
+     * @return the active workflows started on the node or on its translation in the locale
+     * @throws RepositoryException
+     */
+    public List<Workflow> getActiveWorkflows(JCRNodeWrapper node, Locale locale) throws RepositoryException {
+        Map<Locale, List<String>> byLocale = processKeys.get(node.getIdentifier());
+        if (byLocale == null) {
+            byLocale = load(node);
+            processKeys.put(node.getIdentifier(), byLocale);
+        }
+        if (byLocale.isEmpty()) {
+            return Collections.emptyList();
+        }
+        Map<String, Workflow> result = new LinkedHashMap<>();
+        for (String key : byLocale.getOrDefault(null, Collections.emptyList())) {
+            Workflow workflow = getWorkflow(key, locale);
+            // a workflow started on the node itself for a language belongs to that language only
+            Object workflowLocale = workflow != null && workflow.getVariables() != null ? workflow.getVariables().get("locale") : null;
+            if (workflow != null && (!(workflowLocale instanceof Locale) || workflowLocale.equals(locale))) {
+                result.put(workflow.getId(), workflow);
+            }
+        }
+        for (String key : byLocale.getOrDefault(locale, Collections.emptyList())) {
+            Workflow workflow = getWorkflow(key, locale);
+            if (workflow != null) {
+                result.put(workflow.getId(), workflow);
+            }
+        }
+        return new ArrayList<>(result.values());
+    }
+
+    /* the node is read once, its translations in one iteration */
+    private Map<Locale, List<String>> load(JCRNodeWrapper node) throws RepositoryException {
+        Map<Locale, List<String>> byLocale = new HashMap<>();
+        if (node.hasProperty(PROCESS_ID)) {
+            byLocale.put(null, getProcessKeys(node));
+        }
+        NodeIterator translations = node.getI18Ns();
+        while (translations.hasNext()) {
+            Node translation = translations.nextNode();
+            if (translation.hasProperty(PROCESS_ID) && translation.hasProperty("jcr:language")) {
+                Locale locale = toLocale(translation.getProperty("jcr:language").getString());
+                byLocale.computeIfAbsent(locale, key -> new ArrayList<>()).addAll(getProcessKeys(translation));
+            }
+        }
+        return byLocale;
+    }
+
+    private static List<String> getProcessKeys(Node node) throws RepositoryException {
+        List<String> keys = new ArrayList<>();
+        for (Value value : node.getProperty(PROCESS_ID).getValues()) {
+            keys.add(value.getString());
+        }
+        return keys;
+    }
+
+    private Workflow getWorkflow(String key, Locale displayLocale) {
+        String cacheKey = key + "/" + displayLocale;
+        if (processes.containsKey(cacheKey)) {
+            return processes.get(cacheKey);
+        }
+        Workflow workflow = WorkflowService.getInstance().getWorkflow(StringUtils.substringBefore(key, ":"),
+                StringUtils.substringAfter(key, ":"), displayLocale);
+        processes.put(cacheKey, workflow);
+        return workflow;
+    }
+
+    private static Locale toLocale(String language) {
+        String[] parts = StringUtils.split(language, "_");
+        return parts.length > 1 ? new Locale(parts[0], parts[1]) : new Locale(language);
+    }
+
+    /**
+     * getFields
+     * <p>the fields of the reports for a list of workflows, computed in one pass. The single valued
+     * fields are the ones of the first workflow, the displayable names are the ones of all the workflows.</p>
+     *
+     * @param workflows  the workflows of a node in a language
+     * @param dateFormat the format of the start date
+     * @return the fields wfStarted, wfName, wfDName, wfStartUser, wfProvider and wfComments, empty when there is no workflow
+     */
+    public static Map<String, String> getFields(List<Workflow> workflows, DateFormat dateFormat) {
+        Map<String, String> fields = new HashMap<>();
+        StringBuilder displayableNames = new StringBuilder();
+        Workflow first = null;
+        for (Workflow workflow : workflows) {
+            if (first == null) {
+                first = workflow;
+            }
+            String displayableName = getDisplayableName(workflow);
+            if (displayableName != null) {
+                displayableNames.append(displayableName).append("<br />");
+            }
+        }
+        fields.put("wfStarted", first != null && first.getStartTime() != null ? dateFormat.format(first.getStartTime()) : "");
+        fields.put("wfName", first != null ? String.valueOf(first.getName()) : "");
+        fields.put("wfDName", displayableNames.toString());
+        fields.put("wfStartUser", first != null ? String.valueOf(first.getStartUser()) : "");
+        fields.put("wfProvider", first != null ? String.valueOf(first.getProvider()) : "");
+        fields.put("wfComments", first != null ? String.valueOf(first.getComments()) : "");
+        return fields;
+    }
+
+    /**
+     * getDisplayableName
+     *
+     * @param workflow {@link Workflow}
+     * @return the title given to the workflow when it was started, read from its jcr_title variable
+     */
+    public static String getDisplayableName(Workflow workflow) {
+        Object title = workflow.getVariables() != null ? workflow.getVariables().get("jcr_title") : null;
+        if (title instanceof List && !((List<?>) title).isEmpty()) {
+            title = ((List<?>) title).get(0);
+        }
+        if (title instanceof WorkflowVariable) {
+            return ((WorkflowVariable) title).getValue();
+        }
+        return title != null ? title.toString() : null;
+    }
+}
@@ -0,0 +1,216 @@
+/*
+ * ==========================================================================================
+ * =                   JAHIA'S DUAL LICENSING - IMPORTANT INFORMATION                       =
+ * ==========================================================================================
+ *
+ *                                 http://www.jahia.com
+ *
+ *     Copyright (C) 2002-2020 Jahia Solutions Group SA. All rights reserved.
+ *
+ *     THIS FILE IS AVAILABLE UNDER TWO DIFFERENT LICENSES:
+ *     1/GPL OR 2/JSEL
+ *
+ *     1/ GPL
+ *     ==================================================================================
+ *
+ *     IF YOU DECIDE TO CHOOSE THE GPL LICENSE, YOU MUST COMPLY WITH THE FOLLOWING TERMS:
+ *
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ *
+ *     2/ JSEL - Commercial and Supported Versions of the program
+ *     ===================================================================================
+ *
+ *     IF YOU DECIDE TO CHOOSE THE JSEL LICENSE, YOU MUST COMPLY WITH THE FOLLOWING TERMS:
+ *
+ *     Alternatively, commercial and supported versions of the program - also known as
+ *     Enterprise Distributions - must be used in accordance with the terms and conditions
+ *     contained in a separate written agreement between you and Jahia Solutions Group SA.
+ *
+ *     If you are unsure which license is appropriate for your use,
+ *     please contact the sales department at sales@jahia.com.
+ */
+package org.jahia.modules.contentreports.util;
+
+import org.apache.commons.lang.StringUtils;
+import org.jahia.services.content.JCRNodeWrapper;
+import org.jahia.services.content.JCRSessionWrapper;
+
+import javax.jcr.PathNotFoundException;
+import javax.jcr.RepositoryException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * The ParentPageResolver class.
+ * <p>Resolves the page holding a node once per parent path for a report run: the paths walked up to the page
+ * are all remembered, so the siblings and the descendants of an already resolved node stop at the nearest
+ * known ancestor. The values of a page (url, displayable name, title) are read once as well.</p>
+ * <p>A resolver is used by a single report run, it is not thread safe.</p>
+ */
+public class ParentPageResolver {
+    private static final String PAGE_TYPE = "jnt:page";
+    /* the paths without page above them */
+    private static final PageInfo NO_PAGE = new PageInfo(null, null, null);
+
+    private final JCRSessionWrapper session;
+    private final Locale locale;
+    private final Locale defaultLocale;
+    private final Map<String, PageInfo> pages = new HashMap<>();
+
+    /**
+     * Instantiates a new resolver.
+     *
+     * @param session       the session of the report
+     * @param locale        the locale of the report
+     * @param defaultLocale the locale the titles are read in
+     */
+    public ParentPageResolver(JCRSessionWrapper session, Locale locale, Locale defaultLocale) {
+        this.session = session;
+        this.locale = locale;
+        this.defaultLocale = defaultLocale;
+    }
+
+    /**
+     * getPage
+     *
+     * @param node a node
+     * @return the node itself when it is a page, else its parent page, null when there is none
+     * @throws RepositoryException
+     */
+    public PageInfo getPage(JCRNodeWrapper node) throws RepositoryException {
+        if (node.isNodeType(PAGE_TYPE)) {
+            return getPageInfo(node);
+        }
+        return getParentPage(node.getPath());
+    }
+
+    /**
+     * getParentPage
+     *
+     * @param path the path of a node, which does not need to be loaded
+     * @return the nearest page above the node, null when there is none
+     * @throws RepositoryException
+     */
+    public PageInfo getParentPage(String path) throws RepositoryException {
+        List<String> walked = new ArrayList<>();
+        PageInfo page = null;
+        String current = getParentPath(path);
+        while (current != null) {
+            page = pages.get(current);
+            if (page != null) {
+                break;
+            }
+            walked.add(current);
+            JCRNodeWrapper node;
+            try {
+                node = session.getNode(current);
+            } catch (PathNotFoundException e) {
+                // an ancestor the user can not read, the walk stops there
+                break;
+            }
+            if (node.isNodeType(PAGE_TYPE)) {
+                page = getPageInfo(node);
+                break;
+            }
+            current = getParentPath(current);
+        }
+        if (page == null) {
+            page = NO_PAGE;
+        }
+        for (String walkedPath : walked) {
+            pages.put(walkedPath, page);
+        }
+        return page != NO_PAGE ? page : null;
+    }
+
+    private PageInfo getPageInfo(JCRNodeWrapper node) {
+        PageInfo page = pages.get(node.getPath());
+        if (page == null) {
+            page = new PageInfo(node, locale, defaultLocale);
+            pages.put(node.getPath(), page);
+        }
+        return page;
+    }
+
+    private static String getParentPath(String path) {
+        if (path == null || "/".equals(path)) {
+            return null;
+        }
+        String parent = StringUtils.substringBeforeLast(path, "/");
+        return parent.isEmpty() ? "/" : parent;
+    }
+
+    /**
+     * The values of a resolved page, each one read on its first use.
+     */
+    public static final class PageInfo {
+        private final JCRNodeWrapper node;
+        private final Locale locale;
+        private final Locale defaultLocale;
+        private String url;
+        private String displayableName;
+        private String title;
+
+        private PageInfo(JCRNodeWrapper node, Locale locale, Locale defaultLocale) {
+            this.node = node;
+            this.locale = locale;
+            this.defaultLocale = defaultLocale;
+        }
+
+        public JCRNodeWrapper getNode() {
+            return node;
+        }
+
+        public String getPath() {
+            return node.getPath();
+        }
+
+        public String getName() {
+            return node.getName();
+        }
+
+        public String getUrl() {
+            if (url == null) {
+                url = node.getUrl();
+            }
+            return url;
+        }
+
+        public String getDisplayableName() {
+            if (displayableName == null) {
+                displayableName = node.getDisplayableName();
+            }
+            return displayableName;
+        }
+
+        /**
+         * getTitle
+         *
+         * @return the jcr:title of the page in the default locale, empty when the page is not translated
+         * in the locale of the report or has no title
+         * @throws RepositoryException
+         */
+        public String getTitle() throws RepositoryException {
+            if (title == null) {
+                title = node.hasI18N(locale) && node.getI18N(defaultLocale).hasProperty("jcr:title")
+                        ? node.getI18N(defaultLocale).getProperty("jcr:title").getString() : "";
+            }
+            return title;
+        }
+    }
+}
@@ -0,0 +1,132 @@
+/*
+ * ==========================================================================================
+ * =                   JAHIA'S DUAL LICENSING - IMPORTANT INFORMATION                       =
+ * ==========================================================================================
+ *
+ *                                 http://www.jahia.com
+ *
+ *     Copyright (C) 2002-2020 Jahia Solutions Group SA. All rights reserved.
+ *
+ *     THIS FILE IS AVAILABLE UNDER TWO DIFFERENT LICENSES:
+ *     1/GPL OR 2/JSEL
+ *
+ *     1/ GPL
+ *     ==================================================================================
+ *
+ *     IF YOU DECIDE TO CHOOSE THE GPL LICENSE, YOU MUST COMPLY WITH THE FOLLOWING TERMS:
+ *
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ *
+ *     2/ JSEL - Commercial and Supported Versions of the program
+ *     ===================================================================================
+ *
+ *     IF YOU DECIDE TO CHOOSE THE JSEL LICENSE, YOU MUST COMPLY WITH THE FOLLOWING TERMS:
+ *
+ *     Alternatively, commercial and supported versions of the program - also known as
+ *     Enterprise Distributions - must be used in accordance with the terms and conditions
+ *     contained in a separate written agreement between you and Jahia Solutions Group SA.
+ *
+ *     If you are unsure which license is appropriate for your use,
+ *     please contact the sales department at sales@jahia.com.
+ */
+package org.jahia.modules.contentreports.bean;
+
+import org.junit.Test;
+
+import javax.jcr.PropertyType;
+import javax.jcr.RepositoryException;
+import javax.jcr.Value;
+import javax.jcr.query.Row;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.jahia.modules.contentreports.bean.JcrFixtures.value;
+import static org.junit.Assert.assertEquals;
+
+public class MergedRowTest {
+
+    private static final String[] COLUMNS = {"jcr:uuid", "size"};
+
+    @Test
+    public void ascendingOrderPutsTheRowsWithoutValueFirst() throws Exception {
+        List<MergedRow> rows = sort(MergedRow.ASCENDING, row("c", 10L), row("a", null), row("b", 9L), row("d", 10L));
+        assertEquals("a b c d", identifiers(rows));
+    }
+
+    @Test
+    public void descendingOrderPutsTheRowsWithoutValueLast() throws Exception {
+        List<MergedRow> rows = sort(MergedRow.DESCENDING, row("c", 10L), row("a", null), row("b", 9L), row("d", 10L));
+        assertEquals("c d b a", identifiers(rows));
+    }
+
+    @Test
+    public void copiesOfTheSameNodeAreAdjacent() throws Exception {
+        // a node of two types is read by both scans with the same sort key and identifier
+        List<MergedRow> rows = sort(MergedRow.ASCENDING, row("b", 5L), row("a", 5L), row("b", 5L), row("c", 1L));
+        assertEquals("c a b b", identifiers(rows));
+    }
+
+    @Test
+    public void rowsWithoutSortFieldAreOrderedByIdentifier() throws Exception {
+        List<MergedRow> rows = new ArrayList<>();
+        for (String id : new String[]{"b", "c", "a"}) {
+            rows.add(new MergedRow(null, row(id, 1L, "/sites/mySite/" + id), COLUMNS, null));
+        }
+        rows.sort(MergedRow.DESCENDING);
+        assertEquals("a b c", identifiers(rows));
+    }
+
+    @Test
+    public void identifierDefaultsToThePath() throws Exception {
+        MergedRow row = new MergedRow(null, row(null, 1L, "/sites/mySite/home"), COLUMNS, "size");
+        assertEquals("/sites/mySite/home", row.getIdentifier());
+        assertEquals("/sites/mySite/home", row.getPath());
+    }
+
+    private static List<MergedRow> sort(Comparator<MergedRow> comparator, Row... rows) throws RepositoryException {
+        List<MergedRow> merged = new ArrayList<>();
+        for (Row row : rows) {
+            merged.add(new MergedRow(null, row, COLUMNS, "size"));
+        }
+        merged.sort(comparator);
+        return merged;
+    }
+
+    private static String identifiers(List<MergedRow> rows) {
+        StringBuilder result = new StringBuilder();
+        for (MergedRow row : rows) {
+            result.append(result.length() > 0 ? " " : "").append(row.getIdentifier());
+        }
+        return result.toString();
+    }
+
+    private static Row row(String identifier, Long size) {
+        return row(identifier, size, "/sites/mySite/" + identifier);
+    }
+
+    private static Row row(String identifier, Long size, String path) {
+        Map<String, Value> values = new HashMap<>();
+        if (identifier != null) {
+            values.put("jcr:uuid", value(identifier, PropertyType.STRING));
+        }
+        if (size != null) {
+            values.put("size", value(size.toString(), PropertyType.LONG));
+        }
+        return JcrFixtures.row(path, values);
+    }
+}
@@ -0,0 +1,123 @@
+/*
+ * ==========================================================================================
+ * =                   JAHIA'S DUAL LICENSING - IMPORTANT INFORMATION                       =
+ * ==========================================================================================
+ *
+ *                                 http://www.jahia.com
+ *
+ *     Copyright (C) 2002-2020 Jahia Solutions Group SA. All rights reserved.
+ *
+ *     THIS FILE IS AVAILABLE UNDER TWO DIFFERENT LICENSES:
+ *     1/GPL OR 2/JSEL
+ *
+ *     1/ GPL
+ *     ==================================================================================
+ *
+ *     IF YOU DECIDE TO CHOOSE THE GPL LICENSE, YOU MUST COMPLY WITH THE FOLLOWING TERMS:
+ *
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ *
+ *     2/ JSEL - Commercial and Supported Versions of the program
+ *     ===================================================================================
+ *
+ *     IF YOU DECIDE TO CHOOSE THE JSEL LICENSE, YOU MUST COMPLY WITH THE FOLLOWING TERMS:
+ *
+ *     Alternatively, commercial and supported versions of the program - also known as
+ *     Enterprise Distributions - must be used in accordance with the terms and conditions
+ *     contained in a separate written agreement between you and Jahia Solutions Group SA.
+ *
+ *     If you are unsure which license is appropriate for your use,
+ *     please contact the sales department at sales@jahia.com.
+ */
+package org.jahia.modules.contentreports.bean;
+
+import org.junit.Test;
+
+import javax.jcr.PropertyType;
+import javax.jcr.Value;
+import javax.jcr.query.Row;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.jahia.modules.contentreports.bean.JcrFixtures.value;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class ReportCursorTest {
+
+    private static final String DATE = "2020-01-01T00:00:00.000Z";
+    private static final String AFTER = "item.[jcr:uuid] > 'id-1'";
+
+    @Test
+    public void ascendingCursorSelectsTheGreaterValues() throws Exception {
+        ReportCursor cursor = ReportCursor.of(row(value(DATE, PropertyType.DATE)), "jcr:created", "asc");
+        String bound = "CAST('" + DATE + "' AS DATE)";
+        assertEquals("(item.[jcr:created] > " + bound + " OR (item.[jcr:created] = " + bound + " AND " + AFTER + "))",
+                cursor.getCondition("item"));
+    }
+
+    @Test
+    public void descendingCursorSelectsTheLowerValuesThenTheMissingOnes() throws Exception {
+        ReportCursor cursor = ReportCursor.of(row(value("42", PropertyType.LONG)), "size", "desc");
+        String bound = "CAST('42' AS LONG)";
+        assertEquals("(item.[size] < " + bound + " OR item.[size] IS NULL OR (item.[size] = " + bound + " AND " + AFTER + "))",
+                cursor.getCondition("item"));
+    }
+
+    @Test
+    public void ascendingCursorWithoutValueSelectsTheValuesAfterTheMissingOnes() throws Exception {
+        ReportCursor cursor = ReportCursor.of(row(null), "jcr:title", "asc");
+        assertEquals("(item.[jcr:title] IS NOT NULL OR " + AFTER + ")", cursor.getCondition("item"));
+    }
+
+    @Test
+    public void descendingCursorWithoutValueSelectsOnlyTheMissingOnes() throws Exception {
+        ReportCursor cursor = ReportCursor.of(row(null), "jcr:title", "DESC");
+        assertEquals("(item.[jcr:title] IS NULL AND " + AFTER + ")", cursor.getCondition("item"));
+    }
+
+    @Test
+    public void stringValuesAreQuoted() throws Exception {
+        ReportCursor cursor = ReportCursor.of(row(value("O'Brien", PropertyType.STRING)), "jcr:title", "asc");
+        assertEquals("(item.[jcr:title] > 'O''Brien' OR (item.[jcr:title] = 'O''Brien' AND " + AFTER + "))",
+                cursor.getCondition("item"));
+    }
+
+    @Test
+    public void encodedCursorDecodesToTheSamePosition() throws Exception {
+        ReportCursor cursor = ReportCursor.of(row(value(DATE, PropertyType.DATE)), "jcr:created", "desc");
+        ReportCursor decoded = ReportCursor.decode(cursor.encode());
+        assertEquals(cursor.getCondition("item"), decoded.getCondition("item"));
+        assertTrue(decoded.isSortedBy("jcr:created", "desc"));
+        assertFalse(decoded.isSortedBy("jcr:created", "asc"));
+        assertFalse(decoded.isSortedBy("jcr:lastModified", "desc"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void invalidCursorIsRejected() {
+        ReportCursor.decode("not a cursor");
+    }
+
+    private static Row row(Value sortValue) {
+        // the cursors read the sort column under any name and the identifier
+        Map<String, Value> values = new HashMap<>();
+        values.put("jcr:uuid", value("id-1", PropertyType.STRING));
+        for (String column : new String[]{"jcr:created", "jcr:title", "size"}) {
+            values.put(column, sortValue);
+        }
+        return JcrFixtures.row(null, values);
+    }
+}
@@ -0,0 +1,92 @@
+/*
+ * ==========================================================================================
+ * =                   JAHIA'S DUAL LICENSING - IMPORTANT INFORMATION                       =
+ * ==========================================================================================
+ *
+ *                                 http://www.jahia.com
+ *
+ *     Copyright (C) 2002-2020 Jahia Solutions Group SA. All rights reserved.
+ *
+ *     THIS FILE IS AVAILABLE UNDER TWO DIFFERENT LICENSES:
+ *     1/GPL OR 2/JSEL
+ *
+ *     1/ GPL
+ *     ==================================================================================
+ *
+ *     IF YOU DECIDE TO CHOOSE THE GPL LICENSE, YOU MUST COMPLY WITH THE FOLLOWING TERMS:
+ *
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ *
+ *     2/ JSEL - Commercial and Supported Versions of the program
+ *     ===================================================================================
+ *
+ *     IF YOU DECIDE TO CHOOSE THE JSEL LICENSE, YOU MUST COMPLY WITH THE FOLLOWING TERMS:
+ *
+ *     Alternatively, commercial and supported versions of the program - also known as
+ *     Enterprise Distributions - must be used in accordance with the terms and conditions
+ *     contained in a separate written agreement between you and Jahia Solutions Group SA.
+ *
+ *     If you are unsure which license is appropriate for your use,
+ *     please contact the sales department at sales@jahia.com.
+ */
+package org.jahia.modules.contentreports.bean;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class RowWindowTest {
+
+    @Test
+    public void acceptsOnlyTheRowsOfThePage() {
+        RowWindow window = new RowWindow(2, 3);
+        StringBuilder accepted = new StringBuilder();
+        for (int i = 0; i < 10; i++) {
+            accepted.append(window.accept() ? 'x' : '-');
+        }
+        assertEquals("--xxx-----", accepted.toString());
+        assertEquals(10, window.getTotal());
+    }
+
+    @Test
+    public void isFullOnceTheLastRowOfThePageIsAccepted() {
+        RowWindow window = new RowWindow(1, 2);
+        window.accept();
+        window.accept();
+        assertFalse(window.isFull());
+        window.accept();
+        assertTrue(window.isFull());
+    }
+
+    @Test
+    public void acceptsEveryRowWithoutLimit() {
+        RowWindow window = new RowWindow(0, QueryReport.NO_LIMIT);
+        for (int i = 0; i < 100; i++) {
+            assertTrue(window.accept());
+        }
+        assertFalse(window.isFull());
+        assertEquals(100, window.getTotal());
+    }
+
+    @Test
+    public void negativeOffsetStartsAtTheFirstRow() {
+        RowWindow window = new RowWindow(-5, 1);
+        assertTrue(window.accept());
+        assertFalse(window.accept());
+        assertEquals(2, window.getTotal());
+    }
+}
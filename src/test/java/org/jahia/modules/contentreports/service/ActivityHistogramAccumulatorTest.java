@@ -0,0 +1,131 @@
+package org.jahia.modules.contentreports.service;
+/*
+ * ==========================================================================================
+ * =                            JAHIA'S ENTERPRISE DISTRIBUTION                             =
+ * ==========================================================================================
+ *
+ *                                  http://www.jahia.com
+ *
+ * JAHIA'S ENTERPRISE DISTRIBUTIONS LICENSING - IMPORTANT INFORMATION
+ * ==========================================================================================
+ *
+ *     Copyright (C) 2002-2020 Jahia Solutions Group. All rights reserved.
+ *
+ *     This file is part of a Jahia's Enterprise Distribution.
+ *
+ *     Jahia's Enterprise Distributions must be used in accordance with the terms
+ *     contained in the Jahia Solutions Group Terms &amp; Conditions as well as
+ *     the Jahia Sustainable Enterprise License (JSEL).
+ *
+ *     For questions regarding licensing, support, production usage...
+ *     please contact our team at sales@jahia.com or go to http://www.jahia.com/license.
+ *
+ * ==========================================================================================
+ */
+
+import org.jahia.modules.contentreports.service.ActivityHistogramAccumulator.Granularity;
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.junit.Test;
+
+import java.time.Instant;
+
+import static org.junit.Assert.assertEquals;
+
+public class ActivityHistogramAccumulatorTest {
+
+    @Test
+    public void dayBucketsCoverTheRange() throws Exception {
+        JSONArray buckets = fill(new ActivityHistogramAccumulator(Granularity.DAY,
+                date("2024-01-03T18:00:00Z"), date("2024-01-01T09:00:00Z")));
+        assertEquals(3, buckets.length());
+        assertEquals("2024-01-01", buckets.getJSONObject(0).getString("start"));
+        assertEquals("2024-01-03", buckets.getJSONObject(2).getString("start"));
+    }
+
+    @Test
+    public void datesAreCountedInTheirBucket() throws Exception {
+        ActivityHistogramAccumulator accumulator = new ActivityHistogramAccumulator(Granularity.DAY,
+                date("2024-01-01T00:00:00Z"), date("2024-01-03T00:00:00Z"));
+        accumulator.accumulate(node(OverviewEngine.EDITORIAL_CONTENT, "2024-01-01T23:59:59Z", "2024-01-02T00:00:00Z", "2024-01-03T12:00:00Z"));
+        accumulator.accumulate(node(OverviewEngine.EDITORIAL_CONTENT, "2024-01-02T08:00:00Z", null, null));
+        JSONArray buckets = fill(accumulator);
+        assertBucket(buckets, 0, 1, 0, 0);
+        assertBucket(buckets, 1, 1, 1, 0);
+        assertBucket(buckets, 2, 0, 0, 1);
+    }
+
+    @Test
+    public void datesOutOfTheRangeAreIgnored() throws Exception {
+        ActivityHistogramAccumulator accumulator = new ActivityHistogramAccumulator(Granularity.DAY,
+                date("2024-01-01T00:00:00Z"), date("2024-01-01T00:00:00Z"));
+        accumulator.accumulate(node(OverviewEngine.EDITORIAL_CONTENT, "2023-12-31T23:59:59Z", "2024-01-02T00:00:00Z", null));
+        assertBucket(fill(accumulator), 0, 0, 0, 0);
+    }
+
+    @Test
+    public void onlyTheEditorialContentsAreCountedAsCreatedOrModified() throws Exception {
+        ActivityHistogramAccumulator accumulator = new ActivityHistogramAccumulator(Granularity.DAY,
+                date("2024-01-01T00:00:00Z"), date("2024-01-01T00:00:00Z"));
+        accumulator.accumulate(node(OverviewEngine.PAGE, "2024-01-01T10:00:00Z", "2024-01-01T11:00:00Z", "2024-01-01T12:00:00Z"));
+        assertBucket(fill(accumulator), 0, 0, 0, 1);
+    }
+
+    @Test
+    public void weeksStartOnMonday() throws Exception {
+        // 2024-01-03 is a wednesday
+        ActivityHistogramAccumulator accumulator = new ActivityHistogramAccumulator(Granularity.WEEK,
+                date("2024-01-03T00:00:00Z"), date("2024-01-10T00:00:00Z"));
+        accumulator.accumulate(node(OverviewEngine.EDITORIAL_CONTENT, "2024-01-07T23:00:00Z", "2024-01-08T01:00:00Z", null));
+        JSONArray buckets = fill(accumulator);
+        assertEquals(2, buckets.length());
+        assertEquals("2024-01-01", buckets.getJSONObject(0).getString("start"));
+        assertEquals("2024-01-08", buckets.getJSONObject(1).getString("start"));
+        assertBucket(buckets, 0, 1, 0, 0);
+        assertBucket(buckets, 1, 0, 1, 0);
+    }
+
+    @Test
+    public void monthsHaveTheirOwnLength() throws Exception {
+        ActivityHistogramAccumulator accumulator = new ActivityHistogramAccumulator(Granularity.MONTH,
+                date("2024-01-15T00:00:00Z"), date("2024-03-10T00:00:00Z"));
+        accumulator.accumulate(node(OverviewEngine.EDITORIAL_CONTENT, "2024-02-29T23:59:59Z", "2024-03-01T00:00:00Z", "2024-01-31T12:00:00Z"));
+        JSONArray buckets = fill(accumulator);
+        assertEquals(3, buckets.length());
+        assertEquals("2024-02-01", buckets.getJSONObject(1).getString("start"));
+        assertBucket(buckets, 0, 0, 0, 1);
+        assertBucket(buckets, 1, 1, 0, 0);
+        assertBucket(buckets, 2, 0, 1, 0);
+    }
+
+    @Test
+    public void theMostRecentPeriodsAreKeptForALargeRange() throws Exception {
+        JSONArray buckets = fill(new ActivityHistogramAccumulator(Granularity.DAY,
+                date("2010-01-01T00:00:00Z"), date("2024-01-01T00:00:00Z")));
+        assertEquals(ActivityHistogramAccumulator.MAX_BUCKETS, buckets.length());
+        assertEquals("2024-01-01", buckets.getJSONObject(ActivityHistogramAccumulator.MAX_BUCKETS - 1).getString("start"));
+    }
+
+    private static void assertBucket(JSONArray buckets, int index, long created, long modified, long published) throws Exception {
+        JSONObject bucket = buckets.getJSONObject(index);
+        assertEquals(created, bucket.getLong("created"));
+        assertEquals(modified, bucket.getLong("modified"));
+        assertEquals(published, bucket.getLong("published"));
+    }
+
+    private static JSONArray fill(ActivityHistogramAccumulator accumulator) throws Exception {
+        return OverviewFixtures.fill(accumulator).getJSONObject("activity").getJSONArray("buckets");
+    }
+
+    private static OverviewNode node(int typeMask, String created, String lastModified, String lastPublished) {
+        OverviewNode node = OverviewFixtures.node(typeMask);
+        node.created = created != null ? date(created) : OverviewNode.NO_DATE;
+        node.lastModified = lastModified != null ? date(lastModified) : OverviewNode.NO_DATE;
+        node.lastPublished = lastPublished != null ? date(lastPublished) : OverviewNode.NO_DATE;
+        return node;
+    }
+
+    private static long date(String date) {
+        return Instant.parse(date).toEpochMilli();
+    }
+}
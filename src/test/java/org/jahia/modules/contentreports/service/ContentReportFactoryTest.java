@@ -0,0 +1,59 @@
+package org.jahia.modules.contentreports.service;
+/*
+ * ==========================================================================================
+ * =                            JAHIA'S ENTERPRISE DISTRIBUTION                             =
+ * ==========================================================================================
+ *
+ *                                  http://www.jahia.com
+ *
+ * JAHIA'S ENTERPRISE DISTRIBUTIONS LICENSING - IMPORTANT INFORMATION
+ * ==========================================================================================
+ *
+ *     Copyright (C) 2002-2020 Jahia Solutions Group. All rights reserved.
+ *
+ *     This file is part of a Jahia's Enterprise Distribution.
+ *
+ *     Jahia's Enterprise Distributions must be used in accordance with the terms
+ *     contained in the Jahia Solutions Group Terms &amp; Conditions as well as
+ *     the Jahia Sustainable Enterprise License (JSEL).
+ *
+ *     For questions regarding licensing, support, production usage...
+ *     please contact our team at sales@jahia.com or go to http://www.jahia.com/license.
+ *
+ * ==========================================================================================
+ */
+
+import org.junit.Test;
+
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+
+public class ContentReportFactoryTest {
+
+    @Test
+    public void reportsReadingOutsideOfTheirPathAreInvalidatedByAnyChange() {
+        for (String reportId : new String[]{"13", "14", "17", "23"}) {
+            assertEquals("/", ContentReportFactory.getInvalidationScope(reportId, null,
+                    Collections.singletonMap("pathTxt", "/sites/mySite/home")));
+        }
+    }
+
+    @Test
+    public void reportsAreInvalidatedByAChangeUnderTheirPath() {
+        assertEquals("/sites/mySite/home", ContentReportFactory.getInvalidationScope("1", null,
+                Collections.singletonMap("pathTxt", "/sites/mySite/home")));
+    }
+
+    @Test
+    public void conditionReportsAreInvalidatedByAChangeUnderTheirSearchPath() {
+        assertEquals("/sites/mySite/news", ContentReportFactory.getInvalidationScope("26", null,
+                Collections.singletonMap("searchPath", "/sites/mySite/news")));
+    }
+
+    @Test
+    public void quotesOfThePathAreDropped() {
+        assertEquals("/sites/mySite/home", ContentReportFactory.getInvalidationScope("1", null,
+                Collections.singletonMap("pathTxt", "/sites/mySite/'home'")));
+    }
+}
@@ -0,0 +1,125 @@
+package org.jahia.modules.contentreports.service;
+/*
+ * ==========================================================================================
+ * =                            JAHIA'S ENTERPRISE DISTRIBUTION                             =
+ * ==========================================================================================
+ *
+ *                                  http://www.jahia.com
+ *
+ * JAHIA'S ENTERPRISE DISTRIBUTIONS LICENSING - IMPORTANT INFORMATION
+ * ==========================================================================================
+ *
+ *     Copyright (C) 2002-2020 Jahia Solutions Group. All rights reserved.
+ *
+ *     This file is part of a Jahia's Enterprise Distribution.
+ *
+ *     Jahia's Enterprise Distributions must be used in accordance with the terms
+ *     contained in the Jahia Solutions Group Terms &amp; Conditions as well as
+ *     the Jahia Sustainable Enterprise License (JSEL).
+ *
+ *     For questions regarding licensing, support, production usage...
+ *     please contact our team at sales@jahia.com or go to http://www.jahia.com/license.
+ *
+ * ==========================================================================================
+ */
+
+import org.jahia.modules.contentreports.service.ContributorAccumulator.Role;
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.junit.Test;
+
+import static org.jahia.modules.contentreports.service.OverviewFixtures.fill;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class ContributorAccumulatorTest {
+
+    @Test
+    public void exactModeKeepsTheMostActiveContributors() throws Exception {
+        ContributorAccumulator accumulator = new ContributorAccumulator(2);
+        add(accumulator, "carol", 1);
+        add(accumulator, "bob", 3);
+        add(accumulator, "alice", 3);
+        add(accumulator, "dave", 2);
+        JSONObject json = fill(accumulator);
+        JSONArray top = json.getJSONArray("topContributors");
+        assertEquals(2, top.length());
+        // the ties are ordered by name
+        assertContributor(top, 0, "alice", 3, 0);
+        assertContributor(top, 1, "bob", 3, 0);
+        assertEquals("CREATED_BY", json.getString("topContributorsRole"));
+        assertFalse(json.getBoolean("topContributorsApproximate"));
+        assertEquals(4, accumulator.getAuthorCount());
+    }
+
+    @Test
+    public void onlyTheEditorialContentsWithAnAuthorAreCounted() throws Exception {
+        ContributorAccumulator accumulator = new ContributorAccumulator(5);
+        accumulator.accumulate(node(OverviewEngine.PAGE, "alice", "alice"));
+        accumulator.accumulate(node(OverviewEngine.EDITORIAL_CONTENT, null, "alice"));
+        accumulator.accumulate(node(OverviewEngine.EDITORIAL_CONTENT, "", "alice"));
+        assertEquals(0, fill(accumulator).getJSONArray("topContributors").length());
+    }
+
+    @Test
+    public void lastModifiedByRoleCountsTheLastEditors() throws Exception {
+        ContributorAccumulator accumulator = new ContributorAccumulator(5, Role.LAST_MODIFIED_BY, false);
+        accumulator.accumulate(node(OverviewEngine.EDITORIAL_CONTENT, "alice", "bob"));
+        accumulator.accumulate(node(OverviewEngine.EDITORIAL_CONTENT, "alice", "bob"));
+        JSONObject json = fill(accumulator);
+        assertContributor(json.getJSONArray("topContributors"), 0, "bob", 2, 0);
+        assertEquals("LAST_MODIFIED_BY", json.getString("topContributorsRole"));
+    }
+
+    @Test
+    public void approximateModeIsExactWhileTheAuthorsFitInTheSummary() throws Exception {
+        ContributorAccumulator accumulator = new ContributorAccumulator(2, Role.CREATED_BY, true);
+        add(accumulator, "alice", 5);
+        add(accumulator, "bob", 4);
+        add(accumulator, "carol", 1);
+        JSONObject json = fill(accumulator);
+        JSONArray top = json.getJSONArray("topContributors");
+        assertContributor(top, 0, "alice", 5, 0);
+        assertContributor(top, 1, "bob", 4, 0);
+        assertTrue(json.getBoolean("topContributorsApproximate"));
+    }
+
+    @Test
+    public void approximateModeFindsTheHeavyContributorsWithBoundedMemory() throws Exception {
+        ContributorAccumulator accumulator = new ContributorAccumulator(1, Role.CREATED_BY, true);
+        int capacity = ContributorAccumulator.CAPACITY_FACTOR;
+        for (int i = 0; i < 100; i++) {
+            add(accumulator, "heavy", 1);
+            add(accumulator, "occasional" + i, 1);
+        }
+        assertEquals(capacity, accumulator.getAuthorCount());
+        JSONObject contributor = fill(accumulator).getJSONArray("topContributors").getJSONObject(0);
+        assertEquals("heavy", contributor.getString("username"));
+        // the count is an upper bound, the count minus the error a lower bound
+        int count = contributor.getInt("contentCount");
+        int error = contributor.getInt("countError");
+        assertTrue(count >= 100);
+        assertTrue(count - error <= 100);
+    }
+
+    private static void assertContributor(JSONArray top, int index, String username, int count, int error) throws Exception {
+        JSONObject contributor = top.getJSONObject(index);
+        assertEquals(username, contributor.getString("username"));
+        assertEquals(count, contributor.getInt("contentCount"));
+        assertEquals(error, contributor.getInt("countError"));
+    }
+
+    private static void add(ContributorAccumulator accumulator, String author, int contents) {
+        for (int i = 0; i < contents; i++) {
+            accumulator.accumulate(node(OverviewEngine.EDITORIAL_CONTENT, author, author));
+        }
+    }
+
+    private static OverviewNode node(int typeMask, String createdBy, String lastModifiedBy) {
+        OverviewNode node = OverviewFixtures.node(typeMask);
+        node.createdBy = createdBy;
+        node.lastModifiedBy = lastModifiedBy;
+        return node;
+    }
+}
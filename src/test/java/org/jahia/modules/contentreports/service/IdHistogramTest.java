@@ -0,0 +1,72 @@
+package org.jahia.modules.contentreports.service;
+/*
+ * ==========================================================================================
+ * =                            JAHIA'S ENTERPRISE DISTRIBUTION                             =
+ * ==========================================================================================
+ *
+ *                                  http://www.jahia.com
+ *
+ * JAHIA'S ENTERPRISE DISTRIBUTIONS LICENSING - IMPORTANT INFORMATION
+ * ==========================================================================================
+ *
+ *     Copyright (C) 2002-2020 Jahia Solutions Group. All rights reserved.
+ *
+ *     This file is part of a Jahia's Enterprise Distribution.
+ *
+ *     Jahia's Enterprise Distributions must be used in accordance with the terms
+ *     contained in the Jahia Solutions Group Terms &amp; Conditions as well as
+ *     the Jahia Sustainable Enterprise License (JSEL).
+ *
+ *     For questions regarding licensing, support, production usage...
+ *     please contact our team at sales@jahia.com or go to http://www.jahia.com/license.
+ *
+ * ==========================================================================================
+ */
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class IdHistogramTest {
+
+    @Test
+    public void countsEachId() {
+        IdHistogram histogram = new IdHistogram(4);
+        histogram.add(1);
+        histogram.add(1);
+        histogram.add(3);
+        assertEquals(0, histogram.get(0));
+        assertEquals(2, histogram.get(1));
+        assertEquals(1, histogram.get(3));
+        assertEquals(3, histogram.getTotal());
+    }
+
+    @Test
+    public void ignoresTheNullId() {
+        IdHistogram histogram = new IdHistogram();
+        histogram.add(StringPool.NONE);
+        assertEquals(0, histogram.getTotal());
+        assertEquals(0, histogram.getIds().length);
+    }
+
+    @Test
+    public void growsWithTheIds() {
+        IdHistogram histogram = new IdHistogram(1);
+        histogram.add(500);
+        assertEquals(1, histogram.get(500));
+        assertEquals(0, histogram.get(1000));
+        assertArrayEquals(new int[]{500}, histogram.getIds());
+    }
+
+    @Test
+    public void idsAreOrderedByCountThenById() {
+        IdHistogram histogram = new IdHistogram();
+        int[] adds = {4, 2, 2, 7, 7, 0, 7, 4};
+        for (int id : adds) {
+            histogram.add(id);
+        }
+        // 7 three times, then 2 and 4 twice, then 0 once
+        assertArrayEquals(new int[]{7, 2, 4, 0}, histogram.getIds());
+    }
+}
@@ -0,0 +1,84 @@
+package org.jahia.modules.contentreports.service;
+/*
+ * ==========================================================================================
+ * =                            JAHIA'S ENTERPRISE DISTRIBUTION                             =
+ * ==========================================================================================
+ *
+ *                                  http://www.jahia.com
+ *
+ * JAHIA'S ENTERPRISE DISTRIBUTIONS LICENSING - IMPORTANT INFORMATION
+ * ==========================================================================================
+ *
+ *     Copyright (C) 2002-2020 Jahia Solutions Group. All rights reserved.
+ *
+ *     This file is part of a Jahia's Enterprise Distribution.
+ *
+ *     Jahia's Enterprise Distributions must be used in accordance with the terms
+ *     contained in the Jahia Solutions Group Terms &amp; Conditions as well as
+ *     the Jahia Sustainable Enterprise License (JSEL).
+ *
+ *     For questions regarding licensing, support, production usage...
+ *     please contact our team at sales@jahia.com or go to http://www.jahia.com/license.
+ *
+ * ==========================================================================================
+ */
+
+import org.junit.Test;
+
+import javax.jcr.Node;
+import javax.jcr.nodetype.NodeType;
+import java.lang.reflect.Proxy;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+public class OverviewEngineTest {
+
+    @Test
+    public void pageIsFlaggedAsAPage() {
+        assertEquals(OverviewEngine.PAGE, OverviewEngine.computeTypeMask(nodeType("jnt:page", "jmix:navMenuItem", "nt:base")));
+    }
+
+    @Test
+    public void editorialContentIsFlaggedAsBothTypes() {
+        assertEquals(OverviewEngine.CONTENT | OverviewEngine.EDITORIAL_CONTENT,
+                OverviewEngine.computeTypeMask(nodeType("jnt:text", "jnt:content", "jmix:editorialContent", "nt:base")));
+    }
+
+    @Test
+    public void unrelatedTypeHasNoFlag() {
+        assertEquals(0, OverviewEngine.computeTypeMask(nodeType("jnt:virtualsite", "nt:base")));
+    }
+
+    @Test
+    public void mixinsAddTheirFlags() throws Exception {
+        // jmix:editorialContent added at runtime to a content which does not declare it
+        Node node = node(nodeType("jmix:editorialContent"), nodeType("jmix:tagged"));
+        assertEquals(OverviewEngine.EDITORIAL_CONTENT, OverviewEngine.computeMixinTypeMask(node));
+    }
+
+    @Test
+    public void nodeWithoutMixinsHasNoMixinFlag() throws Exception {
+        assertEquals(0, OverviewEngine.computeMixinTypeMask(node()));
+    }
+
+    private static NodeType nodeType(String... names) {
+        List<String> types = Arrays.asList(names);
+        return (NodeType) Proxy.newProxyInstance(NodeType.class.getClassLoader(), new Class<?>[]{NodeType.class}, (proxy, method, args) -> {
+            if ("isNodeType".equals(method.getName())) {
+                return types.contains((String) args[0]);
+            }
+            throw new UnsupportedOperationException(method.getName());
+        });
+    }
+
+    private static Node node(NodeType... mixins) {
+        return (Node) Proxy.newProxyInstance(Node.class.getClassLoader(), new Class<?>[]{Node.class}, (proxy, method, args) -> {
+            if ("getMixinNodeTypes".equals(method.getName())) {
+                return mixins;
+            }
+            throw new UnsupportedOperationException(method.getName());
+        });
+    }
+}
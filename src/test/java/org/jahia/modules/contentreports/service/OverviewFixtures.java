@@ -0,0 +1,48 @@
+package org.jahia.modules.contentreports.service;
+/*
+ * ==========================================================================================
+ * =                            JAHIA'S ENTERPRISE DISTRIBUTION                             =
+ * ==========================================================================================
+ *
+ *                                  http://www.jahia.com
+ *
+ * JAHIA'S ENTERPRISE DISTRIBUTIONS LICENSING - IMPORTANT INFORMATION
+ * ==========================================================================================
+ *
+ *     Copyright (C) 2002-2020 Jahia Solutions Group. All rights reserved.
+ *
+ *     This file is part of a Jahia's Enterprise Distribution.
+ *
+ *     Jahia's Enterprise Distributions must be used in accordance with the terms
+ *     contained in the Jahia Solutions Group Terms &amp; Conditions as well as
+ *     the Jahia Sustainable Enterprise License (JSEL).
+ *
+ *     For questions regarding licensing, support, production usage...
+ *     please contact our team at sales@jahia.com or go to http://www.jahia.com/license.
+ *
+ * ==========================================================================================
+ */
+
+import org.json.JSONObject;
+
+/**
+ * Overview nodes and filled summaries for the accumulator tests.
+ */
+final class OverviewFixtures {
+
+    private OverviewFixtures() {
+    }
+
+    static OverviewNode node(int typeMask) {
+        OverviewNode node = new OverviewNode();
+        node.reset();
+        node.typeMask = typeMask;
+        return node;
+    }
+
+    static JSONObject fill(OverviewAccumulator accumulator) throws Exception {
+        JSONObject json = new JSONObject();
+        accumulator.fill(json);
+        return json;
+    }
+}
@@ -0,0 +1,54 @@
+package org.jahia.modules.contentreports.service;
+/*
+ * ==========================================================================================
+ * =                            JAHIA'S ENTERPRISE DISTRIBUTION                             =
+ * ==========================================================================================
+ *
+ *                                  http://www.jahia.com
+ *
+ * JAHIA'S ENTERPRISE DISTRIBUTIONS LICENSING - IMPORTANT INFORMATION
+ * ==========================================================================================
+ *
+ *     Copyright (C) 2002-2020 Jahia Solutions Group. All rights reserved.
+ *
+ *     This file is part of a Jahia's Enterprise Distribution.
+ *
+ *     Jahia's Enterprise Distributions must be used in accordance with the terms
+ *     contained in the Jahia Solutions Group Terms &amp; Conditions as well as
+ *     the Jahia Sustainable Enterprise License (JSEL).
+ *
+ *     For questions regarding licensing, support, production usage...
+ *     please contact our team at sales@jahia.com or go to http://www.jahia.com/license.
+ *
+ * ==========================================================================================
+ */
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class ReportCounterTest {
+
+    @Test
+    public void selectAllQueryIsCountedWithTheSameConstraints() {
+        assertEquals("SELECT [rep:count(item,skipChecks=0)] FROM [jnt:page] AS item WHERE ISDESCENDANTNODE(item,['/sites/mySite'])",
+                ReportCounter.toCountQuery("SELECT * FROM [jnt:page] AS item WHERE ISDESCENDANTNODE(item,['/sites/mySite'])"));
+    }
+
+    @Test
+    public void orderOfTheQueryIsDropped() {
+        assertEquals("SELECT [rep:count(content,skipChecks=0)] FROM [jmix:editorialContent] AS content WHERE content.[jcr:createdBy] = 'root'",
+                ReportCounter.toCountQuery("select * from [jmix:editorialContent] as content WHERE content.[jcr:createdBy] = 'root' order by content.[jcr:created] desc"));
+    }
+
+    @Test
+    public void joinQueryIsNotCounted() {
+        assertNull(ReportCounter.toCountQuery("SELECT * FROM [jnt:page] AS parent INNER JOIN [jnt:content] AS child ON ISCHILDNODE(child, parent)"));
+    }
+
+    @Test
+    public void projectedQueryIsNotCounted() {
+        assertNull(ReportCounter.toCountQuery("SELECT item.[jcr:title] FROM [jnt:page] AS item WHERE ISDESCENDANTNODE(item,['/sites/mySite'])"));
+    }
+}
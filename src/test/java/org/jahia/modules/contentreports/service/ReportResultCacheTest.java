@@ -0,0 +1,107 @@
+package org.jahia.modules.contentreports.service;
+/*
+ * ==========================================================================================
+ * =                            JAHIA'S ENTERPRISE DISTRIBUTION                             =
+ * ==========================================================================================
+ *
+ *                                  http://www.jahia.com
+ *
+ * JAHIA'S ENTERPRISE DISTRIBUTIONS LICENSING - IMPORTANT INFORMATION
+ * ==========================================================================================
+ *
+ *     Copyright (C) 2002-2020 Jahia Solutions Group. All rights reserved.
+ *
+ *     This file is part of a Jahia's Enterprise Distribution.
+ *
+ *     Jahia's Enterprise Distributions must be used in accordance with the terms
+ *     contained in the Jahia Solutions Group Terms &amp; Conditions as well as
+ *     the Jahia Sustainable Enterprise License (JSEL).
+ *
+ *     For questions regarding licensing, support, production usage...
+ *     please contact our team at sales@jahia.com or go to http://www.jahia.com/license.
+ *
+ * ==========================================================================================
+ */
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.Locale;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class ReportResultCacheTest {
+
+    private ReportResultCache cache;
+
+    @Before
+    public void setUp() {
+        cache = new ReportResultCache();
+        cache.activate(Collections.<String, Object>emptyMap());
+    }
+
+    @After
+    public void tearDown() {
+        cache.deactivate();
+    }
+
+    private static ReportCacheKey key(String reportId) {
+        return new ReportCacheKey(reportId, "mySite", Collections.singletonMap("pathTxt", "/sites/mySite"), Locale.ENGLISH,
+                0, "asc", 0, 10, null, "default", "/users/root");
+    }
+
+    @Test
+    public void payloadIsStoredWhenNothingChanged() {
+        long generation = cache.getGeneration();
+        cache.put(key("1"), "/sites/mySite", "payload", generation);
+        assertEquals("payload", cache.get(key("1")));
+    }
+
+    @Test
+    public void payloadIsNotStoredWhenItsScopeChangedWhileRendering() {
+        long generation = cache.getGeneration();
+        cache.invalidate(Collections.singletonList("/sites/mySite/home/news"));
+        cache.put(key("1"), "/sites/mySite", "payload", generation);
+        assertNull(cache.get(key("1")));
+    }
+
+    @Test
+    public void payloadIsNotStoredWhenAnAncestorOfItsScopeChanged() {
+        long generation = cache.getGeneration();
+        cache.invalidate(Collections.singletonList("/sites"));
+        cache.put(key("1"), "/sites/mySite", "payload", generation);
+        assertNull(cache.get(key("1")));
+    }
+
+    @Test
+    public void payloadIsStoredWhenAnotherScopeChanged() {
+        long generation = cache.getGeneration();
+        cache.invalidate(Collections.singletonList("/sites/otherSite/home"));
+        cache.invalidate(Collections.singletonList("/sites/mySiteTwo"));
+        cache.put(key("1"), "/sites/mySite", "payload", generation);
+        assertEquals("payload", cache.get(key("1")));
+    }
+
+    @Test
+    public void payloadIsNotStoredAfterTooManyChangesToTell() {
+        long generation = cache.getGeneration();
+        for (int i = 0; i < 1000; i++) {
+            cache.invalidate(Collections.singletonList("/sites/otherSite/node" + i));
+        }
+        cache.put(key("1"), "/sites/mySite", "payload", generation);
+        assertNull(cache.get(key("1")));
+    }
+
+    @Test
+    public void invalidateDropsTheEntriesOfTheChangedScope() {
+        cache.put(key("1"), "/sites/mySite", "payload", cache.getGeneration());
+        cache.put(key("2"), "/sites/otherSite", "other", cache.getGeneration());
+        cache.invalidate(Collections.singletonList("/sites/mySite/home"));
+        assertNull(cache.get(key("1")));
+        assertEquals("other", cache.get(key("2")));
+        assertEquals(1, cache.getInvalidations());
+    }
+}
@@ -0,0 +1,72 @@
+package org.jahia.modules.contentreports.service;
+/*
+ * ==========================================================================================
+ * =                            JAHIA'S ENTERPRISE DISTRIBUTION                             =
+ * ==========================================================================================
+ *
+ *                                  http://www.jahia.com
+ *
+ * JAHIA'S ENTERPRISE DISTRIBUTIONS LICENSING - IMPORTANT INFORMATION
+ * ==========================================================================================
+ *
+ *     Copyright (C) 2002-2020 Jahia Solutions Group. All rights reserved.
+ *
+ *     This file is part of a Jahia's Enterprise Distribution.
+ *
+ *     Jahia's Enterprise Distributions must be used in accordance with the terms
+ *     contained in the Jahia Solutions Group Terms &amp; Conditions as well as
+ *     the Jahia Sustainable Enterprise License (JSEL).
+ *
+ *     For questions regarding licensing, support, production usage...
+ *     please contact our team at sales@jahia.com or go to http://www.jahia.com/license.
+ *
+ * ==========================================================================================
+ */
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class StringPoolTest {
+
+    @Test
+    public void sameStringGetsTheSameId() {
+        StringPool pool = new StringPool();
+        int page = pool.getId("jnt:page");
+        int text = pool.getId("jnt:text");
+        assertEquals(0, page);
+        assertEquals(1, text);
+        assertEquals(page, pool.getId(new String("jnt:page")));
+        assertEquals(2, pool.size());
+    }
+
+    @Test
+    public void nullStringHasNoId() {
+        StringPool pool = new StringPool();
+        assertEquals(StringPool.NONE, pool.getId(null));
+        assertNull(pool.get(StringPool.NONE));
+        assertEquals(0, pool.size());
+    }
+
+    @Test
+    public void findDoesNotGiveIds() {
+        StringPool pool = new StringPool();
+        assertEquals(StringPool.NONE, pool.find("root"));
+        assertEquals(0, pool.size());
+        int id = pool.getId("root");
+        assertEquals(id, pool.find("root"));
+    }
+
+    @Test
+    public void stringsAreKeptWhenThePoolGrows() {
+        StringPool pool = new StringPool();
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(i, pool.getId("user" + i));
+        }
+        for (int i = 0; i < 1000; i++) {
+            assertEquals("user" + i, pool.get(i));
+        }
+        assertNull(pool.get(1000));
+    }
+}